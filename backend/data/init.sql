@@ -26,6 +26,9 @@ BEGIN
 END
 $$;
 
+-- Đề đã xoá mềm, chờ purge (ExamPurger); database cũ được ExamPurger thêm giá trị này khi khởi động
+ALTER TYPE exam_status ADD VALUE IF NOT EXISTS 'DELETED';
+
 -- ========================
 -- TABLE: users
 -- ========================
@@ -44,6 +47,7 @@ CREATE TABLE IF NOT EXISTS users (
 );
 
 CREATE INDEX IF NOT EXISTS idx_users_role ON users(role);
+CREATE INDEX IF NOT EXISTS idx_users_created_id ON users(created_at, id);
 
 CREATE OR REPLACE FUNCTION trg_set_timestamp()
 RETURNS TRIGGER LANGUAGE plpgsql AS $$
@@ -96,6 +100,7 @@ CREATE TABLE IF NOT EXISTS students (
 
 CREATE INDEX IF NOT EXISTS idx_students_class ON students(class_id);
 CREATE INDEX IF NOT EXISTS idx_students_department ON students(department_id);
+CREATE INDEX IF NOT EXISTS idx_students_created_id ON students(created_at, id);
 
 -- ========================
 -- TABLE: teachers
@@ -110,6 +115,7 @@ CREATE TABLE IF NOT EXISTS teachers (
 );
 
 CREATE INDEX IF NOT EXISTS idx_teachers_department ON teachers(department_id);
+CREATE INDEX IF NOT EXISTS idx_teachers_created_id ON teachers(created_at, id);
 
 -- ========================
 -- TABLE: exam_categories 
@@ -167,6 +173,7 @@ CREATE TABLE IF NOT EXISTS questions (
 );
 
 CREATE INDEX IF NOT EXISTS idx_questions_exam ON questions(exam_id);
+CREATE INDEX IF NOT EXISTS idx_questions_created_id ON questions(created_at, id);
 
 CREATE TRIGGER trg_questions_updated BEFORE UPDATE ON questions
 FOR EACH ROW EXECUTE PROCEDURE trg_set_timestamp();
@@ -201,6 +208,7 @@ CREATE TABLE IF NOT EXISTS exam_attempts (
 
 CREATE INDEX IF NOT EXISTS idx_attempts_exam ON exam_attempts(exam_id);
 CREATE INDEX IF NOT EXISTS idx_attempts_student ON exam_attempts(student_id);
+CREATE INDEX IF NOT EXISTS idx_attempts_student_exam_created ON exam_attempts(student_id, exam_id, created_at);
 
 -- ========================
 -- TABLE: exam_answers
@@ -212,12 +220,21 @@ CREATE TABLE IF NOT EXISTS exam_answers (
   selected_option_id BIGINT REFERENCES question_options(id) ON DELETE SET NULL,
   is_correct BOOLEAN,
   answer_text TEXT,
+  seq BIGINT, -- số thứ tự phía client của lần gửi hàng loạt đã ghi
+  answered_at TIMESTAMPTZ, -- lúc node nhận câu trả lời đã ghi, câu cũ hơn không ghi đè
   created_at TIMESTAMPTZ NOT NULL DEFAULT now()
 );
+ALTER TABLE exam_answers ADD COLUMN IF NOT EXISTS seq BIGINT;
+ALTER TABLE exam_answers ADD COLUMN IF NOT EXISTS answered_at TIMESTAMPTZ;
 
 CREATE INDEX IF NOT EXISTS idx_answers_attempt ON exam_answers(attempt_id);
 CREATE INDEX IF NOT EXISTS idx_answers_question_id ON exam_answers(question_id);
 
+-- Một dòng cho mỗi câu hỏi của lượt làm bài (ExamAnswerBuffer upsert); giữ dòng mới nhất của dữ liệu cũ
+DELETE FROM exam_answers a USING exam_answers b
+WHERE a.attempt_id = b.attempt_id AND a.question_id = b.question_id AND a.id < b.id;
+CREATE UNIQUE INDEX IF NOT EXISTS ux_answers_attempt_question ON exam_answers(attempt_id, question_id);
+
 -- ========================
 -- TABLE: feedbacks
 -- ========================
@@ -236,7 +253,9 @@ CREATE TABLE IF NOT EXISTS feedbacks (
 );
 
 CREATE INDEX IF NOT EXISTS idx_feedbacks_user ON feedbacks(user_id);
+CREATE INDEX IF NOT EXISTS idx_feedbacks_exam ON feedbacks(exam_id);
 CREATE INDEX IF NOT EXISTS idx_feedbacks_question ON feedbacks(question_id);
+CREATE INDEX IF NOT EXISTS idx_feedbacks_created_id ON feedbacks(created_at, id);
 
 -- Mỗi user chỉ được feedback 1 lần cho 1 câu hỏi hoặc 1 bài thi
 CREATE UNIQUE INDEX IF NOT EXISTS ux_feedback_user_question
@@ -306,4 +325,69 @@ CREATE TABLE IF NOT EXISTS media_files (
   created_at TIMESTAMPTZ NOT NULL DEFAULT now()
 );
 
-CREATE INDEX IF NOT EXISTS idx_media_related ON media_files(related_table, related_id);
\ No newline at end of file
+CREATE INDEX IF NOT EXISTS idx_media_related ON media_files(related_table, related_id);
+-- ========================
+-- TABLE: background_jobs
+-- ========================
+CREATE TABLE IF NOT EXISTS background_jobs (
+  id UUID PRIMARY KEY,
+  type VARCHAR(64) NOT NULL,
+  status VARCHAR(16) NOT NULL,
+  owner_id UUID REFERENCES users(id) ON DELETE SET NULL,
+  params TEXT,
+  input_name VARCHAR(512),
+  result_name VARCHAR(512),
+  result_type VARCHAR(128),
+  processed BIGINT NOT NULL DEFAULT 0,
+  succeeded BIGINT NOT NULL DEFAULT 0,
+  rejected BIGINT NOT NULL DEFAULT 0,
+  errors TEXT,
+  message TEXT,
+  cancel_requested BOOLEAN NOT NULL DEFAULT FALSE,
+  node_id VARCHAR(64),
+  heartbeat_at TIMESTAMPTZ,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  started_at TIMESTAMPTZ,
+  finished_at TIMESTAMPTZ,
+  updated_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+-- Database đã có bảng từ trước
+ALTER TABLE background_jobs ADD COLUMN IF NOT EXISTS node_id VARCHAR(64);
+ALTER TABLE background_jobs ADD COLUMN IF NOT EXISTS heartbeat_at TIMESTAMPTZ;
+
+CREATE INDEX IF NOT EXISTS idx_background_jobs_status_created ON background_jobs(status, created_at);
+CREATE INDEX IF NOT EXISTS idx_background_jobs_owner_created ON background_jobs(owner_id, created_at);
+
+-- Upload và kết quả của job, node nào cũng đọc được
+CREATE TABLE IF NOT EXISTS background_job_files (
+  job_id UUID PRIMARY KEY REFERENCES background_jobs(id) ON DELETE CASCADE,
+  input BYTEA,
+  result BYTEA
+);
+
+-- ========================
+-- TABLE: exam_stats / question_stats (dashboard rollups)
+-- ========================
+CREATE TABLE IF NOT EXISTS exam_stats (
+  exam_id BIGINT PRIMARY KEY REFERENCES exams(id) ON DELETE CASCADE,
+  attempts BIGINT NOT NULL DEFAULT 0,
+  submitted BIGINT NOT NULL DEFAULT 0,
+  score_sum BIGINT NOT NULL DEFAULT 0,
+  score_min INT,
+  score_max INT,
+  excellent_count BIGINT NOT NULL DEFAULT 0,
+  good_count BIGINT NOT NULL DEFAULT 0,
+  average_count BIGINT NOT NULL DEFAULT 0,
+  fail_count BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS question_stats (
+  question_id BIGINT PRIMARY KEY REFERENCES questions(id) ON DELETE CASCADE,
+  exam_id BIGINT NOT NULL REFERENCES exams(id) ON DELETE CASCADE,
+  total_answers BIGINT NOT NULL DEFAULT 0,
+  correct_count BIGINT NOT NULL DEFAULT 0,
+  wrong_count BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE INDEX IF NOT EXISTS idx_question_stats_exam ON question_stats(exam_id);
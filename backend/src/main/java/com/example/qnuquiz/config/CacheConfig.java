@@ -0,0 +1,64 @@
+package com.example.qnuquiz.config;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.example.qnuquiz.service.cluster.ClusterBus;
+import com.example.qnuquiz.service.cluster.ClusterCacheManager;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Spring caches (@Cacheable), one Caffeine spec per cache under caches.*
+ * in application yaml; caches.default applies to caches without their own.
+ *
+ * A spec with maximumWeight weighs a cached list by its number of elements,
+ * so one exam with 500 questions counts as much as 50 exams with 10.
+ *
+ * Evictions are repeated on the other backend nodes, see ClusterCacheManager.
+ */
+@Slf4j
+@Configuration
+public class CacheConfig {
+
+    public static final String QUESTIONS_OF_EXAM = "allQuestionsOfExam";
+    public static final String TEACHER_DASHBOARD = "teacherDashboard";
+
+    private static final String DEFAULT = "default";
+
+    @Bean
+    public CaffeineCacheManager cacheManager(Environment environment, ClusterBus clusterBus) {
+        Map<String, String> specs = Binder.get(environment)
+                .bind("caches", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of());
+
+        CaffeineCacheManager cacheManager = new ClusterCacheManager(clusterBus);
+        if (specs.containsKey(DEFAULT)) {
+            cacheManager.setCacheSpecification(specs.get(DEFAULT));
+        }
+        specs.forEach((name, spec) -> {
+            if (!DEFAULT.equals(name)) {
+                cacheManager.registerCustomCache(name, build(spec));
+                log.debug("Cache '{}': {}", name, spec);
+            }
+        });
+        return cacheManager;
+    }
+
+    static Cache<Object, Object> build(String spec) {
+        Caffeine<Object, Object> builder = Caffeine.from(spec);
+        if (spec.contains("maximumWeight")) {
+            builder.weigher((key, value) -> value instanceof Collection<?> list ? Math.max(1, list.size()) : 1);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.qnuquiz.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Allows at most maxConnections borrowed connections at a time; the permit
+ * is returned when the connection is closed.
+ *
+ * Time spent waiting for a permit is recorded in qnuquiz.db.connection.permit.wait
+ * (Hikari's own wait is hikaricp.connections.acquire).
+ */
+class ConnectionLimitingDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final long timeoutMs;
+    private final Timer permitWait;
+
+    ConnectionLimitingDataSource(DataSource target, int maxConnections, long timeoutMs) {
+        super(target);
+        this.permits = new Semaphore(maxConnections, true);
+        this.timeoutMs = timeoutMs;
+        // Bean post-processor chạy trước khi có MeterRegistry bean, nên dùng global registry
+        this.permitWait = Timer.builder("qnuquiz.db.connection.permit.wait")
+                .description("Time waiting for a connection permit")
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return limited(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return limited(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void acquire() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            boolean acquired = permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS);
+            permitWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (!acquired) {
+                throw new SQLTransientConnectionException(
+                        "Connection is not available, request timed out after " + timeoutMs + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection", e);
+        }
+    }
+
+    private Connection limited(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                        try {
+                            connection.close();
+                        } finally {
+                            permits.release();
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
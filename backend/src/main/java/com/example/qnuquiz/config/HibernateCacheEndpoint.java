@@ -0,0 +1,58 @@
+package com.example.qnuquiz.config;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * /actuator/hibernatecache: hit, miss and put counts of every second-level
+ * cache region (entity and query regions), from Hibernate statistics.
+ */
+@Component
+@Endpoint(id = "hibernatecache")
+public class HibernateCacheEndpoint {
+
+    public record RegionStats(long hits, long misses, long puts) {
+    }
+
+    private final Statistics statistics;
+
+    public HibernateCacheEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ReadOperation
+    public Map<String, Object> regions() {
+        Map<String, RegionStats> regions = new LinkedHashMap<>();
+        Arrays.stream(statistics.getSecondLevelCacheRegionNames()).sorted()
+                .forEach(name -> regions.put(name, region(name)));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        result.put("secondLevelCache", new RegionStats(statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(), statistics.getSecondLevelCachePutCount()));
+        result.put("queryCache", new RegionStats(statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount()));
+        result.put("regions", regions);
+        return result;
+    }
+
+    @ReadOperation
+    public RegionStats region(@Selector String region) {
+        CacheRegionStatistics stats = statistics.getCacheRegionStatistics(region);
+        if (stats == null) {
+            return null; // actuator trả 404
+        }
+        return new RegionStats(stats.getHitCount(), stats.getMissCount(), stats.getPutCount());
+    }
+}
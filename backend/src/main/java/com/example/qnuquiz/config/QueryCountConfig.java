@@ -0,0 +1,158 @@
+package com.example.qnuquiz.config;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.example.qnuquiz.util.QueryCounter;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Query counting per HTTP request (monitoring.query-count.*), meant for dev
+ * and staging.
+ *
+ * Every request runs in a {@link QueryCounter} scope. The totals are
+ * recorded per endpoint (qnuquiz.db.request.statements / .rows / .time)
+ * and, with headers: true, returned as X-Query-Count, X-Query-Rows and
+ * X-Query-Time-Ms (counted up to the moment the response is committed).
+ * A statement run n-plus-one-threshold times or more in one request is
+ * logged as a likely N+1.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "monitoring.query-count.enabled", havingValue = "true")
+public class QueryCountConfig {
+
+    public static final String COUNT_HEADER = "X-Query-Count";
+    public static final String ROWS_HEADER = "X-Query-Rows";
+    public static final String TIME_HEADER = "X-Query-Time-Ms";
+
+    @Bean
+    public static BeanPostProcessor queryCountingDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof QueryCountingDataSource)) {
+                    log.info("Counting queries on '{}'", beanName);
+                    return new QueryCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> queryCountFilter(ObjectProvider<MeterRegistry> registry,
+            @Value("${monitoring.query-count.headers:false}") boolean headers,
+            @Value("${monitoring.query-count.n-plus-one-threshold:10}") int nPlusOneThreshold) {
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(
+                new QueryCountFilter(registry.getIfAvailable(() -> Metrics.globalRegistry), headers,
+                        nPlusOneThreshold));
+        // Bọc cả filter chain của Spring Security (JwtAuthFilter cũng đọc DB)
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    private static class QueryCountFilter extends OncePerRequestFilter {
+
+        private final MeterRegistry registry;
+        private final boolean headers;
+        private final int nPlusOneThreshold;
+
+        QueryCountFilter(MeterRegistry registry, boolean headers, int nPlusOneThreshold) {
+            this.registry = registry;
+            this.headers = headers;
+            this.nPlusOneThreshold = nPlusOneThreshold;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                FilterChain filterChain) throws ServletException, IOException {
+            try (QueryCounter.Scope scope = QueryCounter.open()) {
+                QueryCounter.Stats stats = scope.stats();
+                HeaderWriter wrapper = headers ? new HeaderWriter(response, stats) : null;
+                try {
+                    filterChain.doFilter(request, wrapper != null ? wrapper : response);
+                } finally {
+                    if (wrapper != null && !response.isCommitted()) {
+                        wrapper.writeHeaders();
+                    }
+                    record(request, stats);
+                }
+            }
+        }
+
+        private void record(HttpServletRequest request, QueryCounter.Stats stats) {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            String method = request.getMethod();
+
+            DistributionSummary.builder("qnuquiz.db.request.statements")
+                    .description("SQL statements per request")
+                    .tags("method", method, "uri", uri)
+                    .register(registry)
+                    .record(stats.statements());
+            DistributionSummary.builder("qnuquiz.db.request.rows")
+                    .description("Rows fetched per request")
+                    .tags("method", method, "uri", uri)
+                    .register(registry)
+                    .record(stats.rows());
+            Timer.builder("qnuquiz.db.request.time")
+                    .description("JDBC execution time per request")
+                    .tags("method", method, "uri", uri)
+                    .register(registry)
+                    .record(stats.nanos(), TimeUnit.NANOSECONDS);
+
+            stats.repeated(nPlusOneThreshold)
+                    .forEach((sql, count) -> log.warn("Possible N+1 on {} {}: {} x {}", method, uri, count, sql));
+        }
+    }
+
+    private static class HeaderWriter extends OnCommittedResponseWrapper {
+
+        private final QueryCounter.Stats stats;
+        private boolean written;
+
+        HeaderWriter(HttpServletResponse response, QueryCounter.Stats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            writeHeaders();
+        }
+
+        void writeHeaders() {
+            if (written) {
+                return;
+            }
+            written = true;
+            setHeader(COUNT_HEADER, Integer.toString(stats.statements()));
+            setHeader(ROWS_HEADER, Long.toString(stats.rows()));
+            setHeader(TIME_HEADER, Long.toString(stats.millis()));
+        }
+    }
+}
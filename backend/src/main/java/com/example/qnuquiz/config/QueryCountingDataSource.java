@@ -0,0 +1,106 @@
+package com.example.qnuquiz.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import com.example.qnuquiz.util.QueryCounter;
+
+/**
+ * Feeds {@link QueryCounter}: statements executed, rows read from their
+ * result sets and time spent in execute*, for Hibernate and JdbcTemplate
+ * alike. Statements created while the thread has no open scope are
+ * returned unwrapped.
+ */
+class QueryCountingDataSource extends DelegatingDataSource {
+
+    QueryCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(super.getConnection(username, password));
+    }
+
+    private static Connection counting(Connection connection) {
+        return proxy(Connection.class, connection, (method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (QueryCounter.current() == null) {
+                return result;
+            }
+            return switch (method.getName()) {
+                case "prepareStatement" ->
+                        statement(PreparedStatement.class, (Statement) result, (String) args[0]);
+                case "prepareCall" -> statement(CallableStatement.class, (Statement) result, (String) args[0]);
+                case "createStatement" -> statement(Statement.class, (Statement) result, null);
+                default -> result;
+            };
+        });
+    }
+
+    private static <S extends Statement> S statement(Class<S> type, Statement statement, String preparedSql) {
+        return proxy(type, statement, (method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                long start = System.nanoTime();
+                Object result = invoke(statement, method, args);
+                QueryCounter.Stats stats = QueryCounter.current();
+                if (stats != null) {
+                    // Statement thường: câu SQL là tham số đầu tiên của execute*
+                    String sql = preparedSql != null ? preparedSql
+                            : args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                    stats.statement(sql, System.nanoTime() - start);
+                }
+                return result instanceof ResultSet resultSet ? resultSet(resultSet) : result;
+            }
+            Object result = invoke(statement, method, args);
+            return "getResultSet".equals(name) && result instanceof ResultSet resultSet ? resultSet(resultSet) : result;
+        });
+    }
+
+    private static ResultSet resultSet(ResultSet resultSet) {
+        return proxy(ResultSet.class, resultSet, (method, args) -> {
+            Object result = invoke(resultSet, method, args);
+            if (Boolean.TRUE.equals(result) && "next".equals(method.getName())) {
+                QueryCounter.Stats stats = QueryCounter.current();
+                if (stats != null) {
+                    stats.row();
+                }
+            }
+            return result;
+        });
+    }
+
+    private interface Handler {
+        Object handle(Method method, Object[] args) throws Throwable;
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> handler.handle(method, args)));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.qnuquiz.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Active when spring.threads.virtual.enabled=true (env VIRTUAL_THREADS).
+ *
+ * Boot then serves Tomcat requests, @Async tasks and @Scheduled methods on
+ * virtual threads. Thousands of requests can be in flight at once while the
+ * database still only has maximum-pool-size connections, so the DataSource is
+ * wrapped in a {@link ConnectionLimitingDataSource}: callers over the limit
+ * park on a fair semaphore instead of piling up inside the pool.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionLimiter(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maxConnections,
+            @Value("${spring.datasource.hikari.connection-timeout:30000}") long timeoutMs) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionLimitingDataSource)) {
+                    log.info("Virtual threads enabled, limiting '{}' to {} concurrent connections", beanName,
+                            maxConnections);
+                    return new ConnectionLimitingDataSource(dataSource, maxConnections, timeoutMs);
+                }
+                return bean;
+            }
+        };
+    }
+}
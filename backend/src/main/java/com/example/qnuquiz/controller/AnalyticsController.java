@@ -2,16 +2,21 @@ package com.example.qnuquiz.controller;
 
 import com.example.qnuquiz.dto.analytics.*;
 import com.example.qnuquiz.service.AnalyticsService;
+import com.example.qnuquiz.service.export.ExamExporter;
+import com.example.qnuquiz.service.export.ExportFormat;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -22,23 +27,43 @@ import java.util.List;
 public class AnalyticsController {
 
     private final AnalyticsService analyticsService;
+    private final ExamExporter examExporter;
 
     @GetMapping("/ranking")
     @PreAuthorize("hasAnyRole('STUDENT')")
-    public List<RankingDto> rankingAll() {
-        return analyticsService.rankingAll();
+    public List<RankingDto> rankingAll(@RequestParam(defaultValue = "100") int limit) {
+        return analyticsService.rankingAll(limit);
     }
 
     @GetMapping("/ranking/week")
     @PreAuthorize("hasAnyRole('STUDENT')")
-    public List<RankingDto> rankingThisWeek() {
-        return analyticsService.rankingAllThisWeek();
+    public List<RankingDto> rankingThisWeek(@RequestParam(defaultValue = "100") int limit) {
+        return analyticsService.rankingAllThisWeek(limit);
     }
 
     @GetMapping("/ranking/{examId}")
     @PreAuthorize("hasAnyRole('STUDENT')")
-    public List<RankingDto> rankingByExamId(@PathVariable Long examId) {
-        return analyticsService.rankingByExamId(examId);
+    public List<RankingDto> rankingByExamId(@PathVariable Long examId,
+            @RequestParam(defaultValue = "100") int limit) {
+        return analyticsService.rankingByExamId(examId, limit);
+    }
+
+    @GetMapping("/ranking/me")
+    @PreAuthorize("hasAnyRole('STUDENT')")
+    public MyRankDto myRank() {
+        return analyticsService.myRank();
+    }
+
+    @GetMapping("/ranking/week/me")
+    @PreAuthorize("hasAnyRole('STUDENT')")
+    public MyRankDto myRankThisWeek() {
+        return analyticsService.myRankThisWeek();
+    }
+
+    @GetMapping("/ranking/{examId}/me")
+    @PreAuthorize("hasAnyRole('STUDENT')")
+    public MyRankDto myRankByExamId(@PathVariable Long examId) {
+        return analyticsService.myRankByExamId(examId);
     }
 
     @GetMapping("/teacher/{teacherId}/exams")
@@ -71,6 +96,37 @@ public class AnalyticsController {
         return analyticsService.getQuestionAnalytics(examId);
     }
 
+    @GetMapping("/exam/{examId}/attempts/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<StreamingResponseBody> exportStudentAttempts(@PathVariable Long examId,
+            @RequestParam(defaultValue = "csv") String format) {
+        return streamExport(ExamExporter.Report.ATTEMPTS, examId, format);
+    }
+
+    @GetMapping("/exam/{examId}/question-analytics/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<StreamingResponseBody> exportQuestionAnalytics(@PathVariable Long examId,
+            @RequestParam(defaultValue = "csv") String format) {
+        return streamExport(ExamExporter.Report.QUESTIONS, examId, format);
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamExport(ExamExporter.Report report, Long examId,
+            String format) {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        examExporter.checkExam(examId);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(exportFormat.contentType()));
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename(examExporter.fileName(report, examId, exportFormat))
+                .build());
+        // Sinh trực tiếp từ DB nên không biết trước độ dài; tải tiếp (Range) qua job EXAM_EXPORT
+        headers.set(HttpHeaders.ACCEPT_RANGES, "none");
+        StreamingResponseBody body = out -> examExporter.export(report, examId, exportFormat, out);
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(body);
+    }
+
     @GetMapping("/admin/users")
     @PreAuthorize("hasRole('ADMIN')")
     public UserAnalyticsDto getUserAnalytics() {
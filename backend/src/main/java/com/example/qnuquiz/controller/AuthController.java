@@ -48,7 +48,7 @@ public class AuthController {
         Users user = userService.findByUsername(request.getUsername()).orElseThrow(
                 () -> new BadCredentialsException("Invalid username or password"));
 
-        String token = jwtUtil.generateToken(user.getUsername());
+        String token = jwtUtil.generateToken(user);
 
         Map<String, Object> responseBody = Map.of(
                 "token", token,
@@ -16,11 +16,15 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.qnuquiz.dto.exam.AnswerItemDto;
+import com.example.qnuquiz.dto.exam.BulkAnswerResultDto;
 import com.example.qnuquiz.dto.exam.ExamAttemptDto;
 import com.example.qnuquiz.dto.exam.ExamCategoryDto;
 import com.example.qnuquiz.dto.exam.ExamDto;
 import com.example.qnuquiz.dto.exam.ExamResultDto;
 import com.example.qnuquiz.dto.exam.ExamReviewDTO;
+import com.example.qnuquiz.dto.page.CursorPage;
+import com.example.qnuquiz.dto.page.CursorRequest;
 import com.example.qnuquiz.dto.questions.QuestionDTO;
 import com.example.qnuquiz.service.ExamService;
 
@@ -82,6 +86,13 @@ public class ExamController {
 		examService.submitAnswer(attemptId, questionId, optionId);
 	}
 
+	// gửi nhiều câu trả lời cùng lúc (idempotent theo seq)
+	@PostMapping("/{attemptId}/answers")
+	public ResponseEntity<BulkAnswerResultDto> submitAnswers(@PathVariable Long attemptId,
+			@RequestBody List<AnswerItemDto> items) {
+		return ResponseEntity.ok(examService.submitAnswers(attemptId, items));
+	}
+
 	@PostMapping("/{attemptId}/finish")
 	public ResponseEntity<ExamResultDto> finishExam(@PathVariable Long attemptId) {
 		return ResponseEntity.ok(examService.finishExam(attemptId));
@@ -118,8 +129,8 @@ public class ExamController {
 	}
 
 	@GetMapping("/getAll")
-	public ResponseEntity<List<ExamDto>> getAllExams() {
-		return ResponseEntity.ok(examService.getAllExams());
+	public ResponseEntity<CursorPage<ExamDto>> getAllExams(CursorRequest page) {
+		return ResponseEntity.ok(examService.getAllExams(page));
 	}
 
 }
@@ -19,6 +19,8 @@ import com.example.qnuquiz.dto.feedback.FeedbackDto;
 import com.example.qnuquiz.dto.feedback.FeedbackTemplateDto;
 import com.example.qnuquiz.dto.feedback.TeacherReplyRequest;
 import com.example.qnuquiz.dto.feedback.UpdateFeedbackRequest;
+import com.example.qnuquiz.dto.page.CursorPage;
+import com.example.qnuquiz.dto.page.CursorRequest;
 import com.example.qnuquiz.service.FeedbackService;
 
 import jakarta.validation.Valid;
@@ -33,8 +35,11 @@ public class FeedbackController {
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN')")
-    public ResponseEntity<List<FeedbackDto>> getAllFeedbacks() {
-        return ResponseEntity.ok(feedbackService.getAllFeedbacks());
+    public ResponseEntity<CursorPage<FeedbackDto>> getAllFeedbacks(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long examId,
+            CursorRequest page) {
+        return ResponseEntity.ok(feedbackService.getAllFeedbacks(status, examId, page));
     }
 
     @GetMapping("/my-feedbacks")
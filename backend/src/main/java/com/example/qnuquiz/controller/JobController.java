@@ -0,0 +1,71 @@
+package com.example.qnuquiz.controller;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.qnuquiz.dto.job.JobDto;
+import com.example.qnuquiz.dto.job.JobRequest;
+import com.example.qnuquiz.service.JobService;
+import com.example.qnuquiz.service.job.JobResult;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/jobs")
+public class JobController {
+
+    private final JobService jobService;
+
+    @PostMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<JobDto> submit(@RequestBody JobRequest request) throws IOException {
+        // Trả về ngay, client theo dõi qua GET /api/jobs/{jobId}
+        return ResponseEntity.accepted().body(jobService.submit(request));
+    }
+
+    @GetMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<List<JobDto>> getMyJobs() {
+        return ResponseEntity.ok(jobService.getMyJobs());
+    }
+
+    @GetMapping("/{jobId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<JobDto> getJob(@PathVariable("jobId") String jobId) {
+        return ResponseEntity.ok(jobService.getJob(jobId));
+    }
+
+    @PostMapping("/{jobId}/cancel")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<JobDto> cancel(@PathVariable("jobId") String jobId) {
+        return ResponseEntity.ok(jobService.cancel(jobId));
+    }
+
+    @GetMapping("/{jobId}/result")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<Resource> downloadResult(@PathVariable("jobId") String jobId) throws IOException {
+        JobResult result = jobService.getResult(jobId);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(result.contentType() != null ? MediaType.parseMediaType(result.contentType())
+                : MediaType.APPLICATION_OCTET_STREAM);
+        headers.setContentDisposition(ContentDisposition.attachment().filename(result.fileName()).build());
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(new FileSystemResource(result.file()));
+    }
+}
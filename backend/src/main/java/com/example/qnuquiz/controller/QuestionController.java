@@ -16,6 +16,9 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.example.qnuquiz.dto.job.JobDto;
+import com.example.qnuquiz.dto.page.CursorPage;
+import com.example.qnuquiz.dto.page.CursorRequest;
 import com.example.qnuquiz.dto.questions.IdsRequest;
 import com.example.qnuquiz.dto.questions.QuestionDTO;
 import com.example.qnuquiz.security.SecurityUtils;
@@ -36,10 +39,9 @@ public class QuestionController {
             @RequestParam("file") MultipartFile file,
             @RequestParam("examId") Long examId) {
         try {
-            questionService.importQuestionsFromExcel(file, SecurityUtils.getCurrentUserId(), examId);
-            return ResponseEntity.ok(Map.of(
-                    "success", true,
-                    "message", "Data import successfully!"));
+            // Trả về ngay, file được xử lý nền
+            return ResponseEntity.accepted()
+                    .body(questionService.importQuestionsFromExcel(file, SecurityUtils.getCurrentUserId(), examId));
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.internalServerError().body(Map.of(
@@ -48,6 +50,12 @@ public class QuestionController {
         }
     }
 
+    @GetMapping("/import/{jobId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<JobDto> getImportJob(@PathVariable("jobId") String jobId) {
+        return ResponseEntity.ok(questionService.getImportJob(jobId));
+    }
+
     @GetMapping("/exam/{examId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
     public ResponseEntity<List<QuestionDTO>> getAllQuestionsInExam(@PathVariable("examId") Long examId) {
@@ -56,8 +64,12 @@ public class QuestionController {
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
-    public ResponseEntity<List<QuestionDTO>> getAllQuestions() {
-        return ResponseEntity.ok(questionService.getAllQuestions());
+    public ResponseEntity<CursorPage<QuestionDTO>> getAllQuestions(
+            @RequestParam(required = false) Long examId,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String keyword,
+            CursorRequest page) {
+        return ResponseEntity.ok(questionService.getAllQuestions(examId, type, keyword, page));
     }
 
     @DeleteMapping
@@ -7,6 +7,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -16,6 +17,10 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.example.qnuquiz.dto.announcement.AnnouncementDto;
+import com.example.qnuquiz.dto.job.JobDto;
+import com.example.qnuquiz.dto.page.CursorPage;
+import com.example.qnuquiz.dto.page.CursorRequest;
+import com.example.qnuquiz.dto.student.ExamAnswerHistoryDto;
 import com.example.qnuquiz.dto.student.ExamHistoryDto;
 import com.example.qnuquiz.dto.student.StudentDto;
 import com.example.qnuquiz.dto.user.ChangePasswordRequest;
@@ -32,8 +37,12 @@ public class StudentController {
     private final StudentService studentService;
 
     @GetMapping
-    public ResponseEntity<List<StudentDto>> getAllStudents() {
-        return ResponseEntity.ok(studentService.getAllStudents());
+    public ResponseEntity<CursorPage<StudentDto>> getAllStudents(
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) Long classId,
+            @RequestParam(required = false) String keyword,
+            CursorRequest page) {
+        return ResponseEntity.ok(studentService.getAllStudents(departmentId, classId, keyword, page));
     }
 
     @PutMapping("/me/profile")
@@ -53,8 +62,16 @@ public class StudentController {
 
     @GetMapping("/me/exam-history")
     @PreAuthorize("hasRole('STUDENT')")
-    public ResponseEntity<List<ExamHistoryDto>> getExamHistory() {
-        return ResponseEntity.ok(studentService.getExamHistory());
+    public ResponseEntity<CursorPage<ExamHistoryDto>> getExamHistory(
+            @RequestParam(defaultValue = "false") boolean includeAnswers,
+            CursorRequest page) {
+        return ResponseEntity.ok(studentService.getExamHistory(page, includeAnswers));
+    }
+
+    @GetMapping("/me/exam-history/{attemptId}/answers")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<List<ExamAnswerHistoryDto>> getExamHistoryAnswers(@PathVariable("attemptId") Long attemptId) {
+        return ResponseEntity.ok(studentService.getExamHistoryAnswers(attemptId));
     }
 
     @GetMapping("/me/announcements")
@@ -65,13 +82,19 @@ public class StudentController {
 
     @PostMapping("/import")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<String> importStudents(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<Object> importStudents(@RequestParam("file") MultipartFile file) {
         try {
-            studentService.importStudentsFromExcel(file);
-            return ResponseEntity.ok("Import danh sách sinh viên thành công");
+            // Trả về ngay, file được xử lý nền
+            return ResponseEntity.accepted().body(studentService.importStudentsFromExcel(file));
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                     .body("Lỗi khi import danh sách sinh viên: " + e.getMessage());
         }
     }
+
+    @GetMapping("/import/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<JobDto> getImportJob(@PathVariable("jobId") String jobId) {
+        return ResponseEntity.ok(studentService.getImportJob(jobId));
+    }
 }
@@ -1,6 +1,5 @@
 package com.example.qnuquiz.controller;
 
-import java.util.List;
 import java.util.Map;
 
 import org.springframework.http.ResponseEntity;
@@ -10,8 +9,11 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.qnuquiz.dto.page.CursorPage;
+import com.example.qnuquiz.dto.page.CursorRequest;
 import com.example.qnuquiz.dto.teacher.TeacherDto;
 import com.example.qnuquiz.dto.teacher.TeacherNotificationDto;
 import com.example.qnuquiz.dto.teacher.TeacherStatsDTO;
@@ -29,8 +31,11 @@ public class TeacherController {
     private final TeacherService teacherService;
 
     @GetMapping
-    public ResponseEntity<List<TeacherDto>> getAllTeachers() {
-        return ResponseEntity.ok(teacherService.getAllTeachers());
+    public ResponseEntity<CursorPage<TeacherDto>> getAllTeachers(
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) String keyword,
+            CursorRequest page) {
+        return ResponseEntity.ok(teacherService.getAllTeachers(departmentId, keyword, page));
     }
 
     @GetMapping("/me/notifications")
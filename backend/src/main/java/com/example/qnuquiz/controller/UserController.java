@@ -1,5 +1,7 @@
 package com.example.qnuquiz.controller;
 
+import com.example.qnuquiz.dto.page.CursorPage;
+import com.example.qnuquiz.dto.page.CursorRequest;
 import com.example.qnuquiz.dto.user.ChangePasswordRequest;
 import com.example.qnuquiz.dto.user.UserDto;
 import com.example.qnuquiz.service.UserService;
@@ -10,7 +12,6 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -23,8 +24,12 @@ public class UserController {
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN')")
-    public ResponseEntity<List<UserDto>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<CursorPage<UserDto>> getAllUsers(
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String keyword,
+            CursorRequest page) {
+        return ResponseEntity.ok(userService.getAllUsers(role, status, keyword, page));
     }
 
     @PostMapping
@@ -0,0 +1,17 @@
+package com.example.qnuquiz.dto.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MyRankDto {
+
+    private Integer rank; // null nếu sinh viên chưa có điểm trong bảng này
+    private Long score;
+    private int totalRanked;
+}
@@ -15,4 +15,5 @@ public class RankingDto {
     private Long score;
     private String fullName;
     private String avatarUrl;
+    private Integer rank;
 }
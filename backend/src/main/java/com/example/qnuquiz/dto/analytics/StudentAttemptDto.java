@@ -1,6 +1,9 @@
 package com.example.qnuquiz.dto.analytics;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -21,4 +24,15 @@ public class StudentAttemptDto {
     private Double durationMinutes;
     private Double score;
     private Boolean submitted;
+
+    // Số phút, làm tròn 2 chữ số; null khi bài chưa nộp
+    public static Double durationMinutes(LocalDateTime startTime, LocalDateTime endTime) {
+        if (startTime == null || endTime == null) {
+            return null;
+        }
+        long micros = ChronoUnit.MICROS.between(startTime, endTime);
+        return BigDecimal.valueOf(micros)
+                .divide(BigDecimal.valueOf(60_000_000L), 2, RoundingMode.HALF_UP)
+                .doubleValue();
+    }
 }
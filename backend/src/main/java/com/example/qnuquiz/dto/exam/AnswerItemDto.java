@@ -0,0 +1,18 @@
+package com.example.qnuquiz.dto.exam;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnswerItemDto { // một câu trả lời trong lần gửi hàng loạt
+
+    private Long seq; // số thứ tự phía client, tăng dần theo từng câu hỏi
+    private Long questionId;
+    private Long optionId; // trắc nghiệm
+    private String answerText; // tự luận
+}
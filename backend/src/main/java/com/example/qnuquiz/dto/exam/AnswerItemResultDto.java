@@ -0,0 +1,22 @@
+package com.example.qnuquiz.dto.exam;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnswerItemResultDto {
+
+    public static final String ACCEPTED = "ACCEPTED";
+    public static final String DUPLICATE = "DUPLICATE"; // seq cũ hơn hoặc đã nhận (gửi lại)
+    public static final String REJECTED = "REJECTED";
+
+    private Long seq;
+    private Long questionId;
+    private String status;
+    private String message;
+}
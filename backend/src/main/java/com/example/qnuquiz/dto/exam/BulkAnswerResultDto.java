@@ -0,0 +1,21 @@
+package com.example.qnuquiz.dto.exam;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkAnswerResultDto {
+
+    private long attemptId;
+    private int accepted;
+    private int duplicates;
+    private int rejected;
+    private List<AnswerItemResultDto> items;
+}
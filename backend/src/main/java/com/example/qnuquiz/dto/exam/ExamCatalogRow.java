@@ -0,0 +1,34 @@
+package com.example.qnuquiz.dto.exam;
+
+import java.sql.Timestamp;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Một dòng danh sách đề thi kèm cờ attempt của sinh viên hiện tại (projection JPQL)
+@Data
+@AllArgsConstructor
+public class ExamCatalogRow {
+
+    private long id;
+    private String title;
+    private String description;
+    private Timestamp startTime;
+    private Timestamp endTime;
+    private boolean random;
+    private Integer durationMinutes;
+    private Long categoryId;
+    private String status; // DRAFT | ACTIVE | CLOSED, tính trong SQL
+    private Long attemptCount;
+    private Timestamp latestAttemptAt;
+    private Timestamp latestOpenAttemptAt;
+
+    public boolean hasAttempt() {
+        return attemptCount != null && attemptCount > 0;
+    }
+
+    // Attempt mới nhất chưa nộp <=> attempt chưa nộp mới nhất chính là attempt mới nhất
+    public boolean hasUnfinishedAttempt() {
+        return latestOpenAttemptAt != null && latestOpenAttemptAt.equals(latestAttemptAt);
+    }
+}
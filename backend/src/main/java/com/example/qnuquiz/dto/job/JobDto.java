@@ -0,0 +1,36 @@
+package com.example.qnuquiz.dto.job;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobDto {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+    public static final String CANCELLED = "CANCELLED";
+
+    private String jobId;
+    private String type; // QUESTION_IMPORT, STUDENT_IMPORT, ANALYTICS_EXPORT, EXAM_DELETE
+    private String status;
+    private long processed;
+    private long succeeded;
+    private long rejected;
+    private List<JobErrorDto> errors; // tối đa JobContext.MAX_ERRORS mục
+    private String message;
+    private String resultName; // có giá trị khi job tạo ra file để tải về
+    private boolean cancelRequested;
+    private Timestamp createdAt;
+    private Timestamp startedAt;
+    private Timestamp finishedAt;
+}
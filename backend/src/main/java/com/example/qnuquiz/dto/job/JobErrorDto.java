@@ -0,0 +1,14 @@
+package com.example.qnuquiz.dto.job;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobErrorDto {
+
+    private long item; // import: số dòng trong file Excel, bắt đầu từ 1
+    private String message;
+}
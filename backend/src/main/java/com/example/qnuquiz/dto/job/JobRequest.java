@@ -0,0 +1,16 @@
+package com.example.qnuquiz.dto.job;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobRequest {
+
+    private String type;
+    private Map<String, String> params;
+}
@@ -0,0 +1,19 @@
+package com.example.qnuquiz.dto.page;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> items;
+    private String nextCursor; // null khi đã hết dữ liệu
+    private boolean hasMore;
+}
@@ -0,0 +1,17 @@
+package com.example.qnuquiz.dto.page;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorRequest { // tham số phân trang keyset lấy từ query string
+
+    private String cursor; // nextCursor của trang trước, bỏ trống để lấy trang đầu
+    private Integer size;
+    private String sort; // "field" hoặc "field,desc", field phải nằm trong allow-list của endpoint
+}
@@ -1,5 +1,7 @@
 package com.example.qnuquiz.dto.questions;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -14,5 +16,7 @@ public class QuestionOptionDto {
     private long id;
     private String content;
     private Integer position;
-    private boolean correct;
+    // null khi gửi cho sinh viên làm bài (không lộ đáp án)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean correct;
 }
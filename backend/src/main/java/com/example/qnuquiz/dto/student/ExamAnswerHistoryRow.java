@@ -0,0 +1,18 @@
+package com.example.qnuquiz.dto.student;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Một câu trả lời kèm câu hỏi và đáp án đã chọn, cho lịch sử làm bài (projection JPQL)
+@Data
+@AllArgsConstructor
+public class ExamAnswerHistoryRow {
+
+    private long attemptId;
+    private Long questionId;
+    private String questionContent;
+    private Boolean isCorrect;
+    private String answerText;
+    private Long selectedOptionId;
+    private String selectedOptionContent;
+}
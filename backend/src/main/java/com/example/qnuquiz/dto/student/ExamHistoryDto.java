@@ -4,6 +4,7 @@ import java.sql.Timestamp;
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -29,5 +30,7 @@ public class ExamHistoryDto {
     
     private Long durationMinutes;
     private Integer examDurationMinutes; // Tổng thời gian của bài thi
+
+    @JsonInclude(JsonInclude.Include.NON_NULL) // null khi không tải kèm câu trả lời
     private List<ExamAnswerHistoryDto> answers;
 }
@@ -0,0 +1,21 @@
+package com.example.qnuquiz.dto.student;
+
+import java.sql.Timestamp;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Một lần làm bài kèm thông tin đề, cho lịch sử làm bài (projection JPQL)
+@Data
+@AllArgsConstructor
+public class ExamHistoryRow {
+
+    private long attemptId;
+    private long examId;
+    private String examTitle;
+    private String examDescription;
+    private Integer score;
+    private Timestamp startTime;
+    private Timestamp endTime;
+    private Integer examDurationMinutes;
+}
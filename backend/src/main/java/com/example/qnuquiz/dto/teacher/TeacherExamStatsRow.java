@@ -0,0 +1,18 @@
+package com.example.qnuquiz.dto.teacher;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Thống kê một đề thi của giáo viên (projection JPQL, một dòng mỗi đề)
+@Data
+@AllArgsConstructor
+public class TeacherExamStatsRow {
+
+    private long examId;
+    private Long questionCount;
+    private Long attemptCount;
+    private Long scoreSum; // null khi chưa có attempt nào có điểm
+    private Long scoredCount;
+    private Long feedbackCount; // feedback trên các câu hỏi của đề
+    private Long studentCount; // số sinh viên khác nhau trên tất cả đề của giáo viên, giống nhau ở mọi dòng
+}
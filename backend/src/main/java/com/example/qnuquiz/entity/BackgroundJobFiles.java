@@ -0,0 +1,53 @@
+package com.example.qnuquiz.entity;
+
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Upload and result file of a background job, kept in the database so any
+ * node can run the job and serve its result. Read and written with JDBC
+ * streams by JobFileStore; mapped here for the schema only.
+ */
+@Entity
+@Table(name = "background_job_files")
+public class BackgroundJobFiles implements java.io.Serializable {
+
+    private UUID jobId;
+    private byte[] input;
+    private byte[] result;
+
+    public BackgroundJobFiles() {
+    }
+
+    @Id
+    @Column(name = "job_id", unique = true, nullable = false)
+    public UUID getJobId() {
+        return this.jobId;
+    }
+
+    public void setJobId(UUID jobId) {
+        this.jobId = jobId;
+    }
+
+    @Column(name = "input", columnDefinition = "bytea")
+    public byte[] getInput() {
+        return this.input;
+    }
+
+    public void setInput(byte[] input) {
+        this.input = input;
+    }
+
+    @Column(name = "result", columnDefinition = "bytea")
+    public byte[] getResult() {
+        return this.result;
+    }
+
+    public void setResult(byte[] result) {
+        this.result = result;
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.qnuquiz.entity;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+
+/**
+ * A long-running operation (import, export, exam deletion) queued for the
+ * background job runner. The row is the source of truth for the job state,
+ * so queued jobs survive a restart.
+ */
+@Entity
+@Table(name = "background_jobs")
+public class BackgroundJobs implements java.io.Serializable {
+
+    private UUID id;
+    private String type;
+    private String status;
+    private UUID ownerId;
+    private String params;
+    private String inputName;
+    private String resultName;
+    private String resultType;
+    private long processed;
+    private long succeeded;
+    private long rejected;
+    private String errors;
+    private String message;
+    private boolean cancelRequested;
+    private String nodeId;
+    private Timestamp heartbeatAt;
+    private Timestamp createdAt;
+    private Timestamp startedAt;
+    private Timestamp finishedAt;
+    private Timestamp updatedAt;
+
+    public BackgroundJobs() {
+    }
+
+    public BackgroundJobs(UUID id, String type, String status, UUID ownerId, String params, Timestamp createdAt) {
+        this.id = id;
+        this.type = type;
+        this.status = status;
+        this.ownerId = ownerId;
+        this.params = params;
+        this.createdAt = createdAt;
+        this.updatedAt = createdAt;
+    }
+
+    @Id
+    @Column(name = "id", unique = true, nullable = false)
+    public UUID getId() {
+        return this.id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    @Column(name = "type", nullable = false, length = 64)
+    public String getType() {
+        return this.type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    @Column(name = "status", nullable = false, length = 16)
+    public String getStatus() {
+        return this.status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    @Column(name = "owner_id")
+    public UUID getOwnerId() {
+        return this.ownerId;
+    }
+
+    public void setOwnerId(UUID ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    @Column(name = "params", columnDefinition = "text")
+    public String getParams() {
+        return this.params;
+    }
+
+    public void setParams(String params) {
+        this.params = params;
+    }
+
+    @Column(name = "input_name", length = 512)
+    public String getInputName() {
+        return this.inputName;
+    }
+
+    public void setInputName(String inputName) {
+        this.inputName = inputName;
+    }
+
+    @Column(name = "result_name", length = 512)
+    public String getResultName() {
+        return this.resultName;
+    }
+
+    public void setResultName(String resultName) {
+        this.resultName = resultName;
+    }
+
+    @Column(name = "result_type", length = 128)
+    public String getResultType() {
+        return this.resultType;
+    }
+
+    public void setResultType(String resultType) {
+        this.resultType = resultType;
+    }
+
+    @Column(name = "processed", nullable = false)
+    public long getProcessed() {
+        return this.processed;
+    }
+
+    public void setProcessed(long processed) {
+        this.processed = processed;
+    }
+
+    @Column(name = "succeeded", nullable = false)
+    public long getSucceeded() {
+        return this.succeeded;
+    }
+
+    public void setSucceeded(long succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    @Column(name = "rejected", nullable = false)
+    public long getRejected() {
+        return this.rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    @Column(name = "errors", columnDefinition = "text")
+    public String getErrors() {
+        return this.errors;
+    }
+
+    public void setErrors(String errors) {
+        this.errors = errors;
+    }
+
+    @Column(name = "message", columnDefinition = "text")
+    public String getMessage() {
+        return this.message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    @Column(name = "cancel_requested", nullable = false)
+    public boolean isCancelRequested() {
+        return this.cancelRequested;
+    }
+
+    public void setCancelRequested(boolean cancelRequested) {
+        this.cancelRequested = cancelRequested;
+    }
+
+    /**
+     * Node running the job, set when it is claimed.
+     */
+    @Column(name = "node_id", length = 64)
+    public String getNodeId() {
+        return this.nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * Last time the running node reported the job alive.
+     */
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "heartbeat_at", length = 35)
+    public Timestamp getHeartbeatAt() {
+        return this.heartbeatAt;
+    }
+
+    public void setHeartbeatAt(Timestamp heartbeatAt) {
+        this.heartbeatAt = heartbeatAt;
+    }
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "created_at", nullable = false, length = 35)
+    public Timestamp getCreatedAt() {
+        return this.createdAt;
+    }
+
+    public void setCreatedAt(Timestamp createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "started_at", length = 35)
+    public Timestamp getStartedAt() {
+        return this.startedAt;
+    }
+
+    public void setStartedAt(Timestamp startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "finished_at", length = 35)
+    public Timestamp getFinishedAt() {
+        return this.finishedAt;
+    }
+
+    public void setFinishedAt(Timestamp finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "updated_at", nullable = false, length = 35)
+    public Timestamp getUpdatedAt() {
+        return this.updatedAt;
+    }
+
+    public void setUpdatedAt(Timestamp updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+}
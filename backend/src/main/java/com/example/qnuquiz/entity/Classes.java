@@ -6,6 +6,7 @@ import java.util.Set;
 
 // Generated Nov 25, 2025, 4:34:35 PM by Hibernate Tools 7.1.3.Final
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -20,10 +21,15 @@ import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
 import jakarta.persistence.UniqueConstraint;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 /**
  * Classes generated by hbm2java
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "classes")
 @Table(name = "classes", uniqueConstraints = @UniqueConstraint(columnNames = { "name", "department_id" }))
 public class Classes implements java.io.Serializable {
 
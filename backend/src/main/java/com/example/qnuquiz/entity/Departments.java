@@ -6,6 +6,7 @@ import java.util.Set;
 
 // Generated Nov 25, 2025, 4:34:35 PM by Hibernate Tools 7.1.3.Final
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -18,10 +19,15 @@ import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
 import jakarta.persistence.UniqueConstraint;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 /**
  * Departments generated by hbm2java
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "departments")
 @Table(name = "departments", uniqueConstraints = @UniqueConstraint(columnNames = "name"))
 public class Departments implements java.io.Serializable {
 
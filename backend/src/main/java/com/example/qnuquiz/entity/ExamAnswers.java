@@ -22,12 +22,13 @@ import jakarta.persistence.SqlResultSetMappings;
 import jakarta.persistence.Table;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
+import jakarta.persistence.UniqueConstraint;
 
 /**
  * ExamAnswers generated by hbm2java
  */
 @Entity
-@Table(name = "exam_answers")
+@Table(name = "exam_answers", uniqueConstraints = @UniqueConstraint(columnNames = { "attempt_id", "question_id" }))
 @SqlResultSetMappings({
         @SqlResultSetMapping(name = "QuestionAnalyticsDtoMapping", classes = @ConstructorResult(targetClass = QuestionAnalyticsDto.class, columns = {
                 @ColumnResult(name = "question_content", type = String.class),
@@ -45,6 +46,8 @@ public class ExamAnswers implements java.io.Serializable {
     private Questions questions;
     private Boolean isCorrect;
     private String answerText;
+    private Long seq;
+    private Timestamp answeredAt;
     private Timestamp createdAt;
 
     public ExamAnswers() {
@@ -127,6 +130,25 @@ public class ExamAnswers implements java.io.Serializable {
         this.answerText = answerText;
     }
 
+    @Column(name = "seq")
+    public Long getSeq() {
+        return this.seq;
+    }
+
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "answered_at", length = 35)
+    public Timestamp getAnsweredAt() {
+        return this.answeredAt;
+    }
+
+    public void setAnsweredAt(Timestamp answeredAt) {
+        this.answeredAt = answeredAt;
+    }
+
     @Temporal(TemporalType.TIMESTAMP)
     @Column(name = "created_at", nullable = false, length = 35)
     public Timestamp getCreatedAt() {
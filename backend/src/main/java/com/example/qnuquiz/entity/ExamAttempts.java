@@ -20,6 +20,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
@@ -33,7 +34,7 @@ import jakarta.persistence.TemporalType;
  * ExamAttempts generated by hbm2java
  */
 @Entity
-@Table(name = "exam_attempts")
+@Table(name = "exam_attempts", indexes = @Index(name = "idx_attempts_student_exam_created", columnList = "student_id, exam_id, created_at"))
 @SqlResultSetMappings({
         @SqlResultSetMapping(name = "StudentAttemptDtoMapping", classes = @ConstructorResult(targetClass = StudentAttemptDto.class, columns = {
                 @ColumnResult(name = "student_code", type = String.class),
@@ -0,0 +1,122 @@
+package com.example.qnuquiz.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Per-exam rollup of exam_attempts, read by the teacher dashboards instead
+ * of aggregating the attempts on every request. Maintained by
+ * ExamStatsRollup; the score bands are percentages of the exam's total
+ * points (>= 90, 70-90, 50-70, < 50).
+ */
+@Entity
+@Table(name = "exam_stats")
+public class ExamStats implements java.io.Serializable {
+
+    private long examId;
+    private long attempts;
+    private long submitted;
+    private long scoreSum;
+    private Integer scoreMin;
+    private Integer scoreMax;
+    private long excellentCount;
+    private long goodCount;
+    private long averageCount;
+    private long failCount;
+
+    public ExamStats() {
+    }
+
+    @Id
+    @Column(name = "exam_id", unique = true, nullable = false)
+    public long getExamId() {
+        return this.examId;
+    }
+
+    public void setExamId(long examId) {
+        this.examId = examId;
+    }
+
+    @Column(name = "attempts", nullable = false)
+    public long getAttempts() {
+        return this.attempts;
+    }
+
+    public void setAttempts(long attempts) {
+        this.attempts = attempts;
+    }
+
+    @Column(name = "submitted", nullable = false)
+    public long getSubmitted() {
+        return this.submitted;
+    }
+
+    public void setSubmitted(long submitted) {
+        this.submitted = submitted;
+    }
+
+    @Column(name = "score_sum", nullable = false)
+    public long getScoreSum() {
+        return this.scoreSum;
+    }
+
+    public void setScoreSum(long scoreSum) {
+        this.scoreSum = scoreSum;
+    }
+
+    @Column(name = "score_min")
+    public Integer getScoreMin() {
+        return this.scoreMin;
+    }
+
+    public void setScoreMin(Integer scoreMin) {
+        this.scoreMin = scoreMin;
+    }
+
+    @Column(name = "score_max")
+    public Integer getScoreMax() {
+        return this.scoreMax;
+    }
+
+    public void setScoreMax(Integer scoreMax) {
+        this.scoreMax = scoreMax;
+    }
+
+    @Column(name = "excellent_count", nullable = false)
+    public long getExcellentCount() {
+        return this.excellentCount;
+    }
+
+    public void setExcellentCount(long excellentCount) {
+        this.excellentCount = excellentCount;
+    }
+
+    @Column(name = "good_count", nullable = false)
+    public long getGoodCount() {
+        return this.goodCount;
+    }
+
+    public void setGoodCount(long goodCount) {
+        this.goodCount = goodCount;
+    }
+
+    @Column(name = "average_count", nullable = false)
+    public long getAverageCount() {
+        return this.averageCount;
+    }
+
+    public void setAverageCount(long averageCount) {
+        this.averageCount = averageCount;
+    }
+
+    @Column(name = "fail_count", nullable = false)
+    public long getFailCount() {
+        return this.failCount;
+    }
+
+    public void setFailCount(long failCount) {
+        this.failCount = failCount;
+    }
+}
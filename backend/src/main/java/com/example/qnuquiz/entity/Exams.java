@@ -19,11 +19,15 @@ import jakarta.persistence.Table;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
 
+import org.hibernate.annotations.SQLRestriction;
+
 /**
  * Exams generated by hbm2java
  */
 @Entity
 @Table(name = "exams")
+// Đề đã xoá mềm (ExamPurger) bị ẩn khỏi mọi truy vấn JPA trong lúc chờ purge
+@SQLRestriction("status <> 'DELETED'")
 public class Exams implements java.io.Serializable {
 
     private long id;
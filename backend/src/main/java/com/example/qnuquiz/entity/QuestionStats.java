@@ -0,0 +1,71 @@
+package com.example.qnuquiz.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Per-question rollup of exam_answers (answers, correct, wrong), maintained by
+ * ExamStatsRollup.
+ */
+@Entity
+@Table(name = "question_stats", indexes = @Index(name = "idx_question_stats_exam", columnList = "exam_id"))
+public class QuestionStats implements java.io.Serializable {
+
+    private long questionId;
+    private long examId;
+    private long totalAnswers;
+    private long correctCount;
+    private long wrongCount;
+
+    public QuestionStats() {
+    }
+
+    @Id
+    @Column(name = "question_id", unique = true, nullable = false)
+    public long getQuestionId() {
+        return this.questionId;
+    }
+
+    public void setQuestionId(long questionId) {
+        this.questionId = questionId;
+    }
+
+    @Column(name = "exam_id", nullable = false)
+    public long getExamId() {
+        return this.examId;
+    }
+
+    public void setExamId(long examId) {
+        this.examId = examId;
+    }
+
+    @Column(name = "total_answers", nullable = false)
+    public long getTotalAnswers() {
+        return this.totalAnswers;
+    }
+
+    public void setTotalAnswers(long totalAnswers) {
+        this.totalAnswers = totalAnswers;
+    }
+
+    @Column(name = "correct_count", nullable = false)
+    public long getCorrectCount() {
+        return this.correctCount;
+    }
+
+    public void setCorrectCount(long correctCount) {
+        this.correctCount = correctCount;
+    }
+
+    @Column(name = "wrong_count", nullable = false)
+    public long getWrongCount() {
+        return this.wrongCount;
+    }
+
+    public void setWrongCount(long wrongCount) {
+        this.wrongCount = wrongCount;
+    }
+}
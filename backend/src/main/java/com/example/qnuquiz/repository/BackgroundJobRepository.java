@@ -0,0 +1,101 @@
+package com.example.qnuquiz.repository;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.qnuquiz.entity.BackgroundJobs;
+
+public interface BackgroundJobRepository extends JpaRepository<BackgroundJobs, UUID> {
+
+    List<BackgroundJobs> findByStatusOrderByCreatedAtAsc(String status, Limit limit);
+
+    List<BackgroundJobs> findByOwnerIdOrderByCreatedAtDesc(UUID ownerId, Limit limit);
+
+    List<BackgroundJobs> findByFinishedAtBefore(Timestamp cutoff);
+
+    long countByStatus(String status);
+
+    List<BackgroundJobs> findByTypeAndStatusIn(String type, Collection<String> statuses);
+
+    /**
+     * Moves a queued job to RUNNING on {@code nodeId}; returns 0 when it was
+     * claimed or cancelled in the meantime.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE BackgroundJobs j SET j.status = 'RUNNING', j.nodeId = :nodeId, j.startedAt = :now,
+                j.heartbeatAt = :now, j.updatedAt = :now
+            WHERE j.id = :id AND j.status = 'QUEUED'
+            """)
+    int claim(@Param("id") UUID id, @Param("nodeId") String nodeId, @Param("now") Timestamp now);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE BackgroundJobs j SET j.status = 'CANCELLED', j.cancelRequested = true, j.finishedAt = :now,
+                j.updatedAt = :now
+            WHERE j.id = :id AND j.status = 'QUEUED'
+            """)
+    int cancelQueued(@Param("id") UUID id, @Param("now") Timestamp now);
+
+    /**
+     * Flags a running job for cancellation; the node running it stops it on
+     * its next progress flush. Returns 0 when the job is not running.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE BackgroundJobs j SET j.cancelRequested = true, j.updatedAt = :now
+            WHERE j.id = :id AND j.status = 'RUNNING'
+            """)
+    int requestCancel(@Param("id") UUID id, @Param("now") Timestamp now);
+
+    /**
+     * Keeps the running jobs of a node alive.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE BackgroundJobs j SET j.heartbeatAt = :now
+            WHERE j.id IN :ids AND j.nodeId = :nodeId AND j.status = 'RUNNING'
+            """)
+    int heartbeat(@Param("ids") Collection<UUID> ids, @Param("nodeId") String nodeId, @Param("now") Timestamp now);
+
+    @Query("SELECT j.id FROM BackgroundJobs j WHERE j.id IN :ids AND j.cancelRequested = true")
+    List<UUID> findCancelRequested(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * RUNNING jobs whose node stopped sending heartbeats (crashed or shut
+     * down) are failed; handlers commit in chunks and cannot be resumed.
+     * Rows from before heartbeats existed have none and count as stale.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE BackgroundJobs j SET j.status = 'FAILED', j.message = :message, j.finishedAt = :now,
+                j.updatedAt = :now
+            WHERE j.status = 'RUNNING' AND (j.heartbeatAt IS NULL OR j.heartbeatAt < :cutoff)
+            """)
+    int failStale(@Param("message") String message, @Param("cutoff") Timestamp cutoff, @Param("now") Timestamp now);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE BackgroundJobs j SET j.processed = :processed, j.succeeded = :succeeded, j.rejected = :rejected,
+                j.errors = :errors, j.updatedAt = :now
+            WHERE j.id = :id
+            """)
+    void updateProgress(@Param("id") UUID id, @Param("processed") long processed,
+            @Param("succeeded") long succeeded, @Param("rejected") long rejected, @Param("errors") String errors,
+            @Param("now") Timestamp now);
+}
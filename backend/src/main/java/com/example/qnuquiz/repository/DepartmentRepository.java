@@ -1,13 +1,24 @@
 package com.example.qnuquiz.repository;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.example.qnuquiz.entity.Departments;
 
+import jakarta.persistence.QueryHint;
+
 public interface DepartmentRepository extends JpaRepository<Departments, Long> {
 
+    // Kết quả nằm trong query cache, bị huỷ khi bảng departments thay đổi
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "departmentByName") })
     Optional<Departments> findByName(String name);
-}
 
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Departments> findAll();
+}
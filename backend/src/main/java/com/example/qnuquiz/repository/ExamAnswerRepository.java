@@ -1,5 +1,6 @@
 package com.example.qnuquiz.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -9,12 +10,31 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.qnuquiz.dto.student.ExamAnswerHistoryRow;
 import com.example.qnuquiz.entity.ExamAnswers;
 
 @Repository
 public interface ExamAnswerRepository extends JpaRepository<ExamAnswers, Long> {
     List<ExamAnswers> findByExamAttempts_Id(Long attemptId);
     Optional<ExamAnswers> findByExamAttemptsIdAndQuestionsId(Long attemptId, Long questionId);
+
+    // [questionId, selectedOptionId, seq] của một attempt
+    @Query("SELECT a.questions.id, o.id, a.seq FROM ExamAnswers a LEFT JOIN a.questionOptions o WHERE a.examAttempts.id = :attemptId")
+    List<Object[]> findSelectionsByAttemptId(@Param("attemptId") Long attemptId);
+
+    // [attemptId, questionId, selectedOptionId] của nhiều attempt
+    @Query("SELECT a.examAttempts.id, a.questions.id, o.id FROM ExamAnswers a LEFT JOIN a.questionOptions o WHERE a.examAttempts.id IN :attemptIds")
+    List<Object[]> findSelectionsByAttemptIds(@Param("attemptIds") Collection<Long> attemptIds);
+
+    // Câu trả lời kèm câu hỏi và đáp án đã chọn của nhiều attempt, cho lịch sử làm bài
+    @Query("""
+            SELECT new com.example.qnuquiz.dto.student.ExamAnswerHistoryRow(
+                a.examAttempts.id, q.id, q.content, a.isCorrect, a.answerText, o.id, o.content)
+            FROM ExamAnswers a JOIN a.questions q LEFT JOIN a.questionOptions o
+            WHERE a.examAttempts.id IN :attemptIds
+            ORDER BY a.id
+            """)
+    List<ExamAnswerHistoryRow> findHistoryByAttemptIds(@Param("attemptIds") Collection<Long> attemptIds);
     
     @Modifying
     @Query("UPDATE ExamAnswers e SET e.questionOptions = NULL WHERE e.questionOptions.id IN :optionIds")
@@ -23,8 +43,4 @@ public interface ExamAnswerRepository extends JpaRepository<ExamAnswers, Long> {
     @Modifying
     @Query("DELETE FROM ExamAnswers e WHERE e.questions.id IN :questionIds")
     void deleteByQuestionIds(@Param("questionIds") List<Long> questionIds);
-
-    @Modifying
-    @Query("DELETE FROM ExamAnswers e WHERE e.examAttempts.id IN :attemptIds")
-    void deleteByAttemptIds(@Param("attemptIds") List<Long> attemptIds);
 }
@@ -1,15 +1,20 @@
 package com.example.qnuquiz.repository;
 
 import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
-import com.example.qnuquiz.dto.analytics.RankingDto;
+import com.example.qnuquiz.dto.student.ExamHistoryRow;
 import com.example.qnuquiz.entity.ExamAttempts;
 
 @Repository
@@ -25,59 +30,104 @@ public interface ExamAttemptRepository extends JpaRepository<ExamAttempts, Long>
 
 	List<ExamAttempts> findByStudents_IdOrderByEndTimeDesc(Long studentId);
 
-	@Modifying
-	@Query("DELETE FROM ExamAttempts ea WHERE ea.exams.id = :examId")
-	void deleteByExamId(@Param("examId") Long examId);
+	// Lịch sử làm bài, mới nhất trước; phân trang keyset theo id: chỉ lấy các attempt có id < :beforeId
+	@Query("""
+			    SELECT new com.example.qnuquiz.dto.student.ExamHistoryRow(
+			        ea.id, e.id, e.title, e.description, ea.score, ea.startTime, ea.endTime, e.durationMinutes)
+			    FROM ExamAttempts ea JOIN ea.exams e
+			    WHERE ea.students.id = :studentId AND ea.id < :beforeId
+			    ORDER BY ea.id DESC
+			""")
+	List<ExamHistoryRow> findHistory(@Param("studentId") Long studentId, @Param("beforeId") Long beforeId,
+			Limit limit);
+
+	// Các lớp có sinh viên đã làm đề do :userId tạo
+	@Query("""
+			    SELECT DISTINCT c.id
+			    FROM ExamAttempts ea JOIN ea.students s JOIN s.classes c
+			    WHERE ea.exams.users.id = :userId
+			""")
+	List<Long> findClassIdsByExamCreator(@Param("userId") UUID userId);
 
-	@Query("SELECT ea.id FROM ExamAttempts ea WHERE ea.exams.id = :examId")
-	List<Long> findIdsByExamId(@Param("examId") Long examId);
+	@Query("SELECT ea.id FROM ExamAttempts ea WHERE ea.id = :attemptId AND ea.students.id = :studentId")
+	Optional<Long> findIdByIdAndStudentId(@Param("attemptId") Long attemptId, @Param("studentId") Long studentId);
+
+	@Query("SELECT ea.exams.id FROM ExamAttempts ea WHERE ea.id = :attemptId")
+	Optional<Long> findExamIdById(@Param("attemptId") Long attemptId);
+
+	// [id, startTime, durationMinutes, exam endTime]: đủ để tính hạn nộp bài
+	@Query("""
+			    SELECT ea.id, ea.startTime, e.durationMinutes, e.endTime
+			    FROM ExamAttempts ea JOIN ea.exams e
+			    WHERE ea.id = :attemptId
+			""")
+	List<Object[]> findTimingById(@Param("attemptId") Long attemptId);
+
+	@Query("""
+			    SELECT ea.id, ea.startTime, e.durationMinutes, e.endTime
+			    FROM ExamAttempts ea JOIN ea.exams e
+			    WHERE ea.submitted = false AND (e.durationMinutes > 0 OR e.endTime IS NOT NULL)
+			""")
+	List<Object[]> findTimingOfUnsubmitted();
+
+	// Cả attempt của đề không còn hạn nộp: hạn cũ trong cache phải được bỏ
+	@Query("""
+			    SELECT ea.id, ea.startTime, e.durationMinutes, e.endTime
+			    FROM ExamAttempts ea JOIN ea.exams e
+			    WHERE ea.submitted = false AND e.id IN :examIds
+			""")
+	List<Object[]> findTimingOfUnsubmittedByExamIds(@Param("examIds") Collection<Long> examIds);
+
+	// [id, examId, studentId, createdAt, score] của các attempt chưa nộp trong danh sách
+	@Query("""
+			    SELECT ea.id, ea.exams.id, ea.students.id, ea.createdAt, ea.score
+			    FROM ExamAttempts ea
+			    WHERE ea.id IN :attemptIds AND ea.submitted = false
+			""")
+	List<Object[]> findUnsubmittedByIds(@Param("attemptIds") Collection<Long> attemptIds);
+
+	/**
+	 * Stores the score of a finished attempt if it is still as it was read
+	 * (submitted flag and score, null score as -1). Like the update of
+	 * AttemptAutoFinisher: when a student finishes while the sweeper (or
+	 * another request) finishes the same attempt, only one of them is
+	 * counted.
+	 *
+	 * @return 1 if stored, 0 if the attempt changed meanwhile
+	 */
+	@Transactional
+	@Modifying
+	@Query("""
+			    UPDATE ExamAttempts ea SET ea.score = :score, ea.submitted = true, ea.endTime = :endTime
+			    WHERE ea.id = :attemptId AND ea.submitted = :submitted AND COALESCE(ea.score, -1) = :storedScore
+			""")
+	int finish(@Param("attemptId") Long attemptId, @Param("score") int score, @Param("endTime") Timestamp endTime,
+			@Param("submitted") boolean submitted, @Param("storedScore") int storedScore);
 
+	// Tổng điểm theo sinh viên, dùng để dựng lại bảng xếp hạng trong bộ nhớ
 	@Query("""
-			    SELECT new com.example.qnuquiz.dto.analytics.RankingDto(
-			        u.username,
-			 				COALESCE(SUM(ea.score), 0),
-			        u.fullName,
-			        COALESCE(u.avatarUrl, 'https://i.pinimg.com/736x/8f/1c/a2/8f1ca2029e2efceebd22fa05cca423d7.jpg')
-			    )
+			    SELECT ea.students.id, COALESCE(SUM(ea.score), 0)
 			    FROM ExamAttempts ea
-			    JOIN ea.students s
-			    JOIN s.users u
-			    GROUP BY u.username, u.fullName, u.avatarUrl
-			    ORDER BY SUM(ea.score) DESC
+			    WHERE ea.students IS NOT NULL
+			    GROUP BY ea.students.id
 			""")
-	List<RankingDto> rankingAll();
+	List<Object[]> sumScoreByStudent();
 
 	@Query("""
-			    SELECT new com.example.qnuquiz.dto.analytics.RankingDto(
-			        u.username,
-			 				COALESCE(SUM(ea.score), 0),
-			        u.fullName,
-			        COALESCE(u.avatarUrl, 'https://i.pinimg.com/736x/8f/1c/a2/8f1ca2029e2efceebd22fa05cca423d7.jpg')
-			    )
+			    SELECT ea.students.id, COALESCE(SUM(ea.score), 0)
 			    FROM ExamAttempts ea
-			    JOIN ea.students s
-			    JOIN s.users u
-			    WHERE ea.createdAt >= :fromDate
-			    GROUP BY u.username, u.fullName, u.avatarUrl
-			    ORDER BY SUM(ea.score) DESC
+			    WHERE ea.students IS NOT NULL AND ea.createdAt >= :fromDate
+			    GROUP BY ea.students.id
 			""")
-	List<RankingDto> rankingAllThisWeek(Timestamp fromDate);
+	List<Object[]> sumScoreByStudentSince(@Param("fromDate") Timestamp fromDate);
 
 	@Query("""
-			    SELECT new com.example.qnuquiz.dto.analytics.RankingDto(
-			        u.username,
-			 				COALESCE(SUM(ea.score), 0),
-			        u.fullName,
-			        COALESCE(u.avatarUrl, 'https://i.pinimg.com/736x/8f/1c/a2/8f1ca2029e2efceebd22fa05cca423d7.jpg')
-			    )
+			    SELECT ea.exams.id, ea.students.id, COALESCE(SUM(ea.score), 0)
 			    FROM ExamAttempts ea
-			    JOIN ea.students s
-			    JOIN s.users u
-				WHERE ea.exams.id = :examId
-			    GROUP BY u.username, u.fullName, u.avatarUrl
-			    ORDER BY SUM(ea.score) DESC
+			    WHERE ea.students IS NOT NULL AND ea.exams IS NOT NULL
+			    GROUP BY ea.exams.id, ea.students.id
 			""")
-	List<RankingDto> rankingByExamId(Long examId);
+	List<Object[]> sumScoreByExamAndStudent();
 
 	@Query("SELECT AVG(ea.score) FROM ExamAttempts ea WHERE ea.submitted = true")
 	Double findAverageScoreOverall();
@@ -1,8 +1,18 @@
 package com.example.qnuquiz.repository;
 
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.example.qnuquiz.entity.ExamCategories;
 
+import jakarta.persistence.QueryHint;
+
 public interface ExamCategoryRepository extends JpaRepository<ExamCategories, Long> {
+
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<ExamCategories> findAll();
 }
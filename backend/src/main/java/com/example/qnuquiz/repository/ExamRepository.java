@@ -1,11 +1,18 @@
 package com.example.qnuquiz.repository;
 
+import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.qnuquiz.dto.exam.ExamCatalogRow;
+import com.example.qnuquiz.dto.teacher.TeacherExamStatsRow;
 import com.example.qnuquiz.entity.Exams;
 
 @Repository
@@ -14,4 +21,60 @@ public interface ExamRepository extends JpaRepository<Exams, Long> {
     List<Exams> findByUsers_Id(UUID userId);
     List<Exams> findByExamCategories_Id(Long categoryId);
     Long countByExamCategories_Id(Long categoryId);
+
+    // Đề thi (trừ DRAFT) + trạng thái tính theo :now + cờ attempt của sinh viên, trong một truy vấn
+    String CATALOG_SELECT = """
+            SELECT new com.example.qnuquiz.dto.exam.ExamCatalogRow(
+                e.id, e.title, e.description, e.startTime, e.endTime, e.random, e.durationMinutes, c.id,
+                CASE
+                    WHEN e.startTime IS NULL OR e.endTime IS NULL THEN 'DRAFT'
+                    WHEN e.startTime < :now AND e.endTime > :now THEN 'ACTIVE'
+                    WHEN e.endTime < :now THEN 'CLOSED'
+                    ELSE 'DRAFT'
+                END,
+                COUNT(ea.id),
+                MAX(ea.createdAt),
+                MAX(CASE WHEN ea.submitted = false THEN ea.createdAt END)
+            )
+            FROM Exams e
+            LEFT JOIN e.examCategories c
+            LEFT JOIN ExamAttempts ea ON ea.exams = e AND ea.students.id = :studentId
+            WHERE UPPER(e.status) <> 'DRAFT'
+            """;
+
+    String CATALOG_GROUP_BY = """
+            GROUP BY e.id, e.title, e.description, e.startTime, e.endTime, e.random, e.durationMinutes, c.id
+            ORDER BY e.id
+            """;
+
+    // Phân trang keyset theo id: chỉ lấy các đề có id > :afterId
+    @Query(CATALOG_SELECT + " AND e.id > :afterId " + CATALOG_GROUP_BY)
+    List<ExamCatalogRow> findCatalog(@Param("studentId") Long studentId, @Param("now") Timestamp now,
+            @Param("afterId") Long afterId, Limit limit);
+
+    @Query(CATALOG_SELECT + " AND c.id = :categoryId " + CATALOG_GROUP_BY)
+    List<ExamCatalogRow> findCatalogByCategory(@Param("categoryId") Long categoryId,
+            @Param("studentId") Long studentId, @Param("now") Timestamp now);
+
+    @Query("SELECT DISTINCT e.users.id FROM Exams e WHERE e.id IN :ids AND e.users IS NOT NULL")
+    List<UUID> findCreatorIds(@Param("ids") Collection<Long> ids);
+
+    // Câu hỏi, attempt, điểm và feedback của mọi đề do :userId tạo, gom theo đề trong một truy vấn
+    @Query("""
+            SELECT new com.example.qnuquiz.dto.teacher.TeacherExamStatsRow(
+                e.id,
+                (SELECT COUNT(q) FROM Questions q WHERE q.exams = e),
+                COUNT(ea.id),
+                SUM(ea.score),
+                COUNT(ea.score),
+                (SELECT COUNT(f) FROM Feedbacks f WHERE f.questions.exams = e),
+                (SELECT COUNT(DISTINCT a.students.id) FROM ExamAttempts a WHERE a.exams.users.id = :userId)
+            )
+            FROM Exams e
+            LEFT JOIN ExamAttempts ea ON ea.exams = e
+            WHERE e.users.id = :userId
+            GROUP BY e.id
+            ORDER BY e.id
+            """)
+    List<TeacherExamStatsRow> findTeacherStats(@Param("userId") UUID userId);
 }
@@ -2,11 +2,19 @@ package com.example.qnuquiz.repository;
 
 import java.util.List;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.example.qnuquiz.entity.Faqs;
 
+import jakarta.persistence.QueryHint;
+
 public interface FaqRepository extends JpaRepository<Faqs, Long> {	
 	
 	List<Faqs> findByQuestionContainingIgnoreCase(String question);
+
+	@Override
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+	List<Faqs> findAll();
 }
@@ -2,15 +2,17 @@ package com.example.qnuquiz.repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import com.example.qnuquiz.dto.teacher.TeacherNotificationDto;
 import com.example.qnuquiz.entity.Feedbacks;
 
-public interface FeedbackRepository extends JpaRepository<Feedbacks, Long> {
+public interface FeedbackRepository extends JpaRepository<Feedbacks, Long>, JpaSpecificationExecutor<Feedbacks> {
     List<Feedbacks> findByQuestions_Id(Long questionId);
 
     List<Feedbacks> findByQuestions_IdAndStatus(Long questionId, String status);
@@ -30,11 +32,19 @@ public interface FeedbackRepository extends JpaRepository<Feedbacks, Long> {
     @Query("SELECT f FROM Feedbacks f WHERE f.questions.id IN :questionIds ORDER BY f.createdAt DESC")
     List<Feedbacks> findByQuestionIds(@Param("questionIds") List<Long> questionIds);
 
-    @Modifying
-    @Query("DELETE FROM Feedbacks f WHERE f.exams.id = :examId")
-    void deleteByExamId(@Param("examId") Long examId);
-
-    @Modifying
-    @Query("DELETE FROM Feedbacks f WHERE f.questions.id IN :questionIds")
-    void deleteByQuestionIds(@Param("questionIds") List<Long> questionIds);
+    // Feedback trên câu hỏi của các đề do :userId tạo, kèm sinh viên và lớp, mới nhất trước
+    @Query("""
+            SELECT new com.example.qnuquiz.dto.teacher.TeacherNotificationDto$ClassIssueDto(
+                f.id, q.content, e.id, e.title, u.fullName, s.studentCode, c.name,
+                f.content, f.status, f.createdAt, f.reviewedAt)
+            FROM Feedbacks f
+            JOIN f.questions q
+            JOIN q.exams e
+            LEFT JOIN f.usersByUserId u
+            LEFT JOIN Students s ON s.users = u
+            LEFT JOIN s.classes c
+            WHERE e.users.id = :userId
+            ORDER BY f.createdAt DESC, f.id DESC
+            """)
+    List<TeacherNotificationDto.ClassIssueDto> findClassIssuesByExamCreator(@Param("userId") UUID userId);
 }
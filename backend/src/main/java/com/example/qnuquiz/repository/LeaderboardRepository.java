@@ -0,0 +1,15 @@
+package com.example.qnuquiz.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.example.qnuquiz.entity.Leaderboard;
+
+public interface LeaderboardRepository extends JpaRepository<Leaderboard, Long> {
+
+    @Modifying
+    @Query("DELETE FROM Leaderboard l WHERE l.exams.id = :examId")
+    void deleteByExamId(@Param("examId") Long examId);
+}
@@ -3,15 +3,19 @@ package com.example.qnuquiz.repository;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import com.example.qnuquiz.entity.Questions;
 
-public interface QuestionRepository extends JpaRepository<Questions, Long> {
+public interface QuestionRepository extends JpaRepository<Questions, Long>, JpaSpecificationExecutor<Questions> {
 
     List<Questions> findByExamsId(Long id);
 
+    @Query("SELECT DISTINCT q.exams.id FROM Questions q WHERE q.id IN :ids")
+    List<Long> findExamIdsByQuestionIds(@Param("ids") List<Long> ids);
+
     @Query("SELECT COUNT(q) FROM Questions q WHERE CAST(q.type AS string) = :type")
     long countByType(@Param("type") String type);
 }
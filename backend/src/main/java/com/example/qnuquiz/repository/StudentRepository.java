@@ -1,15 +1,28 @@
 package com.example.qnuquiz.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.example.qnuquiz.entity.Students;
 import com.example.qnuquiz.entity.Users;
 
-public interface StudentRepository extends JpaRepository<Students, Long> {
+public interface StudentRepository extends JpaRepository<Students, Long>, JpaSpecificationExecutor<Students> {
 
     Optional<Students> findByUsers(Users users);
 
+    @Query("SELECT s.id FROM Students s WHERE s.users.id = :userId")
+    Optional<Long> findIdByUserId(@Param("userId") UUID userId);
+
     boolean existsByStudentCode(String studentCode);
+
+    // id, username, fullName, avatarUrl cho các sinh viên hiển thị trên bảng xếp hạng
+    @Query("SELECT s.id, u.username, u.fullName, u.avatarUrl FROM Students s JOIN s.users u WHERE s.id IN :ids")
+    List<Object[]> findRankingProfiles(@Param("ids") Collection<Long> ids);
 }
@@ -1,14 +1,21 @@
 package com.example.qnuquiz.repository;
 
 import java.util.Optional;
+import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.example.qnuquiz.entity.Teachers;
 import com.example.qnuquiz.entity.Users;
 
-public interface TeacherRepository extends JpaRepository<Teachers, Long> {
+public interface TeacherRepository extends JpaRepository<Teachers, Long>, JpaSpecificationExecutor<Teachers> {
 
     Optional<Teachers> findByUsers(Users user);
 
+    @Query("SELECT t FROM Teachers t JOIN FETCH t.users u WHERE u.id = :userId")
+    Optional<Teachers> findWithUserByUserId(@Param("userId") UUID userId);
+
 }
@@ -2,12 +2,13 @@ package com.example.qnuquiz.repository;
 
 import com.example.qnuquiz.entity.Users;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
 import java.sql.Timestamp;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface UserRepository extends JpaRepository<Users, UUID> {
+public interface UserRepository extends JpaRepository<Users, UUID>, JpaSpecificationExecutor<Users> {
 
     boolean existsByUsername(String username);
 
@@ -21,6 +21,10 @@ public class CustomUserDetails implements UserDetails {
         return user.getId();
     }
 
+    public String getRole() {
+        return user.getRole();
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().toUpperCase()));
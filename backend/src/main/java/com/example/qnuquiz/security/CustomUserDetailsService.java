@@ -2,22 +2,82 @@ package com.example.qnuquiz.security;
 
 import com.example.qnuquiz.entity.Users;
 import com.example.qnuquiz.repository.UserRepository;
+import com.example.qnuquiz.util.AsyncCaches;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, MeterBinder {
 
     private final UserRepository userRepository;
 
+    @Value("${security.principal-cache.max-size:10000}")
+    private long principalCacheSize;
+
+    @Value("${security.principal-cache.ttl-seconds:60}")
+    private long principalCacheTtlSeconds;
+
+    // userId -> principal, dùng cho JwtAuthFilter để không phải đọc bảng users mỗi request
+    private AsyncCache<UUID, CustomUserDetails> principals;
+
+    @PostConstruct
+    public void init() {
+        principals = Caffeine.newBuilder()
+                .maximumSize(principalCacheSize)
+                .expireAfterWrite(Duration.ofSeconds(principalCacheTtlSeconds))
+                .recordStats()
+                .buildAsync();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, principals, "principals",
+                "name", "principals", "cache.manager", "customUserDetailsService");
+    }
+
+    // Used by the login flow, always reads the current password hash
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         Users user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
         return new CustomUserDetails(user);
     }
+
+    /**
+     * Principal for an authenticated request, served from the cache.
+     * Returns null if the user no longer exists.
+     */
+    public CustomUserDetails loadUserById(UUID userId) {
+        return AsyncCaches.get(principals, userId,
+                id -> userRepository.findById(id).map(CustomUserDetails::new).orElse(null));
+    }
+
+    public void evict(UUID userId) {
+        principals.synchronous().invalidate(userId);
+    }
+
+    public void evictAll() {
+        principals.synchronous().invalidateAll();
+    }
+
+    // Chạy sau khi transaction commit, tránh nạp lại bản ghi cũ vào cache
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        evict(event.userId());
+    }
 }
@@ -1,9 +1,13 @@
 package com.example.qnuquiz.security;
 
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.*;
 import jakarta.servlet.http.*;
-import lombok.RequiredArgsConstructor;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.security.authentication.*;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.*;
@@ -11,13 +15,26 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    // Thời gian xác thực token (không tính phần còn lại của filter chain)
+    private final Meter.MeterProvider<Timer> authTimer;
+
+    // Test slice (@WebMvcTest) không có MeterRegistry bean
+    public JwtAuthFilter(JwtUtil jwtUtil, CustomUserDetailsService userDetailsService,
+            ObjectProvider<MeterRegistry> registry) {
+        this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+        this.authTimer = Timer.builder("qnuquiz.auth.jwt")
+                .description("JWT authentication per request")
+                .publishPercentileHistogram()
+                .withRegistry(registry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
@@ -25,26 +42,57 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
 
         final String authHeader = request.getHeader("Authorization");
-        final String jwt;
-        final String username;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        jwt = authHeader.substring(7);
-        username = jwtUtil.extractUsername(jwt);
+        long start = System.nanoTime();
+        String outcome = "rejected";
+        String role = "NONE";
+
+        // Token chỉ được parse một lần, user lấy từ cache thay vì query DB
+        JwtUtil.TokenClaims claims = jwtUtil.parse(authHeader.substring(7)).orElse(null);
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            if (jwtUtil.isTokenValid(jwt, userDetails.getUsername())) {
+        if (claims != null && SecurityContextHolder.getContext().getAuthentication() != null) {
+            outcome = "skipped";
+        } else if (claims != null && claims.username() != null) {
+            UserDetails userDetails = loadPrincipal(claims);
+            if (userDetails != null && userDetails.isEnabled() && userDetails.isAccountNonLocked()) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 SecurityContextHolder.getContext().setAuthentication(authToken);
+                outcome = "authenticated";
+                if (userDetails instanceof CustomUserDetails principal && principal.getRole() != null) {
+                    role = principal.getRole().toUpperCase();
+                }
             }
         }
+        authTimer.withTags("outcome", outcome, "role", role)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 
         filterChain.doFilter(request, response);
     }
+
+    private UserDetails loadPrincipal(JwtUtil.TokenClaims claims) {
+        if (claims.userId() == null) {
+            // Token cũ chưa có claim uid
+            try {
+                return userDetailsService.loadUserByUsername(claims.username());
+            } catch (UsernameNotFoundException e) {
+                return null;
+            }
+        }
+
+        CustomUserDetails principal = userDetailsService.loadUserById(claims.userId());
+        if (principal == null || !principal.getUsername().equals(claims.username())) {
+            return null;
+        }
+        // Role changed since the token was issued: the user has to log in again
+        if (claims.role() != null && !principal.getRole().equalsIgnoreCase(claims.role())) {
+            return null;
+        }
+        return principal;
+    }
 }
@@ -1,6 +1,8 @@
 package com.example.qnuquiz.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
@@ -8,52 +10,67 @@ import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.example.qnuquiz.entity.Users;
+
 import javax.crypto.SecretKey;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
 
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_ROLE = "role";
+
+    /**
+     * Claims of a verified token. userId and role are null for tokens issued
+     * before they were added. The account status is not a claim: it is read
+     * from the cached principal, which is dropped when the user changes.
+     */
+    public record TokenClaims(String username, UUID userId, String role) {
+    }
+
     @Value("${jwt.secret}")
     private String SECRET_KEY;
 
     private SecretKey key;
+    private JwtParser parser;
 
     @PostConstruct
     public void init() {
         this.key = Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(key).build();
     }
 
-    public String generateToken(String username) {
+    public String generateToken(Users user) {
         Date now = new Date();
 
         return Jwts.builder()
-                .subject(username)
+                .subject(user.getUsername())
+                .claim(CLAIM_USER_ID, user.getId().toString())
+                .claim(CLAIM_ROLE, user.getRole())
                 .issuedAt(now)
                 .signWith(key)
                 .compact();
     }
 
-    public String extractUsername(String token) {
-        return parseClaims(token).getSubject();
-    }
-
-    public boolean isTokenValid(String token, String username) {
+    /**
+     * Verifies the signature and reads all claims in one pass.
+     * Returns empty for a malformed or forged token.
+     */
+    public Optional<TokenClaims> parse(String token) {
         try {
-            String extracted = extractUsername(token);
-            return extracted.equals(username);
-        } catch (Exception e) {
-            return false;
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            String userId = claims.get(CLAIM_USER_ID, String.class);
+            return Optional.of(new TokenClaims(
+                    claims.getSubject(),
+                    userId != null ? UUID.fromString(userId) : null,
+                    claims.get(CLAIM_ROLE, String.class)));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
         }
     }
-
-    private Claims parseClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
 }
@@ -0,0 +1,10 @@
+package com.example.qnuquiz.security;
+
+import java.util.UUID;
+
+/**
+ * Published when a user account is updated, locked or deleted, so the cached
+ * principal of that user is dropped.
+ */
+public record UserChangedEvent(UUID userId) {
+}
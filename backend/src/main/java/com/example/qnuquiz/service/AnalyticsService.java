@@ -4,6 +4,7 @@ import com.example.qnuquiz.dto.analytics.AdminExamAnalyticsDto;
 import com.example.qnuquiz.dto.analytics.AdminQuestionAnalyticsDto;
 import com.example.qnuquiz.dto.analytics.ClassPerformanceDto;
 import com.example.qnuquiz.dto.analytics.ExamAnalyticsDto;
+import com.example.qnuquiz.dto.analytics.MyRankDto;
 import com.example.qnuquiz.dto.analytics.QuestionAnalyticsDto;
 import com.example.qnuquiz.dto.analytics.RankingDto;
 import com.example.qnuquiz.dto.analytics.ScoreDistributionDto;
@@ -16,11 +17,17 @@ import java.util.List;
 @Service
 public interface AnalyticsService {
 
-    List<RankingDto> rankingAll();
+    List<RankingDto> rankingAll(int limit);
 
-    List<RankingDto> rankingAllThisWeek();
+    List<RankingDto> rankingAllThisWeek(int limit);
 
-    List<RankingDto> rankingByExamId(Long examId);
+    List<RankingDto> rankingByExamId(Long examId, int limit);
+
+    MyRankDto myRank();
+
+    MyRankDto myRankThisWeek();
+
+    MyRankDto myRankByExamId(Long examId);
 
     List<ExamAnalyticsDto> getExamAnalytics(String teacherId);
 
@@ -2,11 +2,15 @@ package com.example.qnuquiz.service;
 
 import java.util.List;
 
+import com.example.qnuquiz.dto.exam.AnswerItemDto;
+import com.example.qnuquiz.dto.exam.BulkAnswerResultDto;
 import com.example.qnuquiz.dto.exam.ExamAttemptDto;
 import com.example.qnuquiz.dto.exam.ExamCategoryDto;
 import com.example.qnuquiz.dto.exam.ExamDto;
 import com.example.qnuquiz.dto.exam.ExamResultDto;
 import com.example.qnuquiz.dto.exam.ExamReviewDTO;
+import com.example.qnuquiz.dto.page.CursorPage;
+import com.example.qnuquiz.dto.page.CursorRequest;
 import com.example.qnuquiz.dto.questions.QuestionDTO;
 
 public interface ExamService {
@@ -23,6 +27,8 @@ public interface ExamService {
 
 	void submitAnswer(Long attemptId, Long questionId, Long optionId);
 
+	BulkAnswerResultDto submitAnswers(Long attemptId, List<AnswerItemDto> items);
+
 	ExamResultDto finishExam(Long attemptId);
 
 	void submitEssay(Long attemptId, Long questionId, String answerText);
@@ -31,7 +37,7 @@ public interface ExamService {
 
 	ExamReviewDTO reviewExamAttempt(Long attemptId);
 
-	List<ExamDto> getAllExams();
+	CursorPage<ExamDto> getAllExams(CursorRequest page);
 
 	List<ExamDto> getExamsByCategory(Long categoryId);
 
@@ -7,10 +7,12 @@ import com.example.qnuquiz.dto.feedback.FeedbackDto;
 import com.example.qnuquiz.dto.feedback.FeedbackTemplateDto;
 import com.example.qnuquiz.dto.feedback.TeacherReplyRequest;
 import com.example.qnuquiz.dto.feedback.UpdateFeedbackRequest;
+import com.example.qnuquiz.dto.page.CursorPage;
+import com.example.qnuquiz.dto.page.CursorRequest;
 
 public interface FeedbackService {
 
-    List<FeedbackDto> getAllFeedbacks();
+    CursorPage<FeedbackDto> getAllFeedbacks(String status, Long examId, CursorRequest page);
 
     List<FeedbackDto> getFeedbacksByUserId();
 
@@ -0,0 +1,40 @@
+package com.example.qnuquiz.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.qnuquiz.dto.job.JobDto;
+import com.example.qnuquiz.dto.job.JobRequest;
+import com.example.qnuquiz.service.job.JobResult;
+
+public interface JobService {
+
+    /**
+     * Queues a job from POST /api/jobs; only types whose handler lists the
+     * caller's role can be submitted this way.
+     */
+    JobDto submit(JobRequest request) throws IOException;
+
+    /**
+     * Queues a job for the current user from a service that has already
+     * checked permissions. upload may be null.
+     */
+    JobDto submit(String type, Map<String, String> params, MultipartFile upload) throws IOException;
+
+    /**
+     * Params of the queued and running jobs of a type, so a service does not
+     * queue the same work twice.
+     */
+    List<Map<String, String>> getActiveParams(String type);
+
+    List<JobDto> getMyJobs();
+
+    JobDto getJob(String jobId);
+
+    JobDto cancel(String jobId);
+
+    JobResult getResult(String jobId) throws IOException;
+}
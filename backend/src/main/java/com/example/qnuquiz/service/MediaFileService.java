@@ -4,10 +4,12 @@ import com.example.qnuquiz.dto.media.CreateMediaFileRequest;
 import com.example.qnuquiz.dto.media.MediaFileDto;
 
 import java.util.List;
+import java.util.Map;
 
 public interface MediaFileService {
     MediaFileDto createMediaFile(CreateMediaFileRequest request);
     List<MediaFileDto> getMediaFilesByQuestionId(Long questionId);
+    Map<Long, List<MediaFileDto>> getMediaFilesByQuestionIds(List<Long> questionIds);
     MediaFileDto getMediaFileById(Long id);
     void deleteMediaFile(Long id);
     void deleteMediaFilesByQuestionId(Long questionId);
@@ -6,11 +6,16 @@ import java.util.UUID;
 
 import org.springframework.web.multipart.MultipartFile;
 
+import com.example.qnuquiz.dto.job.JobDto;
+import com.example.qnuquiz.dto.page.CursorPage;
+import com.example.qnuquiz.dto.page.CursorRequest;
 import com.example.qnuquiz.dto.questions.QuestionDTO;
 
 public interface QuestionService {
 
-    void importQuestionsFromExcel(MultipartFile file, UUID userId, Long examId) throws IOException;
+    JobDto importQuestionsFromExcel(MultipartFile file, UUID userId, Long examId) throws IOException;
+
+    JobDto getImportJob(String jobId);
 
     List<QuestionDTO> getAllQuestionsInExam(Long examId);
 
@@ -20,5 +25,5 @@ public interface QuestionService {
 
     void deleteQuestion(List<Long> ids);
 
-    List<QuestionDTO> getAllQuestions();
+    CursorPage<QuestionDTO> getAllQuestions(Long examId, String type, String keyword, CursorRequest page);
 }
@@ -1,28 +1,40 @@
 package com.example.qnuquiz.service;
 
+import java.io.IOException;
 import java.util.List;
 
 import org.springframework.web.multipart.MultipartFile;
 
 import com.example.qnuquiz.dto.announcement.AnnouncementDto;
+import com.example.qnuquiz.dto.job.JobDto;
+import com.example.qnuquiz.dto.page.CursorPage;
+import com.example.qnuquiz.dto.page.CursorRequest;
+import com.example.qnuquiz.dto.student.ExamAnswerHistoryDto;
 import com.example.qnuquiz.dto.student.ExamHistoryDto;
 import com.example.qnuquiz.dto.student.StudentDto;
 import com.example.qnuquiz.dto.user.ChangePasswordRequest;
 
 public interface StudentService {
 
-    List<StudentDto> getAllStudents();
+    CursorPage<StudentDto> getAllStudents(Long departmentId, Long classId, String keyword, CursorRequest page);
 
     StudentDto updateCurrentStudentProfile(StudentDto request);
 
     void changePassword(ChangePasswordRequest request);
 
-    List<ExamHistoryDto> getExamHistory();
+    /**
+     * Attempts of the current student, newest first. Answers are only
+     * included when asked for; otherwise they are fetched per attempt with
+     * {@link #getExamHistoryAnswers(Long)}.
+     */
+    CursorPage<ExamHistoryDto> getExamHistory(CursorRequest page, boolean includeAnswers);
+
+    List<ExamAnswerHistoryDto> getExamHistoryAnswers(Long attemptId);
 
     List<AnnouncementDto> getAnnouncementsForCurrentStudent();
 
     /**
-     * Import students from an Excel file (.xlsx).
+     * Import students from an Excel file (.xlsx) in the background.
      * <p>
      * Expected columns (0-based index) on the first sheet:
      * <ul>
@@ -35,6 +47,10 @@ public interface StudentService {
      * <li>6: Class name</li>
      * <li>7: GPA (optional)</li>
      * </ul>
+     * Username is the student code and the initial password is the phone
+     * number. Rows that cannot be imported are listed on the returned job.
      */
-    void importStudentsFromExcel(MultipartFile file);
+    JobDto importStudentsFromExcel(MultipartFile file) throws IOException;
+
+    JobDto getImportJob(String jobId);
 }
@@ -1,7 +1,7 @@
 package com.example.qnuquiz.service;
 
-import java.util.List;
-
+import com.example.qnuquiz.dto.page.CursorPage;
+import com.example.qnuquiz.dto.page.CursorRequest;
 import com.example.qnuquiz.dto.teacher.TeacherDto;
 import com.example.qnuquiz.dto.teacher.TeacherNotificationDto;
 import com.example.qnuquiz.dto.teacher.TeacherStatsDTO;
@@ -9,7 +9,7 @@ import com.example.qnuquiz.dto.user.ChangePasswordRequest;
 
 public interface TeacherService {
 
-    List<TeacherDto> getAllTeachers();
+    CursorPage<TeacherDto> getAllTeachers(Long departmentId, String keyword, CursorRequest page);
 
     TeacherNotificationDto getNotificationsForCurrentTeacher();
 
@@ -1,8 +1,9 @@
 package com.example.qnuquiz.service;
 
-import java.util.List;
 import java.util.Optional;
 
+import com.example.qnuquiz.dto.page.CursorPage;
+import com.example.qnuquiz.dto.page.CursorRequest;
 import com.example.qnuquiz.dto.user.ChangePasswordRequest;
 import com.example.qnuquiz.dto.user.UserDto;
 import com.example.qnuquiz.dto.user.UserRegisterDto;
@@ -12,7 +13,7 @@ public interface UserService {
 
     UserDto register(UserRegisterDto dto);
 
-    List<UserDto> getAllUsers();
+    CursorPage<UserDto> getAllUsers(String role, String status, String keyword, CursorRequest page);
 
     Optional<Users> findByUsername(String username);
 
@@ -0,0 +1,395 @@
+package com.example.qnuquiz.service.analytics;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.qnuquiz.service.exam.ExamAnswerBuffer;
+import com.example.qnuquiz.service.exam.ExamAttemptFinishedEvent;
+import com.example.qnuquiz.service.exam.ExamAttemptStartedEvent;
+import com.example.qnuquiz.service.exam.ExamContentChangedEvent;
+import com.example.qnuquiz.service.exam.ExamDeletedEvent;
+import com.example.qnuquiz.service.exam.ExamScoringEngine;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps exam_stats and question_stats up to date so the teacher dashboards
+ * read one row per exam / question instead of aggregating exam_attempts and
+ * exam_answers on every load.
+ *
+ * Started attempts, submitted scores and answer changes are accumulated as
+ * in-memory deltas and added to the rollup rows by a single flusher. When a
+ * delta cannot be applied incrementally (re-submitted attempt, changed
+ * questions, failed write) the exam is marked dirty and its rows are rebuilt
+ * from the source tables on the next flush. A periodic reconcile rebuilds
+ * every exam, which also corrects drift from writes that were rolled back
+ * after their delta was recorded.
+ */
+@Slf4j
+@Component
+public class ExamStatsRollup {
+
+    private static final String UPDATE_EXAM_SQL = """
+            UPDATE exam_stats SET attempts = attempts + ?, submitted = submitted + ?, score_sum = score_sum + ?,
+                score_min = CASE WHEN score_min IS NULL OR score_min > ? THEN ? ELSE score_min END,
+                score_max = CASE WHEN score_max IS NULL OR score_max < ? THEN ? ELSE score_max END,
+                excellent_count = excellent_count + ?, good_count = good_count + ?,
+                average_count = average_count + ?, fail_count = fail_count + ?
+            WHERE exam_id = ?
+            """;
+
+    // Chỉ tạo dòng khi đề còn tồn tại
+    private static final String INSERT_EXAM_SQL = """
+            INSERT INTO exam_stats (exam_id, attempts, submitted, score_sum, score_min, score_max,
+                excellent_count, good_count, average_count, fail_count)
+            SELECT id, ?, ?, ?, ?, ?, ?, ?, ?, ? FROM exams WHERE id = ?
+            """;
+
+    private static final int[] UPDATE_EXAM_TYPES = { Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.INTEGER,
+            Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.BIGINT,
+            Types.BIGINT };
+
+    private static final int[] INSERT_EXAM_TYPES = { Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.INTEGER,
+            Types.INTEGER, Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.BIGINT };
+
+    private static final String UPDATE_QUESTION_SQL = """
+            UPDATE question_stats SET total_answers = total_answers + ?, correct_count = correct_count + ?,
+                wrong_count = wrong_count + ?
+            WHERE question_id = ?
+            """;
+
+    private static final String INSERT_QUESTION_SQL = """
+            INSERT INTO question_stats (question_id, exam_id, total_answers, correct_count, wrong_count)
+            SELECT id, exam_id, ?, ?, ? FROM questions WHERE id = ?
+            """;
+
+    private static final String TOTAL_POINTS_SQL = """
+            SELECT e.max_questions, (SELECT COUNT(*) FROM questions q WHERE q.exam_id = e.id)
+            FROM exams e WHERE e.id = ?
+            """;
+
+    // Dải điểm so với tổng điểm p: >= 90%, 70-90%, 50-70%, < 50% (tính bằng số nguyên: score * 10 >= p * 9)
+    private static final String REBUILD_EXAM_SQL = """
+            INSERT INTO exam_stats (exam_id, attempts, submitted, score_sum, score_min, score_max,
+                excellent_count, good_count, average_count, fail_count)
+            SELECT e.id, COUNT(ea.id),
+                COALESCE(SUM(CASE WHEN ea.submitted = TRUE THEN 1 ELSE 0 END), 0),
+                COALESCE(SUM(CASE WHEN ea.submitted = TRUE THEN ea.score ELSE 0 END), 0),
+                MIN(CASE WHEN ea.submitted = TRUE THEN ea.score END),
+                MAX(CASE WHEN ea.submitted = TRUE THEN ea.score END),
+                COALESCE(SUM(CASE WHEN ea.submitted = TRUE AND ea.score * 10 >= ? * 9 THEN 1 ELSE 0 END), 0),
+                COALESCE(SUM(CASE WHEN ea.submitted = TRUE AND ea.score * 10 >= ? * 7
+                    AND ea.score * 10 < ? * 9 THEN 1 ELSE 0 END), 0),
+                COALESCE(SUM(CASE WHEN ea.submitted = TRUE AND ea.score * 10 >= ? * 5
+                    AND ea.score * 10 < ? * 7 THEN 1 ELSE 0 END), 0),
+                COALESCE(SUM(CASE WHEN ea.submitted = TRUE AND ea.score * 10 < ? * 5 THEN 1 ELSE 0 END), 0)
+            FROM exams e LEFT JOIN exam_attempts ea ON ea.exam_id = e.id
+            WHERE e.id = ?
+            GROUP BY e.id
+            """;
+
+    private static final String REBUILD_QUESTIONS_SQL = """
+            INSERT INTO question_stats (question_id, exam_id, total_answers, correct_count, wrong_count)
+            SELECT q.id, q.exam_id, COUNT(a.id),
+                SUM(CASE WHEN a.is_correct = TRUE THEN 1 ELSE 0 END),
+                SUM(CASE WHEN a.is_correct = FALSE THEN 1 ELSE 0 END)
+            FROM questions q JOIN exam_answers a ON a.question_id = q.id
+            WHERE q.exam_id = ?
+            GROUP BY q.id, q.exam_id
+            """;
+
+    /**
+     * Pending changes of one exam: started attempts and the scores of newly
+     * submitted attempts.
+     */
+    private static final class ExamDelta {
+        long attempts;
+        final List<Integer> scores = new ArrayList<>();
+    }
+
+    private static final class QuestionDelta {
+        final long examId;
+        long answers;
+        long correct;
+        long wrong;
+
+        QuestionDelta(long examId) {
+            this.examId = examId;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ExamAnswerBuffer answerBuffer;
+
+    private final Map<Long, ExamDelta> examDeltas = new ConcurrentHashMap<>();
+    private final Map<Long, QuestionDelta> questionDeltas = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public ExamStatsRollup(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+            ExamAnswerBuffer answerBuffer) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.answerBuffer = answerBuffer;
+    }
+
+    /**
+     * Records a change of the answer to one question. {@code firstAnswer} is
+     * true when the attempt had no answer row for the question yet; the
+     * correctness values are null for free-text answers.
+     */
+    public void answerChanged(long examId, long questionId, boolean firstAnswer, Boolean before, Boolean after) {
+        int correct = count(after, true) - count(before, true);
+        int wrong = count(after, false) - count(before, false);
+        if (!firstAnswer && correct == 0 && wrong == 0) {
+            return;
+        }
+        questionDeltas.compute(questionId, (id, delta) -> {
+            QuestionDelta target = delta != null ? delta : new QuestionDelta(examId);
+            target.answers += firstAnswer ? 1 : 0;
+            target.correct += correct;
+            target.wrong += wrong;
+            return target;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAttemptStarted(ExamAttemptStartedEvent event) {
+        examDeltas.compute(event.examId(), (id, delta) -> {
+            ExamDelta target = delta != null ? delta : new ExamDelta();
+            target.attempts++;
+            return target;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAttemptFinished(ExamAttemptFinishedEvent event) {
+        if (!event.firstSubmission()) {
+            // Điểm cũ đã nằm trong min/max và dải điểm, không trừ ra được
+            dirty.add(event.examId());
+            return;
+        }
+        examDeltas.compute(event.examId(), (id, delta) -> {
+            ExamDelta target = delta != null ? delta : new ExamDelta();
+            target.scores.add(event.score());
+            return target;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamContentChanged(ExamContentChangedEvent event) {
+        // Tổng điểm hoặc đáp án đúng có thể đã đổi
+        dirty.addAll(event.examIds());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamDeleted(ExamDeletedEvent event) {
+        flushLock.lock();
+        try {
+            long examId = event.examId();
+            dirty.remove(examId);
+            examDeltas.remove(examId);
+            questionDeltas.values().removeIf(delta -> delta.examId == examId);
+            jdbcTemplate.update("DELETE FROM question_stats WHERE exam_id = ?", examId);
+            jdbcTemplate.update("DELETE FROM exam_stats WHERE exam_id = ?", examId);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Builds the rollups of existing data on startup; the rebuild itself runs
+     * on the next flush.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${analytics.rollup.reconcile-interval-ms:900000}",
+            fixedDelayString = "${analytics.rollup.reconcile-interval-ms:900000}")
+    public void reconcile() {
+        dirty.addAll(jdbcTemplate.queryForList("SELECT id FROM exams", Long.class));
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.rollup.flush-interval-ms:1000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            if (!dirty.isEmpty()) {
+                rebuildDirty();
+            }
+            writeExamDeltas();
+            writeQuestionDeltas();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void rebuildDirty() {
+        Set<Long> examIds = new HashSet<>(dirty);
+        dirty.removeAll(examIds);
+
+        // Câu trả lời còn trong buffer phải xuống DB trước khi đếm lại; delta cũ đã nằm trong dữ liệu nguồn
+        answerBuffer.flushAll();
+        examDeltas.keySet().removeAll(examIds);
+        questionDeltas.values().removeIf(delta -> examIds.contains(delta.examId));
+
+        for (Long examId : examIds) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> rebuild(examId));
+            } catch (RuntimeException e) {
+                log.warn("Rebuilding stats of exam {} failed: {}", examId, e.getMessage());
+                dirty.add(examId);
+            }
+        }
+        // Dòng của đề / câu hỏi đã xoá (khi DB không có khoá ngoại cascade)
+        jdbcTemplate.update("DELETE FROM question_stats WHERE question_id NOT IN (SELECT id FROM questions)");
+        jdbcTemplate.update("DELETE FROM exam_stats WHERE exam_id NOT IN (SELECT id FROM exams)");
+        log.debug("Rebuilt stats of {} exams", examIds.size());
+    }
+
+    private void rebuild(long examId) {
+        Integer totalPoints = totalPoints(examId);
+        jdbcTemplate.update("DELETE FROM exam_stats WHERE exam_id = ?", examId);
+        jdbcTemplate.update("DELETE FROM question_stats WHERE exam_id = ?", examId);
+        if (totalPoints == null) {
+            return; // đề đã bị xoá
+        }
+        jdbcTemplate.update(REBUILD_EXAM_SQL, totalPoints, totalPoints, totalPoints, totalPoints, totalPoints,
+                totalPoints, examId);
+        jdbcTemplate.update(REBUILD_QUESTIONS_SQL, examId);
+    }
+
+    private void writeExamDeltas() {
+        Map<Long, ExamDelta> deltas = drain(examDeltas);
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Long> examIds = new ArrayList<>(deltas.size());
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        for (Map.Entry<Long, ExamDelta> entry : deltas.entrySet()) {
+            ExamDelta delta = entry.getValue();
+            Integer min = null;
+            Integer max = null;
+            long sum = 0;
+            long[] bands = new long[4];
+            Integer totalPoints = delta.scores.isEmpty() ? null : totalPoints(entry.getKey());
+            for (int score : delta.scores) {
+                sum += score;
+                min = min == null ? score : Math.min(min, score);
+                max = max == null ? score : Math.max(max, score);
+                bands[band(score, totalPoints != null ? totalPoints : 0)]++;
+            }
+            examIds.add(entry.getKey());
+            rows.add(new Object[] { delta.attempts, (long) delta.scores.size(), sum, min, min, max, max, bands[0],
+                    bands[1], bands[2], bands[3], entry.getKey() });
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                int[] updated = jdbcTemplate.batchUpdate(UPDATE_EXAM_SQL, rows, UPDATE_EXAM_TYPES);
+                for (int i = 0; i < rows.size(); i++) {
+                    if (updated[i] == 0) {
+                        Object[] row = rows.get(i);
+                        jdbcTemplate.update(INSERT_EXAM_SQL, new Object[] { row[0], row[1], row[2], row[3], row[5],
+                                row[7], row[8], row[9], row[10], row[11] }, INSERT_EXAM_TYPES);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Writing exam stats deltas failed ({}), rebuilding {} exams", e.getMessage(), examIds.size());
+            dirty.addAll(examIds);
+        }
+    }
+
+    private void writeQuestionDeltas() {
+        Map<Long, QuestionDelta> deltas = drain(questionDeltas);
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((questionId, delta) -> rows.add(
+                new Object[] { delta.answers, delta.correct, delta.wrong, questionId }));
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                int[] updated = jdbcTemplate.batchUpdate(UPDATE_QUESTION_SQL, rows);
+                List<Object[]> inserts = new ArrayList<>();
+                for (int i = 0; i < rows.size(); i++) {
+                    if (updated[i] == 0) {
+                        inserts.add(rows.get(i));
+                    }
+                }
+                if (!inserts.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_QUESTION_SQL, inserts);
+                }
+            });
+        } catch (RuntimeException e) {
+            Set<Long> examIds = new HashSet<>();
+            deltas.values().forEach(delta -> examIds.add(delta.examId));
+            log.warn("Writing question stats deltas failed ({}), rebuilding {} exams", e.getMessage(),
+                    examIds.size());
+            dirty.addAll(examIds);
+        }
+    }
+
+    /**
+     * Null when the exam does not exist.
+     */
+    private Integer totalPoints(long examId) {
+        List<Integer> points = jdbcTemplate.query(TOTAL_POINTS_SQL, (rs, rowNum) -> {
+            int maxQuestions = rs.getInt(1);
+            int questions = rs.wasNull() ? rs.getInt(2) : maxQuestions;
+            return questions * ExamScoringEngine.POINTS_PER_CORRECT_ANSWER;
+        }, examId);
+        return points.isEmpty() ? null : points.get(0);
+    }
+
+    /**
+     * 0 = excellent, 1 = good, 2 = average, 3 = fail; same boundaries as
+     * REBUILD_EXAM_SQL.
+     */
+    static int band(int score, int totalPoints) {
+        if (score * 10L >= totalPoints * 9L) {
+            return 0;
+        }
+        if (score * 10L >= totalPoints * 7L) {
+            return 1;
+        }
+        if (score * 10L >= totalPoints * 5L) {
+            return 2;
+        }
+        return 3;
+    }
+
+    private static int count(Boolean correct, boolean value) {
+        return correct != null && correct == value ? 1 : 0;
+    }
+
+    // Lấy ra và xoá từng khoá, delta ghi sau thời điểm này sẽ nằm trong map mới
+    private static <V> Map<Long, V> drain(Map<Long, V> deltas) {
+        Map<Long, V> drained = new HashMap<>();
+        for (Long key : deltas.keySet()) {
+            V value = deltas.remove(key);
+            if (value != null) {
+                drained.put(key, value);
+            }
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,331 @@
+package com.example.qnuquiz.service.cluster;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Broadcasts invalidations and short-lived state to the other backend nodes.
+ *
+ * A publisher applies the change locally itself; subscribers of a topic
+ * only see what other nodes published. Inside a transaction the message
+ * is sent after commit, a rolled back change is never broadcast.
+ *
+ * A node can also ask all other live nodes something and wait until each
+ * has replied ({@link #request}). Nodes know each other from heartbeats: a
+ * node that stops says so, a node that crashes is dropped after three
+ * missed heartbeats and until then requests to it time out.
+ *
+ * Relayed: Spring caches, exam snapshots, JWT principals, closed attempts
+ * and leaderboard changes. Answers buffered by ExamAnswerBuffer on other
+ * nodes are flushed on request before an attempt is loaded or finished
+ * (ActiveAttemptRegistry), so a student may switch nodes while taking an
+ * exam. ExamStatsRollup deltas are added to the shared rows by the node
+ * that recorded them. Background jobs need no relay: their state, files
+ * and cancellation live in the database (JobRunner).
+ */
+@Slf4j
+@Component
+public class ClusterBus {
+
+    // requestId: a request, or the request a reply belongs to; to: the node a reply is for
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record Message(String node, String topic, String payload, String requestId, String to) {
+    }
+
+    static final String NODE = "node";
+    static final String REPLY = "reply";
+
+    private static final String JOIN = "join";
+    private static final String ALIVE = "alive";
+    private static final String LEAVE = "leave";
+    private static final int MISSED_HEARTBEATS = 3;
+
+    private final ClusterTransport transport;
+    private final ObjectMapper objectMapper;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, List<ClusterListener>> listeners = new ConcurrentHashMap<>();
+    private final Map<String, ClusterResponder> responders = new ConcurrentHashMap<>();
+    // node id -> last message received from it (ms)
+    private final Map<String, Long> peers = new ConcurrentHashMap<>();
+    private final Map<String, PendingRequest> requests = new ConcurrentHashMap<>();
+    // Không trả lời trên thread của transport: responder có thể ghi DB lâu, các reply khác phải tới được
+    private final ExecutorService responderExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Giá trị mặc định cho bus tạo bằng tay (test)
+    @Value("${cluster.heartbeat-ms:5000}")
+    private long heartbeatMs = 5000;
+
+    @Value("${cluster.request-timeout-ms:3000}")
+    private long requestTimeoutMs = 3000;
+
+    public ClusterBus(ClusterTransport transport, ObjectMapper objectMapper) {
+        this.transport = transport;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void start() {
+        transport.start(this::receive, this::gap);
+        // Các node đang chạy trả lời ALIVE, nên request đầu tiên đã biết đủ node
+        sendNow(new Message(nodeId, NODE, JOIN, null, null));
+        log.info("Cluster bus started: node {}, transport {}", nodeId, transport.getClass().getSimpleName());
+    }
+
+    @PreDestroy
+    public void stop() {
+        sendNow(new Message(nodeId, NODE, LEAVE, null, null));
+        transport.stop();
+        responderExecutor.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${cluster.heartbeat-ms:5000}")
+    public void heartbeat() {
+        sendNow(new Message(nodeId, NODE, ALIVE, null, null));
+    }
+
+    public void subscribe(String topic, ClusterListener listener) {
+        listeners.computeIfAbsent(topic, t -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Registers the handler of the requests other nodes send on the topic,
+     * one per topic.
+     */
+    public void respond(String topic, ClusterResponder responder) {
+        if (responders.putIfAbsent(topic, responder) != null) {
+            throw new IllegalStateException("Cluster topic already has a responder: " + topic);
+        }
+    }
+
+    /**
+     * Other nodes heard from within the last three heartbeats.
+     */
+    public Set<String> peers() {
+        long seenAfter = System.currentTimeMillis() - MISSED_HEARTBEATS * heartbeatMs;
+        peers.values().removeIf(lastSeen -> lastSeen < seenAfter);
+        return Set.copyOf(peers.keySet());
+    }
+
+    public void publish(String topic, String payload) {
+        String message = serialize(new Message(nodeId, topic, payload, null, null));
+
+        // afterCompletion (không phải afterCommit): vẫn chạy khi publish từ một listener AFTER_COMMIT
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        send(topic, message);
+                    }
+                }
+            });
+        } else {
+            send(topic, message);
+        }
+    }
+
+    /**
+     * Sends a request to every other live node and waits until all of them
+     * have replied. Sent at once, also inside a transaction: the caller
+     * waits for the replies.
+     *
+     * @return node id -> reply ("" from a node without a responder for the
+     *         topic), empty when no other node is running
+     * @throws IllegalStateException if the request cannot be sent, a node
+     *         does not reply within cluster.request-timeout-ms or its
+     *         responder fails
+     */
+    public Map<String, String> request(String topic, String payload) {
+        Set<String> awaited = peers();
+        if (awaited.isEmpty()) {
+            return Map.of();
+        }
+        String requestId = UUID.randomUUID().toString();
+        PendingRequest pending = new PendingRequest(awaited);
+        requests.put(requestId, pending);
+        try {
+            transport.send(serialize(new Message(nodeId, topic, payload, requestId, null)));
+            return pending.await(topic, requestTimeoutMs);
+        } finally {
+            requests.remove(requestId);
+        }
+    }
+
+    private String serialize(Message message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize cluster message for " + message.topic(), e);
+        }
+    }
+
+    private void send(String topic, String message) {
+        try {
+            transport.send(message);
+        } catch (RuntimeException e) {
+            // Các node khác giữ bản cũ tối đa tới TTL của cache
+            log.error("Cluster bus: could not publish {}", topic, e);
+        }
+    }
+
+    private void sendNow(Message message) {
+        send(message.topic(), serialize(message));
+    }
+
+    private void receive(String raw) {
+        Message message;
+        try {
+            message = objectMapper.readValue(raw, Message.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Cluster bus: ignoring malformed message {}", raw);
+            return;
+        }
+        if (nodeId.equals(message.node())) {
+            return;
+        }
+        if (NODE.equals(message.topic()) && LEAVE.equals(message.payload())) {
+            peers.remove(message.node());
+            requests.values().forEach(pending -> pending.drop(message.node()));
+            return;
+        }
+        peers.put(message.node(), System.currentTimeMillis());
+
+        if (NODE.equals(message.topic())) {
+            if (JOIN.equals(message.payload())) {
+                sendNow(new Message(nodeId, NODE, ALIVE, null, null));
+            }
+        } else if (REPLY.equals(message.topic())) {
+            PendingRequest pending = nodeId.equals(message.to()) ? requests.get(message.requestId()) : null;
+            if (pending != null) {
+                pending.reply(message.node(), message.payload());
+            }
+        } else if (message.requestId() != null) {
+            responderExecutor.execute(() -> reply(message));
+        } else {
+            for (ClusterListener listener : listeners.getOrDefault(message.topic(), List.of())) {
+                try {
+                    listener.onMessage(message.payload());
+                } catch (RuntimeException e) {
+                    log.error("Cluster bus: listener for {} failed", message.topic(), e);
+                }
+            }
+        }
+    }
+
+    // Reply null: responder lỗi, node gửi request báo lỗi ngay thay vì chờ hết giờ
+    private void reply(Message request) {
+        ClusterResponder responder = responders.get(request.topic());
+        String reply = null;
+        try {
+            reply = responder != null ? responder.onRequest(request.payload()) : "";
+        } catch (RuntimeException e) {
+            log.error("Cluster bus: responder for {} failed", request.topic(), e);
+        }
+        sendNow(new Message(nodeId, REPLY, reply, request.requestId(), request.node()));
+    }
+
+    private void gap() {
+        listeners.forEach((topic, topicListeners) -> topicListeners.forEach(listener -> {
+            try {
+                listener.onGap();
+            } catch (RuntimeException e) {
+                log.error("Cluster bus: resync of {} failed", topic, e);
+            }
+        }));
+    }
+
+    /**
+     * Replies still expected for one request. A lock and condition rather
+     * than wait/notify, which would pin a virtual thread (JDK 21).
+     */
+    private static final class PendingRequest {
+
+        private final Set<String> awaited;
+        private final Map<String, String> replies = new HashMap<>();
+        private final List<String> failed = new ArrayList<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition done = lock.newCondition();
+
+        PendingRequest(Set<String> awaited) {
+            this.awaited = new HashSet<>(awaited);
+        }
+
+        void reply(String node, String payload) {
+            lock.lock();
+            try {
+                if (awaited.remove(node)) {
+                    if (payload == null) {
+                        failed.add(node);
+                    } else {
+                        replies.put(node, payload);
+                    }
+                    done.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Node đã dừng: không còn gì để trả lời
+        void drop(String node) {
+            lock.lock();
+            try {
+                if (awaited.remove(node)) {
+                    done.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Map<String, String> await(String topic, long timeoutMs) {
+            lock.lock();
+            try {
+                long left = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+                while (!awaited.isEmpty()) {
+                    if (left <= 0) {
+                        throw new IllegalStateException("Cluster request " + topic + " timed out, no reply from "
+                                + String.join(", ", awaited));
+                    }
+                    left = done.awaitNanos(left);
+                }
+                if (!failed.isEmpty()) {
+                    throw new IllegalStateException("Cluster request " + topic + " failed on "
+                            + String.join(", ", failed));
+                }
+                return Map.copyOf(replies);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for cluster request " + topic, e);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.qnuquiz.service.cluster;
+
+import java.util.UUID;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+/**
+ * Caffeine caches whose evict/clear are repeated on the other nodes.
+ *
+ * Keys that are Long, String or UUID are evicted one by one; any other key
+ * (e.g. the SimpleKey of a multi-argument @Cacheable) clears the whole cache
+ * on the other nodes.
+ */
+public class ClusterCacheManager extends CaffeineCacheManager {
+
+    static final String TOPIC = "cache";
+
+    private static final char SEPARATOR = '\n';
+
+    private final ClusterBus bus;
+
+    public ClusterCacheManager(ClusterBus bus) {
+        this.bus = bus;
+        bus.subscribe(TOPIC, new ClusterListener() {
+            @Override
+            public void onMessage(String payload) {
+                applyRemote(payload);
+            }
+
+            @Override
+            public void onGap() {
+                getCacheNames().forEach(name -> ((ClusterCache) getCache(name)).clearLocal());
+            }
+        });
+    }
+
+    @Override
+    protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+        return new ClusterCache(name, cache, isAllowNullValues());
+    }
+
+    // payload: "<cache>" = clear, "<cache>\n<key>" = evict
+    private void applyRemote(String payload) {
+        int separator = payload.indexOf(SEPARATOR);
+        String name = separator < 0 ? payload : payload.substring(0, separator);
+        if (!(getCache(name) instanceof ClusterCache cache)) {
+            return;
+        }
+        Object key = separator < 0 ? null : decodeKey(payload.substring(separator + 1));
+        if (key == null) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(key);
+        }
+    }
+
+    static String encodeKey(Object key) {
+        if (key instanceof Long id) {
+            return "L" + id;
+        }
+        if (key instanceof UUID id) {
+            return "U" + id;
+        }
+        if (key instanceof String value) {
+            return "S" + value;
+        }
+        return null;
+    }
+
+    static Object decodeKey(String encoded) {
+        String value = encoded.substring(1);
+        return switch (encoded.charAt(0)) {
+            case 'L' -> Long.valueOf(value);
+            case 'U' -> UUID.fromString(value);
+            case 'S' -> value;
+            default -> null;
+        };
+    }
+
+    class ClusterCache extends CaffeineCache {
+
+        ClusterCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                boolean allowNullValues) {
+            super(name, cache, allowNullValues);
+        }
+
+        @Override
+        public void evict(Object key) {
+            super.evict(key);
+            broadcastEvict(key);
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            boolean present = super.evictIfPresent(key);
+            broadcastEvict(key);
+            return present;
+        }
+
+        @Override
+        public void clear() {
+            super.clear();
+            bus.publish(TOPIC, getName());
+        }
+
+        @Override
+        public boolean invalidate() {
+            boolean notEmpty = super.invalidate();
+            bus.publish(TOPIC, getName());
+            return notEmpty;
+        }
+
+        void evictLocal(Object key) {
+            super.evict(key);
+        }
+
+        void clearLocal() {
+            super.clear();
+        }
+
+        private void broadcastEvict(Object key) {
+            String encoded = encodeKey(key);
+            bus.publish(TOPIC, encoded == null ? getName() : getName() + SEPARATOR + encoded);
+        }
+    }
+}
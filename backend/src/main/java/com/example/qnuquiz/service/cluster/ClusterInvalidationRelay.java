@@ -0,0 +1,116 @@
+package com.example.qnuquiz.service.cluster;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.qnuquiz.security.CustomUserDetailsService;
+import com.example.qnuquiz.security.UserChangedEvent;
+import com.example.qnuquiz.service.exam.ActiveAttemptRegistry;
+import com.example.qnuquiz.service.exam.AttemptDeadlines;
+import com.example.qnuquiz.service.exam.ExamAttemptsClosedEvent;
+import com.example.qnuquiz.service.exam.ExamContentChangedEvent;
+import com.example.qnuquiz.service.exam.ExamSnapshotCache;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Repeats the local invalidations of the caches that are not Spring caches
+ * (exam snapshots, attempt deadlines, JWT principals, attempts in progress)
+ * on the other nodes.
+ */
+@Component
+@RequiredArgsConstructor
+public class ClusterInvalidationRelay {
+
+    static final String EXAM_CONTENT = "exam-content";
+    static final String USER = "user";
+    static final String ATTEMPT = "attempt";
+
+    private static final String ALL = "*";
+    private static final int MAX_IDS_LENGTH = 4000;
+
+    private final ClusterBus bus;
+    private final ExamSnapshotCache examSnapshotCache;
+    private final CustomUserDetailsService userDetailsService;
+    private final ActiveAttemptRegistry activeAttempts;
+    private final AttemptDeadlines attemptDeadlines;
+
+    @PostConstruct
+    public void subscribe() {
+        bus.subscribe(EXAM_CONTENT, new ClusterListener() {
+            @Override
+            public void onMessage(String payload) {
+                if (ALL.equals(payload)) {
+                    onGap();
+                } else {
+                    List<Long> examIds = Arrays.stream(payload.split(",")).map(Long::valueOf).toList();
+                    examIds.forEach(examSnapshotCache::invalidate);
+                    attemptDeadlines.reload(examIds);
+                }
+            }
+
+            @Override
+            public void onGap() {
+                examSnapshotCache.invalidateAll();
+                attemptDeadlines.reconcile();
+            }
+        });
+        bus.subscribe(USER, new ClusterListener() {
+            @Override
+            public void onMessage(String payload) {
+                userDetailsService.evict(UUID.fromString(payload));
+            }
+
+            @Override
+            public void onGap() {
+                userDetailsService.evictAll();
+            }
+        });
+        bus.subscribe(ATTEMPT, new ClusterListener() {
+            @Override
+            public void onMessage(String payload) {
+                if (ALL.equals(payload)) {
+                    activeAttempts.clear();
+                } else {
+                    activeAttempts.removeAll(Arrays.stream(payload.split(",")).map(Long::valueOf).toList());
+                }
+            }
+
+            @Override
+            public void onGap() {
+                // Attempt còn làm dở được nạp lại từ DB ở lần trả lời tiếp theo
+                activeAttempts.clear();
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamContentChanged(ExamContentChangedEvent event) {
+        if (event.examIds().isEmpty()) {
+            return;
+        }
+        String ids = event.examIds().stream().map(String::valueOf).collect(Collectors.joining(","));
+        // NOTIFY giới hạn 8000 byte: quá nhiều đề thì các node khác xoá toàn bộ
+        bus.publish(EXAM_CONTENT, ids.length() > MAX_IDS_LENGTH ? ALL : ids);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAttemptsClosed(ExamAttemptsClosedEvent event) {
+        if (event.attemptIds().isEmpty()) {
+            return;
+        }
+        String ids = event.attemptIds().stream().map(String::valueOf).collect(Collectors.joining(","));
+        bus.publish(ATTEMPT, ids.length() > MAX_IDS_LENGTH ? ALL : ids);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        bus.publish(USER, event.userId().toString());
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.qnuquiz.service.cluster;
+
+/**
+ * Receives the messages other nodes publish on one {@link ClusterBus} topic.
+ */
+@FunctionalInterface
+public interface ClusterListener {
+
+    void onMessage(String payload);
+
+    /**
+     * Messages may have been lost (transport reconnected): drop everything
+     * that a missed message could have invalidated.
+     */
+    default void onGap() {
+    }
+}
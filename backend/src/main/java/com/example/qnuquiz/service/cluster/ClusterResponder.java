@@ -0,0 +1,15 @@
+package com.example.qnuquiz.service.cluster;
+
+/**
+ * Answers the requests other nodes send with {@link ClusterBus#request} on
+ * one topic.
+ */
+@FunctionalInterface
+public interface ClusterResponder {
+
+    /**
+     * @return the reply, never null; an exception is reported to the
+     *         requesting node as a failure
+     */
+    String onRequest(String payload);
+}
@@ -0,0 +1,19 @@
+package com.example.qnuquiz.service.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries {@link ClusterBus} messages between backend nodes.
+ *
+ * Every started node receives every message, the sender included; the bus
+ * drops its own messages. Delivery is best effort: a transport that may have
+ * missed messages (e.g. after a reconnect) calls {@code onGap}.
+ */
+public interface ClusterTransport {
+
+    void start(Consumer<String> receiver, Runnable onGap);
+
+    void send(String message);
+
+    void stop();
+}
@@ -0,0 +1,37 @@
+package com.example.qnuquiz.service.cluster;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Delivers messages synchronously to every bus started in this JVM.
+ * Single-node deployments and tests (several buses = several nodes).
+ */
+@Component
+@ConditionalOnProperty(name = "cluster.transport", havingValue = "local", matchIfMissing = true)
+public class InProcessTransport implements ClusterTransport {
+
+    private static final List<Consumer<String>> RECEIVERS = new CopyOnWriteArrayList<>();
+
+    private Consumer<String> receiver;
+
+    @Override
+    public void start(Consumer<String> receiver, Runnable onGap) {
+        this.receiver = receiver;
+        RECEIVERS.add(receiver);
+    }
+
+    @Override
+    public void send(String message) {
+        RECEIVERS.forEach(r -> r.accept(message));
+    }
+
+    @Override
+    public void stop() {
+        RECEIVERS.remove(receiver);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.qnuquiz.service.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * PostgreSQL LISTEN/NOTIFY: every node LISTENs on one channel over a
+ * connection it keeps for itself, messages are sent with pg_notify().
+ *
+ * NOTIFY is not persisted, a node that is disconnected misses messages, so
+ * listeners get onGap after each reconnect. Payloads are limited to 8000 bytes.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cluster.transport", havingValue = "postgres")
+public class PostgresNotifyTransport implements ClusterTransport {
+
+    private static final int MAX_PAYLOAD_BYTES = 7999;
+    private static final int POLL_TIMEOUT_MS = 1000;
+    private static final long RETRY_DELAY_MS = 2000;
+
+    private final DataSource dataSource;
+    private final String channel;
+
+    private volatile boolean running;
+    private Thread listener;
+
+    public PostgresNotifyTransport(DataSource dataSource,
+            @Value("${cluster.channel:qnuquiz_cluster}") String channel) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid cluster.channel: " + channel);
+        }
+        this.dataSource = dataSource;
+        this.channel = channel;
+    }
+
+    @Override
+    public void start(Consumer<String> receiver, Runnable onGap) {
+        running = true;
+        listener = new Thread(() -> listen(receiver, onGap), "cluster-listen");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public void send(String message) {
+        if (message.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+            throw new IllegalArgumentException("Cluster message too large for NOTIFY: " + message.length());
+        }
+        // Kết nối riêng, autocommit: không gắn vào transaction (có thể đã commit) của thread hiện tại
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            try (PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+                statement.setString(1, channel);
+                statement.setString(2, message);
+                statement.execute();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("NOTIFY " + channel + " failed", e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    private void listen(Consumer<String> receiver, Runnable onGap) {
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                if (connectedBefore) {
+                    log.info("Cluster bus: LISTEN {} re-established", channel);
+                    onGap.run();
+                }
+                connectedBefore = true;
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receiver.accept(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cluster bus: LISTEN {} lost, retrying in {} ms: {}", channel, RETRY_DELAY_MS,
+                        e.getMessage());
+                try {
+                    Thread.sleep(RETRY_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+}
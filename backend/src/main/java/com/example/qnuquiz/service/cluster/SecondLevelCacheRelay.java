@@ -0,0 +1,89 @@
+package com.example.qnuquiz.service.cluster;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Keeps the Hibernate second-level cache (reference data) consistent across
+ * nodes: a committed insert/update/delete of a cached entity drops that
+ * entity region and the query cache on the other nodes.
+ */
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheRelay implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    static final String TOPIC = "l2";
+
+    private final ClusterBus bus;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private SessionFactoryImplementor sessionFactory;
+
+    @PostConstruct
+    public void register() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+
+        bus.subscribe(TOPIC, new ClusterListener() {
+            @Override
+            public void onMessage(String entityName) {
+                sessionFactory.getCache().evictEntityData(entityName);
+                sessionFactory.getCache().evictQueryRegions();
+            }
+
+            @Override
+            public void onGap() {
+                sessionFactory.getCache().evictAllRegions();
+            }
+        });
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.canWriteToCache();
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        bus.publish(TOPIC, event.getPersister().getEntityName());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        bus.publish(TOPIC, event.getPersister().getEntityName());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        bus.publish(TOPIC, event.getPersister().getEntityName());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.qnuquiz.service.exam;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory state of an attempt that is being taken: its exam and the
+ * latest selection per question (question id -> option id, null for
+ * free-text answers).
+ */
+public final class ActiveAttempt {
+
+    private final long attemptId;
+    private final long examId;
+    private final Map<Long, Long> selections = new HashMap<>();
+    // question id -> highest client sequence number applied (bulk submissions), restored from exam_answers.seq
+    private final Map<Long, Long> lastSeq = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Persists a selection. {@code firstAnswer} is false when the question
+     * already had an answer, {@code replaced} is the option it replaces (null
+     * for none or a free-text answer).
+     */
+    @FunctionalInterface
+    public interface SelectionWriter {
+        void write(boolean firstAnswer, Long replaced);
+    }
+
+    ActiveAttempt(long attemptId, long examId) {
+        this.attemptId = attemptId;
+        this.examId = examId;
+    }
+
+    public long getAttemptId() {
+        return attemptId;
+    }
+
+    public long getExamId() {
+        return examId;
+    }
+
+    /**
+     * Records a selection and runs {@code persist} under the attempt lock so
+     * concurrent answers to the same question reach the buffer in the same
+     * order as they reach this map.
+     */
+    public void select(long questionId, Long optionId, SelectionWriter persist) {
+        lock.lock();
+        try {
+            boolean firstAnswer = !selections.containsKey(questionId);
+            Long replaced = selections.put(questionId, optionId);
+            persist.write(firstAnswer, replaced);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Restores a stored answer and its sequence number (null for a single
+     * answer) when the attempt is loaded from the database.
+     */
+    void restore(long questionId, Long optionId, Long seq) {
+        lock.lock();
+        try {
+            selections.put(questionId, optionId);
+            if (seq != null) {
+                lastSeq.put(questionId, seq);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Like {@link #select} but ignores the answer when a newer or equal
+     * client sequence number was already applied to the question, which
+     * makes retried bulk submissions idempotent. Another node may have
+     * applied a newer seq meanwhile; the buffer then drops this answer when
+     * it flushes (see {@link ExamAnswerBuffer}).
+     *
+     * @return false if the answer was a duplicate
+     */
+    public boolean selectIfNewer(long questionId, Long optionId, long seq, SelectionWriter persist) {
+        lock.lock();
+        try {
+            Long applied = lastSeq.get(questionId);
+            if (applied != null && applied >= seq) {
+                return false;
+            }
+            lastSeq.put(questionId, seq);
+            boolean firstAnswer = !selections.containsKey(questionId);
+            Long replaced = selections.put(questionId, optionId);
+            persist.write(firstAnswer, replaced);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<Long, Long> selections() {
+        lock.lock();
+        try {
+            return new HashMap<>(selections);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.qnuquiz.service.exam;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.stereotype.Component;
+
+import com.example.qnuquiz.repository.ExamAnswerRepository;
+import com.example.qnuquiz.repository.ExamAttemptRepository;
+import com.example.qnuquiz.service.cluster.ClusterBus;
+import com.example.qnuquiz.util.AsyncCaches;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Keeps {@link ActiveAttempt}s in memory so answering and finishing an
+ * attempt do not have to read exam_attempts or exam_answers.
+ *
+ * Attempts created by startExam start empty. Any other attempt (started
+ * before a restart, evicted after a long pause, or answered on another
+ * node) is loaded once from the database after its buffered answers have
+ * been flushed.
+ *
+ * A student may switch nodes while taking an exam. Before an attempt is
+ * loaded or finished, every other node is asked to flush the answers it
+ * buffered for it and to drop it from memory (cluster bus request, answered
+ * by all live nodes); the node that loads the attempt holds it from then on.
+ * When another node did hold answers of a finishing attempt, the attempt is
+ * scored from exam_answers instead of memory.
+ */
+@Component
+@RequiredArgsConstructor
+public class ActiveAttemptRegistry implements MeterBinder {
+
+    static final String ANSWER_FLUSH = "answer-flush";
+
+    private static final int MAX_IDS_LENGTH = 4000;
+
+    private final ExamAttemptRepository examAttemptRepository;
+    private final ExamAnswerRepository examAnswerRepository;
+    private final ExamAnswerBuffer answerBuffer;
+    private final ClusterBus bus;
+
+    // Async để việc nạp từ DB không chạy trong lock của map (xem AsyncCaches)
+    private final AsyncCache<Long, ActiveAttempt> attempts = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofHours(12))
+            .recordStats()
+            .buildAsync();
+
+    @PostConstruct
+    public void subscribe() {
+        bus.respond(ANSWER_FLUSH, payload -> {
+            List<Long> attemptIds = Arrays.stream(payload.split(",")).map(Long::valueOf).toList();
+            boolean held = attemptIds.stream()
+                    .anyMatch(id -> attempts.asMap().containsKey(id) || answerBuffer.hasPending(id));
+            // Bỏ khỏi bộ nhớ trước khi ghi: câu trả lời tới sau đó sẽ nạp lại attempt và hỏi lại node kia
+            removeAll(attemptIds);
+            answerBuffer.flushAttempts(attemptIds);
+            return String.valueOf(held);
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("qnuquiz.exam.attempts.active", attempts, cache -> cache.synchronous().estimatedSize())
+                .description("Attempts in progress held in memory on this node")
+                .register(registry);
+        // Cùng bộ tag với cache của Spring (CacheMetricsRegistrar), Prometheus yêu cầu vậy
+        CaffeineCacheMetrics.monitor(registry, attempts, "activeAttempts",
+                "name", "activeAttempts", "cache.manager", "activeAttemptRegistry");
+    }
+
+    public ActiveAttempt registerNew(long attemptId, long examId) {
+        ActiveAttempt attempt = new ActiveAttempt(attemptId, examId);
+        attempts.put(attemptId, CompletableFuture.completedFuture(attempt));
+        return attempt;
+    }
+
+    public ActiveAttempt get(long attemptId) {
+        return AsyncCaches.get(attempts, attemptId, this::load);
+    }
+
+    /**
+     * Selections to score a finishing attempt with: the ones in memory,
+     * unless another node accepted answers for the attempt; then the stored
+     * ones, after every node has written its buffer. Throws if a node cannot
+     * write its buffer or does not reply.
+     */
+    public Map<Long, Long> finalSelections(ActiveAttempt attempt) {
+        long attemptId = attempt.getAttemptId();
+        if (!flushOtherNodes(List.of(attemptId))) {
+            return attempt.selections();
+        }
+        return readSelections(List.of(attemptId)).get(attemptId);
+    }
+
+    /**
+     * Selections of a batch of attempts (auto-finish) as stored in
+     * exam_answers, read with one query after the buffered answers of all
+     * nodes have been written; most of them are not in memory here. Attempts
+     * without answers map to an empty selection. Throws if a buffer cannot
+     * be written.
+     */
+    public Map<Long, Map<Long, Long>> storedSelections(Collection<Long> attemptIds) {
+        flushOtherNodes(attemptIds);
+        return readSelections(attemptIds);
+    }
+
+    private Map<Long, Map<Long, Long>> readSelections(Collection<Long> attemptIds) {
+        answerBuffer.flushAttempts(attemptIds);
+        Map<Long, Map<Long, Long>> result = new HashMap<>();
+        attemptIds.forEach(attemptId -> result.put(attemptId, new HashMap<>()));
+        for (Object[] row : examAnswerRepository.findSelectionsByAttemptIds(attemptIds)) {
+            result.get((Long) row[0]).put((Long) row[1], (Long) row[2]);
+        }
+        return result;
+    }
+
+    public void remove(long attemptId) {
+        attempts.synchronous().invalidate(attemptId);
+    }
+
+    public void removeAll(Collection<Long> attemptIds) {
+        attempts.synchronous().invalidateAll(attemptIds);
+    }
+
+    public void clear() {
+        attempts.synchronous().invalidateAll();
+    }
+
+    /**
+     * Makes the other nodes write their buffered answers of the attempts and
+     * drop them from memory.
+     *
+     * @return true if another node had accepted answers for one of them
+     */
+    private boolean flushOtherNodes(Collection<Long> attemptIds) {
+        boolean held = false;
+        // NOTIFY giới hạn 8000 byte: danh sách dài được gửi thành nhiều request
+        List<String> chunks = new ArrayList<>();
+        StringBuilder chunk = new StringBuilder();
+        for (Long attemptId : attemptIds) {
+            if (chunk.length() > MAX_IDS_LENGTH) {
+                chunks.add(chunk.toString());
+                chunk.setLength(0);
+            }
+            chunk.append(chunk.isEmpty() ? "" : ",").append(attemptId);
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk.toString());
+        }
+        for (String ids : chunks) {
+            held |= bus.request(ANSWER_FLUSH, ids).containsValue(String.valueOf(true));
+        }
+        return held;
+    }
+
+    private ActiveAttempt load(Long attemptId) {
+        long examId = examAttemptRepository.findExamIdById(attemptId)
+                .orElseThrow(() -> new EntityNotFoundException("Attempt not found: " + attemptId));
+
+        flushOtherNodes(List.of(attemptId));
+        answerBuffer.flushAttempt(attemptId);
+        ActiveAttempt attempt = new ActiveAttempt(attemptId, examId);
+        for (Object[] row : examAnswerRepository.findSelectionsByAttemptId(attemptId)) {
+            attempt.restore((Long) row[0], (Long) row[1], (Long) row[2]);
+        }
+        return attempt;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.qnuquiz.service.exam;
+
+import java.util.Map;
+
+/**
+ * Compact answer key of one exam snapshot.
+ *
+ * Each option gets a slot (0..63) inside its question, and the key stores
+ * question id -> bitset of correct slots plus option id -> (question id, slot).
+ * Grading an answer is two primitive map lookups and a bit test.
+ */
+public final class AnswerKey {
+
+    public static final int MAX_OPTIONS_PER_QUESTION = 64;
+    public static final long UNKNOWN = -1L;
+
+    private static final int SLOT_BITS = 6;
+    private static final long SLOT_MASK = (1L << SLOT_BITS) - 1;
+
+    private final LongLongHashMap correctSlots;
+    private final LongLongHashMap optionSlots;
+
+    AnswerKey(int questionCount, int optionCount) {
+        this.correctSlots = new LongLongHashMap(questionCount);
+        this.optionSlots = new LongLongHashMap(optionCount);
+    }
+
+    void addQuestion(long questionId) {
+        correctSlots.put(questionId, 0L);
+    }
+
+    void addOption(long questionId, long optionId, int slot, boolean correct) {
+        if (slot >= MAX_OPTIONS_PER_QUESTION) {
+            throw new IllegalStateException("Question " + questionId + " has more than "
+                    + MAX_OPTIONS_PER_QUESTION + " options");
+        }
+        optionSlots.put(optionId, (questionId << SLOT_BITS) | slot);
+        if (correct) {
+            correctSlots.put(questionId, correctSlots.get(questionId, 0L) | (1L << slot));
+        }
+    }
+
+    /**
+     * Returns the question an option belongs to, or {@link #UNKNOWN} if the
+     * option is not part of this exam.
+     */
+    public long questionOf(long optionId) {
+        long packed = optionSlots.get(optionId, UNKNOWN);
+        return packed == UNKNOWN ? UNKNOWN : packed >>> SLOT_BITS;
+    }
+
+    public boolean isCorrect(long optionId) {
+        long packed = optionSlots.get(optionId, UNKNOWN);
+        if (packed == UNKNOWN) {
+            return false;
+        }
+        long correct = correctSlots.get(packed >>> SLOT_BITS, 0L);
+        return (correct & (1L << (packed & SLOT_MASK))) != 0;
+    }
+
+    public boolean containsQuestion(long questionId) {
+        return correctSlots.containsKey(questionId);
+    }
+
+    /**
+     * Counts correct answers in a question id -> option id selection map.
+     */
+    public long countCorrect(Map<Long, Long> selections) {
+        long count = 0;
+        for (Long optionId : selections.values()) {
+            if (optionId != null && isCorrect(optionId)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
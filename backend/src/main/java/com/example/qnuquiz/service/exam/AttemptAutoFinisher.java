@@ -0,0 +1,104 @@
+package com.example.qnuquiz.service.exam;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.qnuquiz.dto.exam.ExamResultDto;
+import com.example.qnuquiz.repository.ExamAttemptRepository;
+
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Finishes attempts whose time is up, scored like finishExam.
+ *
+ * A batch costs one query for the attempts, one for their stored answers
+ * and one JDBC batch of updates. Unlike finishExam, the batch is scored
+ * from exam_answers (after every node has written its buffer): most of
+ * these attempts are not in memory on this node, and loading them one by
+ * one would cost two queries each. The update only touches attempts that
+ * are still unsubmitted, the same guard as ExamAttemptRepository.finish,
+ * so a student finishing at the same moment (or another node sweeping the
+ * same attempt) wins and the attempt is counted once.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AttemptAutoFinisher {
+
+    private static final String FINISH_SQL = """
+            UPDATE exam_attempts SET score = ?, submitted = TRUE, end_time = ?
+            WHERE id = ? AND submitted = FALSE
+            """;
+
+    private final ExamAttemptRepository examAttemptRepository;
+    private final ActiveAttemptRegistry activeAttempts;
+    private final ExamScoringEngine scoringEngine;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * @param endTimes attempt id -> time the attempt closed, stored as its end_time
+     * @return the number of attempts finished; submitted ones are skipped
+     */
+    public int finish(Map<Long, Timestamp> endTimes) {
+        // [id, examId, studentId, createdAt, score]
+        List<Object[]> rows = examAttemptRepository.findUnsubmittedByIds(endTimes.keySet());
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        // Chấm từ exam_answers sau khi mọi node đã ghi buffer của các attempt này
+        Map<Long, Map<Long, Long>> selections = activeAttempts.storedSelections(
+                rows.stream().map(row -> (Long) row[0]).toList());
+
+        List<Object[]> updates = new ArrayList<>(rows.size());
+        List<ExamAttemptFinishedEvent> events = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            long attemptId = (Long) row[0];
+            long examId = (Long) row[1];
+            ExamResultDto result;
+            try {
+                result = scoringEngine.score(examId, selections.get(attemptId));
+            } catch (EntityNotFoundException e) {
+                // Đề vừa bị xoá cùng các attempt của nó
+                log.warn("Skipping auto-finish of attempt {}: {}", attemptId, e.getMessage());
+                continue;
+            }
+            int previousScore = row[4] != null ? (Integer) row[4] : 0;
+            updates.add(new Object[] { result.getScore(), endTimes.get(attemptId), attemptId });
+            events.add(row[2] == null ? null
+                    : new ExamAttemptFinishedEvent(attemptId, examId, (Long) row[2],
+                            result.getScore() - previousScore, (Timestamp) row[3], result.getScore(), true));
+        }
+
+        List<Long> finished = new ArrayList<>(updates.size());
+        transactionTemplate.executeWithoutResult(status -> {
+            int[] counts = jdbcTemplate.batchUpdate(FINISH_SQL, updates);
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                    finished.add((Long) updates.get(i)[2]);
+                    if (events.get(i) != null) {
+                        // Listener chạy sau khi commit
+                        eventPublisher.publishEvent(events.get(i));
+                    }
+                }
+            }
+        });
+        activeAttempts.removeAll(finished);
+        if (!finished.isEmpty()) {
+            eventPublisher.publishEvent(new ExamAttemptsClosedEvent(finished));
+        }
+        return finished.size();
+    }
+}
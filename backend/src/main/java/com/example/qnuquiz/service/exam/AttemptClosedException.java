@@ -0,0 +1,13 @@
+package com.example.qnuquiz.service.exam;
+
+/**
+ * Thrown when an attempt can no longer be answered or finished: its time is
+ * up, or it was finished meanwhile by another request or the deadline
+ * sweeper. Reported as the "closed" outcome by {@link ExamMetrics}.
+ */
+public class AttemptClosedException extends IllegalStateException {
+
+    public AttemptClosedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.qnuquiz.service.exam;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.qnuquiz.repository.ExamAttemptRepository;
+import com.example.qnuquiz.util.AsyncCaches;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Server-side exam timer.
+ *
+ * An attempt closes at its start time + the exam's duration, or at the
+ * exam's end time if that comes first. Answers after that (plus a grace
+ * period for network latency) are rejected from memory, and a sweeper
+ * finishes expired attempts in batches.
+ *
+ * Pending deadlines sit in a priority queue that is rebuilt from the
+ * unsubmitted attempts on startup and re-read periodically, which also
+ * picks up attempts started on another node. When an exam changes, the
+ * deadlines of its open attempts are re-read right away, so a shortened or
+ * removed time limit takes effect without waiting for the reconcile.
+ */
+@Slf4j
+@Component
+public class AttemptDeadlines implements MeterBinder {
+
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private record Deadline(long attemptId, long closesAt) {
+    }
+
+    private final ExamAttemptRepository examAttemptRepository;
+    private final AttemptAutoFinisher finisher;
+
+    @Value("${exam.timer.grace-seconds:30}")
+    private long graceSeconds;
+
+    @Value("${exam.timer.batch-size:200}")
+    private int batchSize;
+
+    private final PriorityBlockingQueue<Deadline> queue = new PriorityBlockingQueue<>(64,
+            Comparator.comparingLong(Deadline::closesAt));
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+
+    // attemptId -> closesAt (epoch ms), cả attempt do node khác tạo
+    private final AsyncCache<Long, Long> closesAt = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofHours(12))
+            .buildAsync();
+
+    public AttemptDeadlines(ExamAttemptRepository examAttemptRepository, AttemptAutoFinisher finisher) {
+        this.examAttemptRepository = examAttemptRepository;
+        this.finisher = finisher;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("qnuquiz.exam.attempts.deadlines", queue, PriorityBlockingQueue::size)
+                .description("Open attempts with a pending deadline")
+                .register(registry);
+        Gauge.builder("qnuquiz.exam.attempts.overdue", this, AttemptDeadlines::countOverdue)
+                .description("Open attempts past their deadline, not yet auto-finished")
+                .register(registry);
+    }
+
+    /**
+     * Closing time of an attempt in epoch ms, {@link #NO_DEADLINE} when the
+     * exam has neither a duration nor an end time.
+     */
+    public static long closesAt(Timestamp startTime, Integer durationMinutes, Timestamp examEndTime) {
+        long closes = NO_DEADLINE;
+        if (startTime != null && durationMinutes != null && durationMinutes > 0) {
+            closes = startTime.getTime() + Duration.ofMinutes(durationMinutes).toMillis();
+        }
+        if (examEndTime != null) {
+            closes = Math.min(closes, examEndTime.getTime());
+        }
+        return closes;
+    }
+
+    public void schedule(long attemptId, long closes) {
+        Long previous = closesAt.synchronous().getIfPresent(attemptId);
+        closesAt.put(attemptId, CompletableFuture.completedFuture(closes));
+        if (previous != null && previous != closes && queued.remove(attemptId)) {
+            // Hạn nộp đổi: mục cũ trong hàng đợi có thể muộn hơn hạn mới
+            queue.removeIf(deadline -> deadline.attemptId() == attemptId);
+        }
+        enqueue(attemptId, closes);
+    }
+
+    public boolean isExpired(long attemptId) {
+        Long closes = AsyncCaches.get(closesAt, attemptId, this::load);
+        return closes != null && closes != NO_DEADLINE && System.currentTimeMillis() > closes + graceMillis();
+    }
+
+    /**
+     * Rejects answers to an attempt whose time is up, without a query once
+     * the attempt's deadline is known to this node.
+     */
+    public void checkOpen(long attemptId) {
+        if (isExpired(attemptId)) {
+            throw new AttemptClosedException("Time is up for attempt " + attemptId);
+        }
+    }
+
+    /**
+     * Finishes an expired attempt right away instead of waiting for the sweeper.
+     */
+    public void finishNow(long attemptId) {
+        Long closes = AsyncCaches.get(closesAt, attemptId, this::load);
+        if (closes != null && closes != NO_DEADLINE) {
+            finisher.finish(Map.of(attemptId, new Timestamp(closes)));
+        }
+    }
+
+    /**
+     * Re-reads the deadlines of the open attempts of the given exams, after
+     * their duration or end time may have changed (here or on another node).
+     */
+    public void reload(Collection<Long> examIds) {
+        if (examIds.isEmpty()) {
+            return;
+        }
+        for (Object[] row : examAttemptRepository.findTimingOfUnsubmittedByExamIds(examIds)) {
+            schedule((Long) row[0], closesAt((Timestamp) row[1], (Integer) row[2], (Timestamp) row[3]));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamContentChanged(ExamContentChangedEvent event) {
+        reload(event.examIds());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${exam.timer.reconcile-interval-ms:300000}",
+            fixedDelayString = "${exam.timer.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        List<Object[]> rows = examAttemptRepository.findTimingOfUnsubmitted();
+        for (Object[] row : rows) {
+            schedule((Long) row[0], closesAt((Timestamp) row[1], (Integer) row[2], (Timestamp) row[3]));
+        }
+        log.debug("Exam timer: {} unsubmitted attempts, {} deadlines pending", rows.size(), queue.size());
+    }
+
+    @Scheduled(fixedDelayString = "${exam.timer.sweep-interval-ms:1000}")
+    public void sweep() {
+        long cutoff = System.currentTimeMillis() - graceMillis();
+        Map<Long, Timestamp> batch = new HashMap<>();
+        Deadline head;
+        while ((head = queue.peek()) != null && head.closesAt() <= cutoff) {
+            Deadline due = queue.poll();
+            queued.remove(due.attemptId());
+
+            // Đề được gia hạn sau khi attempt vào hàng đợi
+            Long current = closesAt.synchronous().getIfPresent(due.attemptId());
+            if (current != null && current > due.closesAt()) {
+                enqueue(due.attemptId(), current);
+                continue;
+            }
+
+            batch.put(due.attemptId(), new Timestamp(due.closesAt()));
+            if (batch.size() >= batchSize) {
+                finishBatch(batch);
+                batch = new HashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            finishBatch(batch);
+        }
+    }
+
+    private void finishBatch(Map<Long, Timestamp> batch) {
+        try {
+            int finished = finisher.finish(batch);
+            if (finished > 0) {
+                log.info("Exam timer: auto-finished {} expired attempts", finished);
+            }
+        } catch (RuntimeException e) {
+            // Các attempt này quay lại hàng đợi ở lần reconcile sau
+            log.error("Exam timer: auto-finish of {} attempts failed", batch.size(), e);
+        }
+    }
+
+    // Hàng đợi sắp theo hạn nộp nhưng iterator không theo thứ tự, nên phải duyệt hết
+    private long countOverdue() {
+        long now = System.currentTimeMillis();
+        return queue.stream().filter(deadline -> deadline.closesAt() <= now).count();
+    }
+
+    private void enqueue(long attemptId, long closes) {
+        if (closes != NO_DEADLINE && queued.add(attemptId)) {
+            queue.add(new Deadline(attemptId, closes));
+        }
+    }
+
+    // null: attempt không tồn tại (không cache), nơi gọi sẽ báo lỗi
+    private Long load(Long attemptId) {
+        List<Object[]> rows = examAttemptRepository.findTimingById(attemptId);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object[] row = rows.get(0);
+        long closes = closesAt((Timestamp) row[1], (Integer) row[2], (Timestamp) row[3]);
+        enqueue(attemptId, closes);
+        return closes;
+    }
+
+    private long graceMillis() {
+        return Duration.ofSeconds(graceSeconds).toMillis();
+    }
+}
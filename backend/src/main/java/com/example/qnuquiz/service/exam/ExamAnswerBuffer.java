@@ -0,0 +1,453 @@
+package com.example.qnuquiz.service.exam;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write-behind buffer for exam answers.
+ *
+ * Answers are acknowledged as soon as they are stored in memory and are
+ * written to exam_answers in JDBC batches: on a timer, when an attempt is
+ * finished and on shutdown. Only the latest choice per (attempt, question)
+ * is kept, so the last write always wins.
+ *
+ * Each (attempt, question) has one exam_answers row (unique index); a row
+ * is updated, or inserted when missing. PostgreSQL databases created before
+ * the index lack it (ddl-auto cannot add it over duplicate rows), so on
+ * startup the duplicates are removed, keeping the newest row, and the index
+ * is created. An answer leaves the buffer only
+ * once it is written, or when its attempt or question no longer exists.
+ * When the database is unavailable the answers stay buffered and are
+ * retried on the next flush.
+ *
+ * Bulk answers carry the client sequence number, stored in exam_answers.seq.
+ * A row is never overwritten by a lower seq, so an answer that another node
+ * (or an earlier retry) already superseded is dropped at flush time. Without
+ * a seq on both sides the time the answer was received (answered_at) decides:
+ * nodes flush in any order, an older answer never replaces a newer one.
+ * Clocks of the nodes are assumed to be in sync (NTP).
+ *
+ * Durability:
+ * - interval: answers live in memory until the next flush
+ * - journal: every answer is also appended to a local journal file which is
+ * replayed on startup and compacted after each flush
+ */
+@Slf4j
+@Component
+public class ExamAnswerBuffer implements MeterBinder {
+
+    public enum Durability {
+        INTERVAL, JOURNAL
+    }
+
+    public record PendingAnswer(long questionId, Long optionId, Boolean correct, String answerText, Long seq,
+            long answeredAt) {
+    }
+
+    // Cả hai có seq: so seq; còn lại so thời điểm nhận. Câu trả lời không có seq giữ seq đã lưu
+    private static final String UPDATE_SQL = """
+            UPDATE exam_answers SET selected_option_id = ?, is_correct = ?, answer_text = ?, seq = COALESCE(?, seq),
+                answered_at = ?
+            WHERE attempt_id = ? AND question_id = ?
+                AND CASE WHEN seq IS NOT NULL AND CAST(? AS BIGINT) IS NOT NULL THEN seq < CAST(? AS BIGINT)
+                    ELSE answered_at IS NULL OR answered_at <= ? END
+            """;
+
+    // Một dòng cho mỗi (attempt_id, question_id): node khác có thể vừa chèn dòng này, khi đó UPDATE lại
+    private static final String INSERT_SQL = """
+            INSERT INTO exam_answers (attempt_id, question_id, selected_option_id, is_correct, answer_text, seq,
+                answered_at, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT DO NOTHING
+            """;
+
+    private static final String MISSING_UNIQUE_INDEX_SQL = """
+            SELECT NOT EXISTS (
+                SELECT 1 FROM pg_index i JOIN pg_class t ON t.oid = i.indrelid
+                WHERE t.relname = 'exam_answers' AND i.indisunique
+                    AND (SELECT array_agg(a.attname::text ORDER BY a.attname) FROM pg_attribute a
+                        WHERE a.attrelid = t.oid AND a.attnum = ANY(i.indkey)) = ARRAY['attempt_id', 'question_id'])
+            """;
+
+    // Khoá bảng để node khác không chèn dòng trùng giữa DELETE và CREATE INDEX
+    private static final String LOCK_ANSWERS_SQL = "LOCK TABLE exam_answers IN SHARE ROW EXCLUSIVE MODE";
+
+    // Giống data/init.sql: giữ dòng mới nhất
+    private static final String DELETE_DUPLICATE_ANSWERS_SQL = """
+            DELETE FROM exam_answers a USING exam_answers b
+            WHERE a.attempt_id = b.attempt_id AND a.question_id = b.question_id AND a.id < b.id
+            """;
+
+    private static final String ADD_UNIQUE_INDEX_SQL = """
+            CREATE UNIQUE INDEX IF NOT EXISTS ux_answers_attempt_question ON exam_answers(attempt_id, question_id)
+            """;
+
+    private record Row(long attemptId, PendingAnswer answer) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // attemptId -> (questionId -> latest answer)
+    private final Map<Long, Map<Long, PendingAnswer>> pending = new ConcurrentHashMap<>();
+
+    // Serializes flushes so the timer and finishExam never insert the same row twice
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ReentrantLock journalLock = new ReentrantLock();
+
+    @Value("${exam.answer-buffer.durability:interval}")
+    private String durabilityMode;
+
+    @Value("${exam.answer-buffer.batch-size:500}")
+    private int batchSize;
+
+    @Value("${exam.answer-buffer.journal-path:./data/answer-journal.log}")
+    private String journalPath;
+
+    private Durability durability;
+    private FileChannel journal;
+
+    public ExamAnswerBuffer(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Transaction riêng: flush có thể được gọi trong transaction readOnly của màn lịch sử,
+        // và lỗi của một batch không được làm hỏng transaction của người gọi
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        ensureUniqueIndex();
+        durability = Durability.valueOf(durabilityMode.trim().toUpperCase());
+        if (durability == Durability.JOURNAL) {
+            Path path = Path.of(journalPath);
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            replayJournal(path);
+            journal = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+        log.info("Answer buffer started in {} mode", durability);
+    }
+
+    /**
+     * Adds ux_answers_attempt_question on PostgreSQL when no unique index
+     * covers (attempt_id, question_id); runs before the first flush.
+     */
+    public void ensureUniqueIndex() {
+        boolean postgres = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())));
+        if (!postgres || !Boolean.TRUE.equals(jdbcTemplate.queryForObject(MISSING_UNIQUE_INDEX_SQL, Boolean.class))) {
+            return;
+        }
+        Integer removed = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute(LOCK_ANSWERS_SQL);
+            int duplicates = jdbcTemplate.update(DELETE_DUPLICATE_ANSWERS_SQL);
+            jdbcTemplate.execute(ADD_UNIQUE_INDEX_SQL);
+            return duplicates;
+        });
+        log.info("Added ux_answers_attempt_question to exam_answers, removed {} duplicate answers", removed);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("qnuquiz.exam.answers.buffered", this, ExamAnswerBuffer::pendingCount)
+                .description("Answers accepted but not yet written to exam_answers on this node")
+                .register(registry);
+    }
+
+    public int pendingCount() {
+        return pending.values().stream().mapToInt(Map::size).sum();
+    }
+
+    public boolean hasPending(long attemptId) {
+        return pending.containsKey(attemptId);
+    }
+
+    public void record(long attemptId, long questionId, Long optionId, Boolean correct) {
+        record(attemptId, questionId, optionId, correct, null);
+    }
+
+    public void record(long attemptId, long questionId, Long optionId, Boolean correct, String answerText) {
+        record(attemptId, questionId, optionId, correct, answerText, null);
+    }
+
+    /**
+     * @param seq client sequence number of a bulk answer, null for a single answer
+     */
+    public void record(long attemptId, long questionId, Long optionId, Boolean correct, String answerText,
+            Long seq) {
+        PendingAnswer answer = new PendingAnswer(questionId, optionId, correct, answerText, seq,
+                System.currentTimeMillis());
+
+        if (durability != Durability.JOURNAL) {
+            put(attemptId, answer);
+            return;
+        }
+
+        // Put and append under one lock so the journal order matches the buffer
+        journalLock.lock();
+        try {
+            put(attemptId, answer);
+            appendToJournal(attemptId, answer);
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the buffered answers of the attempt; throws when the database
+     * is unavailable, the answers then stay buffered for the next flush.
+     */
+    public void flushAttempt(long attemptId) {
+        flush(List.of(attemptId));
+    }
+
+    public void flushAttempts(Collection<Long> attemptIds) {
+        flush(new ArrayList<>(attemptIds));
+    }
+
+    @Scheduled(fixedDelayString = "${exam.answer-buffer.flush-interval-ms:500}")
+    public void flushAll() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            flush(new ArrayList<>(pending.keySet()));
+        } catch (RuntimeException e) {
+            log.warn("Answer flush failed, {} attempts stay buffered: {}", pending.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Drops buffered answers for attempts that are being deleted.
+     */
+    public void discard(Collection<Long> attemptIds) {
+        flushLock.lock();
+        try {
+            attemptIds.forEach(pending::remove);
+            compactJournal();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        flushAll();
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    // Atomic with the empty-map cleanup in flush, so an answer never lands in a removed map
+    private void put(long attemptId, PendingAnswer answer) {
+        pending.compute(attemptId, (id, answers) -> {
+            Map<Long, PendingAnswer> target = answers != null ? answers : new ConcurrentHashMap<>();
+            target.put(answer.questionId(), answer);
+            return target;
+        });
+    }
+
+    private void flush(List<Long> attemptIds) {
+        flushLock.lock();
+        try {
+            List<Row> rows = new ArrayList<>();
+            for (Long attemptId : attemptIds) {
+                Map<Long, PendingAnswer> answers = pending.get(attemptId);
+                if (answers != null) {
+                    answers.values().forEach(answer -> rows.add(new Row(attemptId, answer)));
+                }
+            }
+            if (rows.isEmpty()) {
+                return;
+            }
+
+            // Dòng đã ghi (hoặc bị bỏ vì attempt / câu hỏi đã xoá) mới được xoá khỏi buffer và journal
+            List<Row> done = new ArrayList<>(rows.size());
+            try {
+                for (int from = 0; from < rows.size(); from += batchSize) {
+                    List<Row> chunk = rows.subList(from, Math.min(from + batchSize, rows.size()));
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> writeBatch(chunk));
+                        done.addAll(chunk);
+                    } catch (DataIntegrityViolationException e) {
+                        log.warn("Answer batch failed ({}), retrying row by row", e.getMessage());
+                        writeRowByRow(chunk, done);
+                    }
+                }
+            } finally {
+                if (!done.isEmpty()) {
+                    done.forEach(this::ack);
+                    compactJournal();
+                }
+                log.debug("Flushed {} of {} buffered answers", done.size(), rows.size());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Chỉ xoá khi chưa có câu trả lời mới hơn thay thế; cùng compute với put nên không mất câu trả lời
+    private void ack(Row row) {
+        pending.computeIfPresent(row.attemptId(), (id, answers) -> {
+            answers.remove(row.answer().questionId(), row.answer());
+            return answers.isEmpty() ? null : answers;
+        });
+    }
+
+    private void writeBatch(List<Row> rows) {
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, rows.stream().map(this::updateArgs).toList());
+
+        List<Row> inserts = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (updated[i] == 0) {
+                inserts.add(rows.get(i));
+            }
+        }
+        if (inserts.isEmpty()) {
+            return;
+        }
+        int[] inserted = jdbcTemplate.batchUpdate(INSERT_SQL, inserts.stream().map(this::insertArgs).toList());
+
+        // Dòng đã có (node khác vừa chèn): UPDATE lại; vẫn 0 dòng thì câu trả lời cũ hơn dòng đã lưu
+        List<Object[]> conflicts = new ArrayList<>();
+        for (int i = 0; i < inserts.size(); i++) {
+            if (inserted[i] == 0) {
+                conflicts.add(updateArgs(inserts.get(i)));
+            }
+        }
+        if (!conflicts.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, conflicts);
+        }
+    }
+
+    /**
+     * Retries a failed batch one row at a time. A row that violates a
+     * constraint (its attempt or question was deleted meanwhile) is dropped;
+     * any other error stops the flush and the rest stays buffered.
+     */
+    private void writeRowByRow(List<Row> rows, List<Row> done) {
+        for (Row row : rows) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> writeBatch(List.of(row)));
+            } catch (DataIntegrityViolationException e) {
+                log.warn("Dropping buffered answer attempt={}, question={}: {}", row.attemptId(),
+                        row.answer().questionId(), e.getMessage());
+            }
+            done.add(row);
+        }
+    }
+
+    private Object[] updateArgs(Row row) {
+        PendingAnswer answer = row.answer();
+        Timestamp answeredAt = new Timestamp(answer.answeredAt());
+        return new Object[] { answer.optionId(), answer.correct(), answer.answerText(), answer.seq(), answeredAt,
+                row.attemptId(), answer.questionId(), answer.seq(), answer.seq(), answeredAt };
+    }
+
+    private Object[] insertArgs(Row row) {
+        PendingAnswer answer = row.answer();
+        Timestamp answeredAt = new Timestamp(answer.answeredAt());
+        return new Object[] { row.attemptId(), answer.questionId(), answer.optionId(), answer.correct(),
+                answer.answerText(), answer.seq(), answeredAt, answeredAt };
+    }
+
+    private void appendToJournal(long attemptId, PendingAnswer answer) {
+        try {
+            journal.write(ByteBuffer.wrap(journalLine(attemptId, answer).getBytes(StandardCharsets.UTF_8)));
+            journal.force(false);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write answer journal", e);
+        }
+    }
+
+    private void compactJournal() {
+        if (durability != Durability.JOURNAL) {
+            return;
+        }
+        journalLock.lock();
+        try {
+            StringBuilder sb = new StringBuilder();
+            pending.forEach((attemptId, answers) -> answers.values()
+                    .forEach(answer -> sb.append(journalLine(attemptId, answer))));
+            journal.truncate(0);
+            journal.write(ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8)));
+            journal.force(false);
+        } catch (IOException e) {
+            log.error("Failed to compact answer journal", e);
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    private void replayJournal(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        int count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(";", -1);
+                if (parts.length != 7) {
+                    log.warn("Skipping malformed journal line: {}", line);
+                    continue;
+                }
+                long attemptId = Long.parseLong(parts[0]);
+                PendingAnswer answer = new PendingAnswer(
+                        Long.parseLong(parts[1]),
+                        parts[2].isEmpty() ? null : Long.parseLong(parts[2]),
+                        parts[3].isEmpty() ? null : Boolean.parseBoolean(parts[3]),
+                        parts[4].isEmpty() ? null
+                                : new String(Base64.getDecoder().decode(parts[4]), StandardCharsets.UTF_8),
+                        parts[6].isEmpty() ? null : Long.parseLong(parts[6]),
+                        Long.parseLong(parts[5]));
+                put(attemptId, answer);
+                count++;
+            }
+        }
+        log.info("Replayed {} buffered answers from journal {}", count, path);
+    }
+
+    private String journalLine(long attemptId, PendingAnswer answer) {
+        return attemptId + ";" + answer.questionId() + ";"
+                + (answer.optionId() == null ? "" : answer.optionId()) + ";"
+                + (answer.correct() == null ? "" : answer.correct()) + ";"
+                + (answer.answerText() == null ? ""
+                        : Base64.getEncoder().encodeToString(answer.answerText().getBytes(StandardCharsets.UTF_8)))
+                + ";" + answer.answeredAt() + ";"
+                + (answer.seq() == null ? "" : answer.seq()) + "\n";
+    }
+}
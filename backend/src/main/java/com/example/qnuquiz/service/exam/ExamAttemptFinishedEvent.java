@@ -0,0 +1,12 @@
+package com.example.qnuquiz.service.exam;
+
+import java.sql.Timestamp;
+
+/**
+ * Published when an attempt is submitted. {@code scoreDelta} is the new score
+ * minus the score the attempt had before, so re-submitting never counts twice;
+ * {@code firstSubmission} is false when the attempt had been submitted before.
+ */
+public record ExamAttemptFinishedEvent(long attemptId, long examId, long studentId, long scoreDelta,
+        Timestamp attemptCreatedAt, int score, boolean firstSubmission) {
+}
@@ -0,0 +1,7 @@
+package com.example.qnuquiz.service.exam;
+
+/**
+ * Published when a new attempt is created.
+ */
+public record ExamAttemptStartedEvent(long attemptId, long examId) {
+}
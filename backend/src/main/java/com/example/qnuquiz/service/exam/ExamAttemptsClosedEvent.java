@@ -0,0 +1,16 @@
+package com.example.qnuquiz.service.exam;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published when attempts are finished (by the student or the deadline
+ * sweeper) or deleted, so every node drops them from its
+ * {@link ActiveAttemptRegistry}.
+ */
+public record ExamAttemptsClosedEvent(Collection<Long> attemptIds) {
+
+    public static ExamAttemptsClosedEvent of(Long attemptId) {
+        return new ExamAttemptsClosedEvent(List.of(attemptId));
+    }
+}
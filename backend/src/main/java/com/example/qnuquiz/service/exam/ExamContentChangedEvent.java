@@ -0,0 +1,14 @@
+package com.example.qnuquiz.service.exam;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published when the questions, options or media of one or more exams change.
+ */
+public record ExamContentChangedEvent(Collection<Long> examIds) {
+
+    public static ExamContentChangedEvent of(Long examId) {
+        return new ExamContentChangedEvent(List.of(examId));
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.qnuquiz.service.exam;
+
+/**
+ * Published when an exam and its attempts have been deleted.
+ */
+public record ExamDeletedEvent(long examId) {
+}
@@ -0,0 +1,142 @@
+package com.example.qnuquiz.service.exam;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.qnuquiz.security.CustomUserDetails;
+import com.example.qnuquiz.security.SecurityUtils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityNotFoundException;
+
+/**
+ * Metrics of the exam-taking hot path, scraped from /actuator/prometheus.
+ *
+ * - qnuquiz.exam.operation: timer with percentile histogram, tagged with
+ * operation, exam_bucket, role and outcome
+ * - qnuquiz.exam.answers: accepted answers
+ * - qnuquiz.exam.answers.rate: accepted answers per second over the last
+ * RATE_INTERVAL_MS
+ *
+ * Exam ids are folded into exam_bucket (id mod exam-buckets) so the number
+ * of series stays bounded however many exams there are.
+ */
+@Component
+public class ExamMetrics {
+
+    public static final String START = "start";
+    public static final String ANSWER = "answer";
+    public static final String FINISH = "finish";
+    public static final String QUESTIONS = "questions";
+
+    private static final long RATE_INTERVAL_MS = 5_000;
+
+    private final MeterRegistry registry;
+    private final Meter.MeterProvider<Timer> operations;
+    private final Counter answers;
+    private final int examBuckets;
+
+    private final AtomicLong lastAnswerCount = new AtomicLong();
+    private volatile double answersPerSecond;
+
+    /**
+     * One timed call. Operations that only know the exam once the attempt
+     * is loaded set it with {@link #exam}.
+     */
+    public final class Op {
+
+        private final String operation;
+        private final Timer.Sample sample;
+        private Long examId;
+
+        private Op(String operation, Long examId) {
+            this.operation = operation;
+            this.examId = examId;
+            this.sample = Timer.start(registry);
+        }
+
+        public void exam(long examId) {
+            this.examId = examId;
+        }
+    }
+
+    public ExamMetrics(MeterRegistry registry, @Value("${exam.metrics.exam-buckets:8}") int examBuckets) {
+        this.registry = registry;
+        this.examBuckets = Math.max(1, examBuckets);
+        this.operations = Timer.builder("qnuquiz.exam.operation")
+                .description("Exam-taking operations")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .withRegistry(registry);
+        this.answers = Counter.builder("qnuquiz.exam.answers")
+                .description("Accepted answers")
+                .register(registry);
+        Gauge.builder("qnuquiz.exam.answers.rate", this, metrics -> metrics.answersPerSecond)
+                .description("Accepted answers per second")
+                .baseUnit("answers/s")
+                .register(registry);
+    }
+
+    public <T> T time(String operation, Long examId, Function<Op, T> action) {
+        Op op = new Op(operation, examId);
+        try {
+            T result = action.apply(op);
+            stop(op, null);
+            return result;
+        } catch (RuntimeException | Error e) {
+            stop(op, e);
+            throw e;
+        }
+    }
+
+    public void answersAccepted(int count) {
+        answers.increment(count);
+    }
+
+    @Scheduled(fixedRate = RATE_INTERVAL_MS)
+    public void sampleAnswerRate() {
+        long total = (long) answers.count();
+        long previous = lastAnswerCount.getAndSet(total);
+        answersPerSecond = (total - previous) * 1000.0 / RATE_INTERVAL_MS;
+    }
+
+    private void stop(Op op, Throwable error) {
+        op.sample.stop(operations.withTags(
+                "operation", op.operation,
+                "exam_bucket", op.examId != null ? Long.toString(Math.floorMod(op.examId, examBuckets)) : "none",
+                "role", role(),
+                "outcome", outcome(error)));
+    }
+
+    private static String role() {
+        CustomUserDetails user = SecurityUtils.getCurrentUser();
+        return user != null && user.getRole() != null ? user.getRole().toUpperCase() : "ANONYMOUS";
+    }
+
+    private static String outcome(Throwable error) {
+        if (error == null) {
+            return "success";
+        }
+        if (error instanceof EntityNotFoundException) {
+            return "not_found";
+        }
+        // Hết giờ làm bài hoặc attempt đã được nộp trong lúc đó
+        if (error instanceof AttemptClosedException) {
+            return "closed";
+        }
+        if (error instanceof IllegalArgumentException) {
+            return "invalid";
+        }
+        return "error";
+    }
+}
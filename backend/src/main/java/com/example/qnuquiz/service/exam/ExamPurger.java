@@ -0,0 +1,235 @@
+package com.example.qnuquiz.service.exam;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Deletes an exam with its questions, options, media, attempts, answers,
+ * feedbacks and leaderboard rows.
+ *
+ * The exam is first marked DELETED in one short transaction, which hides it
+ * everywhere (see the restriction on Exams). The rows hanging off it are then
+ * deleted by exam id, at most exam.delete.chunk-size rows per statement and
+ * transaction, pausing exam.delete.pause-ms between chunks so a large exam
+ * never holds long locks or builds huge IN lists. With exam.delete.soft the
+ * request only marks the exam and the purge runs as an EXAM_DELETE job.
+ *
+ * Every step deletes whatever is left, so a purge that was interrupted can
+ * simply be run again.
+ *
+ * On PostgreSQL status is the exam_status enum. Databases created before
+ * soft deletes lack its DELETED value (ddl-auto never changes an enum) and
+ * every query on Exams would fail, so it is added on startup.
+ */
+@Slf4j
+@Component
+public class ExamPurger {
+
+    public static final String DELETED = "DELETED";
+
+    // status là enum exam_status trên PostgreSQL nên dùng literal
+    private static final String MARK_SQL = """
+            UPDATE exams SET status = 'DELETED', updated_at = ? WHERE id = ? AND status <> 'DELETED'
+            """;
+
+    private static final String MISSING_DELETED_STATUS_SQL = """
+            SELECT EXISTS (SELECT 1 FROM pg_type WHERE typname = 'exam_status')
+                AND NOT EXISTS (SELECT 1 FROM pg_enum e JOIN pg_type t ON t.oid = e.enumtypid
+                    WHERE t.typname = 'exam_status' AND e.enumlabel = 'DELETED')
+            """;
+
+    // Giống data/init.sql; chạy ngoài transaction (autocommit)
+    private static final String ADD_DELETED_STATUS_SQL = "ALTER TYPE exam_status ADD VALUE IF NOT EXISTS 'DELETED'";
+
+    private static final String OPEN_ATTEMPTS_SQL = """
+            SELECT id FROM exam_attempts WHERE exam_id = ? AND submitted = FALSE
+            """;
+
+    // Feedback trên đề hoặc trên câu hỏi của đề
+    private static final String DELETE_FEEDBACKS_SQL = """
+            DELETE FROM feedbacks WHERE id IN (
+                SELECT f.id FROM feedbacks f
+                WHERE f.exam_id = ? OR f.question_id IN (SELECT q.id FROM questions q WHERE q.exam_id = ?)
+                LIMIT ?)
+            """;
+
+    private static final String DELETE_ANSWERS_SQL = """
+            DELETE FROM exam_answers WHERE id IN (
+                SELECT a.id FROM exam_answers a JOIN exam_attempts ea ON ea.id = a.attempt_id
+                WHERE ea.exam_id = ?
+                LIMIT ?)
+            """;
+
+    private static final String DELETE_ATTEMPTS_SQL = """
+            DELETE FROM exam_attempts WHERE id IN (SELECT id FROM exam_attempts WHERE exam_id = ? LIMIT ?)
+            """;
+
+    private static final String DELETE_LEADERBOARD_SQL = """
+            DELETE FROM leaderboard WHERE id IN (SELECT id FROM leaderboard WHERE exam_id = ? LIMIT ?)
+            """;
+
+    // Media của mọi câu hỏi trong một câu lệnh; related_id là chuỗi
+    private static final String DELETE_MEDIA_SQL = """
+            DELETE FROM media_files WHERE related_table = 'questions'
+                AND related_id IN (SELECT CAST(q.id AS VARCHAR(20)) FROM questions q WHERE q.exam_id = ?)
+            """;
+
+    private static final String DELETE_OPTIONS_SQL = """
+            DELETE FROM question_options WHERE id IN (
+                SELECT o.id FROM question_options o JOIN questions q ON q.id = o.question_id
+                WHERE q.exam_id = ?
+                LIMIT ?)
+            """;
+
+    private static final String DELETE_QUESTIONS_SQL = """
+            DELETE FROM questions WHERE id IN (SELECT id FROM questions WHERE exam_id = ? LIMIT ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ExamAnswerBuffer answerBuffer;
+    private final ActiveAttemptRegistry activeAttempts;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${exam.delete.soft:true}")
+    private boolean soft;
+
+    @Value("${exam.delete.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${exam.delete.pause-ms:10}")
+    private long pauseMs;
+
+    public ExamPurger(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+            ExamAnswerBuffer answerBuffer, ActiveAttemptRegistry activeAttempts,
+            ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.answerBuffer = answerBuffer;
+        this.activeAttempts = activeAttempts;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Chạy trước khi web server nhận request và trước các tác vụ @Scheduled
+    @PostConstruct
+    public void ensureDeletedStatus() {
+        boolean postgres = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())));
+        if (postgres && Boolean.TRUE.equals(jdbcTemplate.queryForObject(MISSING_DELETED_STATUS_SQL, Boolean.class))) {
+            jdbcTemplate.execute(ADD_DELETED_STATUS_SQL);
+            log.info("Added DELETED to the exam_status enum");
+        }
+    }
+
+    public boolean isSoft() {
+        return soft;
+    }
+
+    /**
+     * Hides the exam; false when it does not exist or is already deleted.
+     */
+    public boolean markDeleted(long examId) {
+        Integer marked = transactionTemplate.execute(status -> jdbcTemplate.update(MARK_SQL,
+                new Timestamp(System.currentTimeMillis()), examId));
+        if (marked == null || marked == 0) {
+            return false;
+        }
+        dropOpenAttempts(examId);
+        eventPublisher.publishEvent(ExamContentChangedEvent.of(examId));
+        return true;
+    }
+
+    /**
+     * True while the exam is marked DELETED and not purged yet. Exams cannot
+     * be used for this: their restriction hides DELETED rows.
+     */
+    public boolean isMarkedDeleted(long examId) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM exams WHERE id = ? AND status = 'DELETED'",
+                Integer.class, examId);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Exams marked DELETED whose rows have not been purged yet.
+     */
+    public List<Long> findMarkedDeleted() {
+        return jdbcTemplate.queryForList("SELECT id FROM exams WHERE status = 'DELETED'", Long.class);
+    }
+
+    /**
+     * Marks the exam if needed, then deletes it chunk by chunk. Returns the
+     * number of rows deleted.
+     */
+    public long purge(long examId) {
+        markDeleted(examId);
+        // Câu trả lời ghi sau khi đánh dấu
+        dropOpenAttempts(examId);
+
+        long deleted = deleteInChunks(DELETE_FEEDBACKS_SQL, examId, examId);
+        deleted += deleteInChunks(DELETE_ANSWERS_SQL, examId);
+        deleted += deleteInChunks(DELETE_ATTEMPTS_SQL, examId);
+        deleted += deleteInChunks(DELETE_LEADERBOARD_SQL, examId);
+        deleted += inTransaction(DELETE_MEDIA_SQL, examId);
+        deleted += deleteInChunks(DELETE_OPTIONS_SQL, examId);
+        deleted += deleteInChunks(DELETE_QUESTIONS_SQL, examId);
+        deleted += inTransaction("DELETE FROM exams WHERE id = ?", examId);
+
+        eventPublisher.publishEvent(new ExamDeletedEvent(examId));
+        log.info("Exam {} purged, {} rows deleted", examId, deleted);
+        return deleted;
+    }
+
+    private void dropOpenAttempts(long examId) {
+        List<Long> attemptIds = jdbcTemplate.queryForList(OPEN_ATTEMPTS_SQL, Long.class, examId);
+        if (!attemptIds.isEmpty()) {
+            answerBuffer.discard(attemptIds);
+            activeAttempts.removeAll(attemptIds);
+            eventPublisher.publishEvent(new ExamAttemptsClosedEvent(attemptIds));
+        }
+    }
+
+    // Tham số cuối của câu lệnh là LIMIT
+    private long deleteInChunks(String sql, Object... args) {
+        Object[] params = new Object[args.length + 1];
+        System.arraycopy(args, 0, params, 0, args.length);
+        params[args.length] = chunkSize;
+
+        long total = 0;
+        while (true) {
+            int deleted = inTransaction(sql, params);
+            total += deleted;
+            if (deleted < chunkSize) {
+                return total;
+            }
+            pause();
+        }
+    }
+
+    private int inTransaction(String sql, Object... params) {
+        Integer deleted = transactionTemplate.execute(status -> jdbcTemplate.update(sql, params));
+        return deleted != null ? deleted : 0;
+    }
+
+    // Nhường khoá và kết nối cho các request khác giữa hai chunk
+    private void pause() {
+        if (pauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while deleting exam", e);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.qnuquiz.service.exam;
+
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.example.qnuquiz.dto.exam.ExamResultDto;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Grades answers against the in-memory {@link AnswerKey} of an exam.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExamScoringEngine {
+
+    public static final int POINTS_PER_CORRECT_ANSWER = 10;
+
+    private final ExamSnapshotCache examSnapshotCache;
+
+    public AnswerKey answerKey(long examId) {
+        return examSnapshotCache.get(examId).getAnswerKey();
+    }
+
+    /**
+     * Scores a question id -> option id selection map. Free-text answers
+     * (null option) count towards the total but are never correct.
+     */
+    public ExamResultDto score(long examId, Map<Long, Long> selections) {
+        long correctCount = answerKey(examId).countCorrect(selections);
+        return ExamResultDto.builder()
+                .score((int) correctCount * POINTS_PER_CORRECT_ANSWER)
+                .correctCount(correctCount)
+                .totalQuestions(selections.size())
+                .build();
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.qnuquiz.service.exam;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.example.qnuquiz.dto.media.MediaFileDto;
+import com.example.qnuquiz.dto.questions.QuestionDTO;
+import com.example.qnuquiz.dto.questions.QuestionOptionDto;
+import com.example.qnuquiz.entity.QuestionOptions;
+import com.example.qnuquiz.entity.Questions;
+
+/**
+ * Immutable, versioned view of an exam's questions, options and media.
+ *
+ * Everything is stored in flat arrays; the options and media of question i
+ * live in [offsets[i], offsets[i + 1]) of the corresponding arrays.
+ * Correct flags are only kept in the {@link AnswerKey} and never copied
+ * into the DTOs sent to students.
+ */
+public final class ExamSnapshot {
+
+    private final long examId;
+    private final long version;
+    private final boolean random;
+
+    private final long[] questionIds;
+    private final String[] questionContents;
+    private final String[] questionTypes;
+
+    private final int[] optionOffsets;
+    private final long[] optionIds;
+    private final String[] optionContents;
+    private final Integer[] optionPositions;
+    private final AnswerKey answerKey;
+
+    private final int[] mediaOffsets;
+    private final MediaFileDto[] media;
+
+    private ExamSnapshot(long examId, long version, boolean random, int questionCount, int optionCount,
+            int mediaCount) {
+        this.examId = examId;
+        this.version = version;
+        this.random = random;
+        this.questionIds = new long[questionCount];
+        this.questionContents = new String[questionCount];
+        this.questionTypes = new String[questionCount];
+        this.optionOffsets = new int[questionCount + 1];
+        this.optionIds = new long[optionCount];
+        this.optionContents = new String[optionCount];
+        this.optionPositions = new Integer[optionCount];
+        this.answerKey = new AnswerKey(questionCount, optionCount);
+        this.mediaOffsets = new int[questionCount + 1];
+        this.media = new MediaFileDto[mediaCount];
+    }
+
+    public static ExamSnapshot of(long examId, long version, boolean random, List<Questions> questions,
+            Map<Long, List<QuestionOptions>> optionsByQuestion, Map<Long, List<MediaFileDto>> mediaByQuestion) {
+        int optionCount = optionsByQuestion.values().stream().mapToInt(List::size).sum();
+        int mediaCount = mediaByQuestion.values().stream().mapToInt(List::size).sum();
+        ExamSnapshot snapshot = new ExamSnapshot(examId, version, random, questions.size(), optionCount, mediaCount);
+
+        int o = 0;
+        int m = 0;
+        for (int i = 0; i < questions.size(); i++) {
+            Questions q = questions.get(i);
+            snapshot.questionIds[i] = q.getId();
+            snapshot.questionContents[i] = q.getContent();
+            snapshot.questionTypes[i] = q.getType();
+
+            snapshot.optionOffsets[i] = o;
+            snapshot.answerKey.addQuestion(q.getId());
+            for (QuestionOptions option : optionsByQuestion.getOrDefault(q.getId(), List.of())) {
+                snapshot.optionIds[o] = option.getId();
+                snapshot.optionContents[o] = option.getContent();
+                snapshot.optionPositions[o] = option.getPosition();
+                snapshot.answerKey.addOption(q.getId(), option.getId(), o - snapshot.optionOffsets[i],
+                        option.isIsCorrect());
+                o++;
+            }
+
+            snapshot.mediaOffsets[i] = m;
+            for (MediaFileDto file : mediaByQuestion.getOrDefault(q.getId(), List.of())) {
+                snapshot.media[m++] = file;
+            }
+        }
+        snapshot.optionOffsets[questions.size()] = o;
+        snapshot.mediaOffsets[questions.size()] = m;
+        return snapshot;
+    }
+
+    public long getExamId() {
+        return examId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isRandom() {
+        return random;
+    }
+
+    public AnswerKey getAnswerKey() {
+        return answerKey;
+    }
+
+    public int size() {
+        return questionIds.length;
+    }
+
+    /**
+     * Picks up to {@code limit} distinct question indices in random order
+     * (partial Fisher-Yates shuffle).
+     */
+    public int[] randomIndices(int limit) {
+        int n = size();
+        int[] indices = new int[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = i;
+        }
+        int picked = Math.min(limit, n);
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        for (int i = 0; i < picked; i++) {
+            int j = i + rnd.nextInt(n - i);
+            int tmp = indices[i];
+            indices[i] = indices[j];
+            indices[j] = tmp;
+        }
+        int[] result = new int[picked];
+        System.arraycopy(indices, 0, result, 0, picked);
+        return result;
+    }
+
+    public int[] allIndices() {
+        int[] indices = new int[size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+        return indices;
+    }
+
+    public QuestionDTO toQuestionDTO(int index) {
+        List<QuestionOptionDto> options = new ArrayList<>(optionOffsets[index + 1] - optionOffsets[index]);
+        for (int o = optionOffsets[index]; o < optionOffsets[index + 1]; o++) {
+            options.add(QuestionOptionDto.builder()
+                    .id(optionIds[o])
+                    .content(optionContents[o])
+                    .position(optionPositions[o])
+                    .build());
+        }
+
+        List<MediaFileDto> mediaFiles = new ArrayList<>(mediaOffsets[index + 1] - mediaOffsets[index]);
+        for (int m = mediaOffsets[index]; m < mediaOffsets[index + 1]; m++) {
+            MediaFileDto file = media[m];
+            mediaFiles.add(new MediaFileDto(file.getId(), file.getFileName(), file.getFileUrl(), file.getMimeType(),
+                    file.getSizeBytes(), file.getQuestionId(), file.getDescription(), file.getCreatedAt()));
+        }
+
+        return QuestionDTO.builder()
+                .id(questionIds[index])
+                .content(questionContents[index])
+                .type(questionTypes[index])
+                .options(options)
+                .mediaFiles(mediaFiles)
+                .mediaUrl(mediaFiles.isEmpty() ? null : mediaFiles.get(0).getFileUrl())
+                .build();
+    }
+}
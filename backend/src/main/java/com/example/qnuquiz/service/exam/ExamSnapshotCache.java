@@ -0,0 +1,100 @@
+package com.example.qnuquiz.service.exam;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.qnuquiz.entity.Exams;
+import com.example.qnuquiz.entity.QuestionOptions;
+import com.example.qnuquiz.entity.Questions;
+import com.example.qnuquiz.repository.ExamRepository;
+import com.example.qnuquiz.repository.QuestionOptionsRepository;
+import com.example.qnuquiz.repository.QuestionRepository;
+import com.example.qnuquiz.service.MediaFileService;
+import com.example.qnuquiz.util.AsyncCaches;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds one {@link ExamSnapshot} per (exam id, version).
+ *
+ * A snapshot is built with one query per table (exam, questions, options,
+ * media). Any change to an exam's content bumps its version, so readers
+ * never see a snapshot that was built before the change was committed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExamSnapshotCache implements MeterBinder {
+
+    private record SnapshotKey(long examId, long version) {
+    }
+
+    private final ExamRepository examRepository;
+    private final QuestionRepository questionRepository;
+    private final QuestionOptionsRepository optionRepository;
+    private final MediaFileService mediaFileService;
+
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+    private final AsyncCache<SnapshotKey, ExamSnapshot> snapshots = Caffeine.newBuilder()
+            .maximumSize(500)
+            .expireAfterAccess(Duration.ofHours(6))
+            .recordStats()
+            .buildAsync();
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, snapshots, "examSnapshots",
+                "name", "examSnapshots", "cache.manager", "examSnapshotCache");
+    }
+
+    public ExamSnapshot get(long examId) {
+        long version = versions.getOrDefault(examId, 0L);
+        return AsyncCaches.get(snapshots, new SnapshotKey(examId, version), key -> load(key.examId(), key.version()));
+    }
+
+    public void invalidate(long examId) {
+        long current = versions.merge(examId, 1L, Long::sum);
+        snapshots.synchronous().invalidate(new SnapshotKey(examId, current - 1));
+    }
+
+    public void invalidateAll() {
+        versions.replaceAll((examId, version) -> version + 1);
+        snapshots.synchronous().invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamContentChanged(ExamContentChangedEvent event) {
+        event.examIds().forEach(this::invalidate);
+    }
+
+    private ExamSnapshot load(long examId, long version) {
+        Exams exam = examRepository.findById(examId)
+                .orElseThrow(() -> new EntityNotFoundException("Exam not found: " + examId));
+
+        List<Questions> questions = questionRepository.findByExamsId(examId);
+        List<Long> questionIds = questions.stream().map(Questions::getId).toList();
+
+        Map<Long, List<QuestionOptions>> options = questionIds.isEmpty()
+                ? Map.of()
+                : optionRepository.findByQuestions_IdIn(questionIds).stream()
+                        .collect(Collectors.groupingBy(option -> option.getQuestions().getId()));
+
+        ExamSnapshot snapshot = ExamSnapshot.of(examId, version, exam.isRandom(), questions, options,
+                mediaFileService.getMediaFilesByQuestionIds(questionIds));
+        log.debug("Built snapshot for exam {} v{} with {} questions", examId, version, snapshot.size());
+        return snapshot;
+    }
+}
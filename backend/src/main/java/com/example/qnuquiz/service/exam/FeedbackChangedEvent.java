@@ -0,0 +1,8 @@
+package com.example.qnuquiz.service.exam;
+
+/**
+ * Published when a feedback on an exam or one of its questions is created or
+ * deleted.
+ */
+public record FeedbackChangedEvent(long examId) {
+}
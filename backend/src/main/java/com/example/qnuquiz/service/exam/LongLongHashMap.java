@@ -0,0 +1,78 @@
+package com.example.qnuquiz.service.exam;
+
+/**
+ * Open-addressing long -> long map without boxing.
+ *
+ * Keys must be positive (database ids); 0 marks an empty slot.
+ */
+final class LongLongHashMap {
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+
+    LongLongHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new long[capacity];
+    }
+
+    void put(long key, long value) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("Key must be positive: " + key);
+        }
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        int slot = indexOf(key, keys);
+        if (keys[slot] == 0) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    long get(long key, long defaultValue) {
+        if (key <= 0) {
+            return defaultValue;
+        }
+        int slot = indexOf(key, keys);
+        return keys[slot] == key ? values[slot] : defaultValue;
+    }
+
+    boolean containsKey(long key) {
+        return key > 0 && keys[indexOf(key, keys)] == key;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private static int indexOf(long key, long[] table) {
+        int mask = table.length - 1;
+        int slot = mix(key) & mask;
+        while (table[slot] != 0 && table[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new long[oldValues.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = indexOf(oldKeys[i], keys);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
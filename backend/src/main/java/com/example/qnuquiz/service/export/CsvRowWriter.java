@@ -0,0 +1,58 @@
+package com.example.qnuquiz.service.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * RFC 4180 CSV, UTF-8.
+ */
+class CsvRowWriter implements RowWriter {
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Writer writer;
+
+    CsvRowWriter(OutputStream out, List<String> header) throws IOException {
+        writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        // BOM để Excel đọc đúng tiếng Việt
+        writer.write('\uFEFF');
+        row(header.toArray());
+    }
+
+    @Override
+    public void row(Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeValue(values[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeValue(Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value instanceof LocalDateTime time ? DATE_TIME.format(time) : value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.flush();
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.qnuquiz.service.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.qnuquiz.dto.analytics.StudentAttemptDto;
+import com.example.qnuquiz.repository.ExamRepository;
+
+import jakarta.persistence.EntityNotFoundException;
+
+/**
+ * Attempt-level exports of one exam, written row by row from a forward-only
+ * JDBC cursor so memory does not grow with the number of attempts.
+ *
+ * The query runs in a read-only transaction: PostgreSQL only honours the
+ * fetch size (server-side cursor) when auto-commit is off.
+ */
+@Component
+public class ExamExporter {
+
+    public enum Report {
+        ATTEMPTS("attempts"),
+        QUESTIONS("question_analytics");
+
+        private final String fileName;
+
+        Report(String fileName) {
+            this.fileName = fileName;
+        }
+
+        public static Report of(String value) {
+            try {
+                return valueOf(value == null ? "" : value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("report must be attempts or questions");
+            }
+        }
+    }
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final List<String> ATTEMPT_HEADER = List.of("Attempt ID", "Student Code", "Full Name", "Class",
+            "Start Time", "End Time", "Duration (minutes)", "Score", "Submitted");
+
+    // Theo khoá chính để không phải sắp xếp cả bảng trước khi trả dòng đầu tiên
+    private static final String ATTEMPTS_SQL = """
+            SELECT ea.id, s.student_code, u.full_name, c.name, ea.start_time, ea.end_time, ea.score, ea.submitted
+            FROM exam_attempts ea
+            JOIN students s ON s.id = ea.student_id
+            JOIN users u ON u.id = s.user_id
+            LEFT JOIN classes c ON c.id = s.class_id
+            WHERE ea.exam_id = ?
+            ORDER BY ea.id
+            """;
+
+    private static final List<String> QUESTION_HEADER = List.of("Question ID", "Question", "Total Answers",
+            "Correct", "Wrong", "Correct Rate (%)");
+
+    private static final String QUESTIONS_SQL = """
+            SELECT q.id, q.content, COALESCE(qs.total_answers, 0), COALESCE(qs.correct_count, 0),
+                COALESCE(qs.wrong_count, 0),
+                CAST(ROUND(CAST(qs.correct_count AS DECIMAL) * 100 / NULLIF(qs.total_answers, 0), 2)
+                    AS double precision)
+            FROM questions q
+            LEFT JOIN question_stats qs ON qs.question_id = q.id
+            WHERE q.exam_id = ?
+            ORDER BY q.ordering, q.id
+            """;
+
+    private final ExamRepository examRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ExamExporter(ExamRepository examRepository, DataSource dataSource,
+            PlatformTransactionManager transactionManager) {
+        this.examRepository = examRepository;
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(FETCH_SIZE);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Called before the response starts: once rows are streaming the status
+     * can no longer become 404.
+     */
+    public void checkExam(long examId) {
+        if (!examRepository.existsById(examId)) {
+            throw new EntityNotFoundException("Exam not found: " + examId);
+        }
+    }
+
+    public String fileName(Report report, long examId, ExportFormat format) {
+        return "exam_" + examId + "_" + report.fileName + "." + format.extension();
+    }
+
+    public long export(Report report, long examId, ExportFormat format, OutputStream out) throws IOException {
+        return export(report, examId, format, out, () -> {
+        });
+    }
+
+    /**
+     * Writes the report to out and returns the number of data rows.
+     * onRow runs before each row, e.g. to check for cancellation.
+     */
+    public long export(Report report, long examId, ExportFormat format, OutputStream out, Runnable onRow)
+            throws IOException {
+        return switch (report) {
+            case ATTEMPTS -> stream(ATTEMPTS_SQL, ATTEMPT_HEADER, examId, format, out, onRow, rs -> {
+                LocalDateTime start = toLocalDateTime(rs.getTimestamp(5));
+                LocalDateTime end = toLocalDateTime(rs.getTimestamp(6));
+                return new Object[] { rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), start, end,
+                        StudentAttemptDto.durationMinutes(start, end), rs.getObject(7), rs.getBoolean(8) };
+            });
+            case QUESTIONS -> stream(QUESTIONS_SQL, QUESTION_HEADER, examId, format, out, onRow, rs -> new Object[] {
+                    rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getLong(4), rs.getLong(5), rs.getObject(6) });
+        };
+    }
+
+    @FunctionalInterface
+    private interface RowMapping {
+        Object[] map(ResultSet rs) throws SQLException;
+    }
+
+    private long stream(String sql, List<String> header, long examId, ExportFormat format, OutputStream out,
+            Runnable onRow, RowMapping mapping) throws IOException {
+        try (RowWriter writer = format.open(out, header)) {
+            long[] rows = { 0 };
+            PreparedStatementCreator statement = con -> {
+                PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                        ResultSet.CONCUR_READ_ONLY);
+                ps.setLong(1, examId);
+                return ps;
+            };
+            RowCallbackHandler handler = rs -> {
+                onRow.run();
+                try {
+                    writer.row(mapping.map(rs));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            };
+            try {
+                readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(statement, handler));
+            } catch (UncheckedIOException e) {
+                throw e.getCause(); // thường là client ngắt kết nối
+            }
+            writer.finish();
+            return rows[0];
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.qnuquiz.service.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * File formats of the streaming exports.
+ */
+public enum ExportFormat {
+    CSV("csv", "text/csv"),
+    XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+    private final String extension;
+    private final String contentType;
+
+    ExportFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public static ExportFormat of(String value) {
+        for (ExportFormat format : values()) {
+            if (format.extension.equals(value == null ? "" : value.toLowerCase(Locale.ROOT))) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("format must be csv or xlsx");
+    }
+
+    RowWriter open(OutputStream out, List<String> header) throws IOException {
+        return switch (this) {
+            case CSV -> new CsvRowWriter(out, header);
+            case XLSX -> new XlsxRowWriter(out, header);
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.qnuquiz.service.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Writes export rows one at a time. Values are String, Number, Boolean,
+ * LocalDateTime or null.
+ */
+interface RowWriter extends Closeable {
+
+    void row(Object... values) throws IOException;
+
+    /**
+     * Writes whatever is still buffered; the output stream stays open.
+     */
+    void finish() throws IOException;
+
+    /**
+     * Releases temp files, also after a failed export.
+     */
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.qnuquiz.service.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+/**
+ * XLSX through POI SXSSF: only the last {@value #WINDOW} rows stay in memory,
+ * older rows go to a compressed temp file. A new sheet is started when one
+ * reaches the Excel row limit.
+ */
+class XlsxRowWriter implements RowWriter {
+
+    private static final int WINDOW = 100;
+    private static final int MAX_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+    private final OutputStream out;
+    private final List<String> header;
+    private final SXSSFWorkbook workbook;
+    private final CellStyle dateStyle;
+    private SXSSFSheet sheet;
+    private int rowNum;
+
+    XlsxRowWriter(OutputStream out, List<String> header) {
+        this.out = out;
+        this.header = header;
+        workbook = new SXSSFWorkbook(WINDOW);
+        workbook.setCompressTempFiles(true);
+        dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd hh:mm:ss"));
+        newSheet();
+    }
+
+    private void newSheet() {
+        sheet = workbook.createSheet("Sheet" + (workbook.getNumberOfSheets() + 1));
+        rowNum = 0;
+        Row row = sheet.createRow(rowNum++);
+        for (int i = 0; i < header.size(); i++) {
+            row.createCell(i).setCellValue(header.get(i));
+        }
+    }
+
+    @Override
+    public void row(Object... values) {
+        if (rowNum == MAX_ROWS) {
+            newSheet();
+        }
+        Row row = sheet.createRow(rowNum++);
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            Cell cell = row.createCell(i);
+            if (value instanceof Number number) {
+                cell.setCellValue(number.doubleValue());
+            } else if (value instanceof Boolean bool) {
+                cell.setCellValue(bool);
+            } else if (value instanceof LocalDateTime time) {
+                cell.setCellValue(time);
+                cell.setCellStyle(dateStyle);
+            } else {
+                cell.setCellValue(value.toString());
+            }
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        workbook.write(out);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        workbook.dispose(); // xoá file tạm
+        workbook.close();
+    }
+}
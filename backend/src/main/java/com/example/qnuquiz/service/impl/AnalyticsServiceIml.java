@@ -3,7 +3,11 @@ package com.example.qnuquiz.service.impl;
 import com.example.qnuquiz.dto.analytics.*;
 import com.example.qnuquiz.entity.Exams;
 import com.example.qnuquiz.repository.*;
+import com.example.qnuquiz.security.SecurityUtils;
 import com.example.qnuquiz.service.AnalyticsService;
+import com.example.qnuquiz.service.ranking.LeaderboardEngine;
+import com.example.qnuquiz.service.ranking.RankingBoard;
+import jakarta.persistence.EntityNotFoundException;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.Query;
@@ -11,13 +15,13 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.sql.Timestamp;
-import java.time.DayOfWeek;
 import java.time.Instant;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -28,41 +32,106 @@ public class AnalyticsServiceIml implements AnalyticsService {
     private final ExamRepository examRepository;
     private final QuestionRepository questionRepository;
     private final QuestionOptionsRepository questionOptionsRepository;
+    private final StudentRepository studentRepository;
+    private final LeaderboardEngine leaderboardEngine;
+
+    private static final String DEFAULT_AVATAR_URL = "https://i.pinimg.com/736x/8f/1c/a2/8f1ca2029e2efceebd22fa05cca423d7.jpg";
+    private static final int MAX_RANKING_LIMIT = 500;
 
     @PersistenceContext
     private EntityManager entityManager;
 
     @Override
-    public List<RankingDto> rankingAll() {
-        return examAttemptRepository.rankingAll();
+    public List<RankingDto> rankingAll(int limit) {
+        return toRankingDtos(leaderboardEngine.global().top(checkLimit(limit)));
+    }
+
+    @Override
+    public List<RankingDto> rankingAllThisWeek(int limit) {
+        return toRankingDtos(leaderboardEngine.weekly().top(checkLimit(limit)));
+    }
+
+    @Override
+    public List<RankingDto> rankingByExamId(Long examId, int limit) {
+        return toRankingDtos(leaderboardEngine.exam(examId).top(checkLimit(limit)));
     }
 
     @Override
-    public List<RankingDto> rankingAllThisWeek() {
-        LocalDate today = LocalDate.now();
-        LocalDate monday = today.with(DayOfWeek.MONDAY);
-        LocalDateTime mondayStart = monday.atStartOfDay();
-        Timestamp fromDate = Timestamp.valueOf(mondayStart);
-        return examAttemptRepository.rankingAllThisWeek(fromDate);
+    public MyRankDto myRank() {
+        return myRankIn(leaderboardEngine.global());
     }
 
     @Override
-    public List<RankingDto> rankingByExamId(Long examId) {
-        return examAttemptRepository.rankingByExamId(examId);
+    public MyRankDto myRankThisWeek() {
+        return myRankIn(leaderboardEngine.weekly());
+    }
+
+    @Override
+    public MyRankDto myRankByExamId(Long examId) {
+        return myRankIn(leaderboardEngine.exam(examId));
+    }
+
+    private int checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_RANKING_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_RANKING_LIMIT);
+        }
+        return limit;
+    }
+
+    // Thứ hạng lấy từ bộ nhớ, chỉ truy vấn DB cho thông tin hiển thị của top K
+    private List<RankingDto> toRankingDtos(List<RankingBoard.Entry> entries) {
+        if (entries.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Object[]> profiles = studentRepository
+                .findRankingProfiles(entries.stream().map(RankingBoard.Entry::studentId).toList())
+                .stream()
+                .collect(Collectors.toMap(row -> (Long) row[0], Function.identity()));
+
+        return entries.stream()
+                .filter(entry -> profiles.containsKey(entry.studentId()))
+                .map(entry -> {
+                    Object[] profile = profiles.get(entry.studentId());
+                    return RankingDto.builder()
+                            .username((String) profile[1])
+                            .score(entry.score())
+                            .fullName((String) profile[2])
+                            .avatarUrl(profile[3] != null ? (String) profile[3] : DEFAULT_AVATAR_URL)
+                            .rank(entry.rank())
+                            .build();
+                })
+                .toList();
+    }
+
+    private MyRankDto myRankIn(RankingBoard board) {
+        UUID userId = SecurityUtils.getCurrentUserId();
+        if (userId == null) {
+            throw new IllegalArgumentException("User not authenticated");
+        }
+        Long studentId = studentRepository.findIdByUserId(userId)
+                .orElseThrow(() -> new EntityNotFoundException("Student not found for user: " + userId));
+
+        RankingBoard.Entry entry = board.entryOf(studentId);
+        return MyRankDto.builder()
+                .rank(entry != null ? entry.rank() : null)
+                .score(entry != null ? entry.score() : 0L)
+                .totalRanked(board.size())
+                .build();
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public List<ExamAnalyticsDto> getExamAnalytics(String teacherId) {
+        // Đọc từ bảng tổng hợp exam_stats (ExamStatsRollup), không quét exam_attempts
         String sql = "SELECT e.id AS exam_id, e.title AS exam_title, " +
-                "COUNT(ea.id) AS total_attempts, " +
-                "COUNT(ea.id) FILTER (WHERE ea.submitted = TRUE) AS total_submitted, " +
-                "CAST(ROUND(AVG(ea.score) FILTER (WHERE ea.submitted = TRUE), 2) AS double precision) AS avg_score, " +
-                "CAST(MAX(ea.score) FILTER (WHERE ea.submitted = TRUE) AS double precision) AS max_score, " +
-                "CAST(MIN(ea.score) FILTER (WHERE ea.submitted = TRUE) AS double precision) AS min_score " +
-                "FROM exams e LEFT JOIN exam_attempts ea ON e.id = ea.exam_id " +
+                "COALESCE(st.attempts, 0) AS total_attempts, " +
+                "COALESCE(st.submitted, 0) AS total_submitted, " +
+                "CAST(ROUND(CAST(st.score_sum AS DECIMAL) / NULLIF(st.submitted, 0), 2) AS double precision) AS avg_score, " +
+                "CAST(st.score_max AS double precision) AS max_score, " +
+                "CAST(st.score_min AS double precision) AS min_score " +
+                "FROM exams e LEFT JOIN exam_stats st ON st.exam_id = e.id " +
                 "WHERE e.created_by = :teacherId " +
-                "GROUP BY e.id, e.title ORDER BY e.created_at DESC";
+                "ORDER BY e.created_at DESC, e.id DESC";
         Query query = entityManager.createNativeQuery(sql, "ExamAnalyticsDtoMapping");
         query.setParameter("teacherId", UUID.fromString(teacherId));
         return query.getResultList();
@@ -72,11 +141,11 @@ public class AnalyticsServiceIml implements AnalyticsService {
     @SuppressWarnings("unchecked")
     public List<ClassPerformanceDto> getClassPerformance(Long examId) {
         String sql = "SELECT c.name AS class_name, COUNT(DISTINCT s.id) AS student_count, " +
-                "CAST(ROUND(AVG(ea.score), 2) AS double precision) AS avg_score_per_class " +
+                "CAST(ROUND(AVG(CAST(ea.score AS DECIMAL)), 2) AS double precision) AS avg_score_per_class " +
                 "FROM exam_attempts ea JOIN students s ON ea.student_id = s.id " +
                 "JOIN classes c ON s.class_id = c.id " +
                 "WHERE ea.exam_id = :examId AND ea.submitted = TRUE " +
-                "GROUP BY c.name ORDER BY avg_score_per_class DESC";
+                "GROUP BY c.name ORDER BY avg_score_per_class DESC, c.name";
         Query query = entityManager.createNativeQuery(sql, "ClassPerformanceDtoMapping");
         query.setParameter("examId", examId);
         return query.getResultList();
@@ -86,27 +155,11 @@ public class AnalyticsServiceIml implements AnalyticsService {
     @SuppressWarnings("unchecked")
     public List<ScoreDistributionDto> getScoreDistribution(String teacherId) {
 
-        String sql = "WITH exam_total_points AS ( " +
-                "    SELECT e.id AS exam_id, " +
-                "           CASE WHEN e.max_questions IS NOT NULL THEN e.max_questions * 10" +
-                "                ELSE (COUNT(q.id) * 10) END AS total_points " +
-                "    FROM exams e " +
-                "    LEFT JOIN questions q ON q.exam_id = e.id " +
-                "    GROUP BY e.id, e.max_questions " +
-                ") " +
-                "SELECT e.title, " +
-                "       COUNT(ea.id) FILTER (WHERE (ea.score * 100.0 / etp.total_points) >= 90) AS excellent_count, " +
-                "       COUNT(ea.id) FILTER (WHERE (ea.score * 100.0 / etp.total_points) >= 70 " +
-                "                           AND (ea.score * 100.0 / etp.total_points) < 90) AS good_count, " +
-                "       COUNT(ea.id) FILTER (WHERE (ea.score * 100.0 / etp.total_points) >= 50 " +
-                "                           AND (ea.score * 100.0 / etp.total_points) < 70) AS average_count, " +
-                "       COUNT(ea.id) FILTER (WHERE (ea.score * 100.0 / etp.total_points) < 50) AS fail_count " +
-                "FROM exams e " +
-                "JOIN exam_attempts ea ON e.id = ea.exam_id " +
-                "JOIN exam_total_points etp ON etp.exam_id = e.id " +
-                "WHERE e.created_by = :teacherId " +
-                "  AND ea.submitted = TRUE " +
-                "GROUP BY e.id, e.title, etp.total_points";
+        // Dải điểm đã được đếm sẵn trong exam_stats
+        String sql = "SELECT e.title, st.excellent_count, st.good_count, st.average_count, st.fail_count " +
+                "FROM exams e JOIN exam_stats st ON st.exam_id = e.id " +
+                "WHERE e.created_by = :teacherId AND st.submitted > 0 " +
+                "ORDER BY e.created_at DESC, e.id DESC";
         Query query = entityManager.createNativeQuery(sql, "ScoreDistributionDtoMapping");
         query.setParameter("teacherId", UUID.fromString(teacherId));
         return query.getResultList();
@@ -115,28 +168,30 @@ public class AnalyticsServiceIml implements AnalyticsService {
     @Override
     @SuppressWarnings("unchecked")
     public List<StudentAttemptDto> getStudentAttempts(Long examId) {
+        // Thời lượng tính trong Java: trừ timestamp ra số giây không có cú pháp chung cho H2 và PostgreSQL
         String sql = "SELECT s.student_code, u.full_name, c.name AS class_name, ea.start_time, ea.end_time, " +
-                "ROUND(EXTRACT(EPOCH FROM (ea.end_time - ea.start_time))/60, 2) AS duration_minutes, " +
+                "CAST(NULL AS double precision) AS duration_minutes, " +
                 "CAST(ea.score AS double precision) AS score, ea.submitted " +
                 "FROM exam_attempts ea JOIN students s ON ea.student_id = s.id " +
                 "JOIN users u ON s.user_id = u.id " +
                 "LEFT JOIN classes c ON s.class_id = c.id " +
-                "WHERE ea.exam_id = :examId ORDER BY ea.score DESC, ea.end_time ASC";
+                "WHERE ea.exam_id = :examId " +
+                "ORDER BY ea.score DESC NULLS FIRST, ea.end_time ASC NULLS LAST, ea.id";
         Query query = entityManager.createNativeQuery(sql, "StudentAttemptDtoMapping");
         query.setParameter("examId", examId);
-        return query.getResultList();
+        List<StudentAttemptDto> attempts = query.getResultList();
+        attempts.forEach(attempt -> attempt.setDurationMinutes(
+                StudentAttemptDto.durationMinutes(attempt.getStartTime(), attempt.getEndTime())));
+        return attempts;
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public List<QuestionAnalyticsDto> getQuestionAnalytics(Long examId) {
-        String sql = "SELECT q.content AS question_content, COUNT(ans.id) AS total_answers, " +
-                "COUNT(ans.id) FILTER (WHERE ans.is_correct = TRUE) AS correct_count, " +
-                "COUNT(ans.id) FILTER (WHERE ans.is_correct = FALSE) AS wrong_count, " +
-                "CAST(ROUND((COUNT(ans.id) FILTER (WHERE ans.is_correct = TRUE)::DECIMAL / COUNT(ans.id)) * 100, 2) AS double precision) AS correct_rate "
-                +
-                "FROM exam_answers ans JOIN questions q ON ans.question_id = q.id " +
-                "WHERE q.exam_id = :examId GROUP BY q.id, q.content ORDER BY correct_rate ASC";
+        String sql = "SELECT q.content AS question_content, qs.total_answers, qs.correct_count, qs.wrong_count, " +
+                "CAST(ROUND(CAST(qs.correct_count AS DECIMAL) * 100 / qs.total_answers, 2) AS double precision) AS correct_rate " +
+                "FROM question_stats qs JOIN questions q ON q.id = qs.question_id " +
+                "WHERE qs.exam_id = :examId AND qs.total_answers > 0 ORDER BY correct_rate ASC, q.id";
         Query query = entityManager.createNativeQuery(sql, "QuestionAnalyticsDtoMapping");
         query.setParameter("examId", examId);
         return query.getResultList();
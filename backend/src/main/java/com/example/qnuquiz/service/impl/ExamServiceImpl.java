@@ -1,31 +1,40 @@
 package com.example.qnuquiz.service.impl;
 
+import java.io.IOException;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import jakarta.transaction.Transactional;
 
+import com.example.qnuquiz.dto.exam.AnswerItemDto;
+import com.example.qnuquiz.dto.exam.AnswerItemResultDto;
+import com.example.qnuquiz.dto.exam.BulkAnswerResultDto;
 import com.example.qnuquiz.dto.exam.ExamAnswerReviewDTO;
 import com.example.qnuquiz.dto.exam.ExamAttemptDto;
+import com.example.qnuquiz.dto.exam.ExamCatalogRow;
 import com.example.qnuquiz.dto.exam.ExamCategoryDto;
 import com.example.qnuquiz.dto.exam.ExamDto;
 import com.example.qnuquiz.dto.exam.ExamResultDto;
 import com.example.qnuquiz.dto.exam.ExamReviewDTO;
+import com.example.qnuquiz.dto.page.CursorPage;
+import com.example.qnuquiz.dto.page.CursorRequest;
 import com.example.qnuquiz.dto.questions.QuestionDTO;
-import com.example.qnuquiz.dto.questions.QuestionOptionDto;
 import com.example.qnuquiz.entity.ExamAnswers;
 import com.example.qnuquiz.entity.ExamAttempts;
 import com.example.qnuquiz.entity.ExamCategories;
 import com.example.qnuquiz.entity.Exams;
-import com.example.qnuquiz.entity.QuestionOptions;
-import com.example.qnuquiz.entity.Questions;
 import com.example.qnuquiz.entity.Students;
 import com.example.qnuquiz.entity.Users;
 import com.example.qnuquiz.mapper.ExamCategoryMapper;
@@ -35,13 +44,29 @@ import com.example.qnuquiz.repository.ExamAnswerRepository;
 import com.example.qnuquiz.repository.ExamAttemptRepository;
 import com.example.qnuquiz.repository.ExamCategoryRepository;
 import com.example.qnuquiz.repository.ExamRepository;
-import com.example.qnuquiz.repository.FeedbackRepository;
-import com.example.qnuquiz.repository.QuestionOptionsRepository;
-import com.example.qnuquiz.repository.QuestionRepository;
 import com.example.qnuquiz.repository.StudentRepository;
 import com.example.qnuquiz.repository.UserRepository;
 import com.example.qnuquiz.security.SecurityUtils;
 import com.example.qnuquiz.service.ExamService;
+import com.example.qnuquiz.service.JobService;
+import com.example.qnuquiz.service.analytics.ExamStatsRollup;
+import com.example.qnuquiz.service.exam.ActiveAttempt;
+import com.example.qnuquiz.service.exam.ActiveAttemptRegistry;
+import com.example.qnuquiz.service.exam.AnswerKey;
+import com.example.qnuquiz.service.exam.AttemptClosedException;
+import com.example.qnuquiz.service.exam.AttemptDeadlines;
+import com.example.qnuquiz.service.exam.ExamAnswerBuffer;
+import com.example.qnuquiz.service.exam.ExamAttemptFinishedEvent;
+import com.example.qnuquiz.service.exam.ExamAttemptStartedEvent;
+import com.example.qnuquiz.service.exam.ExamAttemptsClosedEvent;
+import com.example.qnuquiz.service.exam.ExamContentChangedEvent;
+import com.example.qnuquiz.service.exam.ExamMetrics;
+import com.example.qnuquiz.service.exam.ExamPurger;
+import com.example.qnuquiz.service.exam.ExamScoringEngine;
+import com.example.qnuquiz.service.exam.ExamSnapshot;
+import com.example.qnuquiz.service.exam.ExamSnapshotCache;
+import com.example.qnuquiz.service.job.ExamDeleteJobHandler;
+import com.example.qnuquiz.service.page.KeysetPaging;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -53,8 +78,6 @@ import jakarta.persistence.EntityNotFoundException;
 public class ExamServiceImpl implements ExamService {
 
     private final ExamRepository examRepository;
-    private final QuestionOptionsRepository optionRepo;
-    private final QuestionRepository questionRepo;
     private final UserRepository userRepository;
     private final StudentRepository studentRepository;
     private final ExamCategoryRepository examCategoryRepository;
@@ -62,87 +85,186 @@ public class ExamServiceImpl implements ExamService {
     private final ExamCategoryMapper examCategoryMapper;
     private final ExamMapper examMapper;
 
-    private final QuestionRepository questionRepository;
     private final ExamAttemptRepository examAttemptRepository;
     private final ExamAnswerRepository examAnswerRepository;
-    private final FeedbackRepository feedbackRepository;
     private final QuestionMapper questionMapper;
-    private final com.example.qnuquiz.service.MediaFileService mediaFileService;
+    private final ExamAnswerBuffer answerBuffer;
+    private final ExamSnapshotCache examSnapshotCache;
+    private final ActiveAttemptRegistry activeAttempts;
+    private final AttemptDeadlines attemptDeadlines;
+    private final ExamScoringEngine scoringEngine;
+    private final ExamStatsRollup statsRollup;
+    private final ExamMetrics examMetrics;
+    private final ExamPurger examPurger;
+    private final JobService jobService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final int RANDOM_QUESTION_LIMIT = 30;
+    private static final long NO_STUDENT = -1L;
 
     @Override
     public void submitAnswer(Long attemptId, Long questionId, Long optionId) {
-        // 1. Lấy attempt
-        ExamAttempts attempt = examAttemptRepository.findById(attemptId)
-                .orElseThrow(() -> new EntityNotFoundException("Attempt not found: " + attemptId));
+        examMetrics.time(ExamMetrics.ANSWER, null, op -> {
+            doSubmitAnswer(attemptId, optionId, op);
+            return null;
+        });
+        examMetrics.answersAccepted(1);
+    }
 
-        // 2. Lấy option
-        QuestionOptions option = optionRepo.findById(optionId)
-                .orElseThrow(() -> new EntityNotFoundException("Option not found: " + optionId));
+    private void doSubmitAnswer(Long attemptId, Long optionId, ExamMetrics.Op op) {
+        // 1. Lấy attempt đang làm (từ bộ nhớ, chỉ đọc DB lần đầu), từ chối nếu đã hết giờ
+        attemptDeadlines.checkOpen(attemptId);
+        ActiveAttempt attempt = activeAttempts.get(attemptId);
+        op.exam(attempt.getExamId());
+
+        // 2. Chấm điểm bằng answer key trong bộ nhớ
+        AnswerKey answerKey = scoringEngine.answerKey(attempt.getExamId());
+        long optionQuestionId = answerKey.questionOf(optionId);
+        if (optionQuestionId == AnswerKey.UNKNOWN) {
+            throw new EntityNotFoundException("Option not found: " + optionId);
+        }
+        boolean correct = answerKey.isCorrect(optionId);
+
+        // 3. Ghi vào buffer, câu trả lời được lưu xuống DB theo batch
+        attempt.select(optionQuestionId, optionId, (firstAnswer, replaced) -> {
+            answerBuffer.record(attemptId, optionQuestionId, optionId, correct);
+            statsRollup.answerChanged(attempt.getExamId(), optionQuestionId, firstAnswer,
+                    grade(answerKey, replaced), correct);
+        });
+    }
 
-        // 4. Kiểm tra xem đã có câu trả lời cho attempt + question chưa
-        Optional<ExamAnswers> existingOpt = examAnswerRepository.findByExamAttemptsIdAndQuestionsId(attemptId,
-                questionId);
+    @Override
+    public BulkAnswerResultDto submitAnswers(Long attemptId, List<AnswerItemDto> items) {
+        attemptDeadlines.checkOpen(attemptId);
+        ActiveAttempt attempt = activeAttempts.get(attemptId);
+        AnswerKey answerKey = scoringEngine.answerKey(attempt.getExamId());
+
+        // Kiểm tra toàn bộ trong một lượt, rồi ghi tất cả bằng một JDBC batch
+        List<AnswerItemResultDto> results = new ArrayList<>(items.size());
+        for (AnswerItemDto item : items) {
+            results.add(applyAnswerItem(attemptId, attempt, answerKey, item));
+        }
+        answerBuffer.flushAttempt(attemptId);
+
+        int accepted = countStatus(results, AnswerItemResultDto.ACCEPTED);
+        examMetrics.answersAccepted(accepted);
+        return BulkAnswerResultDto.builder()
+                .attemptId(attemptId)
+                .accepted(accepted)
+                .duplicates(countStatus(results, AnswerItemResultDto.DUPLICATE))
+                .rejected(countStatus(results, AnswerItemResultDto.REJECTED))
+                .items(results)
+                .build();
+    }
 
-        ExamAnswers answer;
-        if (existingOpt.isPresent()) {
-            answer = existingOpt.get();
-            answer.setQuestionOptions(option);
-            answer.setIsCorrect(option.isIsCorrect());
-        } else {
-            answer = new ExamAnswers();
-            answer.setExamAttempts(attempt);
-            answer.setQuestions(option.getQuestions());
-            answer.setQuestionOptions(option);
-            answer.setIsCorrect(option.isIsCorrect());
-            answer.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+    private AnswerItemResultDto applyAnswerItem(long attemptId, ActiveAttempt attempt, AnswerKey answerKey,
+            AnswerItemDto item) {
+        AnswerItemResultDto.AnswerItemResultDtoBuilder result = AnswerItemResultDto.builder()
+                .seq(item.getSeq())
+                .questionId(item.getQuestionId());
+
+        if (item.getSeq() == null || item.getQuestionId() == null) {
+            return result.status(AnswerItemResultDto.REJECTED).message("seq and questionId are required").build();
+        }
+        if ((item.getOptionId() == null) == (item.getAnswerText() == null)) {
+            return result.status(AnswerItemResultDto.REJECTED)
+                    .message("Exactly one of optionId or answerText is required").build();
+        }
+        if (!answerKey.containsQuestion(item.getQuestionId())) {
+            return result.status(AnswerItemResultDto.REJECTED)
+                    .message("Question not found in exam: " + item.getQuestionId()).build();
+        }
+
+        long questionId = item.getQuestionId();
+        Long optionId = item.getOptionId();
+        Boolean correct = null;
+        if (optionId != null) {
+            if (answerKey.questionOf(optionId) != questionId) {
+                return result.status(AnswerItemResultDto.REJECTED)
+                        .message("Option " + optionId + " does not belong to question " + questionId).build();
+            }
+            correct = answerKey.isCorrect(optionId);
         }
 
-        examAnswerRepository.save(answer);
+        Boolean graded = correct;
+        boolean applied = attempt.selectIfNewer(questionId, optionId, item.getSeq(), (firstAnswer, replaced) -> {
+            answerBuffer.record(attemptId, questionId, optionId, graded, item.getAnswerText(), item.getSeq());
+            statsRollup.answerChanged(attempt.getExamId(), questionId, firstAnswer, grade(answerKey, replaced),
+                    graded);
+        });
+        return result.status(applied ? AnswerItemResultDto.ACCEPTED : AnswerItemResultDto.DUPLICATE).build();
+    }
+
+    // null: chưa có lựa chọn hoặc câu trả lời tự luận
+    private static Boolean grade(AnswerKey answerKey, Long optionId) {
+        return optionId != null ? answerKey.isCorrect(optionId) : null;
+    }
+
+    private int countStatus(List<AnswerItemResultDto> results, String status) {
+        return (int) results.stream().filter(r -> status.equals(r.getStatus())).count();
     }
 
     @Override
     public void submitEssay(Long attemptId, Long questionId, String answerText) {
-        ExamAttempts attempt = examAttemptRepository.findById(attemptId)
-                .orElseThrow(() -> new EntityNotFoundException("Attempt not found: " + attemptId));
-        Questions question = questionRepo.findById(questionId)
-                .orElseThrow(() -> new EntityNotFoundException("Question not found: " + questionId));
-
-        ExamAnswers answer = new ExamAnswers();
-        answer.setExamAttempts(attempt);
-        answer.setQuestions(question);
-        answer.setAnswerText(answerText);
-        answer.setIsCorrect(null); // chưa chấm
+        attemptDeadlines.checkOpen(attemptId);
+        ActiveAttempt attempt = activeAttempts.get(attemptId);
+        AnswerKey answerKey = scoringEngine.answerKey(attempt.getExamId());
+        if (!answerKey.containsQuestion(questionId)) {
+            throw new EntityNotFoundException("Question not found: " + questionId);
+        }
 
-        examAnswerRepository.save(answer);
+        // Ghi đè câu trả lời trước của câu hỏi qua buffer như câu trắc nghiệm, chưa chấm
+        attempt.select(questionId, null, (firstAnswer, replaced) -> {
+            answerBuffer.record(attemptId, questionId, null, null, answerText);
+            statsRollup.answerChanged(attempt.getExamId(), questionId, firstAnswer, grade(answerKey, replaced),
+                    null);
+        });
     }
 
     @Override
     public ExamResultDto finishExam(Long attemptId) {
+        return examMetrics.time(ExamMetrics.FINISH, null, op -> doFinishExam(attemptId, op));
+    }
+
+    private ExamResultDto doFinishExam(Long attemptId, ExamMetrics.Op op) {
         ExamAttempts attempt = examAttemptRepository.findById(attemptId)
                 .orElseThrow(() -> new EntityNotFoundException("Attempt not found: " + attemptId));
 
-        List<ExamAnswers> answers = examAnswerRepository.findByExamAttempts_Id(attemptId);
-
-        long correctCount = answers.stream()
-                .filter(a -> Boolean.TRUE.equals(a.getIsCorrect()))
-                .count();
-
-        long totalQuestions = answers.size();
+        // Chấm từ các lựa chọn trong bộ nhớ; chỉ đọc lại exam_answers khi node khác đã nhận câu trả lời của attempt
+        ActiveAttempt active = activeAttempts.get(attemptId);
+        long examId = active.getExamId();
+        op.exam(examId);
+        ExamResultDto result = scoringEngine.score(examId, activeAttempts.finalSelections(active));
+
+        // Nếu DB lỗi thì flush ném lỗi, không lưu điểm khi câu trả lời chưa được ghi
+        answerBuffer.flushAttempt(attemptId);
+
+        // Chỉ ghi khi attempt chưa đổi từ lúc đọc: sweeper hoặc request khác vừa nộp thì không tính lần hai
+        int previousScore = attempt.getScore() != null ? attempt.getScore() : 0;
+        boolean firstSubmission = !attempt.isSubmitted();
+        int stored = examAttemptRepository.finish(attemptId, result.getScore(), Timestamp.from(Instant.now()),
+                attempt.isSubmitted(), attempt.getScore() != null ? attempt.getScore() : -1);
+        if (stored != 1) {
+            throw new AttemptClosedException("Attempt " + attemptId + " was finished meanwhile");
+        }
+        activeAttempts.remove(attemptId);
+        eventPublisher.publishEvent(ExamAttemptsClosedEvent.of(attemptId));
 
-        attempt.setScore((int) correctCount * 10);
-        attempt.setSubmitted(true);
-        attempt.setEndTime(Timestamp.from(Instant.now()));
-        examAttemptRepository.save(attempt);
+        if (attempt.getStudents() != null) {
+            eventPublisher.publishEvent(new ExamAttemptFinishedEvent(attemptId, examId,
+                    attempt.getStudents().getId(), result.getScore() - previousScore, attempt.getCreatedAt(),
+                    result.getScore(), firstSubmission));
+        }
 
-        return ExamResultDto.builder()
-                .score(attempt.getScore())
-                .correctCount(correctCount)
-                .totalQuestions(totalQuestions)
-                .build();
+        return result;
     }
 
     @Override
     public ExamAttemptDto startExam(Long examId) {
+        return examMetrics.time(ExamMetrics.START, examId, op -> doStartExam(examId));
+    }
+
+    private ExamAttemptDto doStartExam(Long examId) {
         Users user = getCurrentAuthenticatedUser();
 
         Students student = studentRepository.findByUsers(user)
@@ -158,7 +280,10 @@ public class ExamServiceImpl implements ExamService {
         if (!allAttempts.isEmpty()) {
             ExamAttempts latestAttempt = allAttempts.get(0);
 
-            if (!latestAttempt.isSubmitted()) {
+            if (!latestAttempt.isSubmitted() && attemptDeadlines.isExpired(latestAttempt.getId())) {
+                // Hết giờ nhưng sweeper chưa kịp nộp: nộp luôn rồi tạo lượt mới
+                attemptDeadlines.finishNow(latestAttempt.getId());
+            } else if (!latestAttempt.isSubmitted()) {
                 log.debug("Returning existing unfinished attempt {}, submitted={}", latestAttempt.getId(),
                         latestAttempt.isSubmitted());
                 return ExamAttemptDto.builder()
@@ -174,8 +299,9 @@ public class ExamServiceImpl implements ExamService {
         log.debug("Creating new attempt for exam {}", examId);
         ExamAttempts attempt = new ExamAttempts();
 
-        attempt.setExams(examRepository.findById(examId)
-                .orElseThrow(() -> new EntityNotFoundException("Exam not found: " + examId)));
+        Exams exam = examRepository.findById(examId)
+                .orElseThrow(() -> new EntityNotFoundException("Exam not found: " + examId));
+        attempt.setExams(exam);
 
         attempt.setStudents(student);
         attempt.setStartTime(new Timestamp(System.currentTimeMillis()));
@@ -183,6 +309,10 @@ public class ExamServiceImpl implements ExamService {
         attempt.setCreatedAt(new Timestamp(System.currentTimeMillis()));
 
         ExamAttempts saved = examAttemptRepository.save(attempt);
+        activeAttempts.registerNew(saved.getId(), examId);
+        attemptDeadlines.schedule(saved.getId(),
+                AttemptDeadlines.closesAt(saved.getStartTime(), exam.getDurationMinutes(), exam.getEndTime()));
+        eventPublisher.publishEvent(new ExamAttemptStartedEvent(saved.getId(), examId));
         log.debug("New attempt created with id {}", saved.getId());
 
         return ExamAttemptDto.builder()
@@ -218,6 +348,7 @@ public class ExamServiceImpl implements ExamService {
         }
 
         Exams saved = examRepository.save(exam);
+        eventPublisher.publishEvent(ExamContentChangedEvent.of(saved.getId()));
         return examMapper.toDto(saved);
     }
 
@@ -270,6 +401,12 @@ public class ExamServiceImpl implements ExamService {
         }
 
         Exams saved = examRepository.save(exam);
+        eventPublisher.publishEvent(ExamContentChangedEvent.of(saved.getId()));
+        if ("PUBLISHED".equals(saved.getStatus())) {
+            // Build the snapshot up front so the first student does not pay for it
+            examSnapshotCache.get(saved.getId());
+        }
+
         ExamDto resultDto = examMapper.toDto(saved);
         resultDto.setStatus(getComputedStatus(saved));
 
@@ -300,47 +437,24 @@ public class ExamServiceImpl implements ExamService {
 
     @Override
     public List<QuestionDTO> getQuestionsForExam(Long examId) {
-        Exams exam = examRepository.findById(examId)
-                .orElseThrow(() -> new EntityNotFoundException("Exam not found: " + examId));
+        return examMetrics.time(ExamMetrics.QUESTIONS, examId, op -> doGetQuestionsForExam(examId));
+    }
 
-        List<Questions> questions = questionRepository.findByExamsId(examId);
-        if (questions.isEmpty()) {
+    private List<QuestionDTO> doGetQuestionsForExam(Long examId) {
+        ExamSnapshot snapshot = examSnapshotCache.get(examId);
+        if (snapshot.size() == 0) {
             throw new EntityNotFoundException("No questions found for this exam");
         }
-        List<Questions> selectedQuestions;
-        if (!exam.isRandom()) {
-            selectedQuestions = questions;
-        } else {
-            List<Questions> questionsRandom = new ArrayList<>(questions);
-            Collections.shuffle(questionsRandom);
-            selectedQuestions = questionsRandom.stream().limit(30).toList();
-        }
 
-        // Populate options and media files
-        return selectedQuestions.stream().map(q -> {
-            QuestionDTO dto = questionMapper.toQuestionDTO(q);
-            // Lấy tất cả options của câu hỏi này
-            List<QuestionOptionDto> optionDtos = optionRepo.findByQuestions_Id(q.getId())
-                .stream()
-                .map(option -> QuestionOptionDto.builder()
-                    .id(option.getId())
-                    .content(option.getContent())
-                    .position(option.getPosition())
-                    .correct(option.isIsCorrect())
-                    .build())
-                .toList();
-            dto.setOptions(optionDtos);
-
-            List<com.example.qnuquiz.dto.media.MediaFileDto> mediaFiles =
-                mediaFileService.getMediaFilesByQuestionId(q.getId());
-            dto.setMediaFiles(mediaFiles);
-
-            if (!mediaFiles.isEmpty()) {
-                dto.setMediaUrl(mediaFiles.get(0).getFileUrl());
-            }
+        int[] selected = snapshot.isRandom()
+                ? snapshot.randomIndices(RANDOM_QUESTION_LIMIT)
+                : snapshot.allIndices();
 
-            return dto;
-        }).toList();
+        List<QuestionDTO> result = new ArrayList<>(selected.length);
+        for (int index : selected) {
+            result.add(snapshot.toQuestionDTO(index));
+        }
+        return result;
     }
 
     @Override
@@ -348,6 +462,7 @@ public class ExamServiceImpl implements ExamService {
         ExamAttempts attempt = examAttemptRepository.findById(attemptId)
                 .orElseThrow(() -> new EntityNotFoundException("Exam attempt not found: " + attemptId));
 
+        answerBuffer.flushAttempt(attemptId);
         List<ExamAnswers> answers = examAnswerRepository.findByExamAttempts_Id(attemptId);
 
         List<ExamAnswerReviewDTO> answerDTOs = answers.stream()
@@ -363,88 +478,77 @@ public class ExamServiceImpl implements ExamService {
     }
 
     @Override
-    @Transactional
     public void deleteExam(Long id) {
-        // Collect question ids for this exam (to clean related feedbacks if needed)
-        List<Questions> questions = questionRepository.findByExamsId(id);
-        List<Long> questionIds = questions.stream()
-                .map(Questions::getId)
-                .toList();
-
-        // 1) Remove feedbacks linked to exam and its questions (FK constraints)
-        feedbackRepository.deleteByExamId(id);
-        if (!questionIds.isEmpty()) {
-            feedbackRepository.deleteByQuestionIds(questionIds);
+        // Ẩn đề ngay (một UPDATE), xoá dữ liệu theo từng chunk, mỗi chunk một transaction
+        if (!examPurger.markDeleted(id)) {
+            throw new EntityNotFoundException("Exam not found: " + id);
         }
-
-        // 2) Remove exam answers via attempt ids (some DBs may not enforce ON DELETE CASCADE)
-        List<Long> attemptIds = examAttemptRepository.findIdsByExamId(id);
-        if (!attemptIds.isEmpty()) {
-            examAnswerRepository.deleteByAttemptIds(attemptIds);
-            examAttemptRepository.deleteByExamId(id);
+        if (!examPurger.isSoft()) {
+            examPurger.purge(id);
+            return;
+        }
+        try {
+            jobService.submit(ExamDeleteJobHandler.TYPE, Map.of("examId", id.toString()), null);
+        } catch (IOException | IllegalStateException e) {
+            // Hàng đợi job đầy: xoá luôn trong request
+            log.warn("Could not queue purge of exam {}, deleting now: {}", id, e.getMessage());
+            examPurger.purge(id);
         }
+    }
 
-        // 3) Delete question options (some DBs may not have ON DELETE CASCADE)
-        if (!questionIds.isEmpty()) {
-            optionRepo.deleteAllByQuestions_IdIn(questionIds);
-            for (Long qid : questionIds) {
-                try {
-                    mediaFileService.deleteMediaFilesByQuestionId(qid);
-                } catch (Exception e) {
-                    log.warn("Failed to delete media files for question {}: {}", qid, e.getMessage());
-                }
+    // Đề đã ẩn nhưng chưa purge xong (server dừng giữa chừng, job lỗi): xoá tiếp bằng job.
+    // Chạy lại định kỳ vì job RUNNING của node vừa dừng chỉ bị đánh dấu FAILED sau một lúc
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelay = 600_000, initialDelay = 600_000)
+    public void resumeDeletes() {
+        Set<String> pending = jobService.getActiveParams(ExamDeleteJobHandler.TYPE).stream()
+                .map(params -> params.get("examId"))
+                .collect(Collectors.toSet());
+        for (Long examId : examPurger.findMarkedDeleted()) {
+            if (pending.contains(examId.toString())) {
+                continue;
+            }
+            try {
+                jobService.submit(ExamDeleteJobHandler.TYPE, Map.of("examId", examId.toString()), null);
+            } catch (IOException | IllegalStateException e) {
+                log.warn("Could not queue purge of exam {}: {}", examId, e.getMessage());
             }
-            questionRepository.deleteAllById(questionIds);
         }
-
-        // 4) Finally delete exam
-        examRepository.deleteById(id);
     }
 
     @Override
-    public List<ExamDto> getAllExams() {
-        List<Exams> exams = examRepository.findAll();
-        
-        // Get current student if authenticated
-        UUID userId = SecurityUtils.getCurrentUserId();
-        Students student = null;
-        
-        if (userId != null) {
-            Users user = userRepository.findById(userId).orElse(null);
-            if (user != null && "STUDENT".equalsIgnoreCase(user.getRole())) {
-                student = studentRepository.findByUsers(user).orElse(null);
-            }
+    public CursorPage<ExamDto> getAllExams(CursorRequest page) {
+        KeysetPaging.Query query = KeysetPaging.of(page, Set.of("id"), "id");
+        if (query.isDescending()) {
+            throw new IllegalArgumentException("Exam catalogue can only be sorted by id ascending");
         }
-        
-        final Students finalStudent = student;
-        
-        return exams.stream()
-                .filter(exam -> !"DRAFT".equalsIgnoreCase(exam.getStatus()))
-                .map(exam -> {
-                    ExamDto dto = examMapper.toDto(exam);
-                    String computedStatus = getComputedStatus(exam);
-                    dto.setStatus(computedStatus);
-                    
-                    // Set attempt info if student is logged in
-                    if (finalStudent != null) {
-                        var allAttempts = examAttemptRepository
-                                .findByExamsIdAndStudentsIdOrderByCreatedAtDesc(exam.getId(), finalStudent.getId());
-                        
-                        dto.setHasAttempt(!allAttempts.isEmpty());
-                        
-                        if (!allAttempts.isEmpty()) {
-                            ExamAttempts latestAttempt = allAttempts.get(0);
-                            dto.setHasUnfinishedAttempt(!latestAttempt.isSubmitted());
-                        } else {
-                            dto.setHasUnfinishedAttempt(false);
-                        }
-                    } else {
-                        dto.setHasUnfinishedAttempt(false);
-                    }
-                    
-                    return dto;
-                })
-                .toList();
+        Long afterId = (Long) query.key("id");
+
+        // Chỉ sinh viên mới có cờ attempt; người dùng khác dùng id không tồn tại
+        UUID userId = SecurityUtils.getCurrentUserId();
+        Long studentId = userId == null ? null : studentRepository.findIdByUserId(userId).orElse(null);
+
+        // Lấy dư một dòng để biết còn trang sau hay không
+        List<ExamCatalogRow> rows = examRepository.findCatalog(studentId != null ? studentId : NO_STUDENT,
+                Timestamp.from(Instant.now()), afterId != null ? afterId : 0L, Limit.of(query.size() + 1));
+        return KeysetPaging.page(rows, query, row -> Map.of("id", row.getId()),
+                content -> content.stream().map(this::toCatalogDto).toList());
+    }
+
+    private ExamDto toCatalogDto(ExamCatalogRow row) {
+        return ExamDto.builder()
+                .id(row.getId())
+                .title(row.getTitle())
+                .description(row.getDescription())
+                .startTime(row.getStartTime())
+                .endTime(row.getEndTime())
+                .random(row.isRandom())
+                .durationMinutes(row.getDurationMinutes())
+                .categoryId(row.getCategoryId() != null ? row.getCategoryId() : 0L)
+                .status(row.getStatus())
+                .hasAttempt(row.hasAttempt())
+                .hasUnfinishedAttempt(row.hasUnfinishedAttempt())
+                .build();
     }
 
     private Users getCurrentAuthenticatedUser() {
@@ -474,43 +578,21 @@ public class ExamServiceImpl implements ExamService {
 
     @Override
     public List<ExamDto> getExamsByCategory(Long categoryId) {
-
-        examCategoryRepository.findById(categoryId)
-                .orElseThrow(() -> new EntityNotFoundException("Exam category not found: " + categoryId));
-
-        List<Exams> exams = examRepository.findByExamCategories_Id(categoryId);
+        if (!examCategoryRepository.existsById(categoryId)) {
+            throw new EntityNotFoundException("Exam category not found: " + categoryId);
+        }
 
         // Get current student
         UUID userId = SecurityUtils.getCurrentUserId();
         if (userId == null) {
             throw new IllegalArgumentException("User not authenticated");
         }
-        Users user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("User not found: " + userId));
-        Students student = studentRepository.findByUsers(user)
+        Long studentId = studentRepository.findIdByUserId(userId)
                 .orElseThrow(() -> new EntityNotFoundException("Student not found for user: " + userId));
 
-        return exams.stream()
-                .filter(exam -> !"DRAFT".equalsIgnoreCase(exam.getStatus()))
-                .map(exam -> {
-                    ExamDto dto = examMapper.toDto(exam);
-                    String computedStatus = getComputedStatus(exam);
-                    dto.setStatus(computedStatus);
-
-                    var allAttempts = examAttemptRepository
-                            .findByExamsIdAndStudentsIdOrderByCreatedAtDesc(exam.getId(), student.getId());
-
-                    dto.setHasAttempt(!allAttempts.isEmpty());
-
-                    if (!allAttempts.isEmpty()) {
-                        ExamAttempts latestAttempt = allAttempts.get(0);
-                        dto.setHasUnfinishedAttempt(!latestAttempt.isSubmitted());
-                    } else {
-                        dto.setHasUnfinishedAttempt(false);
-                    }
-
-                    return dto;
-                })
+        return examRepository.findCatalogByCategory(categoryId, studentId, Timestamp.from(Instant.now()))
+                .stream()
+                .map(this::toCatalogDto)
                 .toList();
     }
 
@@ -2,17 +2,25 @@ package com.example.qnuquiz.service.impl;
 
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 import java.util.UUID;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
 import com.example.qnuquiz.dto.feedback.CreateFeedbackRequest;
 import com.example.qnuquiz.dto.feedback.FeedbackDto;
 import com.example.qnuquiz.dto.feedback.FeedbackTemplateDto;
 import com.example.qnuquiz.dto.feedback.TeacherReplyRequest;
 import com.example.qnuquiz.dto.feedback.UpdateFeedbackRequest;
+import com.example.qnuquiz.dto.page.CursorPage;
+import com.example.qnuquiz.dto.page.CursorRequest;
 import com.example.qnuquiz.entity.Exams;
 import com.example.qnuquiz.entity.Feedbacks;
 import com.example.qnuquiz.entity.Questions;
@@ -24,8 +32,11 @@ import com.example.qnuquiz.repository.QuestionRepository;
 import com.example.qnuquiz.repository.UserRepository;
 import com.example.qnuquiz.security.SecurityUtils;
 import com.example.qnuquiz.service.FeedbackService;
+import com.example.qnuquiz.service.exam.FeedbackChangedEvent;
+import com.example.qnuquiz.service.page.KeysetPaging;
 
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.criteria.Predicate;
 import lombok.AllArgsConstructor;
 
 @Service
@@ -37,10 +48,29 @@ public class FeedbackServiceImpl implements FeedbackService {
     private final UserRepository userRepository;
     private final QuestionRepository questionRepository;
     private final ExamRepository examRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final Set<String> SORTABLE = Set.of("id", "createdAt");
 
     @Override
-    public List<FeedbackDto> getAllFeedbacks() {
-        return feedbacksMapper.toDtoList(feedbacksRepository.findAll());
+    public CursorPage<FeedbackDto> getAllFeedbacks(String status, Long examId, CursorRequest page) {
+        KeysetPaging.Query query = KeysetPaging.of(page, SORTABLE, "createdAt,desc");
+
+        Specification<Feedbacks> filter = (root, q, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (StringUtils.hasText(status)) {
+                predicates.add(cb.equal(root.get("status").as(String.class),
+                        status.trim().toUpperCase(Locale.ROOT)));
+            }
+            if (examId != null) {
+                predicates.add(cb.equal(root.get("exams").get("id"), examId));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+
+        Window<Feedbacks> window = feedbacksRepository.findBy(filter,
+                q -> q.sortBy(query.sort()).limit(query.size()).scroll(query.position()));
+        return KeysetPaging.page(window, query, feedbacksMapper::toDtoList);
     }
 
     @Override
@@ -106,6 +136,7 @@ public class FeedbackServiceImpl implements FeedbackService {
         feedback.setCreatedAt(Timestamp.from(Instant.now()));
 
         Feedbacks saved = feedbacksRepository.save(feedback);
+        eventPublisher.publishEvent(new FeedbackChangedEvent(exam.getId()));
         return feedbacksMapper.toDto(saved);
     }
 
@@ -176,10 +207,12 @@ public class FeedbackServiceImpl implements FeedbackService {
 
     @Override
     public void deleteFeedback(Long id) {
-        if (!feedbacksRepository.existsById(id)) {
-            throw new EntityNotFoundException("Feedback not found");
+        Feedbacks feedback = feedbacksRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Feedback not found"));
+        feedbacksRepository.delete(feedback);
+        if (feedback.getExams() != null) {
+            eventPublisher.publishEvent(new FeedbackChangedEvent(feedback.getExams().getId()));
         }
-        feedbacksRepository.deleteById(id);
     }
 
     @Override
@@ -0,0 +1,118 @@
+package com.example.qnuquiz.service.impl;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.security.authorization.AuthorizationDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.qnuquiz.dto.job.JobDto;
+import com.example.qnuquiz.dto.job.JobRequest;
+import com.example.qnuquiz.entity.BackgroundJobs;
+import com.example.qnuquiz.repository.BackgroundJobRepository;
+import com.example.qnuquiz.security.CustomUserDetails;
+import com.example.qnuquiz.security.SecurityUtils;
+import com.example.qnuquiz.service.JobService;
+import com.example.qnuquiz.service.job.JobHandler;
+import com.example.qnuquiz.service.job.JobResult;
+import com.example.qnuquiz.service.job.JobRunner;
+
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class JobServiceImpl implements JobService {
+
+    private static final int MY_JOBS_LIMIT = 50;
+
+    private final BackgroundJobRepository jobRepository;
+    private final JobRunner jobRunner;
+
+    @Override
+    public JobDto submit(JobRequest request) throws IOException {
+        if (request == null || request.getType() == null) {
+            throw new IllegalArgumentException("Job type is required");
+        }
+        CustomUserDetails user = SecurityUtils.getCurrentUser();
+        JobHandler handler = jobRunner.handler(request.getType());
+        if (user == null || !handler.submitRoles().contains(user.getRole().toUpperCase())) {
+            throw new AuthorizationDeniedException("Not allowed to submit " + request.getType() + " jobs");
+        }
+
+        Map<String, String> params = request.getParams() != null ? request.getParams() : Map.of();
+        handler.validate(params);
+        return jobRunner.describe(jobRunner.enqueue(handler.type(), user.getId(), params, null));
+    }
+
+    @Override
+    public JobDto submit(String type, Map<String, String> params, MultipartFile upload) throws IOException {
+        return jobRunner.describe(jobRunner.enqueue(type, SecurityUtils.getCurrentUserId(), params, upload));
+    }
+
+    @Override
+    public List<Map<String, String>> getActiveParams(String type) {
+        return jobRunner.activeParams(type);
+    }
+
+    @Override
+    public List<JobDto> getMyJobs() {
+        return jobRepository.findByOwnerIdOrderByCreatedAtDesc(SecurityUtils.getCurrentUserId(), Limit.of(MY_JOBS_LIMIT))
+                .stream()
+                .map(jobRunner::describe)
+                .toList();
+    }
+
+    @Override
+    public JobDto getJob(String jobId) {
+        return jobRunner.describe(findAccessible(jobId));
+    }
+
+    @Override
+    public JobDto cancel(String jobId) {
+        BackgroundJobs job = findAccessible(jobId);
+        if (!jobRunner.cancel(job.getId())) {
+            throw new IllegalArgumentException("Job is already finished");
+        }
+        return jobRunner.describe(jobRepository.findById(job.getId()).orElse(job));
+    }
+
+    @Override
+    public JobResult getResult(String jobId) throws IOException {
+        BackgroundJobs job = findAccessible(jobId);
+        if (!JobDto.COMPLETED.equals(job.getStatus()) || job.getResultName() == null) {
+            throw new EntityNotFoundException("Job has no result to download: " + jobId);
+        }
+        Path file = jobRunner.resultFile(job.getId())
+                .orElseThrow(() -> new EntityNotFoundException("Job has no result to download: " + jobId));
+        return new JobResult(file, job.getResultName(), job.getResultType());
+    }
+
+    /**
+     * Jobs are visible to their owner and to admins; anyone else gets the
+     * same answer as for a job that does not exist.
+     */
+    private BackgroundJobs findAccessible(String jobId) {
+        UUID id;
+        try {
+            id = UUID.fromString(jobId);
+        } catch (IllegalArgumentException e) {
+            throw new EntityNotFoundException("Job not found: " + jobId);
+        }
+        BackgroundJobs job = jobRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Job not found: " + jobId));
+
+        CustomUserDetails user = SecurityUtils.getCurrentUser();
+        boolean allowed = user != null
+                && (user.getId().equals(job.getOwnerId()) || "ADMIN".equalsIgnoreCase(user.getRole()));
+        if (!allowed) {
+            throw new EntityNotFoundException("Job not found: " + jobId);
+        }
+        return job;
+    }
+}
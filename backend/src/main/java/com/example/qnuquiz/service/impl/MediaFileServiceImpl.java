@@ -10,14 +10,17 @@ import com.example.qnuquiz.repository.QuestionRepository;
 import com.example.qnuquiz.repository.UserRepository;
 import com.example.qnuquiz.security.SecurityUtils;
 import com.example.qnuquiz.service.MediaFileService;
+import com.example.qnuquiz.service.exam.ExamContentChangedEvent;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.Timestamp;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -28,6 +31,7 @@ public class MediaFileServiceImpl implements MediaFileService {
     private final MediaFileRepository mediaFileRepository;
     private final QuestionRepository questionRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -56,6 +60,7 @@ public class MediaFileServiceImpl implements MediaFileService {
 
         MediaFiles saved = mediaFileRepository.save(mediaFile);
         log.info("Media file created: ID={}, Question ID={}", saved.getId(), request.getQuestionId());
+        publishChanged(request.getQuestionId());
 
         return toDto(saved);
     }
@@ -68,6 +73,19 @@ public class MediaFileServiceImpl implements MediaFileService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public Map<Long, List<MediaFileDto>> getMediaFilesByQuestionIds(List<Long> questionIds) {
+        if (questionIds.isEmpty()) {
+            return Map.of();
+        }
+        List<String> relatedIds = questionIds.stream().map(String::valueOf).toList();
+        return mediaFileRepository.findByRelatedTableAndRelatedIdIn("questions", relatedIds)
+                .stream()
+                .map(this::toDto)
+                .filter(dto -> dto.getQuestionId() != null)
+                .collect(Collectors.groupingBy(MediaFileDto::getQuestionId));
+    }
+
     @Override
     public MediaFileDto getMediaFileById(Long id) {
         MediaFiles mediaFile = mediaFileRepository.findById(id)
@@ -84,6 +102,12 @@ public class MediaFileServiceImpl implements MediaFileService {
         // Backend only handles URL metadata, file deletion is handled by frontend
         mediaFileRepository.deleteById(id);
         log.info("Media file metadata deleted: ID={}", id);
+        if ("questions".equals(mediaFile.getRelatedTable()) && mediaFile.getRelatedId() != null) {
+            try {
+                publishChanged(Long.parseLong(mediaFile.getRelatedId()));
+            } catch (NumberFormatException e) {
+            }
+        }
     }
 
     @Override
@@ -95,6 +119,16 @@ public class MediaFileServiceImpl implements MediaFileService {
         // Backend only handles URL metadata, file deletion is handled by frontend
         mediaFileRepository.deleteByRelatedTableAndRelatedId("questions", String.valueOf(questionId));
         log.info("Media files metadata deleted for question: ID={}, count={}", questionId, mediaFiles.size());
+        if (!mediaFiles.isEmpty()) {
+            publishChanged(questionId);
+        }
+    }
+
+    private void publishChanged(Long questionId) {
+        List<Long> examIds = questionRepository.findExamIdsByQuestionIds(List.of(questionId));
+        if (!examIds.isEmpty()) {
+            eventPublisher.publishEvent(new ExamContentChangedEvent(examIds));
+        }
     }
 
     private MediaFileDto toDto(MediaFiles mediaFile) {
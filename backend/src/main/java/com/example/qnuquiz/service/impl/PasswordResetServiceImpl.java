@@ -8,13 +8,22 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import com.example.qnuquiz.service.PasswordResetService;
+import com.example.qnuquiz.service.cluster.ClusterBus;
 
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
 @Slf4j
+@RequiredArgsConstructor
 public class PasswordResetServiceImpl implements PasswordResetService {
 
+    // Mã được gửi sang các node khác để bước verify/reset chạy được trên node bất kỳ
+    private static final String TOPIC = "reset-code";
+
+    private final ClusterBus clusterBus;
+
     // Store reset codes: email -> {code, timestamp}
     private final Map<String, ResetCodeInfo> resetCodes = new ConcurrentHashMap<>();
     private static final int CODE_EXPIRY_MINUTES = 10;
@@ -24,9 +33,9 @@ public class PasswordResetServiceImpl implements PasswordResetService {
         String code;
         long timestamp;
 
-        ResetCodeInfo(String code) {
+        ResetCodeInfo(String code, long timestamp) {
             this.code = code;
-            this.timestamp = System.currentTimeMillis();
+            this.timestamp = timestamp;
         }
 
         boolean isExpired() {
@@ -35,13 +44,28 @@ public class PasswordResetServiceImpl implements PasswordResetService {
         }
     }
 
+    // payload: "<email>" = clear, "<email> <code> <timestamp>" = store
+    @PostConstruct
+    public void subscribe() {
+        clusterBus.subscribe(TOPIC, payload -> {
+            String[] parts = payload.split(" ");
+            if (parts.length == 3) {
+                resetCodes.put(parts[0], new ResetCodeInfo(parts[1], Long.parseLong(parts[2])));
+            } else {
+                resetCodes.remove(parts[0]);
+            }
+        });
+    }
+
     @Override
     public String generateAndStoreResetCode(String email) {
         // Generate 4-digit code
         String code = String.format("%04d", random.nextInt(10000));
         
         // Store code with timestamp
-        resetCodes.put(email.toLowerCase(), new ResetCodeInfo(code));
+        ResetCodeInfo info = new ResetCodeInfo(code, System.currentTimeMillis());
+        resetCodes.put(email.toLowerCase(), info);
+        clusterBus.publish(TOPIC, email.toLowerCase() + " " + code + " " + info.timestamp);
         
         log.info("Generated reset code for email: {}", email);
         return code;
@@ -82,6 +106,7 @@ public class PasswordResetServiceImpl implements PasswordResetService {
     @Override
     public void clearResetCode(String email) {
         resetCodes.remove(email.toLowerCase());
+        clusterBus.publish(TOPIC, email.toLowerCase());
         log.info("Cleared reset code for email: {}", email);
     }
 
@@ -2,21 +2,29 @@ package com.example.qnuquiz.service.impl;
 
 import java.io.IOException;
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.example.qnuquiz.config.CacheConfig;
+import com.example.qnuquiz.dto.job.JobDto;
 import com.example.qnuquiz.dto.media.MediaFileDto;
+import com.example.qnuquiz.dto.page.CursorPage;
+import com.example.qnuquiz.dto.page.CursorRequest;
 import com.example.qnuquiz.dto.questions.QuestionDTO;
 import com.example.qnuquiz.dto.questions.QuestionOptionDto;
 import com.example.qnuquiz.entity.Exams;
@@ -30,9 +38,14 @@ import com.example.qnuquiz.repository.QuestionOptionsRepository;
 import com.example.qnuquiz.repository.QuestionRepository;
 import com.example.qnuquiz.repository.UserRepository;
 import com.example.qnuquiz.security.SecurityUtils;
+import com.example.qnuquiz.service.JobService;
 import com.example.qnuquiz.service.MediaFileService;
 import com.example.qnuquiz.service.QuestionService;
+import com.example.qnuquiz.service.exam.ExamContentChangedEvent;
+import com.example.qnuquiz.service.importer.QuestionImporter;
+import com.example.qnuquiz.service.page.KeysetPaging;
 
+import jakarta.persistence.criteria.Predicate;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 
@@ -47,51 +60,28 @@ public class QuestionServiceImpl implements QuestionService {
     private final ExamRepository examRepository;
     private final QuestionMapper questionMapper;
     private final MediaFileService mediaFileService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JobService jobService;
+    private final CacheManager cacheManager;
+
+    private static final Set<String> SORTABLE = Set.of("id", "createdAt");
 
     @Override
-    @CacheEvict(value = "allQuestionsOfExam", allEntries = true)
-    public void importQuestionsFromExcel(MultipartFile file, UUID userId, Long examId) throws IOException {
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
+    public JobDto importQuestionsFromExcel(MultipartFile file, UUID userId, Long examId) throws IOException {
+        Exams exam = examRepository.findById(examId)
+                .orElseThrow(() -> new RuntimeException("Exam not found"));
 
-            Users user = userRepository.findById(userId)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            Exams exam = examRepository.findById(examId)
-                    .orElseThrow(() -> new RuntimeException("Exam not found"));
+        if (exam.getUsers() == null || !exam.getUsers().getId().equals(userId)) {
+            throw new RuntimeException("You are not allowed to add questions to this exam");
+        }
 
-            if (!exam.getUsers().getId().equals(userId)) {
-                throw new RuntimeException("You are not allowed to add questions to this exam");
-            }
+        // Chạy nền, client theo dõi tiến độ qua getImportJob
+        return jobService.submit(QuestionImporter.TYPE, Map.of("examId", examId.toString()), file);
+    }
 
-            Sheet sheet = workbook.getSheetAt(0);
-            int rowCount = 0;
-
-            for (Row row : sheet) {
-                if (rowCount++ == 0)
-                    continue;
-
-                String content = getString(row.getCell(0));
-                String opt1 = getString(row.getCell(1));
-                String opt2 = getString(row.getCell(2));
-                String opt3 = getString(row.getCell(3));
-                String opt4 = getString(row.getCell(4));
-                int correct = (int) row.getCell(5).getNumericCellValue();
-
-                Questions question = new Questions();
-                question.setExams(exam);
-                question.setUsers(user);
-                question.setContent(content);
-                question.setOrdering(rowCount - 1);
-                question.setType("MULTIPLE_CHOICE");
-                question.setCreatedAt(new Timestamp(System.currentTimeMillis()));
-                question.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
-                question = questionsRepository.save(question);
-
-                createOption(question, opt1, correct == 1, 1);
-                createOption(question, opt2, correct == 2, 2);
-                createOption(question, opt3, correct == 3, 3);
-                createOption(question, opt4, correct == 4, 4);
-            }
-        }
+    @Override
+    public JobDto getImportJob(String jobId) {
+        return jobService.getJob(jobId);
     }
 
     private void createOption(Questions question, String content, boolean isCorrect, int position) {
@@ -104,35 +94,30 @@ public class QuestionServiceImpl implements QuestionService {
         questionOptionsRepository.save(opt);
     }
 
-    private String getString(Cell cell) {
-        if (cell == null)
-            return "";
-
-        return switch (cell.getCellType()) {
-            case STRING -> cell.getStringCellValue().trim();
-            case NUMERIC -> String.valueOf(cell.getNumericCellValue());
-            case BOOLEAN -> String.valueOf(cell.getBooleanCellValue());
-            case FORMULA -> cell.getCellFormula();
-            case BLANK, _NONE, ERROR -> "";
-        };
-    }
-
     @Override
-    @Cacheable("allQuestionsOfExam")
+    @Cacheable(CacheConfig.QUESTIONS_OF_EXAM)
     public List<QuestionDTO> getAllQuestionsInExam(Long examId) {
         if (!examRepository.existsById(examId)) {
             throw new RuntimeException("Exam not found");
         }
 
-        return questionsRepository.findByExamsId(examId).stream()
-                .map(this::buildQuestionDTO)
-                .toList();
+        return buildQuestionDTOs(questionsRepository.findByExamsId(examId));
+    }
+
+    // Mọi thay đổi câu hỏi, đáp án, media hay xoá đề đều phát ExamContentChangedEvent:
+    // chỉ xoá danh sách câu hỏi của các đề bị ảnh hưởng, sau khi transaction commit
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamContentChanged(ExamContentChangedEvent event) {
+        Cache cache = cacheManager.getCache(CacheConfig.QUESTIONS_OF_EXAM);
+        if (cache != null) {
+            event.examIds().forEach(cache::evict);
+        }
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = "allQuestionsOfExam", allEntries = true)
     public void deleteQuestion(List<Long> ids) {
+        List<Long> examIds = questionsRepository.findExamIdsByQuestionIds(ids);
         List<QuestionOptions> optionsToDelete = questionOptionsRepository.findByQuestions_IdIn(ids);
         List<Long> optionIds = optionsToDelete.stream()
                 .map(QuestionOptions::getId)
@@ -146,11 +131,11 @@ public class QuestionServiceImpl implements QuestionService {
         
         questionOptionsRepository.deleteAllByQuestions_IdIn(ids);
         questionsRepository.deleteAllById(ids);
+        eventPublisher.publishEvent(new ExamContentChangedEvent(examIds));
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = "allQuestionsOfExam", allEntries = true)
     public QuestionDTO updateQuestion(QuestionDTO dto) {
         Questions question = questionsRepository.findById(dto.getId())
                 .orElseThrow(() -> new RuntimeException("Question not found"));
@@ -165,7 +150,7 @@ public class QuestionServiceImpl implements QuestionService {
                     QuestionOptions option = questionOptionsRepository.findById(optionDto.getId())
                             .orElseThrow(() -> new RuntimeException("Option not found with id: " + optionDto.getId()));
                     option.setContent(optionDto.getContent());
-                    option.setIsCorrect(optionDto.isCorrect());
+                    option.setIsCorrect(Boolean.TRUE.equals(optionDto.getCorrect()));
                     option.setPosition(optionDto.getPosition());
                     questionOptionsRepository.save(option);
                     return QuestionOptionDto.builder()
@@ -190,6 +175,7 @@ public class QuestionServiceImpl implements QuestionService {
         }
 
         questionsRepository.save(question);
+        eventPublisher.publishEvent(ExamContentChangedEvent.of(question.getExams().getId()));
 
         return QuestionDTO.builder()
                 .id(question.getId())
@@ -207,15 +193,30 @@ public class QuestionServiceImpl implements QuestionService {
     }
 
     @Override
-    public List<QuestionDTO> getAllQuestions() {
-        return questionsRepository.findAll().stream()
-                .map(this::buildQuestionDTO)
-                .toList();
+    public CursorPage<QuestionDTO> getAllQuestions(Long examId, String type, String keyword, CursorRequest page) {
+        KeysetPaging.Query query = KeysetPaging.of(page, SORTABLE, "id");
+
+        Specification<Questions> filter = (root, q, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (examId != null) {
+                predicates.add(cb.equal(root.get("exams").get("id"), examId));
+            }
+            if (StringUtils.hasText(type)) {
+                predicates.add(cb.equal(root.get("type").as(String.class), type.trim()));
+            }
+            if (StringUtils.hasText(keyword)) {
+                predicates.add(cb.like(cb.lower(root.get("content")), "%" + keyword.trim().toLowerCase() + "%"));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+
+        Window<Questions> window = questionsRepository.findBy(filter,
+                q -> q.sortBy(query.sort()).limit(query.size()).scroll(query.position()));
+        return KeysetPaging.page(window, query, this::buildQuestionDTOs);
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = "allQuestionsOfExam", allEntries = true)
     public QuestionDTO createQuestion(QuestionDTO dto, Long examId) {
         Exams exam = examRepository.findById(examId)
                 .orElseThrow(() -> new RuntimeException("Exam not found with id: " + examId));
@@ -243,7 +244,7 @@ public class QuestionServiceImpl implements QuestionService {
         if (dto.getOptions() != null && !dto.getOptions().isEmpty()) {
             // MULTIPLE_CHOICE questions require options
             if ("MULTIPLE_CHOICE".equalsIgnoreCase(dto.getType()) || "TRUE_FALSE".equalsIgnoreCase(dto.getType())) {
-        dto.getOptions().forEach(optionDto -> createOption(savedQuestion, optionDto.getContent(), optionDto.isCorrect(),
+        dto.getOptions().forEach(optionDto -> createOption(savedQuestion, optionDto.getContent(), Boolean.TRUE.equals(optionDto.getCorrect()),
                 optionDto.getPosition()));
             }
         } else if ("MULTIPLE_CHOICE".equalsIgnoreCase(dto.getType()) || "TRUE_FALSE".equalsIgnoreCase(dto.getType())) {
@@ -251,6 +252,8 @@ public class QuestionServiceImpl implements QuestionService {
             throw new RuntimeException("Options are required for MULTIPLE_CHOICE and TRUE_FALSE question types");
         }
 
+        eventPublisher.publishEvent(ExamContentChangedEvent.of(exam.getId()));
+
         List<QuestionOptionDto> createdOptions = questionOptionsRepository.findByQuestions_Id(savedQuestion.getId())
                 .stream()
                 .map(opt -> QuestionOptionDto.builder()
@@ -268,8 +271,33 @@ public class QuestionServiceImpl implements QuestionService {
      * Helper method to build QuestionDTO with options and media files
      */
     private QuestionDTO buildQuestionDTO(Questions question) {
-        // Load options
-        List<QuestionOptionDto> options = questionOptionsRepository.findByQuestions_Id(question.getId()).stream()
+        return buildQuestionDTO(question, questionOptionsRepository.findByQuestions_Id(question.getId()),
+                mediaFileService.getMediaFilesByQuestionId(question.getId()));
+    }
+
+    /**
+     * Same as {@link #buildQuestionDTO(Questions)} for a list: one query for
+     * all options and one for all media files, whatever the number of questions
+     */
+    private List<QuestionDTO> buildQuestionDTOs(List<Questions> questions) {
+        if (questions.isEmpty()) {
+            return List.of();
+        }
+        List<Long> questionIds = questions.stream().map(Questions::getId).toList();
+        Map<Long, List<QuestionOptions>> options = questionOptionsRepository.findByQuestions_IdIn(questionIds)
+                .stream()
+                .collect(Collectors.groupingBy(option -> option.getQuestions().getId()));
+        Map<Long, List<MediaFileDto>> mediaFiles = mediaFileService.getMediaFilesByQuestionIds(questionIds);
+
+        return questions.stream()
+                .map(question -> buildQuestionDTO(question, options.getOrDefault(question.getId(), List.of()),
+                        mediaFiles.getOrDefault(question.getId(), List.of())))
+                .toList();
+    }
+
+    private QuestionDTO buildQuestionDTO(Questions question, List<QuestionOptions> questionOptions,
+            List<MediaFileDto> mediaFiles) {
+        List<QuestionOptionDto> options = questionOptions.stream()
                 .map(o -> QuestionOptionDto.builder()
                         .id(o.getId())
                         .content(o.getContent())
@@ -278,9 +306,6 @@ public class QuestionServiceImpl implements QuestionService {
                         .build())
                 .toList();
 
-        // Load media files
-        List<MediaFileDto> mediaFiles = mediaFileService.getMediaFilesByQuestionId(question.getId());
-
         // Build DTO
         QuestionDTO.QuestionDTOBuilder builder = QuestionDTO.builder()
                 .id(question.getId())
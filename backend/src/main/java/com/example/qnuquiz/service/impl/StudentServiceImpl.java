@@ -1,18 +1,18 @@
 package com.example.qnuquiz.service.impl;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.io.IOException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,15 +20,18 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.example.qnuquiz.dto.announcement.AnnouncementDto;
+import com.example.qnuquiz.dto.job.JobDto;
+import com.example.qnuquiz.dto.page.CursorPage;
+import com.example.qnuquiz.dto.page.CursorRequest;
 import com.example.qnuquiz.dto.student.ExamAnswerHistoryDto;
+import com.example.qnuquiz.dto.student.ExamAnswerHistoryRow;
 import com.example.qnuquiz.dto.student.ExamHistoryDto;
+import com.example.qnuquiz.dto.student.ExamHistoryRow;
 import com.example.qnuquiz.dto.student.StudentDto;
 import com.example.qnuquiz.dto.user.ChangePasswordRequest;
 import com.example.qnuquiz.entity.Announcements;
 import com.example.qnuquiz.entity.Classes;
 import com.example.qnuquiz.entity.Departments;
-import com.example.qnuquiz.entity.ExamAnswers;
-import com.example.qnuquiz.entity.ExamAttempts;
 import com.example.qnuquiz.entity.Students;
 import com.example.qnuquiz.entity.Users;
 import com.example.qnuquiz.mapper.StudentMapper;
@@ -39,9 +42,17 @@ import com.example.qnuquiz.repository.ExamAnswerRepository;
 import com.example.qnuquiz.repository.ExamAttemptRepository;
 import com.example.qnuquiz.repository.StudentRepository;
 import com.example.qnuquiz.repository.UserRepository;
+import com.example.qnuquiz.security.CustomUserDetails;
 import com.example.qnuquiz.security.SecurityUtils;
+import com.example.qnuquiz.security.UserChangedEvent;
+import com.example.qnuquiz.service.JobService;
 import com.example.qnuquiz.service.StudentService;
+import com.example.qnuquiz.service.exam.ExamAnswerBuffer;
+import com.example.qnuquiz.service.importer.StudentImporter;
+import com.example.qnuquiz.service.page.KeysetPaging;
 
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.criteria.Predicate;
 import lombok.AllArgsConstructor;
 
 @Service
@@ -57,10 +68,37 @@ public class StudentServiceImpl implements StudentService {
     private final ExamAnswerRepository examAnswerRepository;
     private final AnnouncementRepository announcementRepository;
     private final PasswordEncoder passwordEncoder;
+    private final JobService jobService;
+    private final ExamAnswerBuffer answerBuffer;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final Set<String> SORTABLE = Set.of("id", "studentCode", "createdAt");
 
     @Override
-    public List<StudentDto> getAllStudents() {
-        return studentMapper.toDtoList(studentRepository.findAll());
+    public CursorPage<StudentDto> getAllStudents(Long departmentId, Long classId, String keyword,
+            CursorRequest page) {
+        KeysetPaging.Query query = KeysetPaging.of(page, SORTABLE, "id");
+
+        Specification<Students> filter = (root, q, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (departmentId != null) {
+                predicates.add(cb.equal(root.get("departments").get("id"), departmentId));
+            }
+            if (classId != null) {
+                predicates.add(cb.equal(root.get("classes").get("id"), classId));
+            }
+            if (StringUtils.hasText(keyword)) {
+                String pattern = "%" + keyword.trim().toLowerCase() + "%";
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.get("studentCode")), pattern),
+                        cb.like(cb.lower(root.join("users").get("fullName")), pattern)));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+
+        Window<Students> window = studentRepository.findBy(filter,
+                q -> q.sortBy(query.sort()).limit(query.size()).scroll(query.position()));
+        return KeysetPaging.page(window, query, studentMapper::toDtoList);
     }
 
     @Override
@@ -118,6 +156,7 @@ public class StudentServiceImpl implements StudentService {
 
         studentRepository.save(student);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
 
         return studentMapper.toDto(student);
     }
@@ -154,70 +193,93 @@ public class StudentServiceImpl implements StudentService {
         user.setPasswordHash(passwordEncoder.encode(request.getNewPassword()));
         user.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<ExamHistoryDto> getExamHistory() {
-        UUID currentUserId = SecurityUtils.getCurrentUserId();
-
-        if (currentUserId == null) {
-            throw new RuntimeException("Không xác định được người dùng hiện tại");
+    public CursorPage<ExamHistoryDto> getExamHistory(CursorRequest page, boolean includeAnswers) {
+        KeysetPaging.Query query = KeysetPaging.of(page, Set.of("id"), "id,desc");
+        if (!query.isDescending()) {
+            throw new IllegalArgumentException("Exam history can only be sorted by id descending");
         }
+        Long beforeId = (Long) query.key("id");
+        Long studentId = currentStudentId();
+
+        // Lấy tất cả các lần làm bài (bao gồm cả chưa hoàn thành), dư một dòng để biết còn trang sau
+        List<ExamHistoryRow> rows = examAttemptRepository.findHistory(studentId,
+                beforeId != null ? beforeId : Long.MAX_VALUE, Limit.of(query.size() + 1));
+        return KeysetPaging.page(rows, query, row -> Map.of("id", row.getAttemptId()), content -> {
+            Map<Long, List<ExamAnswerHistoryDto>> answers = includeAnswers
+                    ? loadAnswers(content.stream().map(ExamHistoryRow::getAttemptId).toList())
+                    : Map.of();
+            return content.stream()
+                    .map(row -> toHistoryDto(row, includeAnswers
+                            ? answers.getOrDefault(row.getAttemptId(), List.of())
+                            : null))
+                    .toList();
+        });
+    }
 
-        Users user = userRepository.findById(currentUserId)
-                .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng"));
+    @Override
+    @Transactional(readOnly = true)
+    public List<ExamAnswerHistoryDto> getExamHistoryAnswers(Long attemptId) {
+        Long studentId = currentStudentId();
+        examAttemptRepository.findIdByIdAndStudentId(attemptId, studentId)
+                .orElseThrow(() -> new EntityNotFoundException("Exam attempt not found: " + attemptId));
+        return loadAnswers(List.of(attemptId)).getOrDefault(attemptId, List.of());
+    }
 
-        if (!"STUDENT".equalsIgnoreCase(user.getRole())) {
+    private Long currentStudentId() {
+        CustomUserDetails currentUser = SecurityUtils.getCurrentUser();
+        if (currentUser == null) {
+            throw new RuntimeException("Không xác định được người dùng hiện tại");
+        }
+        if (!"STUDENT".equalsIgnoreCase(currentUser.getRole())) {
             throw new RuntimeException("Chỉ sinh viên mới có thể xem lịch sử làm kiểm tra");
         }
-
-        Students student = studentRepository.findByUsers(user)
+        return studentRepository.findIdByUserId(currentUser.getId())
                 .orElseThrow(() -> new RuntimeException("Student not found"));
+    }
 
-        // Lấy tất cả các lần làm bài (bao gồm cả chưa hoàn thành)
-        List<ExamAttempts> attempts = examAttemptRepository
-                .findByStudents_IdOrderByEndTimeDesc(student.getId());
-
-        return attempts.stream().map(attempt -> {
-            ExamHistoryDto.ExamHistoryDtoBuilder builder = ExamHistoryDto.builder()
-                    .attemptId(attempt.getId())
-                    .examId(attempt.getExams().getId())
-                    .examTitle(attempt.getExams().getTitle())
-                    .examDescription(attempt.getExams().getDescription())
-                    .score(attempt.getScore() != null ? attempt.getScore() : 0)
-                    .completionDate(attempt.getEndTime())
-                    .startTime(attempt.getStartTime())
-                    .examDurationMinutes(attempt.getExams().getDurationMinutes());
-
-            if (attempt.getStartTime() != null && attempt.getEndTime() != null) {
-                long durationMillis = attempt.getEndTime().getTime() - attempt.getStartTime().getTime();
-                long durationMinutes = durationMillis / (1000 * 60);
-                builder.durationMinutes(durationMinutes);
-            } else {
-                builder.durationMinutes(0L);
-            }
-
-            List<ExamAnswers> examAnswers = examAnswerRepository.findByExamAttempts_Id(attempt.getId());
-            List<ExamAnswerHistoryDto> answerDtos = examAnswers.stream().map(answer -> {
-                ExamAnswerHistoryDto.ExamAnswerHistoryDtoBuilder answerBuilder = ExamAnswerHistoryDto.builder()
-                        .questionId(answer.getQuestions().getId())
-                        .questionContent(answer.getQuestions().getContent())
-                        .isCorrect(answer.getIsCorrect())
-                        .answerText(answer.getAnswerText());
-
-                if (answer.getQuestionOptions() != null) {
-                    answerBuilder.selectedOptionId(answer.getQuestionOptions().getId())
-                            .selectedOptionContent(answer.getQuestionOptions().getContent());
-                }
-
-                return answerBuilder.build();
-            }).collect(Collectors.toList());
-
-            builder.answers(answerDtos);
+    // Một truy vấn cho câu trả lời của tất cả attempt, nhóm theo attempt
+    private Map<Long, List<ExamAnswerHistoryDto>> loadAnswers(List<Long> attemptIds) {
+        if (attemptIds.isEmpty()) {
+            return Map.of();
+        }
+        // Câu trả lời còn trong buffer (attempt đang làm) chưa có trong DB
+        answerBuffer.flushAttempts(attemptIds);
+        return examAnswerRepository.findHistoryByAttemptIds(attemptIds).stream()
+                .collect(Collectors.groupingBy(ExamAnswerHistoryRow::getAttemptId,
+                        Collectors.mapping(row -> ExamAnswerHistoryDto.builder()
+                                .questionId(row.getQuestionId())
+                                .questionContent(row.getQuestionContent())
+                                .isCorrect(row.getIsCorrect())
+                                .answerText(row.getAnswerText())
+                                .selectedOptionId(row.getSelectedOptionId())
+                                .selectedOptionContent(row.getSelectedOptionContent())
+                                .build(), Collectors.toList())));
+    }
 
-            return builder.build();
-        }).collect(Collectors.toList());
+    private ExamHistoryDto toHistoryDto(ExamHistoryRow row, List<ExamAnswerHistoryDto> answers) {
+        ExamHistoryDto.ExamHistoryDtoBuilder builder = ExamHistoryDto.builder()
+                .attemptId(row.getAttemptId())
+                .examId(row.getExamId())
+                .examTitle(row.getExamTitle())
+                .examDescription(row.getExamDescription())
+                .score(row.getScore() != null ? row.getScore() : 0)
+                .completionDate(row.getEndTime())
+                .startTime(row.getStartTime())
+                .examDurationMinutes(row.getExamDurationMinutes())
+                .answers(answers);
+
+        if (row.getStartTime() != null && row.getEndTime() != null) {
+            long durationMillis = row.getEndTime().getTime() - row.getStartTime().getTime();
+            builder.durationMinutes(durationMillis / (1000 * 60));
+        } else {
+            builder.durationMinutes(0L);
+        }
+        return builder.build();
     }
 
     @Override
@@ -284,109 +346,13 @@ public class StudentServiceImpl implements StudentService {
     }
     
     @Override
-    @Transactional
-    public void importStudentsFromExcel(MultipartFile file) {
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
-            Sheet sheet = workbook.getSheetAt(0);
-            int rowCount = 0;
-
-            for (Row row : sheet) {
-                if (rowCount++ == 0) {
-                    // Skip header
-                    continue;
-                }
-
-                String studentCode = getString(row.getCell(1));
-                String fullName = getString(row.getCell(2));
-                String phone = getString(row.getCell(3));
-                String email = getString(row.getCell(4));
-                String departmentName = getString(row.getCell(5));
-                String className = getString(row.getCell(6));
-                BigDecimal gpa = getGpa(row.getCell(7));
-
-                if (!StringUtils.hasText(studentCode) || !StringUtils.hasText(phone)) {
-                    // Required fields missing, skip this row
-                    continue;
-                }
-
-                String username = studentCode.trim();
-
-                if (userRepository.existsByUsername(username) || studentRepository.existsByStudentCode(studentCode)) {
-                    // Skip duplicates
-                    continue;
-                }
-
-                Departments department = departmentRepository.findByName(departmentName)
-                        .orElseThrow(() -> new RuntimeException("Không tìm thấy khoa: " + departmentName));
-
-                Classes classes = classesRepository.findByNameAndDepartments_Name(className, departmentName)
-                        .orElseThrow(() -> new RuntimeException(
-                                "Không tìm thấy lớp: " + className + " thuộc khoa: " + departmentName));
-
-                Timestamp now = new Timestamp(System.currentTimeMillis());
-
-                Users user = new Users();
-                user.setUsername(username);
-                user.setFullName(fullName);
-                user.setEmail(email);
-                user.setPhoneNumber(phone);
-                user.setStatus("ACTIVE");
-                user.setRole("STUDENT");
-                user.setPasswordHash(passwordEncoder.encode(phone));
-                user.setCreatedAt(now);
-                user.setUpdatedAt(now);
-
-                Users savedUser = userRepository.save(user);
-
-                Students student = new Students();
-                student.setUsers(savedUser);
-                student.setDepartments(department);
-                student.setClasses(classes);
-                student.setStudentCode(studentCode);
-                student.setCreatedAt(now);
-                if (gpa != null) {
-                    student.setGpa(gpa);
-                }
-
-                studentRepository.save(student);
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("Lỗi khi import danh sách sinh viên: " + e.getMessage(), e);
-        }
-    }
-
-    private String getString(Cell cell) {
-        if (cell == null) {
-            return "";
-        }
-
-        return switch (cell.getCellType()) {
-            case STRING -> cell.getStringCellValue().trim();
-            case NUMERIC -> String.valueOf(cell.getNumericCellValue());
-            case BOOLEAN -> String.valueOf(cell.getBooleanCellValue());
-            case FORMULA -> cell.getCellFormula();
-            case BLANK, _NONE, ERROR -> "";
-        };
+    public JobDto importStudentsFromExcel(MultipartFile file) throws IOException {
+        // Chạy nền, client theo dõi tiến độ qua getImportJob
+        return jobService.submit(StudentImporter.TYPE, Map.of(), file);
     }
 
-    private BigDecimal getGpa(Cell cell) {
-        if (cell == null) {
-            return null;
-        }
-        try {
-            return switch (cell.getCellType()) {
-                case STRING -> {
-                    String value = cell.getStringCellValue().trim();
-                    if (value.isEmpty()) {
-                        yield null;
-                    }
-                    yield new BigDecimal(value).setScale(2, RoundingMode.HALF_UP);
-                }
-                case NUMERIC -> BigDecimal.valueOf(cell.getNumericCellValue()).setScale(2, RoundingMode.HALF_UP);
-                default -> null;
-            };
-        } catch (Exception e) {
-            return null;
-        }
+    @Override
+    public JobDto getImportJob(String jobId) {
+        return jobService.getJob(jobId);
     }
 }
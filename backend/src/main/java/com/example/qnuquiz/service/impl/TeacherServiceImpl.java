@@ -2,28 +2,32 @@ package com.example.qnuquiz.service.impl;
 
 import java.sql.Timestamp;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.util.StringUtils;
 
+import com.example.qnuquiz.config.CacheConfig;
+import com.example.qnuquiz.dto.page.CursorPage;
+import com.example.qnuquiz.dto.page.CursorRequest;
 import com.example.qnuquiz.dto.teacher.TeacherDto;
+import com.example.qnuquiz.dto.teacher.TeacherExamStatsRow;
 import com.example.qnuquiz.dto.teacher.TeacherNotificationDto;
 import com.example.qnuquiz.dto.teacher.TeacherStatsDTO;
 import com.example.qnuquiz.dto.user.ChangePasswordRequest;
 import com.example.qnuquiz.entity.Announcements;
-import com.example.qnuquiz.entity.Classes;
-import com.example.qnuquiz.entity.ExamAttempts;
-import com.example.qnuquiz.entity.Exams;
-import com.example.qnuquiz.entity.Feedbacks;
-import com.example.qnuquiz.entity.Questions;
-import com.example.qnuquiz.entity.Students;
 import com.example.qnuquiz.entity.Teachers;
 import com.example.qnuquiz.entity.Users;
 import com.example.qnuquiz.mapper.TeacherMapper;
@@ -31,13 +35,20 @@ import com.example.qnuquiz.repository.AnnouncementRepository;
 import com.example.qnuquiz.repository.ExamAttemptRepository;
 import com.example.qnuquiz.repository.ExamRepository;
 import com.example.qnuquiz.repository.FeedbackRepository;
-import com.example.qnuquiz.repository.QuestionRepository;
-import com.example.qnuquiz.repository.StudentRepository;
 import com.example.qnuquiz.repository.TeacherRepository;
 import com.example.qnuquiz.repository.UserRepository;
+import com.example.qnuquiz.security.CustomUserDetails;
 import com.example.qnuquiz.security.SecurityUtils;
+import com.example.qnuquiz.security.UserChangedEvent;
 import com.example.qnuquiz.service.TeacherService;
-
+import com.example.qnuquiz.service.exam.ExamAttemptFinishedEvent;
+import com.example.qnuquiz.service.exam.ExamAttemptStartedEvent;
+import com.example.qnuquiz.service.exam.ExamContentChangedEvent;
+import com.example.qnuquiz.service.exam.ExamDeletedEvent;
+import com.example.qnuquiz.service.exam.FeedbackChangedEvent;
+import com.example.qnuquiz.service.page.KeysetPaging;
+
+import jakarta.persistence.criteria.Predicate;
 import lombok.AllArgsConstructor;
 
 @Service
@@ -51,13 +62,33 @@ public class TeacherServiceImpl implements TeacherService {
     private final ExamAttemptRepository examAttemptRepository;
     private final AnnouncementRepository announcementRepository;
     private final FeedbackRepository feedbackRepository;
-    private final QuestionRepository questionRepository;
-    private final StudentRepository studentRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final Set<String> SORTABLE = Set.of("id", "createdAt");
 
     @Override
-    public List<TeacherDto> getAllTeachers() {
-        return teacherMapper.toDtoList(teacherRepository.findAll());
+    public CursorPage<TeacherDto> getAllTeachers(Long departmentId, String keyword, CursorRequest page) {
+        KeysetPaging.Query query = KeysetPaging.of(page, SORTABLE, "id");
+
+        Specification<Teachers> filter = (root, q, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (departmentId != null) {
+                predicates.add(cb.equal(root.get("departments").get("id"), departmentId));
+            }
+            if (StringUtils.hasText(keyword)) {
+                String pattern = "%" + keyword.trim().toLowerCase() + "%";
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.get("teacherCode")), pattern),
+                        cb.like(cb.lower(root.join("users").get("fullName")), pattern)));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+
+        Window<Teachers> window = teacherRepository.findBy(filter,
+                q -> q.sortBy(query.sort()).limit(query.size()).scroll(query.position()));
+        return KeysetPaging.page(window, query, teacherMapper::toDtoList);
     }
 
     @Override
@@ -102,6 +133,7 @@ public class TeacherServiceImpl implements TeacherService {
 
         teacherRepository.save(teacher);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
 
         return teacherMapper.toDto(teacher);
     }
@@ -138,43 +170,19 @@ public class TeacherServiceImpl implements TeacherService {
         user.setPasswordHash(passwordEncoder.encode(request.getNewPassword()));
         user.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
     }
 
     @Override
     @Transactional(readOnly = true)
     public TeacherNotificationDto getNotificationsForCurrentTeacher() {
-        UUID currentUserId = SecurityUtils.getCurrentUserId();
-        if (currentUserId == null) {
-            throw new RuntimeException("Không xác định được người dùng hiện tại");
-        }
+        UUID currentUserId = currentTeacherUserId("Chỉ giáo viên mới có thể xem thông báo");
 
-        Users user = userRepository.findById(currentUserId)
-                .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng"));
-
-        if (!"TEACHER".equalsIgnoreCase(user.getRole())) {
-            throw new RuntimeException("Chỉ giáo viên mới có thể xem thông báo");
-        }
-
-        Teachers teacher = teacherRepository.findByUsers(user)
+        Teachers teacher = teacherRepository.findWithUserByUserId(currentUserId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy thông tin giáo viên"));
 
-        // Lấy các bài thi mà giáo viên tạo
-        List<Exams> teacherExams = examRepository.findByUsers_Id(currentUserId);
-
-        // Lấy các lớp liên quan đến giáo viên (qua các bài thi)
-        Set<Long> classIds = new HashSet<>();
-        Set<Long> examIds = teacherExams.stream().map(Exams::getId).collect(Collectors.toSet());
-
-        // Lấy các lớp từ exam attempts
-        for (Long examId : examIds) {
-            List<ExamAttempts> attempts = examAttemptRepository.findByExamsId(examId);
-            for (ExamAttempts attempt : attempts) {
-                Students student = attempt.getStudents();
-                if (student != null && student.getClasses() != null) {
-                    classIds.add(student.getClasses().getId());
-                }
-            }
-        }
+        // Các lớp có sinh viên đã làm bài thi của giáo viên
+        List<Long> classIds = examAttemptRepository.findClassIdsByExamCreator(currentUserId);
 
         // Lấy thông báo
         List<TeacherNotificationDto.ExamAnnouncementDto> examAnnouncements = new ArrayList<>();
@@ -193,7 +201,7 @@ public class TeacherServiceImpl implements TeacherService {
 
         // Thông báo cho các lớp
         if (!classIds.isEmpty()) {
-            List<Announcements> classAnnouncements = announcementRepository.findByClassIds(new ArrayList<>(classIds));
+            List<Announcements> classAnnouncements = announcementRepository.findByClassIds(classIds);
             examAnnouncements.addAll(classAnnouncements.stream()
                     .map(this::mapToExamAnnouncementDto)
                     .collect(Collectors.toList()));
@@ -220,29 +228,9 @@ public class TeacherServiceImpl implements TeacherService {
                 .sorted((a, b) -> b.getPublishedAt().compareTo(a.getPublishedAt()))
                 .collect(Collectors.toList());
 
-        // Lấy các vấn đề (feedbacks) từ các câu hỏi trong bài thi của giáo viên
-        List<TeacherNotificationDto.ClassIssueDto> classIssues = new ArrayList<>();
-
-        // Lấy tất cả câu hỏi trong các bài thi của giáo viên
-        Set<Long> questionIds = new HashSet<>();
-        for (Long examId : examIds) {
-            List<Questions> questions = questionRepository.findByExamsId(examId);
-            questionIds.addAll(questions.stream().map(Questions::getId).collect(Collectors.toSet()));
-        }
-
-        // Lấy feedbacks cho các câu hỏi đó
-        List<Feedbacks> relevantFeedbacks = questionIds.isEmpty()
-                ? new ArrayList<>()
-                : feedbackRepository.findByQuestionIds(new ArrayList<>(questionIds));
-
-        // Map feedbacks thành ClassIssueDto
-        for (Feedbacks feedback : relevantFeedbacks) {
-            TeacherNotificationDto.ClassIssueDto issueDto = mapToClassIssueDto(feedback);
-            classIssues.add(issueDto);
-        }
-
-        // Sắp xếp theo thời gian tạo
-        classIssues.sort((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()));
+        // Các vấn đề (feedbacks) trên câu hỏi trong bài thi của giáo viên, mới nhất trước
+        List<TeacherNotificationDto.ClassIssueDto> classIssues = feedbackRepository
+                .findClassIssuesByExamCreator(currentUserId);
 
         return TeacherNotificationDto.builder()
                 .examAnnouncements(examAnnouncements)
@@ -263,117 +251,110 @@ public class TeacherServiceImpl implements TeacherService {
                 .build();
     }
 
-    private TeacherNotificationDto.ClassIssueDto mapToClassIssueDto(Feedbacks feedback) {
-        Questions question = feedback.getQuestions();
-        Exams exam = question != null ? question.getExams() : null;
-        Users studentUser = feedback.getUsersByUserId();
-        Students student = null;
-        Classes studentClass = null;
-
-        if (studentUser != null) {
-            student = studentRepository.findByUsers(studentUser).orElse(null);
-            if (student != null) {
-                studentClass = student.getClasses();
-            }
-        }
-
-        return TeacherNotificationDto.ClassIssueDto.builder()
-                .id(feedback.getId())
-                .questionContent(question != null ? question.getContent() : null)
-                .examId(exam != null ? exam.getId() : null)
-                .examTitle(exam != null ? exam.getTitle() : null)
-                .studentName(studentUser != null ? studentUser.getFullName() : null)
-                .studentCode(student != null ? student.getStudentCode() : null)
-                .className(studentClass != null ? studentClass.getName() : null)
-                .content(feedback.getContent())
-                .status(feedback.getStatus())
-                .createdAt(feedback.getCreatedAt())
-                .reviewedAt(feedback.getReviewedAt())
-                .build();
-    }
-
     @Override
-    @Transactional(readOnly = true)
     public TeacherStatsDTO getTeacherStats() {
-        UUID currentUserId = SecurityUtils.getCurrentUserId();
-        if (currentUserId == null) {
-            throw new RuntimeException("Không xác định được người dùng hiện tại");
-        }
+        UUID currentUserId = currentTeacherUserId("Chỉ giáo viên mới có thể xem thống kê");
 
-        Users user = userRepository.findById(currentUserId)
-                .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng"));
-
-        if (!"TEACHER".equalsIgnoreCase(user.getRole())) {
-            throw new RuntimeException("Chỉ giáo viên mới có thể xem thống kê");
+        // Cache theo giáo viên với TTL ngắn (caches.teacherDashboard), xoá khi đề, lượt làm bài hay feedback thay đổi
+        Cache cache = dashboardCache();
+        TeacherStatsDTO cached = cache.get(currentUserId, TeacherStatsDTO.class);
+        if (cached != null) {
+            return cached;
         }
+        TeacherStatsDTO stats = loadTeacherStats(currentUserId);
+        cache.put(currentUserId, stats);
+        return stats;
+    }
 
-        Teachers teacher = teacherRepository.findByUsers(user)
+    private TeacherStatsDTO loadTeacherStats(UUID userId) {
+        Teachers teacher = teacherRepository.findWithUserByUserId(userId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy thông tin giáo viên"));
 
-        // Lấy tất cả bài thi của giáo viên
-        List<Exams> teacherExams = examRepository.findByUsers_Id(currentUserId);
-
-        // Đếm tổng bài thi
-        long totalExams = teacherExams.size();
+        // Một dòng mỗi đề thi của giáo viên
+        List<TeacherExamStatsRow> rows = examRepository.findTeacherStats(userId);
 
-        // Đếm tổng câu hỏi
         long totalQuestions = 0;
-        Set<Long> studentIds = new HashSet<>();
         long totalExamAttempts = 0;
-        double totalScore = 0;
+        long totalScore = 0;
         long scoreCount = 0;
-
-        for (Exams exam : teacherExams) {
-            // Đếm câu hỏi
-            List<Questions> questions = questionRepository.findByExamsId(exam.getId());
-            totalQuestions += questions.size();
-
-            // Lấy exam attempts và điểm
-            List<ExamAttempts> attempts = examAttemptRepository.findByExamsId(exam.getId());
-            totalExamAttempts += attempts.size();
-
-            for (ExamAttempts attempt : attempts) {
-                // Thu thập studentIds
-                if (attempt.getStudents() != null) {
-                    studentIds.add(attempt.getStudents().getId());
-                }
-
-                // Tính điểm trung bình
-                if (attempt.getScore() != null) {
-                    totalScore += attempt.getScore();
-                    scoreCount++;
-                }
-            }
+        long totalFeedbacks = 0;
+        for (TeacherExamStatsRow row : rows) {
+            totalQuestions += row.getQuestionCount();
+            totalExamAttempts += row.getAttemptCount();
+            totalScore += row.getScoreSum() != null ? row.getScoreSum() : 0;
+            scoreCount += row.getScoredCount();
+            totalFeedbacks += row.getFeedbackCount();
         }
 
-        // Tính điểm trung bình
-        double averageScore = scoreCount > 0 ? totalScore / scoreCount : 0;
-
-        // Đếm tổng số sinh viên duy nhất
-        long totalStudents = studentIds.size();
-
-        // Đếm tổng feedbacks cho các câu hỏi của giáo viên
-        Set<Long> questionIds = new HashSet<>();
-        for (Exams exam : teacherExams) {
-            List<Questions> questions = questionRepository.findByExamsId(exam.getId());
-            questionIds.addAll(questions.stream().map(Questions::getId).collect(Collectors.toSet()));
-        }
-
-        long totalFeedbacks = questionIds.isEmpty()
-                ? 0
-                : feedbackRepository.findByQuestionIds(new ArrayList<>(questionIds)).size();
+        // Điểm trung bình trên mọi attempt có điểm, không phải trung bình của từng đề
+        double averageScore = scoreCount > 0 ? (double) totalScore / scoreCount : 0;
 
         return TeacherStatsDTO.builder()
                 .teacherId(teacher.getId())
                 .teacherCode(teacher.getTeacherCode())
-                .fullName(user.getFullName())
-                .totalExams(totalExams)
+                .fullName(teacher.getUsers().getFullName())
+                .totalExams(rows.size())
                 .totalQuestions(totalQuestions)
-                .totalStudents(totalStudents)
+                .totalStudents(rows.isEmpty() ? 0 : rows.get(0).getStudentCount())
                 .totalExamAttempts(totalExamAttempts)
                 .averageScore(Math.round(averageScore * 100.0) / 100.0)
                 .totalFeedbacks(totalFeedbacks)
                 .build();
     }
 
+    // Mọi thay đổi đề, lượt làm bài hay feedback xoá thống kê của giáo viên tạo đề, sau khi transaction commit
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamContentChanged(ExamContentChangedEvent event) {
+        evictCreatorsOf(event.examIds());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAttemptStarted(ExamAttemptStartedEvent event) {
+        evictCreatorsOf(List.of(event.examId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAttemptFinished(ExamAttemptFinishedEvent event) {
+        evictCreatorsOf(List.of(event.examId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFeedbackChanged(FeedbackChangedEvent event) {
+        evictCreatorsOf(List.of(event.examId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamDeleted(ExamDeletedEvent event) {
+        // Đề đã bị xoá nên không còn biết người tạo
+        dashboardCache().clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        dashboardCache().evict(event.userId());
+    }
+
+    private void evictCreatorsOf(Collection<Long> examIds) {
+        if (examIds.isEmpty()) {
+            return;
+        }
+        Cache cache = dashboardCache();
+        examRepository.findCreatorIds(examIds).forEach(cache::evict);
+    }
+
+    private Cache dashboardCache() {
+        return cacheManager.getCache(CacheConfig.TEACHER_DASHBOARD);
+    }
+
+    private UUID currentTeacherUserId(String forbiddenMessage) {
+        CustomUserDetails currentUser = SecurityUtils.getCurrentUser();
+        if (currentUser == null) {
+            throw new RuntimeException("Không xác định được người dùng hiện tại");
+        }
+        if (!"TEACHER".equalsIgnoreCase(currentUser.getRole())) {
+            throw new RuntimeException(forbiddenMessage);
+        }
+        return currentUser.getId();
+    }
+
 }
@@ -1,15 +1,23 @@
 package com.example.qnuquiz.service.impl;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
+import com.example.qnuquiz.dto.page.CursorPage;
+import com.example.qnuquiz.dto.page.CursorRequest;
 import com.example.qnuquiz.dto.user.ChangePasswordRequest;
 import com.example.qnuquiz.dto.user.UserDto;
 import com.example.qnuquiz.dto.user.UserRegisterDto;
@@ -23,8 +31,11 @@ import com.example.qnuquiz.repository.StudentRepository;
 import com.example.qnuquiz.repository.TeacherRepository;
 import com.example.qnuquiz.repository.UserRepository;
 import com.example.qnuquiz.security.SecurityUtils;
+import com.example.qnuquiz.security.UserChangedEvent;
 import com.example.qnuquiz.service.UserService;
+import com.example.qnuquiz.service.page.KeysetPaging;
 
+import jakarta.persistence.criteria.Predicate;
 import lombok.AllArgsConstructor;
 
 @Service
@@ -38,6 +49,9 @@ public class UserServiceImpl implements UserService {
     private final TeacherRepository teacherRepository;
     private final StudentMapper studentMapper;
     private final TeacherMapper teacherMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final Set<String> SORTABLE = Set.of("id", "username", "createdAt");
 
     @Override
     @CacheEvict(value = "allUsers", allEntries = true)
@@ -67,8 +81,30 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Cacheable("allUsers")
-    public List<UserDto> getAllUsers() {
-        return userMapper.toDtoList(userRepository.findAll());
+    public CursorPage<UserDto> getAllUsers(String role, String status, String keyword, CursorRequest page) {
+        KeysetPaging.Query query = KeysetPaging.of(page, SORTABLE, "createdAt");
+
+        Specification<Users> filter = (root, q, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (StringUtils.hasText(role)) {
+                predicates.add(cb.equal(root.get("role").as(String.class), role.trim().toUpperCase()));
+            }
+            if (StringUtils.hasText(status)) {
+                predicates.add(cb.equal(root.get("status").as(String.class), status.trim().toUpperCase()));
+            }
+            if (StringUtils.hasText(keyword)) {
+                String pattern = "%" + keyword.trim().toLowerCase() + "%";
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.get("username")), pattern),
+                        cb.like(cb.lower(root.get("fullName")), pattern),
+                        cb.like(cb.lower(root.get("email")), pattern)));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+
+        Window<Users> window = userRepository.findBy(filter,
+                q -> q.sortBy(query.sort()).limit(query.size()).scroll(query.position()));
+        return KeysetPaging.page(window, query, userMapper::toDtoList);
     }
 
     @Override
@@ -109,6 +145,7 @@ public class UserServiceImpl implements UserService {
         existingUser.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
 
         Users updated = userRepository.save(existingUser);
+        eventPublisher.publishEvent(new UserChangedEvent(updated.getId()));
         return userMapper.toDto(updated);
     }
 
@@ -132,13 +169,16 @@ public class UserServiceImpl implements UserService {
         user.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
 
         Users updated = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(updated.getId()));
         return userMapper.toDto(updated);
     }
 
     @Override
     @CacheEvict(value = "allUsers", allEntries = true)
     public void deleteUser(String id) {
-        userRepository.deleteById(UUID.fromString(id));
+        UUID userId = UUID.fromString(id);
+        userRepository.deleteById(userId);
+        eventPublisher.publishEvent(new UserChangedEvent(userId));
     }
 
     @Override
@@ -175,6 +215,7 @@ public class UserServiceImpl implements UserService {
         user.setPasswordHash(passwordEncoder.encode(newPassword));
         user.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
     }
 
     @Override
@@ -205,5 +246,6 @@ public class UserServiceImpl implements UserService {
         user.setPasswordHash(passwordEncoder.encode(request.getNewPassword()));
         user.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
     }
 }
@@ -0,0 +1,201 @@
+package com.example.qnuquiz.service.importer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.qnuquiz.service.exam.ExamContentChangedEvent;
+import com.example.qnuquiz.service.job.JobContext;
+import com.example.qnuquiz.service.job.JobHandler;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Streams a question bank (.xlsx) into an exam.
+ *
+ * Sheet layout, header on the first row:
+ * content | option 1 | option 2 | option 3 | option 4 | correct option (1-4)
+ *
+ * Valid rows are collected into chunks; each chunk is one transaction with
+ * one JDBC batch for the questions (ids come back as generated keys) and one
+ * for their options. Invalid rows are reported on the job and skipped.
+ *
+ * Runs as the QUESTION_IMPORT job (param examId, owner = the teacher who
+ * uploaded the file).
+ */
+@Slf4j
+@Component
+public class QuestionImporter implements JobHandler {
+
+    public static final String TYPE = "QUESTION_IMPORT";
+    public static final int OPTION_COUNT = 4;
+
+    // type là enum question_type trên PostgreSQL nên truyền literal thay vì tham số varchar
+    private static final String INSERT_QUESTION = """
+            INSERT INTO questions (exam_id, created_by, content, type, ordering, created_at, updated_at)
+            VALUES (?, ?, ?, 'MULTIPLE_CHOICE', ?, ?, ?)
+            """;
+
+    private static final String INSERT_OPTION = """
+            INSERT INTO question_options (question_id, content, is_correct, position, created_at)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private record QuestionRow(int rowNum, String content, List<String> options, int correct) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${import.batch-size:500}")
+    private int batchSize;
+
+    public QuestionImporter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public void run(JobContext context) throws IOException {
+        long examId = context.longParam("examId");
+        try {
+            importFile(context.getInputFile(), context, examId, context.getOwnerId());
+        } finally {
+            // Các chunk đã commit vẫn giữ lại nếu import lỗi hoặc bị huỷ giữa chừng
+            eventPublisher.publishEvent(ExamContentChangedEvent.of(examId));
+        }
+    }
+
+    public void importFile(Path file, JobContext job, long examId, UUID userId) throws IOException {
+        List<QuestionRow> chunk = new ArrayList<>(batchSize);
+
+        XlsxRowReader.read(file, (rowNum, cells) -> {
+            if (rowNum == 0 || cells.stream().allMatch(String::isEmpty)) {
+                return; // header, dòng trống
+            }
+            job.checkCancelled();
+            job.processed(1);
+            QuestionRow row = parse(rowNum, cells, job);
+            if (row == null) {
+                return;
+            }
+            chunk.add(row);
+            if (chunk.size() >= batchSize) {
+                writeChunk(chunk, job, examId, userId);
+                chunk.clear();
+            }
+        });
+
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, job, examId, userId);
+        }
+    }
+
+    private QuestionRow parse(int rowNum, List<String> cells, JobContext job) {
+        String content = cell(cells, 0);
+        if (content.isEmpty()) {
+            job.rejected(rowNum + 1, "Question content is empty");
+            return null;
+        }
+
+        List<String> options = new ArrayList<>(OPTION_COUNT);
+        for (int i = 1; i <= OPTION_COUNT; i++) {
+            options.add(cell(cells, i));
+        }
+
+        int correct;
+        try {
+            double value = Double.parseDouble(cell(cells, OPTION_COUNT + 1));
+            correct = (int) value;
+            if (correct != value || correct < 1 || correct > OPTION_COUNT) {
+                throw new NumberFormatException();
+            }
+        } catch (NumberFormatException e) {
+            job.rejected(rowNum + 1, "Correct option must be a number from 1 to " + OPTION_COUNT);
+            return null;
+        }
+        if (options.get(correct - 1).isEmpty()) {
+            job.rejected(rowNum + 1, "Correct option " + correct + " is empty");
+            return null;
+        }
+
+        return new QuestionRow(rowNum, content, options, correct);
+    }
+
+    private void writeChunk(List<QuestionRow> chunk, JobContext job, long examId, UUID userId) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                long[] questionIds = insertQuestions(chunk, examId, userId, now);
+
+                List<Object[]> options = new ArrayList<>(chunk.size() * OPTION_COUNT);
+                for (int i = 0; i < chunk.size(); i++) {
+                    QuestionRow row = chunk.get(i);
+                    for (int o = 0; o < OPTION_COUNT; o++) {
+                        options.add(new Object[] { questionIds[i], row.options().get(o), row.correct() == o + 1,
+                                o + 1, now });
+                    }
+                }
+                jdbcTemplate.batchUpdate(INSERT_OPTION, options);
+            });
+            job.succeeded(chunk.size());
+        } catch (RuntimeException e) {
+            log.warn("Question chunk of {} rows failed: {}", chunk.size(), e.getMessage());
+            chunk.forEach(row -> job.rejected(row.rowNum() + 1, "Could not be saved: " + e.getMessage()));
+        }
+    }
+
+    private long[] insertQuestions(List<QuestionRow> chunk, long examId, UUID userId, Timestamp now) {
+        return jdbcTemplate.execute((ConnectionCallback<long[]>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_QUESTION, new String[] { "id" })) {
+                for (QuestionRow row : chunk) {
+                    ps.setLong(1, examId);
+                    ps.setObject(2, userId);
+                    ps.setString(3, row.content());
+                    // Giữ cách đánh số cũ: ordering = số thứ tự dòng dữ liệu
+                    ps.setInt(4, row.rowNum());
+                    ps.setTimestamp(5, now);
+                    ps.setTimestamp(6, now);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+
+                long[] ids = new long[chunk.size()];
+                int count = 0;
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    while (keys.next() && count < ids.length) {
+                        ids[count++] = keys.getLong(1);
+                    }
+                }
+                if (count != ids.length) {
+                    throw new IllegalStateException("Expected " + ids.length + " question ids, got " + count);
+                }
+                return ids;
+            }
+        });
+    }
+
+    private static String cell(List<String> cells, int index) {
+        return index < cells.size() ? cells.get(index) : "";
+    }
+}
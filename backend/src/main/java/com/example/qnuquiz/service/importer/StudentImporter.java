@@ -0,0 +1,297 @@
+package com.example.qnuquiz.service.importer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.qnuquiz.service.job.JobContext;
+import com.example.qnuquiz.service.job.JobHandler;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Streams a student list (.xlsx) into users + students.
+ *
+ * Sheet layout, header on the first row:
+ * no. | student code | full name | phone | email | department | class | gpa
+ *
+ * Pipeline:
+ * 1. existing usernames, student codes and department/class pairs are
+ * loaded once, so rows are validated without queries
+ * 2. the BCrypt hash of every accepted row (initial password = phone) is
+ * computed on a separate worker pool while the sheet is still being read
+ * 3. each chunk of import.batch-size rows is written with one JDBC batch for
+ * users and one for students in a single transaction; if the chunk fails
+ * its rows are retried one by one so only the offending rows are rejected
+ *
+ * Runs as the STUDENT_IMPORT job.
+ */
+@Slf4j
+@Component
+public class StudentImporter implements JobHandler {
+
+    public static final String TYPE = "STUDENT_IMPORT";
+
+    // role, status là enum trên PostgreSQL nên truyền literal thay vì tham số varchar
+    private static final String INSERT_USER = """
+            INSERT INTO users (id, username, password_hash, full_name, email, phone_number, role, status,
+                created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, 'STUDENT', 'ACTIVE', ?, ?)
+            """;
+
+    private static final String INSERT_STUDENT = """
+            INSERT INTO students (user_id, student_code, department_id, class_id, gpa, created_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String CLASSES_SQL = """
+            SELECT c.id, c.name, d.id, d.name
+            FROM classes c JOIN departments d ON d.id = c.department_id
+            """;
+
+    private record StudentRow(int rowNum, String studentCode, String fullName, String phone, String email,
+            long departmentId, long classId, BigDecimal gpa, Future<String> passwordHash) {
+    }
+
+    private record ClassRef(long classId, long departmentId) {
+    }
+
+    /**
+     * Everything a row is validated against, loaded once per import.
+     */
+    private record Lookup(Set<String> usernames, Set<String> studentCodes, Set<String> departments,
+            Map<String, ClassRef> classes) {
+
+        static String classKey(String departmentName, String className) {
+            return departmentName + "\u0000" + className;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final CacheManager cacheManager;
+
+    @Value("${import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${import.hash-workers:0}")
+    private int hashWorkers;
+
+    private ExecutorService hashPool;
+
+    public StudentImporter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+            PasswordEncoder passwordEncoder, CacheManager cacheManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.cacheManager = cacheManager;
+    }
+
+    @PostConstruct
+    public void init() {
+        // BCrypt chiếm CPU, mặc định mỗi core một luồng
+        int threads = hashWorkers > 0 ? hashWorkers : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        hashPool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "import-hash-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashPool.shutdownNow();
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public void run(JobContext context) throws IOException {
+        try {
+            importFile(context.getInputFile(), context);
+        } finally {
+            // Các chunk đã commit vẫn giữ lại nếu import lỗi hoặc bị huỷ giữa chừng
+            Cache cache = cacheManager.getCache("allUsers");
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    public void importFile(Path file, JobContext job) throws IOException {
+        Lookup lookup = preload();
+        List<StudentRow> chunk = new ArrayList<>(batchSize);
+
+        XlsxRowReader.read(file, (rowNum, cells) -> {
+            if (rowNum == 0 || cells.stream().allMatch(String::isEmpty)) {
+                return; // header, dòng trống
+            }
+            job.checkCancelled();
+            job.processed(1);
+            StudentRow row = parse(rowNum, cells, lookup, job);
+            if (row == null) {
+                return;
+            }
+            chunk.add(row);
+            if (chunk.size() >= batchSize) {
+                writeChunk(chunk, job);
+                chunk.clear();
+            }
+        });
+
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, job);
+        }
+    }
+
+    private Lookup preload() {
+        Set<String> usernames = new HashSet<>(jdbcTemplate.queryForList("SELECT username FROM users", String.class));
+        Set<String> studentCodes = new HashSet<>(
+                jdbcTemplate.queryForList("SELECT student_code FROM students", String.class));
+        Set<String> departments = new HashSet<>(
+                jdbcTemplate.queryForList("SELECT name FROM departments", String.class));
+
+        Map<String, ClassRef> classes = new HashMap<>();
+        jdbcTemplate.query(CLASSES_SQL, rs -> {
+            classes.put(Lookup.classKey(rs.getString(4), rs.getString(2)),
+                    new ClassRef(rs.getLong(1), rs.getLong(3)));
+        });
+        return new Lookup(usernames, studentCodes, departments, classes);
+    }
+
+    private StudentRow parse(int rowNum, List<String> cells, Lookup lookup, JobContext job) {
+        long excelRow = rowNum + 1;
+        String studentCode = cell(cells, 1);
+        String fullName = cell(cells, 2);
+        String phone = cell(cells, 3);
+        String email = cell(cells, 4);
+        String departmentName = cell(cells, 5);
+        String className = cell(cells, 6);
+
+        if (studentCode.isEmpty() || phone.isEmpty()) {
+            job.rejected(excelRow, "Thiếu mã sinh viên hoặc số điện thoại");
+            return null;
+        }
+        // username = mã sinh viên
+        if (lookup.usernames().contains(studentCode) || lookup.studentCodes().contains(studentCode)) {
+            job.rejected(excelRow, "Mã sinh viên đã tồn tại: " + studentCode);
+            return null;
+        }
+        if (!lookup.departments().contains(departmentName)) {
+            job.rejected(excelRow, "Không tìm thấy khoa: " + departmentName);
+            return null;
+        }
+        ClassRef classRef = lookup.classes().get(Lookup.classKey(departmentName, className));
+        if (classRef == null) {
+            job.rejected(excelRow, "Không tìm thấy lớp: " + className + " thuộc khoa: " + departmentName);
+            return null;
+        }
+
+        // Chặn trùng lặp trong chính file
+        lookup.usernames().add(studentCode);
+        lookup.studentCodes().add(studentCode);
+
+        Future<String> passwordHash = hashPool.submit(() -> passwordEncoder.encode(phone));
+        return new StudentRow(rowNum, studentCode, fullName, phone, email, classRef.departmentId(),
+                classRef.classId(), parseGpa(cell(cells, 7)), passwordHash);
+    }
+
+    private void writeChunk(List<StudentRow> chunk, JobContext job) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> users = new ArrayList<>(chunk.size());
+        List<Object[]> students = new ArrayList<>(chunk.size());
+        List<StudentRow> hashed = new ArrayList<>(chunk.size());
+
+        for (StudentRow row : chunk) {
+            String hash;
+            try {
+                hash = row.passwordHash().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Import interrupted", e);
+            } catch (ExecutionException e) {
+                job.rejected(row.rowNum() + 1, "Không tạo được mật khẩu: " + e.getCause().getMessage());
+                continue;
+            }
+            UUID userId = UUID.randomUUID();
+            users.add(new Object[] { userId, row.studentCode(), hash, row.fullName(), row.email(), row.phone(), now,
+                    now });
+            students.add(new Object[] { userId, row.studentCode(), row.departmentId(), row.classId(), row.gpa(),
+                    now });
+            hashed.add(row);
+        }
+        if (hashed.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_USER, users);
+                jdbcTemplate.batchUpdate(INSERT_STUDENT, students);
+            });
+            job.succeeded(hashed.size());
+        } catch (RuntimeException e) {
+            log.warn("Student chunk of {} rows failed ({}), retrying row by row", hashed.size(), e.getMessage());
+            for (int i = 0; i < hashed.size(); i++) {
+                writeRow(hashed.get(i), users.get(i), students.get(i), job);
+            }
+        }
+    }
+
+    private void writeRow(StudentRow row, Object[] user, Object[] student, JobContext job) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update(INSERT_USER, user);
+                jdbcTemplate.update(INSERT_STUDENT, student);
+            });
+            job.succeeded(1);
+        } catch (RuntimeException e) {
+            // Ví dụ: mã sinh viên vừa được tạo bởi request khác sau khi preload
+            job.rejected(row.rowNum() + 1, "Không lưu được: " + e.getMessage());
+        }
+    }
+
+    private static BigDecimal parseGpa(String value) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value).setScale(2, RoundingMode.HALF_UP);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String cell(List<String> cells, int index) {
+        return index < cells.size() ? cells.get(index) : "";
+    }
+}
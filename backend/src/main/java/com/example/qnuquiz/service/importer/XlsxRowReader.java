@@ -0,0 +1,106 @@
+package com.example.qnuquiz.service.importer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+/**
+ * Reads the first sheet of an .xlsx file row by row with the SAX event API,
+ * so memory stays flat no matter how many rows the file has.
+ *
+ * Cells are passed as the text Excel would display (numbers without a
+ * trailing ".0", formulas as their cached value); missing cells are "".
+ */
+public final class XlsxRowReader {
+
+    @FunctionalInterface
+    public interface RowHandler {
+        /**
+         * @param rowNum 0-based row index, the header is row 0
+         */
+        void row(int rowNum, List<String> cells);
+    }
+
+    private XlsxRowReader() {
+    }
+
+    public static void read(Path file, RowHandler handler) throws IOException {
+        OPCPackage pkg;
+        try {
+            pkg = OPCPackage.open(file.toFile(), PackageAccess.READ);
+        } catch (OpenXML4JException | RuntimeException e) {
+            throw new IOException("Invalid Excel file, only .xlsx is supported", e);
+        }
+
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(styles, null, strings, new RowCollector(handler),
+                        new DataFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Cannot read Excel file: " + e.getMessage(), e);
+        } finally {
+            // Read-only package: revert instead of close, nothing is written back
+            pkg.revert();
+        }
+    }
+
+    private static final class RowCollector implements SheetContentsHandler {
+
+        private final RowHandler handler;
+        private final List<String> cells = new ArrayList<>();
+
+        RowCollector(RowHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells.clear();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            handler.row(rowNum, List.copyOf(cells));
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : cells.size();
+            while (cells.size() < column) {
+                cells.add("");
+            }
+            cells.add(formattedValue != null ? formattedValue.trim() : "");
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.qnuquiz.service.job;
+
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+import com.example.qnuquiz.service.AnalyticsService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * ANALYTICS_EXPORT: writes one of the admin CSV reports (param report =
+ * users, exams or questions) as the job result.
+ */
+@Component
+@RequiredArgsConstructor
+public class AnalyticsExportJobHandler implements JobHandler {
+
+    public static final String TYPE = "ANALYTICS_EXPORT";
+
+    // report -> tên file, giống các endpoint export đồng bộ
+    private static final Map<String, String> REPORTS = Map.of(
+            "users", "user_analytics.csv",
+            "exams", "exam_analytics.csv",
+            "questions", "question_analytics.csv");
+
+    private final AnalyticsService analyticsService;
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public Set<String> submitRoles() {
+        return Set.of("ADMIN");
+    }
+
+    @Override
+    public void validate(Map<String, String> params) {
+        if (!REPORTS.containsKey(params.get("report"))) {
+            throw new IllegalArgumentException("report must be one of " + REPORTS.keySet());
+        }
+    }
+
+    @Override
+    public void run(JobContext context) throws Exception {
+        String report = context.param("report");
+        byte[] csv = switch (report) {
+            case "users" -> analyticsService.exportUserAnalyticsCsv();
+            case "exams" -> analyticsService.exportExamAnalyticsCsv();
+            case "questions" -> analyticsService.exportQuestionAnalyticsCsv();
+            default -> throw new IllegalArgumentException("Unknown report: " + report);
+        };
+        context.checkCancelled();
+        try (OutputStream out = context.openResult(REPORTS.get(report), "text/csv")) {
+            out.write(csv);
+        }
+        context.processed(1);
+        context.succeeded(1);
+    }
+}
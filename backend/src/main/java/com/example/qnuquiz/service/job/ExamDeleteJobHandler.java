@@ -0,0 +1,59 @@
+package com.example.qnuquiz.service.job;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+import com.example.qnuquiz.service.exam.ExamPurger;
+
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * EXAM_DELETE: deletes an exam with its questions, attempts and answers
+ * (param examId) in chunks, see ExamPurger. DELETE /api/exams/delete/{id}
+ * queues one after hiding the exam when exam.delete.soft is set.
+ *
+ * Not cancellable: the exam is already hidden, stopping halfway would only
+ * leave rows behind.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExamDeleteJobHandler implements JobHandler {
+
+    public static final String TYPE = "EXAM_DELETE";
+
+    private final ExamPurger examPurger;
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public Set<String> submitRoles() {
+        return Set.of("ADMIN", "TEACHER");
+    }
+
+    @Override
+    public void validate(Map<String, String> params) {
+        long examId;
+        try {
+            examId = Long.parseLong(params.getOrDefault("examId", ""));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("examId must be a number");
+        }
+        // Đề đã được ẩn trước khi xếp job: chỉ còn thấy bằng SQL thuần
+        if (!examPurger.isMarkedDeleted(examId)) {
+            throw new EntityNotFoundException("Exam not found: " + examId);
+        }
+    }
+
+    @Override
+    public void run(JobContext context) {
+        context.processed(1);
+        examPurger.purge(context.longParam("examId"));
+        context.succeeded(1);
+    }
+}
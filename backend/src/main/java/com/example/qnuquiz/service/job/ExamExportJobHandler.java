@@ -0,0 +1,66 @@
+package com.example.qnuquiz.service.job;
+
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+import com.example.qnuquiz.service.export.ExamExporter;
+import com.example.qnuquiz.service.export.ExportFormat;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * EXAM_EXPORT: writes an attempt-level export of one exam (params examId,
+ * report = attempts or questions, format = csv or xlsx) to the job result.
+ * Unlike the streaming endpoints the result is a file, so an interrupted
+ * download can be resumed with a Range request.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExamExportJobHandler implements JobHandler {
+
+    public static final String TYPE = "EXAM_EXPORT";
+
+    private final ExamExporter examExporter;
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public Set<String> submitRoles() {
+        return Set.of("ADMIN", "TEACHER");
+    }
+
+    @Override
+    public void validate(Map<String, String> params) {
+        ExamExporter.Report.of(params.get("report"));
+        ExportFormat.of(params.getOrDefault("format", "csv"));
+        long examId;
+        try {
+            examId = Long.parseLong(params.getOrDefault("examId", ""));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("examId must be a number");
+        }
+        examExporter.checkExam(examId);
+    }
+
+    @Override
+    public void run(JobContext context) throws Exception {
+        ExamExporter.Report report = ExamExporter.Report.of(context.param("report"));
+        ExportFormat format = ExportFormat.of(context.getParams().getOrDefault("format", "csv"));
+        long examId = context.longParam("examId");
+
+        try (OutputStream out = context.openResult(examExporter.fileName(report, examId, format),
+                format.contentType())) {
+            examExporter.export(report, examId, format, out, () -> {
+                context.checkCancelled();
+                context.processed(1);
+                context.succeeded(1);
+            });
+        }
+    }
+}
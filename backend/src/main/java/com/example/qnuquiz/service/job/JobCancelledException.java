@@ -0,0 +1,12 @@
+package com.example.qnuquiz.service.job;
+
+/**
+ * Thrown from {@link JobContext#checkCancelled()} to stop a job whose
+ * cancellation was requested.
+ */
+public class JobCancelledException extends RuntimeException {
+
+    public JobCancelledException() {
+        super("Job cancelled");
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.qnuquiz.service.job;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.qnuquiz.dto.job.JobDto;
+import com.example.qnuquiz.dto.job.JobErrorDto;
+
+/**
+ * What a running job sees: its parameters, input file, progress counters,
+ * cancellation flag and result file. Counters are updated by the worker
+ * thread and read by status requests and the periodic progress flush; only
+ * the first {@link #MAX_ERRORS} item errors are kept.
+ */
+public class JobContext {
+
+    public static final int MAX_ERRORS = 1000;
+
+    private final UUID id;
+    private final String type;
+    private final UUID ownerId;
+    private final Map<String, String> params;
+    private final Path inputFile;
+    private final Path resultFile;
+    private final Timestamp createdAt;
+    private final Timestamp startedAt;
+
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final List<JobErrorDto> errors = new ArrayList<>();
+
+    private volatile boolean cancelled;
+    private volatile boolean dirty;
+    private volatile String resultName;
+    private volatile String resultType;
+
+    JobContext(UUID id, String type, UUID ownerId, Map<String, String> params, Path inputFile, Path resultFile,
+            Timestamp createdAt, Timestamp startedAt) {
+        this.id = id;
+        this.type = type;
+        this.ownerId = ownerId;
+        this.params = Map.copyOf(params);
+        this.inputFile = inputFile;
+        this.resultFile = resultFile;
+        this.createdAt = createdAt;
+        this.startedAt = startedAt;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public UUID getOwnerId() {
+        return ownerId;
+    }
+
+    public Map<String, String> getParams() {
+        return params;
+    }
+
+    public String param(String name) {
+        String value = params.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing job parameter: " + name);
+        }
+        return value;
+    }
+
+    public long longParam(String name) {
+        try {
+            return Long.parseLong(param(name));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Job parameter " + name + " must be a number");
+        }
+    }
+
+    /**
+     * The uploaded file, or null when the job was submitted without one.
+     */
+    public Path getInputFile() {
+        return inputFile;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Called by handlers between units of work; committed work is kept.
+     */
+    public void checkCancelled() {
+        if (cancelled) {
+            throw new JobCancelledException();
+        }
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+
+    public void processed(int count) {
+        processed.addAndGet(count);
+        dirty = true;
+    }
+
+    public void succeeded(int count) {
+        succeeded.addAndGet(count);
+        dirty = true;
+    }
+
+    public void rejected(long item, String reason) {
+        rejected.incrementAndGet();
+        synchronized (errors) {
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(new JobErrorDto(item, reason));
+            }
+        }
+        dirty = true;
+    }
+
+    /**
+     * Opens the file offered for download once the job completes. A job has
+     * at most one result; opening it again overwrites it.
+     */
+    public OutputStream openResult(String fileName, String contentType) throws IOException {
+        resultName = fileName;
+        resultType = contentType;
+        return Files.newOutputStream(resultFile);
+    }
+
+    String getResultName() {
+        return resultName;
+    }
+
+    String getResultType() {
+        return resultType;
+    }
+
+    Path getResultFile() {
+        return resultFile;
+    }
+
+    long getProcessed() {
+        return processed.get();
+    }
+
+    long getSucceeded() {
+        return succeeded.get();
+    }
+
+    long getRejected() {
+        return rejected.get();
+    }
+
+    List<JobErrorDto> getErrors() {
+        synchronized (errors) {
+            return List.copyOf(errors);
+        }
+    }
+
+    /**
+     * True once per batch of changes, so unchanged jobs are not rewritten.
+     */
+    boolean takeDirty() {
+        boolean wasDirty = dirty;
+        dirty = false;
+        return wasDirty;
+    }
+
+    JobDto toDto() {
+        return JobDto.builder()
+                .jobId(id.toString())
+                .type(type)
+                .status(JobDto.RUNNING)
+                .processed(getProcessed())
+                .succeeded(getSucceeded())
+                .rejected(getRejected())
+                .errors(getErrors())
+                .cancelRequested(cancelled)
+                .createdAt(createdAt)
+                .startedAt(startedAt)
+                .build();
+    }
+}
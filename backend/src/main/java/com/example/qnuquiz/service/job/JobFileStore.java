@@ -0,0 +1,103 @@
+package com.example.qnuquiz.service.job;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Upload and result files of jobs in background_job_files, so they do not
+ * depend on the node that received the upload or ran the job. Handlers
+ * still work on local files: the runner copies the input out before the
+ * job starts and the result in when it completes.
+ */
+@Component
+@RequiredArgsConstructor
+public class JobFileStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Stores the upload of a job; the job row must exist (same transaction).
+     */
+    public void saveInput(UUID jobId, InputStream content, long size) {
+        jdbcTemplate.update("INSERT INTO background_job_files (job_id, input) VALUES (?, ?)", ps -> {
+            ps.setObject(1, jobId);
+            ps.setBinaryStream(2, content, size);
+        });
+    }
+
+    public void saveResult(UUID jobId, Path file) throws IOException {
+        long size = Files.size(file);
+        try (InputStream content = Files.newInputStream(file)) {
+            int updated = jdbcTemplate.update("UPDATE background_job_files SET result = ? WHERE job_id = ?", ps -> {
+                ps.setBinaryStream(1, content, size);
+                ps.setObject(2, jobId);
+            });
+            if (updated == 0) {
+                try (InputStream again = Files.newInputStream(file)) {
+                    jdbcTemplate.update("INSERT INTO background_job_files (job_id, result) VALUES (?, ?)", ps -> {
+                        ps.setObject(1, jobId);
+                        ps.setBinaryStream(2, again, size);
+                    });
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the upload of a job to {@code target}; false when it has none.
+     */
+    public boolean copyInput(UUID jobId, Path target) throws IOException {
+        return copy("SELECT input FROM background_job_files WHERE job_id = ?", jobId, target);
+    }
+
+    /**
+     * Copies the result of a job to {@code target}; false when it has none.
+     */
+    public boolean copyResult(UUID jobId, Path target) throws IOException {
+        return copy("SELECT result FROM background_job_files WHERE job_id = ?", jobId, target);
+    }
+
+    public void delete(UUID jobId) {
+        jdbcTemplate.update("DELETE FROM background_job_files WHERE job_id = ?", jobId);
+    }
+
+    private boolean copy(String sql, UUID jobId, Path target) throws IOException {
+        // Ghi ra file tạm rồi đổi tên: request khác không đọc phải file đang ghi dở
+        Path partial = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".part");
+        try {
+            Boolean found = jdbcTemplate.query(sql, rs -> {
+                if (!rs.next()) {
+                    return false;
+                }
+                try (InputStream content = rs.getBinaryStream(1)) {
+                    if (content == null) {
+                        return false;
+                    }
+                    Files.copy(content, partial);
+                    return true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, jobId);
+            if (!Boolean.TRUE.equals(found)) {
+                return false;
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.qnuquiz.service.job;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One kind of background job. Implementations are Spring beans and are
+ * looked up by {@link #type()}, so a job queued before a restart is picked
+ * up by the same handler afterwards; everything a run needs must therefore
+ * come from the job parameters and its input file.
+ */
+public interface JobHandler {
+
+    String type();
+
+    /**
+     * Roles allowed to submit this job through POST /api/jobs. Empty when
+     * the job can only be created by its own endpoint (e.g. file uploads).
+     */
+    default Set<String> submitRoles() {
+        return Set.of();
+    }
+
+    /**
+     * Checks the parameters on the request thread, before the job is queued.
+     */
+    default void validate(Map<String, String> params) {
+    }
+
+    void run(JobContext context) throws Exception;
+}
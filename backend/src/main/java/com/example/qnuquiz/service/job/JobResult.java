@@ -0,0 +1,9 @@
+package com.example.qnuquiz.service.job;
+
+import java.nio.file.Path;
+
+/**
+ * File produced by a completed job, served by the result download endpoint.
+ */
+public record JobResult(Path file, String fileName, String contentType) {
+}
@@ -0,0 +1,458 @@
+package com.example.qnuquiz.service.job;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.qnuquiz.dto.job.JobDto;
+import com.example.qnuquiz.dto.job.JobErrorDto;
+import com.example.qnuquiz.entity.BackgroundJobs;
+import com.example.qnuquiz.repository.BackgroundJobRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs background jobs off the request threads.
+ *
+ * Jobs are rows in background_jobs; submitting only inserts a QUEUED row.
+ * Whenever a worker slot is free the oldest queued row is claimed with a
+ * conditional update (QUEUED -> RUNNING, node_id = this node) and handed to
+ * its {@link JobHandler}. Because the queue lives in the table, queued jobs
+ * are picked up again after a restart and by any node.
+ *
+ * The running node refreshes heartbeat_at of its jobs every couple of
+ * seconds. A RUNNING job without a heartbeat for jobs.stale-after-seconds
+ * lost its node and is marked FAILED by whichever node notices first, since
+ * handlers commit their work in chunks and cannot be resumed halfway.
+ *
+ * At most jobs.workers jobs run at once per node. Each job gets its own
+ * thread, virtual when jobs.virtual-threads is set. Uploads and results are
+ * stored in the database ({@link JobFileStore}); jobs.storage-dir only holds
+ * the working copies of the jobs running here and downloaded results.
+ *
+ * Progress is kept in memory while a job runs and written to the row every
+ * couple of seconds and when the job ends. Cancelling on another node sets
+ * cancel_requested, which the running node picks up on the same schedule.
+ */
+@Slf4j
+@Component
+public class JobRunner {
+
+    private static final String INTERRUPTED = "The server running the job stopped";
+
+    private static final TypeReference<Map<String, String>> PARAMS_TYPE = new TypeReference<>() {
+    };
+    private static final TypeReference<List<JobErrorDto>> ERRORS_TYPE = new TypeReference<>() {
+    };
+
+    private final BackgroundJobRepository jobRepository;
+    private final JobFileStore fileStore;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, JobHandler> handlers = new HashMap<>();
+    private final Map<UUID, JobContext> running = new ConcurrentHashMap<>();
+    // ReentrantLock thay vì synchronized: vòng dispatch có truy vấn DB, không ghim virtual thread
+    private final ReentrantLock dispatchLock = new ReentrantLock();
+
+    @Value("${jobs.workers:2}")
+    private int workers;
+
+    @Value("${jobs.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${jobs.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    @Value("${jobs.storage-dir:./data/jobs}")
+    private String storageDir;
+
+    @Value("${jobs.retention-hours:24}")
+    private int retentionHours;
+
+    @Value("${jobs.stale-after-seconds:60}")
+    private int staleAfterSeconds;
+
+    private Path storage;
+    private Semaphore slots;
+    private ExecutorService executor;
+
+    public JobRunner(BackgroundJobRepository jobRepository, JobFileStore fileStore,
+            TransactionTemplate transactionTemplate, ObjectMapper objectMapper, List<JobHandler> handlers) {
+        this.jobRepository = jobRepository;
+        this.fileStore = fileStore;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        for (JobHandler handler : handlers) {
+            if (this.handlers.put(handler.type(), handler) != null) {
+                throw new IllegalStateException("Duplicate job handler for type " + handler.type());
+            }
+        }
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        storage = Files.createDirectories(Path.of(storageDir));
+        slots = new Semaphore(workers);
+
+        ThreadFactory threads;
+        if (virtualThreads) {
+            threads = Thread.ofVirtual().name("job-", 1).factory();
+        } else {
+            AtomicInteger threadCount = new AtomicInteger();
+            threads = runnable -> new Thread(runnable, "job-" + threadCount.incrementAndGet());
+        }
+        // Số job chạy đồng thời do slots giới hạn, executor chỉ cấp luồng
+        executor = Executors.newThreadPerTaskExecutor(threads);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        failStale();
+        dispatch();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public JobHandler handler(String type) {
+        JobHandler handler = handlers.get(type);
+        if (handler == null) {
+            throw new IllegalArgumentException("Unknown job type: " + type);
+        }
+        return handler;
+    }
+
+    /**
+     * Params of the queued and running jobs of a type.
+     */
+    public List<Map<String, String>> activeParams(String type) {
+        return jobRepository.findByTypeAndStatusIn(type, List.of(JobDto.QUEUED, JobDto.RUNNING)).stream()
+                .map(job -> job.getParams() != null ? fromJson(job.getParams(), PARAMS_TYPE) : Map.<String, String>of())
+                .toList();
+    }
+
+    /**
+     * Queues a job. The upload, if any, is stored with the job row (the
+     * multipart file is gone once the request ends, and another node may
+     * run the job).
+     */
+    public BackgroundJobs enqueue(String type, UUID ownerId, Map<String, String> params, MultipartFile upload)
+            throws IOException {
+        handler(type);
+        if (jobRepository.countByStatus(JobDto.QUEUED) >= queueCapacity) {
+            throw new IllegalStateException("Too many jobs are waiting, please try again later");
+        }
+
+        BackgroundJobs pending = new BackgroundJobs(UUID.randomUUID(), type, JobDto.QUEUED, ownerId,
+                toJson(params), now());
+        if (upload != null) {
+            pending.setInputName(upload.getOriginalFilename());
+        }
+        BackgroundJobs job;
+        try (InputStream content = upload != null ? upload.getInputStream() : null) {
+            // Dòng job và file upload cùng commit: worker không thấy job thiếu file
+            job = transactionTemplate.execute(status -> {
+                BackgroundJobs saved = jobRepository.saveAndFlush(pending);
+                if (content != null) {
+                    fileStore.saveInput(saved.getId(), content, upload.getSize());
+                }
+                return saved;
+            });
+        }
+
+        // Trong transaction thì chờ commit, worker mới thấy được dòng vừa thêm
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch();
+                }
+            });
+        } else {
+            dispatch();
+        }
+        return job;
+    }
+
+    /**
+     * Cancels a queued job right away; a running job is asked to stop and
+     * ends as CANCELLED the next time its handler checks (on another node:
+     * after that node's next progress flush). Returns false when the job is
+     * neither queued nor running.
+     */
+    public boolean cancel(UUID id) {
+        JobContext context = running.get(id);
+        if (context != null) {
+            context.cancel();
+        }
+        if (jobRepository.requestCancel(id, now()) == 1) {
+            return true;
+        }
+        if (jobRepository.cancelQueued(id, now()) == 1) {
+            fileStore.delete(id);
+            return true;
+        }
+        // Vừa được node khác nhận giữa hai câu lệnh trên
+        return jobRepository.requestCancel(id, now()) == 1;
+    }
+
+    /**
+     * Current state of a job: live counters while it runs on this server,
+     * otherwise what was last written to its row.
+     */
+    public JobDto describe(BackgroundJobs job) {
+        JobContext context = running.get(job.getId());
+        if (context != null) {
+            return context.toDto();
+        }
+        return JobDto.builder()
+                .jobId(job.getId().toString())
+                .type(job.getType())
+                .status(job.getStatus())
+                .processed(job.getProcessed())
+                .succeeded(job.getSucceeded())
+                .rejected(job.getRejected())
+                .errors(job.getErrors() != null ? fromJson(job.getErrors(), ERRORS_TYPE) : List.of())
+                .message(job.getMessage())
+                .resultName(job.getResultName())
+                .cancelRequested(job.isCancelRequested())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+
+    /**
+     * Local copy of the result of a completed job, fetched from the database
+     * the first time it is downloaded on this node. Empty when the job has
+     * no result.
+     */
+    public Optional<Path> resultFile(UUID id) throws IOException {
+        Path file = storage.resolve(id + ".download");
+        if (Files.exists(file) || fileStore.copyResult(id, file)) {
+            return Optional.of(file);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Starts queued jobs while worker slots are free.
+     */
+    public void dispatch() {
+        dispatchLock.lock();
+        try {
+            while (!executor.isShutdown() && slots.tryAcquire()) {
+                JobContext context = claimNext();
+                if (context == null) {
+                    slots.release();
+                    return;
+                }
+                running.put(context.getId(), context);
+                try {
+                    executor.execute(() -> run(context));
+                } catch (RejectedExecutionException e) {
+                    // Đang tắt server: dòng vẫn RUNNING, hết heartbeat thì node khác đánh dấu FAILED
+                    running.remove(context.getId());
+                    slots.release();
+                    return;
+                }
+            }
+        } finally {
+            dispatchLock.unlock();
+        }
+    }
+
+    /**
+     * Writes progress, refreshes the heartbeat of the jobs running here and
+     * picks up cancellations requested on other nodes.
+     */
+    @Scheduled(fixedDelay = 2_000)
+    public void flushProgress() {
+        if (running.isEmpty()) {
+            return;
+        }
+        Set<UUID> ids = Set.copyOf(running.keySet());
+        jobRepository.heartbeat(ids, nodeId, now());
+        for (UUID id : jobRepository.findCancelRequested(ids)) {
+            JobContext context = running.get(id);
+            if (context != null) {
+                context.cancel();
+            }
+        }
+        for (JobContext context : running.values()) {
+            if (context.takeDirty()) {
+                jobRepository.updateProgress(context.getId(), context.getProcessed(), context.getSucceeded(),
+                        context.getRejected(), toJson(context.getErrors()), now());
+            }
+        }
+    }
+
+    /**
+     * Fails jobs whose node died and picks up jobs queued by another node or
+     * left over after a failed dispatch.
+     */
+    @Scheduled(fixedDelay = 30_000)
+    public void poll() {
+        failStale();
+        dispatch();
+    }
+
+    @Scheduled(fixedDelay = 3_600_000)
+    public void purgeFinished() {
+        long cutoffMillis = System.currentTimeMillis() - Duration.ofHours(retentionHours).toMillis();
+        for (BackgroundJobs job : jobRepository.findByFinishedAtBefore(new Timestamp(cutoffMillis))) {
+            fileStore.delete(job.getId());
+            jobRepository.delete(job);
+        }
+        // Bản tải về của các node và file còn sót lại sau khi server dừng đột ngột
+        try (Stream<Path> files = Files.list(storage)) {
+            files.filter(file -> file.toFile().lastModified() < cutoffMillis).forEach(this::deleteQuietly);
+        } catch (IOException e) {
+            log.warn("Could not clean the job storage {}", storage, e);
+        }
+    }
+
+    private void failStale() {
+        Timestamp cutoff = new Timestamp(System.currentTimeMillis() - staleAfterSeconds * 1000L);
+        int failed = jobRepository.failStale(INTERRUPTED, cutoff, now());
+        if (failed > 0) {
+            log.warn("Marked {} job(s) whose node stopped as failed", failed);
+        }
+    }
+
+    private JobContext claimNext() {
+        for (BackgroundJobs job : jobRepository.findByStatusOrderByCreatedAtAsc(JobDto.QUEUED, Limit.of(workers))) {
+            Timestamp startedAt = now();
+            if (jobRepository.claim(job.getId(), nodeId, startedAt) == 1) {
+                Path input = job.getInputName() != null ? storage.resolve(job.getId() + ".input") : null;
+                return new JobContext(job.getId(), job.getType(), job.getOwnerId(),
+                        job.getParams() != null ? fromJson(job.getParams(), PARAMS_TYPE) : Map.of(), input,
+                        storage.resolve(job.getId() + ".result"), job.getCreatedAt(), startedAt);
+            }
+        }
+        return null;
+    }
+
+    private void run(JobContext context) {
+        String status = JobDto.FAILED;
+        String message = null;
+        try {
+            if (context.getInputFile() != null && !fileStore.copyInput(context.getId(), context.getInputFile())) {
+                throw new IllegalStateException("The uploaded file of the job is missing");
+            }
+            handler(context.getType()).run(context);
+            status = JobDto.COMPLETED;
+        } catch (JobCancelledException e) {
+            status = JobDto.CANCELLED;
+            message = "Cancelled";
+        } catch (Exception e) {
+            log.error("Job {} ({}) failed", context.getId(), context.getType(), e);
+            message = e.getMessage();
+        } finally {
+            try {
+                finish(context, status, message);
+            } catch (IOException | RuntimeException e) {
+                log.error("Could not save the final state of job {}", context.getId(), e);
+            }
+            running.remove(context.getId());
+            if (context.getInputFile() != null) {
+                deleteQuietly(context.getInputFile());
+            }
+            deleteQuietly(context.getResultFile());
+            slots.release();
+            dispatch();
+        }
+    }
+
+    private void finish(JobContext context, String status, String message) throws IOException {
+        BackgroundJobs job = jobRepository.findById(context.getId()).orElse(null);
+        if (job == null) {
+            return;
+        }
+        if (!JobDto.RUNNING.equals(job.getStatus()) || !nodeId.equals(job.getNodeId())) {
+            // Node khác đã coi job là mất heartbeat và đánh dấu FAILED
+            log.warn("Job {} was taken over while running here ({}), result dropped", job.getId(), job.getStatus());
+            return;
+        }
+        Timestamp now = now();
+        job.setStatus(status);
+        job.setMessage(message);
+        job.setProcessed(context.getProcessed());
+        job.setSucceeded(context.getSucceeded());
+        job.setRejected(context.getRejected());
+        job.setErrors(toJson(context.getErrors()));
+        if (JobDto.COMPLETED.equals(status) && context.getResultName() != null) {
+            fileStore.saveResult(job.getId(), context.getResultFile());
+            job.setResultName(context.getResultName());
+            job.setResultType(context.getResultType());
+        }
+        job.setFinishedAt(now);
+        job.setUpdatedAt(now);
+        jobRepository.save(job);
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize job data", e);
+        }
+    }
+
+    private <T> T fromJson(String json, TypeReference<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read job data", e);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (Exception e) {
+            log.warn("Could not delete job file {}", file, e);
+        }
+    }
+
+    private static Timestamp now() {
+        return new Timestamp(System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.qnuquiz.service.page;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import com.example.qnuquiz.dto.page.CursorPage;
+import com.example.qnuquiz.dto.page.CursorRequest;
+
+/**
+ * Shared keyset (cursor) pagination for list endpoints.
+ *
+ * Pages are read with {@code WHERE (sort, id) > (last sort, last id)} instead
+ * of OFFSET, so every page costs the same no matter how deep the client is.
+ * The cursor is an opaque base64url string holding the sort spec and the
+ * key values of the last row; it is only valid for the sort it was issued for.
+ */
+public final class KeysetPaging {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 200;
+
+    private static final String ID = "id";
+
+    public record Query(Sort sort, KeysetScrollPosition position, int size, String sortSpec) {
+
+        public boolean isDescending() {
+            return sort.stream().anyMatch(Sort.Order::isDescending);
+        }
+
+        /** Value of a key in the cursor, or null on the first page. */
+        public Object key(String property) {
+            return position.getKeys().get(property);
+        }
+    }
+
+    private KeysetPaging() {
+    }
+
+    /**
+     * Validates the request against the endpoint's sortable fields and
+     * decodes its cursor. The id is always appended as a tie-breaker.
+     */
+    public static Query of(CursorRequest request, Set<String> sortable, String defaultSort) {
+        CursorRequest r = request != null ? request : new CursorRequest();
+        int size = r.getSize() == null ? DEFAULT_SIZE : r.getSize();
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_SIZE);
+        }
+
+        String[] parts = (r.getSort() == null || r.getSort().isBlank() ? defaultSort : r.getSort()).split(",");
+        String field = parts[0].trim();
+        if (!sortable.contains(field)) {
+            throw new IllegalArgumentException("Cannot sort by '" + field + "', allowed: " + sortable);
+        }
+        Sort.Direction direction = parts.length > 1 ? Sort.Direction.fromString(parts[1].trim()) : Sort.Direction.ASC;
+
+        Sort sort = Sort.by(direction, field);
+        if (!ID.equals(field)) {
+            sort = sort.and(Sort.by(direction, ID));
+        }
+        String sortSpec = field + "," + direction.name().toLowerCase();
+
+        KeysetScrollPosition position = r.getCursor() == null || r.getCursor().isBlank()
+                ? ScrollPosition.keyset()
+                : ScrollPosition.forward(decode(r.getCursor(), sortSpec, sort));
+        return new Query(sort, position, size, sortSpec);
+    }
+
+    /** Builds the response page from a Spring Data keyset window. */
+    public static <E, D> CursorPage<D> page(Window<E> window, Query query, Function<List<E>, List<D>> mapper) {
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()
+                && window.positionAt(window.size() - 1) instanceof KeysetScrollPosition last) {
+            nextCursor = encode(query.sortSpec(), last.getKeys());
+        }
+        return CursorPage.<D>builder()
+                .items(mapper.apply(window.getContent()))
+                .nextCursor(nextCursor)
+                .hasMore(nextCursor != null)
+                .build();
+    }
+
+    /**
+     * Builds the response page from a list read with {@code LIMIT size + 1};
+     * the extra row only tells whether another page exists.
+     */
+    public static <E, D> CursorPage<D> page(List<E> rows, Query query, Function<E, Map<String, ?>> keys,
+            Function<List<E>, List<D>> mapper) {
+        boolean hasMore = rows.size() > query.size();
+        List<E> content = hasMore ? rows.subList(0, query.size()) : rows;
+        return CursorPage.<D>builder()
+                .items(mapper.apply(content))
+                .nextCursor(hasMore ? encode(query.sortSpec(), keys.apply(content.get(content.size() - 1))) : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    static String encode(String sortSpec, Map<String, ?> keys) {
+        StringBuilder sb = new StringBuilder(sortSpec);
+        keys.forEach((name, value) -> sb.append('|').append(name).append('=').append(encodeValue(value)));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Map<String, Object> decode(String cursor, String sortSpec, Sort sort) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        String[] parts = raw.split("\\|");
+        if (!parts[0].equals(sortSpec)) {
+            throw new IllegalArgumentException("Cursor does not match sort '" + sortSpec + "'");
+        }
+
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (int i = 1; i < parts.length; i++) {
+            int eq = parts[i].indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            keys.put(parts[i].substring(0, eq), decodeValue(parts[i].substring(eq + 1)));
+        }
+        if (!keys.keySet().equals(sort.stream().map(Sort.Order::getProperty).collect(Collectors.toSet()))) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return keys;
+    }
+
+    // Giá trị được gắn tiền tố kiểu để giải mã lại đúng kiểu khi so sánh trong SQL; cột sort có thể NULL
+    private static String encodeValue(Object value) {
+        String encoded = switch (value) {
+            case null -> "N:";
+            case Long l -> "L:" + l;
+            case Integer i -> "I:" + i;
+            case Timestamp t -> "T:" + t.toInstant();
+            case UUID u -> "U:" + u;
+            case String s -> "S:" + s;
+            default -> throw new IllegalStateException("Unsupported cursor value type: " + value.getClass());
+        };
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(encoded.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Object decodeValue(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String payload = value.substring(2);
+            return switch (value.substring(0, 2)) {
+                case "N:" -> null;
+                case "L:" -> Long.parseLong(payload);
+                case "I:" -> Integer.parseInt(payload);
+                case "T:" -> Timestamp.from(Instant.parse(payload));
+                case "U:" -> UUID.fromString(payload);
+                case "S:" -> payload;
+                default -> throw new IllegalArgumentException("Invalid cursor");
+            };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
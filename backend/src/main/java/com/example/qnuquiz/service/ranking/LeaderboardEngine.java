@@ -0,0 +1,325 @@
+package com.example.qnuquiz.service.ranking;
+
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.qnuquiz.repository.ExamAttemptRepository;
+import com.example.qnuquiz.service.cluster.ClusterBus;
+import com.example.qnuquiz.service.cluster.ClusterListener;
+import com.example.qnuquiz.service.exam.ExamAttemptFinishedEvent;
+import com.example.qnuquiz.service.exam.ExamDeletedEvent;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the global, weekly and per-exam rankings in memory.
+ *
+ * The boards are built once from exam_attempts at startup and then updated
+ * incrementally after each finished attempt commits. Every node holds the
+ * same boards: the node that finishes an attempt (or deletes an exam)
+ * relays the change over the {@link ClusterBus}, and a node that may have
+ * missed messages rebuilds its boards from the database.
+ *
+ * Boards changed on this node are written to the leaderboard table on a
+ * timer (global rows have a null exam_id). A write only touches the rows
+ * whose score or rank changed and, on PostgreSQL, holds an advisory lock
+ * per board so two nodes never write the same board at once. The weekly
+ * board is not persisted and is rebuilt when the week rolls over.
+ *
+ * Rebuilds and updates run under one lock. A delta arrives after its
+ * attempt committed, so a delta that arrived before a rebuild started
+ * reading is already in the rebuilt board and is not applied again.
+ */
+@Slf4j
+@Component
+public class LeaderboardEngine {
+
+    static final String TOPIC = "leaderboard";
+
+    private static final String SELECT_GLOBAL_SQL = "SELECT id, student_id, score, rank FROM leaderboard "
+            + "WHERE exam_id IS NULL";
+    private static final String SELECT_EXAM_SQL = "SELECT id, student_id, score, rank FROM leaderboard "
+            + "WHERE exam_id = ?";
+    private static final String UPDATE_SQL = "UPDATE leaderboard SET score = ?, rank = ?, generated_at = ? WHERE id = ?";
+    private static final String DELETE_SQL = "DELETE FROM leaderboard WHERE id = ?";
+    private static final String INSERT_SQL = """
+            INSERT INTO leaderboard (exam_id, student_id, score, rank, generated_at)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+    // Khoá theo bảng xếp hạng (exam id, 0 cho bảng tổng), chỉ có trên PostgreSQL
+    private static final String LOCK_SQL = "SELECT pg_advisory_xact_lock(?)";
+    private static final long LOCK_NAMESPACE = 0x4c42L << 48;
+
+    private final ExamAttemptRepository examAttemptRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ClusterBus bus;
+
+    private volatile RankingBoard global = new RankingBoard();
+    private volatile Map<Long, RankingBoard> exams = new ConcurrentHashMap<>();
+    private volatile RankingBoard weekly = new RankingBoard();
+    private volatile Timestamp weekStart;
+
+    // Boards changed since the last snapshot; 0 stands for the global board
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock boardLock = new ReentrantLock();
+    // System.nanoTime() khi lần dựng lại gần nhất bắt đầu đọc DB (mọi bảng / bảng tuần)
+    private long rebuiltAt;
+    private long weekRebuiltAt;
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private boolean postgres;
+
+    public LeaderboardEngine(ExamAttemptRepository examAttemptRepository, JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate, ClusterBus bus) {
+        this.examAttemptRepository = examAttemptRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.bus = bus;
+        bus.subscribe(TOPIC, new ClusterListener() {
+            @Override
+            public void onMessage(String payload) {
+                applyRemote(payload);
+            }
+
+            @Override
+            public void onGap() {
+                // Có thể đã mất delta của node khác: dựng lại từ exam_attempts
+                rebuild();
+                log.info("Leaderboard rebuilt after cluster bus gap");
+            }
+        });
+    }
+
+    // Chạy trước khi web server nhận request nên không có attempt nào được ghi song song
+    @PostConstruct
+    public void init() {
+        postgres = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> "PostgreSQL"
+                .equals(connection.getMetaData().getDatabaseProductName())));
+        rebuild();
+        dirty.add(0L);
+        dirty.addAll(exams.keySet());
+        log.info("Leaderboard built: {} students, {} exams", global.size(), exams.size());
+    }
+
+    public RankingBoard global() {
+        return global;
+    }
+
+    public RankingBoard weekly() {
+        if (!currentWeekStart().equals(weekStart)) {
+            boardLock.lock();
+            try {
+                rollWeek();
+            } finally {
+                boardLock.unlock();
+            }
+        }
+        return weekly;
+    }
+
+    public RankingBoard exam(long examId) {
+        return exams.getOrDefault(examId, new RankingBoard());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAttemptFinished(ExamAttemptFinishedEvent event) {
+        addScore(event.examId(), event.studentId(), event.scoreDelta(), event.attemptCreatedAt());
+        dirty.add(0L);
+        dirty.add(event.examId());
+        bus.publish(TOPIC, "F," + event.examId() + "," + event.studentId() + "," + event.scoreDelta() + ","
+                + (event.attemptCreatedAt() == null ? "" : event.attemptCreatedAt().getTime()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamDeleted(ExamDeletedEvent event) {
+        dirty.remove(event.examId());
+        if (removeExam(event.examId())) {
+            dirty.add(0L);
+        }
+        bus.publish(TOPIC, "D," + event.examId());
+    }
+
+    // Thay đổi do node khác gửi: chỉ cập nhật bộ nhớ, node gửi tự ghi snapshot
+    void applyRemote(String payload) {
+        String[] parts = payload.split(",", -1);
+        switch (parts[0]) {
+            case "F" -> addScore(Long.parseLong(parts[1]), Long.parseLong(parts[2]), Long.parseLong(parts[3]),
+                    parts[4].isEmpty() ? null : new Timestamp(Long.parseLong(parts[4])));
+            case "D" -> removeExam(Long.parseLong(parts[1]));
+            default -> log.warn("Ignoring leaderboard message {}", payload);
+        }
+    }
+
+    private void addScore(long examId, long studentId, long delta, Timestamp attemptCreatedAt) {
+        // Sau commit của attempt: bảng dựng lại từ DB sau thời điểm này đã có điểm của attempt
+        long arrivedAt = System.nanoTime();
+        boardLock.lock();
+        try {
+            if (arrivedAt - rebuiltAt > 0) {
+                global.add(studentId, delta);
+                exams.computeIfAbsent(examId, id -> new RankingBoard()).add(studentId, delta);
+            }
+
+            // Sang tuần mới thì bảng tuần vừa dựng lại đã có attempt này
+            rollWeek();
+            if (arrivedAt - weekRebuiltAt > 0 && attemptCreatedAt != null && !attemptCreatedAt.before(weekStart)) {
+                weekly.add(studentId, delta);
+            }
+        } finally {
+            boardLock.unlock();
+        }
+    }
+
+    private boolean removeExam(long examId) {
+        boardLock.lock();
+        try {
+            RankingBoard removed = exams.remove(examId);
+            if (removed == null) {
+                return false;
+            }
+            // Trừ điểm của đề đã xóa khỏi bảng tổng; bảng tuần dựng lại từ DB
+            for (RankingBoard.Entry entry : removed.top(removed.size())) {
+                global.add(entry.studentId(), -entry.score());
+            }
+            rebuildWeekly(currentWeekStart());
+            return true;
+        } finally {
+            boardLock.unlock();
+        }
+    }
+
+    private void rebuild() {
+        boardLock.lock();
+        try {
+            rebuiltAt = System.nanoTime();
+            RankingBoard newGlobal = new RankingBoard();
+            for (Object[] row : examAttemptRepository.sumScoreByStudent()) {
+                newGlobal.add(toLong(row[0]), toLong(row[1]));
+            }
+            Map<Long, RankingBoard> newExams = new ConcurrentHashMap<>();
+            for (Object[] row : examAttemptRepository.sumScoreByExamAndStudent()) {
+                newExams.computeIfAbsent(toLong(row[0]), id -> new RankingBoard()).add(toLong(row[1]),
+                        toLong(row[2]));
+            }
+            global = newGlobal;
+            exams = newExams;
+            rebuildWeekly(currentWeekStart());
+        } finally {
+            boardLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${leaderboard.snapshot-interval-ms:60000}")
+    public void snapshot() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        snapshotLock.lock();
+        try {
+            for (Long key : new ArrayList<>(dirty)) {
+                dirty.remove(key);
+                RankingBoard board = key == 0L ? global : exams.get(key);
+                if (board == null) {
+                    continue;
+                }
+                try {
+                    writeSnapshot(key == 0L ? null : key, board);
+                } catch (RuntimeException e) {
+                    dirty.add(key);
+                    log.warn("Failed to snapshot leaderboard {}: {}", key == 0L ? "global" : key, e.getMessage());
+                }
+            }
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    // Chỉ ghi các dòng có điểm hoặc hạng thay đổi, so với dòng đang có trong bảng
+    private void writeSnapshot(Long examId, RankingBoard board) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<RankingBoard.Entry> entries = board.top(board.size());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (postgres) {
+                jdbcTemplate.queryForList(LOCK_SQL, LOCK_NAMESPACE + (examId == null ? 0 : examId));
+            }
+            // student id -> [row id, score, rank]
+            Map<Long, long[]> stored = new HashMap<>();
+            List<Object[]> deletes = new ArrayList<>();
+            RowCallbackHandler collect = rs -> {
+                long[] row = { rs.getLong(1), rs.getLong(3), rs.getLong(4) };
+                if (stored.putIfAbsent(rs.getLong(2), row) != null) {
+                    deletes.add(new Object[] { row[0] }); // dòng trùng của snapshot cũ
+                }
+            };
+            if (examId == null) {
+                jdbcTemplate.query(SELECT_GLOBAL_SQL, collect);
+            } else {
+                jdbcTemplate.query(SELECT_EXAM_SQL, collect, examId);
+            }
+
+            List<Object[]> updates = new ArrayList<>();
+            List<Object[]> inserts = new ArrayList<>();
+            for (RankingBoard.Entry entry : entries) {
+                int score = (int) Math.min(entry.score(), Integer.MAX_VALUE);
+                long[] row = stored.remove(entry.studentId());
+                if (row == null) {
+                    inserts.add(new Object[] { examId, entry.studentId(), score, entry.rank(), now });
+                } else if (row[1] != score || row[2] != entry.rank()) {
+                    updates.add(new Object[] { score, entry.rank(), now, row[0] });
+                }
+            }
+            stored.values().forEach(row -> deletes.add(new Object[] { row[0] }));
+
+            jdbcTemplate.batchUpdate(DELETE_SQL, deletes);
+            jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+            log.debug("Leaderboard {} snapshot: {} inserted, {} updated, {} deleted",
+                    examId == null ? "global" : examId, inserts.size(), updates.size(), deletes.size());
+        });
+    }
+
+    // Gọi khi đang giữ boardLock
+    private void rollWeek() {
+        Timestamp current = currentWeekStart();
+        if (!current.equals(weekStart)) {
+            rebuildWeekly(current);
+        }
+    }
+
+    // Gọi khi đang giữ boardLock
+    private void rebuildWeekly(Timestamp from) {
+        weekRebuiltAt = System.nanoTime();
+        RankingBoard board = new RankingBoard();
+        for (Object[] row : examAttemptRepository.sumScoreByStudentSince(from)) {
+            board.add(toLong(row[0]), toLong(row[1]));
+        }
+        weekly = board;
+        weekStart = from;
+    }
+
+    private static Timestamp currentWeekStart() {
+        return Timestamp.valueOf(LocalDate.now().with(DayOfWeek.MONDAY).atStartOfDay());
+    }
+
+    private static long toLong(Object value) {
+        return ((Number) value).longValue();
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.qnuquiz.service.ranking;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory ranking of students by total score.
+ *
+ * Backed by an indexable skip list: every forward link also stores how many
+ * entries it skips, so inserts, removals and rank lookups are O(log n) and
+ * the top K entries are read in O(log n + K). Entries are ordered by score
+ * descending, then by student id so ties always rank the same way.
+ */
+public final class RankingBoard {
+
+    public record Entry(long studentId, long score, int rank) {
+    }
+
+    private static final int MAX_LEVEL = 32;
+
+    private static final class Node {
+        final long studentId;
+        final long score;
+        final Node[] next;
+        final int[] span;
+
+        Node(long studentId, long score, int level) {
+            this.studentId = studentId;
+            this.score = score;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+    }
+
+    private final Node head = new Node(0, 0, MAX_LEVEL);
+    private final Map<Long, Long> scores = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int level = 1;
+    private int length;
+
+    /**
+     * Adds {@code delta} to the student's score, creating the entry if needed.
+     */
+    public void add(long studentId, long delta) {
+        lock.writeLock().lock();
+        try {
+            Long current = scores.get(studentId);
+            if (current != null) {
+                if (delta == 0) {
+                    return;
+                }
+                delete(current, studentId);
+            }
+            long score = current == null ? delta : current + delta;
+            insert(score, studentId);
+            scores.put(studentId, score);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Long scoreOf(long studentId) {
+        lock.readLock().lock();
+        try {
+            return scores.get(studentId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The student's score and 1-based rank, or null if the student is not ranked.
+     */
+    public Entry entryOf(long studentId) {
+        lock.readLock().lock();
+        try {
+            Long score = scores.get(studentId);
+            if (score == null) {
+                return null;
+            }
+            int rank = 0;
+            Node x = head;
+            for (int i = level - 1; i >= 0; i--) {
+                while (x.next[i] != null && !before(score, studentId, x.next[i].score, x.next[i].studentId)) {
+                    rank += x.span[i];
+                    x = x.next[i];
+                }
+            }
+            return new Entry(studentId, score, rank);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Entry> top(int limit) {
+        lock.readLock().lock();
+        try {
+            List<Entry> result = new ArrayList<>(Math.min(limit, scores.size()));
+            Node x = head.next[0];
+            while (x != null && result.size() < limit) {
+                result.add(new Entry(x.studentId, x.score, result.size() + 1));
+                x = x.next[0];
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return scores.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // a xếp trước b: điểm cao hơn, hoặc bằng điểm nhưng id nhỏ hơn
+    private static boolean before(long scoreA, long idA, long scoreB, long idB) {
+        return scoreA > scoreB || (scoreA == scoreB && idA < idB);
+    }
+
+    private void insert(long score, long studentId) {
+        Node[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && before(x.next[i].score, x.next[i].studentId, score, studentId)) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            for (int i = level; i < nodeLevel; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                head.span[i] = length;
+            }
+            level = nodeLevel;
+        }
+
+        Node node = new Node(studentId, score, nodeLevel);
+        for (int i = 0; i < nodeLevel; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = rank[0] - rank[i] + 1;
+        }
+        for (int i = nodeLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+        length++;
+    }
+
+    private void delete(long score, long studentId) {
+        Node[] update = new Node[MAX_LEVEL];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && before(x.next[i].score, x.next[i].studentId, score, studentId)) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        Node node = x.next[0];
+        if (node == null || node.studentId != studentId) {
+            throw new IllegalStateException("Ranking entry not found for student " + studentId);
+        }
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == node) {
+                update[i].span[i] += node.span[i] - 1;
+                update[i].next[i] = node.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        length--;
+    }
+
+    private static int randomLevel() {
+        int lvl = 1;
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        while (lvl < MAX_LEVEL && rnd.nextInt(4) == 0) {
+            lvl++;
+        }
+        return lvl;
+    }
+}
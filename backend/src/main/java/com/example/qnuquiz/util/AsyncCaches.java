@@ -0,0 +1,54 @@
+package com.example.qnuquiz.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+/**
+ * Load-once lookups that never run the loader inside a map lock.
+ *
+ * Cache.get(key, loader) runs the loader inside ConcurrentHashMap.compute,
+ * i.e. in a synchronized block. When the loader does JDBC, a virtual thread
+ * stays pinned to its carrier for the whole query (JDK 21). Here only an
+ * empty future is inserted under the lock; the caller that inserted it runs
+ * the loader on its own thread (same transaction and security context),
+ * concurrent callers for the same key wait on the future.
+ */
+public final class AsyncCaches {
+
+    private AsyncCaches() {
+    }
+
+    /**
+     * Like Cache.get(key, loader): a null result or an exception is not
+     * cached, and the loader's RuntimeException reaches every waiting caller
+     * unwrapped.
+     */
+    public static <K, V> V get(AsyncCache<K, V> cache, K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> future = cache.getIfPresent(key);
+        if (future == null) {
+            CompletableFuture<V> created = new CompletableFuture<>();
+            future = cache.asMap().putIfAbsent(key, created);
+            if (future == null) {
+                future = created;
+                try {
+                    // Future lỗi hoặc null sẽ bị Caffeine tự xoá khỏi cache
+                    created.complete(loader.apply(key));
+                } catch (RuntimeException | Error e) {
+                    created.completeExceptionally(e);
+                    throw e;
+                }
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
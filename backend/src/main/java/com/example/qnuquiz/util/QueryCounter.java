@@ -0,0 +1,125 @@
+package com.example.qnuquiz.util;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the SQL statements, fetched rows and JDBC time of the current
+ * thread between {@link #open()} and {@link Scope#close()}.
+ *
+ * The numbers are fed by the counting DataSource of QueryCountConfig
+ * (monitoring.query-count.enabled); without it every scope stays at zero.
+ * A statement is one round trip: a JDBC batch counts once.
+ *
+ * <pre>
+ * try (QueryCounter.Scope scope = QueryCounter.open()) {
+ *     service.call();
+ *     scope.stats().statements();
+ * }
+ * </pre>
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<Stats> CURRENT = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    public static Scope open() {
+        Stats previous = CURRENT.get();
+        Stats stats = new Stats();
+        CURRENT.set(stats);
+        return new Scope(stats, previous);
+    }
+
+    /** Stats of the open scope of this thread, null if there is none. */
+    public static Stats current() {
+        return CURRENT.get();
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Stats stats;
+        private final Stats previous;
+
+        private Scope(Stats stats, Stats previous) {
+            this.stats = stats;
+            this.previous = previous;
+        }
+
+        public Stats stats() {
+            return stats;
+        }
+
+        @Override
+        public void close() {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * Only touched by the thread that opened the scope.
+     */
+    public static final class Stats {
+
+        private int statements;
+        private long rows;
+        private long nanos;
+        // SQL -> số lần chạy, cùng câu lệnh chạy lại nhiều lần thường là N+1
+        private final Map<String, Integer> executions = new LinkedHashMap<>();
+
+        public void statement(String sql, long elapsedNanos) {
+            statements++;
+            nanos += elapsedNanos;
+            if (sql != null) {
+                executions.merge(sql, 1, Integer::sum);
+            }
+        }
+
+        public void row() {
+            rows++;
+        }
+
+        public int statements() {
+            return statements;
+        }
+
+        public long rows() {
+            return rows;
+        }
+
+        public long nanos() {
+            return nanos;
+        }
+
+        public long millis() {
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+
+        public Map<String, Integer> executions() {
+            return Collections.unmodifiableMap(executions);
+        }
+
+        /** Statements run at least {@code threshold} times, with their count. */
+        public Map<String, Integer> repeated(int threshold) {
+            Map<String, Integer> repeated = new LinkedHashMap<>();
+            executions.forEach((sql, count) -> {
+                if (count >= threshold) {
+                    repeated.put(sql, count);
+                }
+            });
+            return repeated;
+        }
+
+        @Override
+        public String toString() {
+            return statements + " statements, " + rows + " rows, " + millis() + " ms";
+        }
+    }
+}
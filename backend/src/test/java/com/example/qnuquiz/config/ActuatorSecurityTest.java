@@ -0,0 +1,95 @@
+package com.example.qnuquiz.config;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.qnuquiz.security.CustomUserDetailsService;
+import com.example.qnuquiz.security.JwtUtil;
+
+/**
+ * Access rules of SecurityConfig for /actuator: health is public, the other
+ * endpoints need ADMIN unless the request comes in on the management port.
+ * The endpoints are stand-ins, @WebMvcTest does not start the actuator.
+ */
+@WebMvcTest(controllers = ActuatorSecurityTest.Endpoints.class, properties = "management.server.port=8081")
+@Import({ SecurityConfig.class, ActuatorSecurityTest.Endpoints.class })
+class ActuatorSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private JwtUtil jwtUtil;
+
+    @MockitoBean
+    private CustomUserDetailsService customUserDetailsService;
+
+    /**
+     Test health không cần đăng nhập
+     */
+    @Test
+    void testHealthIsPublic() throws Exception {
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/health/liveness")).andExpect(status().isOk());
+    }
+
+    /**
+     Test prometheus và hibernatecache trên cổng ứng dụng: chưa đăng nhập hoặc không phải ADMIN bị từ chối
+     */
+    @Test
+    void testMetricsNeedLogin() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/hibernatecache")).andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "STUDENT")
+    void testMetricsForbiddenForStudents() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/hibernatecache")).andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testMetricsAllowedForAdmins() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/hibernatecache")).andExpect(status().isOk());
+    }
+
+    /**
+     Test request vào cổng management (mạng nội bộ, Prometheus scrape) không cần token
+     */
+    @Test
+    void testManagementPortIsOpen() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus").with(port(8081))).andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/prometheus").with(port(8080))).andExpect(status().isForbidden());
+    }
+
+    private static RequestPostProcessor port(int port) {
+        return request -> {
+            request.setLocalPort(port);
+            return request;
+        };
+    }
+
+    @RestController
+    static class Endpoints {
+
+        @GetMapping({ "/actuator/health", "/actuator/health/liveness", "/actuator/prometheus",
+                "/actuator/hibernatecache" })
+        String ok() {
+            return "ok";
+        }
+    }
+}
@@ -80,7 +80,7 @@ class AuthControllerTest {
         given(userService.findByUsername("john"))
                 .willReturn(Optional.of(mockUser));
 
-        given(jwtUtil.generateToken("john"))
+        given(jwtUtil.generateToken(mockUser))
                 .willReturn("mocked-jwt-token");
 
         mockMvc.perform(post("/api/auth/login")
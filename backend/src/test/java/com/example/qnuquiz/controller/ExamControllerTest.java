@@ -1,5 +1,9 @@
 package com.example.qnuquiz.controller;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
@@ -25,18 +29,24 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import com.example.qnuquiz.dto.exam.AnswerItemDto;
+import com.example.qnuquiz.dto.exam.AnswerItemResultDto;
+import com.example.qnuquiz.dto.exam.BulkAnswerResultDto;
 import com.example.qnuquiz.dto.exam.ExamAnswerReviewDTO;
 import com.example.qnuquiz.dto.exam.ExamAttemptDto;
 import com.example.qnuquiz.dto.exam.ExamCategoryDto;
 import com.example.qnuquiz.dto.exam.ExamDto;
 import com.example.qnuquiz.dto.exam.ExamResultDto;
 import com.example.qnuquiz.dto.exam.ExamReviewDTO;
+import com.example.qnuquiz.dto.page.CursorPage;
+import com.example.qnuquiz.dto.page.CursorRequest;
 import com.example.qnuquiz.dto.questions.QuestionDTO;
 import com.example.qnuquiz.dto.questions.QuestionOptionDto;
 import com.example.qnuquiz.exception.GlobalExceptionHandler;
 import com.example.qnuquiz.security.CustomUserDetailsService;
 import com.example.qnuquiz.security.JwtUtil;
 import com.example.qnuquiz.service.ExamService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import jakarta.persistence.EntityNotFoundException;
 
@@ -47,6 +57,9 @@ class ExamControllerTest extends BaseTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @MockitoBean
     private JwtUtil jwtUtil;
 
@@ -128,6 +141,50 @@ class ExamControllerTest extends BaseTest {
                 .andExpect(jsonPath("$.error").value("Attempt or question not found"));
     }
 
+
+    @Test
+    void testSubmitAnswersSuccess() throws Exception {
+        long attemptId = 1L;
+        List<AnswerItemDto> items = List.of(
+                AnswerItemDto.builder().seq(1L).questionId(10L).optionId(100L).build(),
+                AnswerItemDto.builder().seq(1L).questionId(11L).optionId(999L).build());
+
+        BulkAnswerResultDto resultDto = BulkAnswerResultDto.builder()
+                .attemptId(attemptId)
+                .accepted(1)
+                .rejected(1)
+                .items(List.of(
+                        AnswerItemResultDto.builder().seq(1L).questionId(10L)
+                                .status(AnswerItemResultDto.ACCEPTED).build(),
+                        AnswerItemResultDto.builder().seq(1L).questionId(11L)
+                                .status(AnswerItemResultDto.REJECTED)
+                                .message("Option 999 does not belong to question 11").build()))
+                .build();
+
+        given(examService.submitAnswers(eq(attemptId), anyList())).willReturn(resultDto);
+
+        mockMvc.perform(post("/api/exams/{attemptId}/answers", attemptId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(items)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.items[0].status").value("ACCEPTED"))
+                .andExpect(jsonPath("$.items[1].status").value("REJECTED"));
+    }
+
+    @Test
+    void testSubmitAnswersAttemptNotFound() throws Exception {
+        long attemptId = 999L;
+
+        doThrow(new EntityNotFoundException("Attempt not found: 999"))
+                .when(examService).submitAnswers(eq(attemptId), anyList());
+
+        mockMvc.perform(post("/api/exams/{attemptId}/answers", attemptId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isNotFound());
+    }
     
     @Test
     @WithMockUser(roles = "STUDENT")
@@ -360,16 +417,36 @@ class ExamControllerTest extends BaseTest {
                 ExamDto.builder().id(10L).title("Java Basics").description("Intro exam").build(),
                 ExamDto.builder().id(11L).title("Spring Boot").description("Advanced exam").build()
         );
+        CursorPage<ExamDto> page = CursorPage.<ExamDto>builder()
+                .items(exams)
+                .nextCursor("next-cursor")
+                .hasMore(true)
+                .build();
 
-        given(examService.getAllExams()).willReturn(exams);
+        given(examService.getAllExams(argThat(p -> "abc".equals(p.getCursor()) && p.getSize() == 2)))
+                .willReturn(page);
 
         mockMvc.perform(get("/api/exams/getAll")
+                .param("cursor", "abc")
+                .param("size", "2")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].title").value("Java Basics"))
-                .andExpect(jsonPath("$[1].title").value("Spring Boot"));
+                .andExpect(jsonPath("$.items[0].title").value("Java Basics"))
+                .andExpect(jsonPath("$.items[1].title").value("Spring Boot"))
+                .andExpect(jsonPath("$.nextCursor").value("next-cursor"))
+                .andExpect(jsonPath("$.hasMore").value(true));
+    }
+
+    @Test
+    @WithMockUser(roles = "STUDENT")
+    void testGetAllExamsInvalidSort() throws Exception {
+        given(examService.getAllExams(any(CursorRequest.class)))
+                .willThrow(new IllegalArgumentException("Cannot sort by 'title', allowed: [id]"));
+
+        mockMvc.perform(get("/api/exams/getAll")
+                .param("sort", "title")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
     }
-    
-    
 
 }
@@ -0,0 +1,160 @@
+package com.example.qnuquiz.controller;
+
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.qnuquiz.dto.job.JobDto;
+import com.example.qnuquiz.dto.job.JobRequest;
+import com.example.qnuquiz.exception.GlobalExceptionHandler;
+import com.example.qnuquiz.security.CustomUserDetailsService;
+import com.example.qnuquiz.security.JwtUtil;
+import com.example.qnuquiz.service.JobService;
+import com.example.qnuquiz.service.job.JobResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityNotFoundException;
+
+@WebMvcTest(JobController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@Import(GlobalExceptionHandler.class)
+class JobControllerTest extends BaseTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private JwtUtil jwtUtil;
+
+    @MockitoBean
+    private CustomUserDetailsService customUserDetailsService;
+
+    @MockitoBean
+    private JobService jobService;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setup() {
+        setupSecurityContext("admin", "password", "ROLE_ADMIN");
+    }
+
+    /**
+     Test tạo job xuất báo cáo, trả về 202 cùng trạng thái QUEUED
+     */
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testSubmitJobAccepted() throws Exception {
+        JobRequest request = new JobRequest("ANALYTICS_EXPORT", Map.of("report", "users"));
+        given(jobService.submit(request)).willReturn(JobDto.builder()
+                .jobId("job-1")
+                .type("ANALYTICS_EXPORT")
+                .status(JobDto.QUEUED)
+                .build());
+
+        mockMvc.perform(post("/api/jobs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.jobId").value("job-1"))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+
+    /**
+     Test xem tiến độ job đang chạy
+     */
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testGetJobSuccess() throws Exception {
+        given(jobService.getJob("job-1")).willReturn(JobDto.builder()
+                .jobId("job-1")
+                .status(JobDto.RUNNING)
+                .processed(120)
+                .succeeded(118)
+                .rejected(2)
+                .build());
+
+        mockMvc.perform(get("/api/jobs/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("RUNNING"))
+                .andExpect(jsonPath("$.succeeded").value(118))
+                .andExpect(jsonPath("$.rejected").value(2));
+    }
+
+    /**
+     Test xem job không tồn tại hoặc của người khác
+     */
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testGetJobNotFound() throws Exception {
+        given(jobService.getJob("missing")).willThrow(new EntityNotFoundException("Job not found: missing"));
+
+        mockMvc.perform(get("/api/jobs/missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     Test huỷ job đã kết thúc
+     */
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testCancelFinishedJob() throws Exception {
+        given(jobService.cancel("job-1")).willThrow(new IllegalArgumentException("Job is already finished"));
+
+        mockMvc.perform(post("/api/jobs/job-1/cancel"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     Test tải file kết quả của job đã hoàn thành
+     */
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testDownloadResult() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("result"), "Metric,Value\n");
+        given(jobService.getResult("job-1")).willReturn(new JobResult(file, "user_analytics.csv", "text/csv"));
+
+        mockMvc.perform(get("/api/jobs/job-1/result"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"user_analytics.csv\""))
+                .andExpect(content().string("Metric,Value\n"));
+    }
+
+    /**
+     Test tải tiếp file kết quả từ byte thứ 7 (Range)
+     */
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testDownloadResultRange() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("result"), "Metric,Value\n");
+        given(jobService.getResult("job-1")).willReturn(new JobResult(file, "exam_1_attempts.csv", "text/csv"));
+
+        mockMvc.perform(get("/api/jobs/job-1/result").header("Range", "bytes=7-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 7-12/13"))
+                .andExpect(content().string("Value\n"));
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.qnuquiz.controller;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doThrow;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -22,6 +25,8 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import com.example.qnuquiz.dto.page.CursorPage;
+import com.example.qnuquiz.dto.page.CursorRequest;
 import com.example.qnuquiz.dto.student.ExamAnswerHistoryDto;
 import com.example.qnuquiz.dto.student.ExamHistoryDto;
 import com.example.qnuquiz.dto.student.StudentDto;
@@ -31,6 +36,8 @@ import com.example.qnuquiz.security.JwtUtil;
 import com.example.qnuquiz.service.StudentService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import jakarta.persistence.EntityNotFoundException;
+
 
 @WebMvcTest(StudentController.class)
 @AutoConfigureMockMvc(addFilters = false)
@@ -152,18 +159,31 @@ class StudentControllerTest extends BaseTest {
                 .answers(List.of())
                 .build();
 
-        given(studentService.getExamHistory()).willReturn(List.of(history1, history2));
+        CursorPage<ExamHistoryDto> page = CursorPage.<ExamHistoryDto>builder()
+                .items(List.of(history1, history2))
+                .nextCursor("next-cursor")
+                .hasMore(true)
+                .build();
+
+        given(studentService.getExamHistory(argThat(p -> "abc".equals(p.getCursor()) && p.getSize() == 2), eq(true)))
+                .willReturn(page);
 
         mockMvc.perform(get("/api/students/me/exam-history")
+                .param("cursor", "abc")
+                .param("size", "2")
+                .param("includeAnswers", "true")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].attemptId").value(1))
-                .andExpect(jsonPath("$[0].examTitle").value("Java Basics Quiz"))
-                .andExpect(jsonPath("$[0].score").value(85))
-                .andExpect(jsonPath("$[0].durationMinutes").value(30))
-                .andExpect(jsonPath("$[1].attemptId").value(2))
-                .andExpect(jsonPath("$[1].examTitle").value("Spring Boot Quiz"))
-                .andExpect(jsonPath("$[1].score").value(90));
+                .andExpect(jsonPath("$.items[0].attemptId").value(1))
+                .andExpect(jsonPath("$.items[0].examTitle").value("Java Basics Quiz"))
+                .andExpect(jsonPath("$.items[0].score").value(85))
+                .andExpect(jsonPath("$.items[0].durationMinutes").value(30))
+                .andExpect(jsonPath("$.items[0].answers[0].questionContent").value("What is Java?"))
+                .andExpect(jsonPath("$.items[1].attemptId").value(2))
+                .andExpect(jsonPath("$.items[1].examTitle").value("Spring Boot Quiz"))
+                .andExpect(jsonPath("$.items[1].score").value(90))
+                .andExpect(jsonPath("$.nextCursor").value("next-cursor"))
+                .andExpect(jsonPath("$.hasMore").value(true));
     }
 
     /**
@@ -172,12 +192,14 @@ class StudentControllerTest extends BaseTest {
     @Test
     @WithMockUser(roles = "STUDENT")
     void testGetExamHistoryEmpty() throws Exception {
-        given(studentService.getExamHistory()).willReturn(List.of());
+        given(studentService.getExamHistory(any(CursorRequest.class), eq(false)))
+                .willReturn(CursorPage.<ExamHistoryDto>builder().items(List.of()).hasMore(false).build());
 
         mockMvc.perform(get("/api/students/me/exam-history")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isEmpty());
+                .andExpect(jsonPath("$.items").isEmpty())
+                .andExpect(jsonPath("$.hasMore").value(false));
     }
 
     /**
@@ -187,11 +209,47 @@ class StudentControllerTest extends BaseTest {
     @WithMockUser(roles = "TEACHER")
     void testGetExamHistoryUnauthorized() throws Exception {
         doThrow(new RuntimeException("Chỉ sinh viên mới có thể xem lịch sử làm kiểm tra"))
-                .when(studentService).getExamHistory();
+                .when(studentService).getExamHistory(any(CursorRequest.class), eq(false));
 
         mockMvc.perform(get("/api/students/me/exam-history")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isInternalServerError());
     }
-}
 
+    /**
+     Test xem câu trả lời của một lần làm bài trong lịch sử
+     */
+    @Test
+    @WithMockUser(roles = "STUDENT")
+    void testGetExamHistoryAnswersSuccess() throws Exception {
+        given(studentService.getExamHistoryAnswers(1L)).willReturn(List.of(
+                ExamAnswerHistoryDto.builder()
+                        .questionId(1L)
+                        .questionContent("What is Java?")
+                        .isCorrect(true)
+                        .selectedOptionId(11L)
+                        .selectedOptionContent("A programming language")
+                        .build()));
+
+        mockMvc.perform(get("/api/students/me/exam-history/1/answers")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].questionId").value(1))
+                .andExpect(jsonPath("$[0].selectedOptionId").value(11))
+                .andExpect(jsonPath("$[0].selectedOptionContent").value("A programming language"));
+    }
+
+    /**
+     Test xem câu trả lời thất bại khi lần làm bài không thuộc về sinh viên
+     */
+    @Test
+    @WithMockUser(roles = "STUDENT")
+    void testGetExamHistoryAnswersNotFound() throws Exception {
+        given(studentService.getExamHistoryAnswers(99L))
+                .willThrow(new EntityNotFoundException("Exam attempt not found: 99"));
+
+        mockMvc.perform(get("/api/students/me/exam-history/99/answers")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -1,11 +1,16 @@
 package com.example.qnuquiz.controller;
 
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.util.List;
 import java.util.UUID;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -19,6 +24,7 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import com.example.qnuquiz.dto.page.CursorPage;
 import com.example.qnuquiz.dto.user.UserDto;
 import com.example.qnuquiz.exception.GlobalExceptionHandler;
 import com.example.qnuquiz.security.CustomUserDetailsService;
@@ -52,6 +58,37 @@ class UserControllerTest extends BaseTest {
         setupSecurityContext("admin", "password", "ROLE_ADMIN");
     }
 
+    /**
+     Test lấy danh sách người dùng theo trang (keyset) có lọc theo role
+     */
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testGetAllUsersPaged() throws Exception {
+        UserDto user = UserDto.builder()
+                .id(UUID.randomUUID())
+                .username("student01")
+                .role("STUDENT")
+                .build();
+        CursorPage<UserDto> page = CursorPage.<UserDto>builder()
+                .items(List.of(user))
+                .nextCursor(null)
+                .hasMore(false)
+                .build();
+
+        given(userService.getAllUsers(eq("STUDENT"), isNull(), eq("stu"),
+                argThat(p -> p.getSize() == 20 && "username".equals(p.getSort())))).willReturn(page);
+
+        mockMvc.perform(get("/api/users")
+                .param("role", "STUDENT")
+                .param("keyword", "stu")
+                .param("size", "20")
+                .param("sort", "username")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].username").value("student01"))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
     /**
      Test cập nhật thông tin cá nhân thành công (ADMIN)
      */
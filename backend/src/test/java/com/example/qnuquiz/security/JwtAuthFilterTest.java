@@ -0,0 +1,147 @@
+package com.example.qnuquiz.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import com.example.qnuquiz.entity.Users;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Which bearer tokens {@link JwtAuthFilter} turns into an authenticated
+ * request. The principal cache is mocked.
+ */
+class JwtAuthFilterTest {
+
+    private static final UUID USER_ID = UUID.fromString("00000000-0000-0000-0000-000000000011");
+
+    private final JwtUtil jwtUtil = JwtUtilTest.jwtUtil(JwtUtilTest.SECRET);
+    private final CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+    private JwtAuthFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("meterRegistry", new SimpleMeterRegistry());
+        filter = new JwtAuthFilter(jwtUtil, userDetailsService, beans.getBeanProvider(MeterRegistry.class));
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     Test token hợp lệ: principal lấy từ cache theo uid, request được xác thực với role hiện tại
+     */
+    @Test
+    void testValidTokenAuthenticates() throws Exception {
+        Users user = JwtUtilTest.user(USER_ID, "sv1", "STUDENT", "ACTIVE");
+        given(userDetailsService.loadUserById(USER_ID)).willReturn(new CustomUserDetails(user));
+
+        Authentication authentication = filter(jwtUtil.generateToken(user));
+
+        assertThat(authentication).isNotNull();
+        assertThat(authentication.getAuthorities()).extracting("authority").containsExactly("ROLE_STUDENT");
+        verify(userDetailsService, never()).loadUserByUsername(ArgumentMatchers.anyString());
+    }
+
+    /**
+     Test token cũ không có uid: principal nạp theo username; username không còn tồn tại thì không xác thực
+     */
+    @Test
+    void testLegacyTokenWithoutUid() throws Exception {
+        String token = Jwts.builder().subject("sv1")
+                .signWith(Keys.hmacShaKeyFor(JwtUtilTest.SECRET.getBytes(StandardCharsets.UTF_8))).compact();
+        given(userDetailsService.loadUserByUsername("sv1"))
+                .willReturn(new CustomUserDetails(JwtUtilTest.user(USER_ID, "sv1", "STUDENT", "ACTIVE")));
+
+        assertThat(filter(token)).isNotNull();
+
+        SecurityContextHolder.clearContext();
+        given(userDetailsService.loadUserByUsername("sv1"))
+                .willThrow(new UsernameNotFoundException("sv1"));
+        assertThat(filter(token)).isNull();
+    }
+
+    /**
+     Test role đổi sau khi cấp token (hoặc uid trỏ tới user khác tên) thì phải đăng nhập lại
+     */
+    @Test
+    void testRoleOrUsernameMismatchIsRejected() throws Exception {
+        String token = jwtUtil.generateToken(JwtUtilTest.user(USER_ID, "sv1", "ADMIN", "ACTIVE"));
+
+        given(userDetailsService.loadUserById(USER_ID))
+                .willReturn(new CustomUserDetails(JwtUtilTest.user(USER_ID, "sv1", "STUDENT", "ACTIVE")));
+        assertThat(filter(token)).isNull();
+
+        given(userDetailsService.loadUserById(USER_ID))
+                .willReturn(new CustomUserDetails(JwtUtilTest.user(USER_ID, "other", "ADMIN", "ACTIVE")));
+        assertThat(filter(token)).isNull();
+
+        given(userDetailsService.loadUserById(USER_ID)).willReturn(null);
+        assertThat(filter(token)).isNull();
+    }
+
+    /**
+     Test tài khoản bị khoá hoặc vô hiệu hoá sau khi cấp token thì token không còn dùng được
+     */
+    @Test
+    void testLockedOrDisabledUserIsRejected() throws Exception {
+        String token = jwtUtil.generateToken(JwtUtilTest.user(USER_ID, "sv1", "STUDENT", "ACTIVE"));
+
+        given(userDetailsService.loadUserById(USER_ID))
+                .willReturn(new CustomUserDetails(JwtUtilTest.user(USER_ID, "sv1", "STUDENT", "LOCKED")));
+        assertThat(filter(token)).isNull();
+
+        given(userDetailsService.loadUserById(USER_ID))
+                .willReturn(new CustomUserDetails(JwtUtilTest.user(USER_ID, "sv1", "STUDENT", "DISABLED")));
+        assertThat(filter(token)).isNull();
+    }
+
+    /**
+     Test token giả mạo không làm đọc principal, request vẫn đi tiếp nhưng chưa xác thực
+     */
+    @Test
+    void testForgedTokenIsRejected() throws Exception {
+        String forged = JwtUtilTest.jwtUtil("other-secret-other-secret-other-secret-99")
+                .generateToken(JwtUtilTest.user(USER_ID, "admin", "ADMIN", "ACTIVE"));
+        MockFilterChain chain = new MockFilterChain();
+
+        assertThat(filter(forged, chain)).isNull();
+        assertThat(chain.getRequest()).isNotNull();
+        verify(userDetailsService, never()).loadUserById(ArgumentMatchers.any());
+    }
+
+    private Authentication filter(String token) throws Exception {
+        return filter(token, new MockFilterChain());
+    }
+
+    private Authentication filter(String token, MockFilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/exams");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.qnuquiz.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import javax.crypto.SecretKey;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.qnuquiz.entity.Users;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Issuing and verifying tokens with {@link JwtUtil}, without Spring.
+ */
+class JwtUtilTest {
+
+    static final String SECRET = "test-secret-test-secret-test-secret-0123";
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = jwtUtil(SECRET);
+    }
+
+    /**
+     Test token mới mang username, uid và role; không còn claim status
+     */
+    @Test
+    void testParseReadsIssuedClaims() {
+        Users user = user(UUID.randomUUID(), "sv1", "STUDENT", "ACTIVE");
+
+        String token = jwtUtil.generateToken(user);
+
+        assertThat(jwtUtil.parse(token)).contains(new JwtUtil.TokenClaims("sv1", user.getId(), "STUDENT"));
+        assertThat(Jwts.parser().verifyWith(key(SECRET)).build().parseSignedClaims(token).getPayload())
+                .doesNotContainKey("status");
+    }
+
+    /**
+     Test token cũ chỉ có subject: uid và role là null
+     */
+    @Test
+    void testParseLegacyToken() {
+        String token = Jwts.builder().subject("sv1").signWith(key(SECRET)).compact();
+
+        assertThat(jwtUtil.parse(token)).contains(new JwtUtil.TokenClaims("sv1", null, null));
+    }
+
+    /**
+     Test token ký bằng khoá khác, token bị sửa, chuỗi rác và uid không phải UUID đều bị từ chối
+     */
+    @Test
+    void testParseRejectsForgedOrMalformedToken() {
+        Users user = user(UUID.randomUUID(), "admin", "ADMIN", "ACTIVE");
+        String forged = jwtUtil("other-secret-other-secret-other-secret-99").generateToken(user);
+        String token = jwtUtil.generateToken(user);
+        String[] parts = token.split("\\.");
+        String tampered = parts[0] + "." + Jwts.builder().subject("admin").claim("role", "ADMIN")
+                .claim("uid", UUID.randomUUID().toString()).compact().split("\\.")[1] + "." + parts[2];
+        String badUid = Jwts.builder().subject("sv1").claim("uid", "not-a-uuid").signWith(key(SECRET)).compact();
+
+        assertThat(jwtUtil.parse(forged)).isEmpty();
+        assertThat(jwtUtil.parse(tampered)).isEmpty();
+        assertThat(jwtUtil.parse("not.a.token")).isEmpty();
+        assertThat(jwtUtil.parse("")).isEmpty();
+        assertThat(jwtUtil.parse(badUid)).isEmpty();
+    }
+
+    static JwtUtil jwtUtil(String secret) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "SECRET_KEY", secret);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    static Users user(UUID id, String username, String role, String status) {
+        Users user = new Users();
+        user.setId(id);
+        user.setUsername(username);
+        user.setRole(role);
+        user.setStatus(status);
+        return user;
+    }
+
+    private static SecretKey key(String secret) {
+        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.qnuquiz.service.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.example.qnuquiz.dto.analytics.ClassPerformanceDto;
+import com.example.qnuquiz.dto.analytics.ExamAnalyticsDto;
+import com.example.qnuquiz.dto.analytics.QuestionAnalyticsDto;
+import com.example.qnuquiz.dto.analytics.ScoreDistributionDto;
+import com.example.qnuquiz.dto.analytics.StudentAttemptDto;
+import com.example.qnuquiz.service.AnalyticsService;
+import com.example.qnuquiz.service.exam.ExamAnswerBuffer;
+import com.example.qnuquiz.service.impl.AnalyticsServiceIml;
+import com.example.qnuquiz.service.ranking.LeaderboardEngine;
+
+/**
+ * Dashboard queries of AnalyticsServiceIml on a fixed dataset. Each database
+ * gets a subclass; all of them must return exactly the values below.
+ *
+ * Exam A (3 questions, 30 points): scores 30, 25, 20, 10 and one attempt in progress
+ * Exam B (max 2 questions, 20 points): scores 20, 10, 5
+ * Exam C: no attempts
+ */
+@DataJpaTest(properties = { "spring.jpa.hibernate.ddl-auto=create-drop", "spring.sql.init.mode=never" })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ AnalyticsServiceIml.class, ExamStatsRollup.class })
+abstract class AnalyticsQueriesBaseTest {
+
+    private static final UUID TEACHER = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 3, 10, 10, 0);
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private ExamStatsRollup statsRollup;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @MockitoBean
+    private LeaderboardEngine leaderboardEngine;
+
+    @MockitoBean
+    private ExamAnswerBuffer answerBuffer;
+
+    @BeforeEach
+    void seed() {
+        user(TEACHER, "teacher", "TEACHER");
+        jdbc.update("INSERT INTO departments (id, name, created_at) VALUES (1, 'CNTT', ?)", ts(DAY));
+        jdbc.update("INSERT INTO classes (id, name, department_id, created_at) VALUES (1, 'CNTT1', 1, ?), "
+                + "(2, 'CNTT2', 1, ?)", ts(DAY), ts(DAY));
+        student(1, 1L);
+        student(2, 1L);
+        student(3, 2L);
+        student(4, null);
+
+        exam(1, "Exam A", null, DAY.minusDays(1));
+        exam(2, "Exam B", 2, DAY.minusDays(2));
+        exam(3, "Exam C", null, DAY);
+        for (long question = 1; question <= 6; question++) {
+            long examId = question <= 3 ? 1 : 2;
+            jdbc.update("INSERT INTO questions (id, exam_id, content, type, ordering, created_at, updated_at) "
+                    + "VALUES (?, ?, ?, 'MULTIPLE_CHOICE', ?, ?, ?)", question, examId, "Q" + question, question,
+                    ts(DAY), ts(DAY));
+            // Đáp án đúng: question * 10 + 1, sai: question * 10 + 2
+            jdbc.update("INSERT INTO question_options (id, question_id, content, is_correct, position, created_at) "
+                    + "VALUES (?, ?, 'A', TRUE, 1, ?), (?, ?, 'B', FALSE, 2, ?)", question * 10 + 1, question,
+                    ts(DAY), question * 10 + 2, question, ts(DAY));
+        }
+
+        attempt(1, 1, 1, 30, 20 * 60);
+        attempt(2, 2, 1, 20, 12 * 60 + 30);
+        attempt(3, 3, 1, 10, 7 * 60 + 20);
+        attempt(4, 4, 1, null, null);
+        attempt(5, 1, 1, 25, 30 * 60);
+        attempt(6, 3, 2, 20, 600);
+        attempt(7, 4, 2, 10, 600);
+        attempt(8, 2, 2, 5, 600);
+
+        answer(1, 1, true);
+        answer(1, 2, true);
+        answer(1, 3, true);
+        answer(2, 1, true);
+        answer(2, 2, false);
+        answer(2, 3, null);
+        answer(3, 1, false);
+        answer(3, 2, false);
+        answer(4, 1, true);
+
+        statsRollup.reconcile();
+        statsRollup.flush();
+    }
+
+    /**
+     Test tổng hợp theo đề, sắp xếp theo ngày tạo mới nhất
+     */
+    @Test
+    void testExamAnalytics() {
+        List<ExamAnalyticsDto> result = analyticsService.getExamAnalytics(TEACHER.toString());
+
+        assertThat(result)
+                .extracting(ExamAnalyticsDto::getExamTitle, ExamAnalyticsDto::getTotalAttempts,
+                        ExamAnalyticsDto::getTotalSubmitted, ExamAnalyticsDto::getAvgScore,
+                        ExamAnalyticsDto::getMaxScore, ExamAnalyticsDto::getMinScore)
+                .containsExactly(
+                        tuple("Exam C", 0L, 0L, null, null, null),
+                        tuple("Exam A", 5L, 4L, 21.25, 30.0, 10.0),
+                        tuple("Exam B", 3L, 3L, 11.67, 20.0, 5.0));
+    }
+
+    /**
+     Test phân bố điểm theo % tổng điểm của đề
+     */
+    @Test
+    void testScoreDistribution() {
+        List<ScoreDistributionDto> result = analyticsService.getScoreDistribution(TEACHER.toString());
+
+        assertThat(result)
+                .extracting(ScoreDistributionDto::getTitle, ScoreDistributionDto::getExcellentCount,
+                        ScoreDistributionDto::getGoodCount, ScoreDistributionDto::getAverageCount,
+                        ScoreDistributionDto::getFailCount)
+                .containsExactly(
+                        tuple("Exam A", 1L, 1L, 1L, 1L),
+                        tuple("Exam B", 1L, 0L, 1L, 1L));
+    }
+
+    /**
+     Test điểm trung bình theo lớp, chỉ tính bài đã nộp
+     */
+    @Test
+    void testClassPerformance() {
+        List<ClassPerformanceDto> result = analyticsService.getClassPerformance(1L);
+
+        assertThat(result)
+                .extracting(ClassPerformanceDto::getClassName, ClassPerformanceDto::getStudentCount,
+                        ClassPerformanceDto::getAvgScorePerClass)
+                .containsExactly(
+                        tuple("CNTT1", 2L, 25.0),
+                        tuple("CNTT2", 1L, 10.0));
+    }
+
+    /**
+     Test danh sách bài làm: bài chưa nộp đứng đầu, thời lượng tính bằng phút
+     */
+    @Test
+    void testStudentAttempts() {
+        List<StudentAttemptDto> result = analyticsService.getStudentAttempts(1L);
+
+        assertThat(result)
+                .extracting(StudentAttemptDto::getStudentCode, StudentAttemptDto::getClassName,
+                        StudentAttemptDto::getScore, StudentAttemptDto::getDurationMinutes,
+                        StudentAttemptDto::getSubmitted)
+                .containsExactly(
+                        tuple("SV4", null, null, null, false),
+                        tuple("SV1", "CNTT1", 30.0, 20.0, true),
+                        tuple("SV1", "CNTT1", 25.0, 30.0, true),
+                        tuple("SV2", "CNTT1", 20.0, 12.5, true),
+                        tuple("SV3", "CNTT2", 10.0, 7.33, true));
+        assertThat(result.get(1).getStartTime()).isEqualTo(DAY);
+        assertThat(result.get(1).getEndTime()).isEqualTo(DAY.plusMinutes(20));
+    }
+
+    /**
+     Test tỉ lệ đúng theo câu hỏi, câu khó nhất đứng đầu
+     */
+    @Test
+    void testQuestionAnalytics() {
+        List<QuestionAnalyticsDto> result = analyticsService.getQuestionAnalytics(1L);
+
+        assertThat(result)
+                .extracting(QuestionAnalyticsDto::getQuestionContent, QuestionAnalyticsDto::getTotalAnswers,
+                        QuestionAnalyticsDto::getCorrectCount, QuestionAnalyticsDto::getWrongCount,
+                        QuestionAnalyticsDto::getCorrectRate)
+                .containsExactly(
+                        tuple("Q2", 3L, 1L, 2L, 33.33),
+                        tuple("Q3", 2L, 1L, 0L, 50.0),
+                        tuple("Q1", 4L, 3L, 1L, 75.0));
+    }
+
+    private void user(UUID id, String username, String role) {
+        jdbc.update("INSERT INTO users (id, username, password_hash, full_name, email, role, status, created_at, "
+                + "updated_at) VALUES (?, ?, 'x', ?, ?, ?, 'ACTIVE', ?, ?)", id, username, username,
+                username + "@test.local", role, ts(DAY), ts(DAY));
+    }
+
+    private void student(long id, Long classId) {
+        UUID userId = UUID.nameUUIDFromBytes(("student-" + id).getBytes());
+        user(userId, "sv" + id, "STUDENT");
+        jdbc.update("INSERT INTO students (id, user_id, student_code, class_id, created_at) VALUES (?, ?, ?, ?, ?)",
+                id, userId, "SV" + id, classId, ts(DAY));
+    }
+
+    private void exam(long id, String title, Integer maxQuestions, LocalDateTime createdAt) {
+        jdbc.update("INSERT INTO exams (id, title, created_by, max_questions, random, status, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, FALSE, 'PUBLISHED', ?, ?)", id, title, TEACHER, maxQuestions, ts(createdAt),
+                ts(createdAt));
+    }
+
+    // durationSeconds null: bài đang làm, chưa nộp
+    private void attempt(long id, long studentId, long examId, Integer score, Integer durationSeconds) {
+        LocalDateTime end = durationSeconds != null ? DAY.plusSeconds(durationSeconds) : null;
+        jdbc.update("INSERT INTO exam_attempts (id, student_id, exam_id, start_time, end_time, score, submitted, "
+                + "created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", id, studentId, examId, ts(DAY), ts(end), score,
+                score != null, ts(DAY));
+    }
+
+    // correct null: câu trả lời tự luận
+    private void answer(long attemptId, long questionId, Boolean correct) {
+        Long optionId = correct == null ? null : questionId * 10 + (correct ? 1 : 2);
+        jdbc.update("INSERT INTO exam_answers (attempt_id, question_id, selected_option_id, is_correct, answer_text, "
+                + "created_at) VALUES (?, ?, ?, ?, ?, ?)", attemptId, questionId, optionId, correct,
+                correct == null ? "essay" : null, ts(DAY));
+    }
+
+    private static Timestamp ts(LocalDateTime time) {
+        return time != null ? Timestamp.valueOf(time) : null;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.qnuquiz.service.analytics;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Dashboard queries on H2 in PostgreSQL mode (dev profile).
+ */
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:analytics;MODE=PostgreSQL;DB_CLOSE_DELAY=-1")
+class AnalyticsQueriesH2Test extends AnalyticsQueriesBaseTest {
+}
@@ -0,0 +1,18 @@
+package com.example.qnuquiz.service.analytics;
+
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Dashboard queries on PostgreSQL (prod profile), in a throwaway container.
+ * Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class AnalyticsQueriesPostgresTest extends AnalyticsQueriesBaseTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+}
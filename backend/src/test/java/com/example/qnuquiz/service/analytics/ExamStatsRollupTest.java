@@ -0,0 +1,270 @@
+package com.example.qnuquiz.service.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.qnuquiz.service.exam.ExamAnswerBuffer;
+import com.example.qnuquiz.service.exam.ExamAttemptFinishedEvent;
+import com.example.qnuquiz.service.exam.ExamAttemptStartedEvent;
+import com.example.qnuquiz.service.exam.ExamContentChangedEvent;
+
+/**
+ * exam_stats / question_stats rollups: the incremental deltas must end up
+ * with the same rows as a rebuild from exam_attempts and exam_answers.
+ *
+ * Exam 1 has questions 1-10 (100 points) with options q*10+1 (correct) and
+ * q*10+2, attempts belong to student 1. Source
+ * rows are seeded by hand and the matching events are sent to the rollup,
+ * as ExamServiceImpl does. Runs without a test transaction because the
+ * rollup commits on its own; tables are emptied after each test.
+ */
+@DataJpaTest(properties = { "spring.jpa.hibernate.ddl-auto=create-drop", "spring.sql.init.mode=never" })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(ExamStatsRollup.class)
+class ExamStatsRollupTest {
+
+    private static final UUID TEACHER = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID STUDENT = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+    private static final long EXAM = 1;
+    private static final long Q1 = 1;
+    private static final long Q2 = 2;
+
+    @Autowired
+    private ExamStatsRollup rollup;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @MockitoBean
+    private ExamAnswerBuffer answerBuffer;
+
+    private Timestamp now;
+
+    @BeforeEach
+    void seed() {
+        now = new Timestamp(System.currentTimeMillis());
+        user(TEACHER, "teacher", "TEACHER");
+        user(STUDENT, "student", "STUDENT");
+        jdbc.update("INSERT INTO students (id, user_id, student_code, created_at) VALUES (1, ?, 'SV1', ?)", STUDENT,
+                now);
+        jdbc.update("INSERT INTO exams (id, title, created_by, random, status, created_at, updated_at) "
+                + "VALUES (?, 'Exam', ?, FALSE, 'PUBLISHED', ?, ?)", EXAM, TEACHER, now, now);
+        for (long q = 1; q <= 10; q++) {
+            jdbc.update("INSERT INTO questions (id, exam_id, content, type, ordering, created_at, updated_at) "
+                    + "VALUES (?, ?, 'Q', 'MULTIPLE_CHOICE', ?, ?, ?)", q, EXAM, q, now, now);
+            jdbc.update("INSERT INTO question_options (id, question_id, content, is_correct, position, created_at) "
+                    + "VALUES (?, ?, 'A', TRUE, 1, ?), (?, ?, 'B', FALSE, 2, ?)", q * 10 + 1, q, now, q * 10 + 2, q,
+                    now);
+        }
+    }
+
+    @AfterEach
+    void clear() {
+        for (String table : List.of("question_stats", "exam_stats", "exam_answers", "exam_attempts",
+                "question_options", "questions", "exams", "students", "users")) {
+            jdbc.update("DELETE FROM " + table);
+        }
+    }
+
+    /**
+     Test ranh giới dải điểm: 90%, 70%, 50% thuộc dải trên, kể cả khi tổng điểm không chia hết cho 10
+     */
+    @Test
+    void testBandBoundaries() {
+        assertThat(ExamStatsRollup.band(100, 100)).isEqualTo(0);
+        assertThat(ExamStatsRollup.band(90, 100)).isEqualTo(0);
+        assertThat(ExamStatsRollup.band(89, 100)).isEqualTo(1);
+        assertThat(ExamStatsRollup.band(70, 100)).isEqualTo(1);
+        assertThat(ExamStatsRollup.band(69, 100)).isEqualTo(2);
+        assertThat(ExamStatsRollup.band(50, 100)).isEqualTo(2);
+        assertThat(ExamStatsRollup.band(49, 100)).isEqualTo(3);
+        assertThat(ExamStatsRollup.band(0, 100)).isEqualTo(3);
+
+        // 30 điểm: 27 = 90%, 21 = 70%, 15 = 50%
+        assertThat(ExamStatsRollup.band(27, 30)).isEqualTo(0);
+        assertThat(ExamStatsRollup.band(26, 30)).isEqualTo(1);
+        assertThat(ExamStatsRollup.band(21, 30)).isEqualTo(1);
+        assertThat(ExamStatsRollup.band(20, 30)).isEqualTo(2);
+        assertThat(ExamStatsRollup.band(15, 30)).isEqualTo(2);
+        assertThat(ExamStatsRollup.band(14, 30)).isEqualTo(3);
+    }
+
+    /**
+     Test delta cộng dần cho cùng kết quả với REBUILD_EXAM_SQL / REBUILD_QUESTIONS_SQL
+     */
+    @Test
+    void testIncrementalDeltasMatchRebuild() {
+        int[] scores = { 95, 90, 89, 70, 50, 49 };
+        for (int i = 0; i < scores.length; i++) {
+            submitted(i + 1, scores[i]);
+        }
+        started(7);
+        attempt(7, null);
+
+        answered(1, Q1, true);
+        answered(1, Q2, false);
+        answered(2, Q1, false);
+        answered(2, Q2, null);
+        rollup.flush();
+
+        Map<String, Object> incremental = examStats();
+        List<Map<String, Object>> incrementalQuestions = questionStats();
+        assertThat(incremental).containsEntry("ATTEMPTS", 7L).containsEntry("SUBMITTED", 6L)
+                .containsEntry("SCORE_SUM", 443L).containsEntry("SCORE_MIN", 49).containsEntry("SCORE_MAX", 95)
+                .containsEntry("EXCELLENT_COUNT", 2L).containsEntry("GOOD_COUNT", 2L)
+                .containsEntry("AVERAGE_COUNT", 1L).containsEntry("FAIL_COUNT", 1L);
+
+        rollup.onExamContentChanged(new ExamContentChangedEvent(List.of(EXAM)));
+        rollup.flush();
+
+        verify(answerBuffer).flushAll();
+        assertThat(examStats()).isEqualTo(incremental);
+        assertThat(questionStats()).isEqualTo(incrementalQuestions);
+    }
+
+    /**
+     Test nộp lại bài không cộng điểm hai lần: đề được đếm lại từ bảng nguồn
+     */
+    @Test
+    void testResubmissionRebuildsTheExam() {
+        submitted(1, 40);
+        rollup.flush();
+        assertThat(examStats()).containsEntry("FAIL_COUNT", 1L);
+
+        jdbc.update("UPDATE exam_attempts SET score = 95 WHERE id = 1");
+        rollup.onAttemptFinished(finished(1, 95, false));
+        rollup.flush();
+
+        assertThat(examStats()).containsEntry("ATTEMPTS", 1L).containsEntry("SUBMITTED", 1L)
+                .containsEntry("SCORE_SUM", 95L).containsEntry("SCORE_MIN", 95).containsEntry("SCORE_MAX", 95)
+                .containsEntry("EXCELLENT_COUNT", 1L).containsEntry("FAIL_COUNT", 0L);
+    }
+
+    /**
+     Test đổi đáp án đúng -> sai chỉ chuyển một lượt từ correct sang wrong, tổng số câu trả lời giữ nguyên
+     */
+    @Test
+    void testCorrectToWrongMovesOneCount() {
+        attempt(1, null);
+        rollup.answerChanged(EXAM, Q1, true, null, true);
+        rollup.flush();
+        assertThat(questionStats()).singleElement().satisfies(row -> assertThat(row)
+                .containsEntry("TOTAL_ANSWERS", 1L).containsEntry("CORRECT_COUNT", 1L)
+                .containsEntry("WRONG_COUNT", 0L));
+
+        rollup.answerChanged(EXAM, Q1, false, true, false);
+        // Chọn lại đáp án sai khác: không đổi gì
+        rollup.answerChanged(EXAM, Q1, false, false, false);
+        rollup.flush();
+
+        assertThat(questionStats()).singleElement().satisfies(row -> assertThat(row)
+                .containsEntry("TOTAL_ANSWERS", 1L).containsEntry("CORRECT_COUNT", 0L)
+                .containsEntry("WRONG_COUNT", 1L));
+    }
+
+    /**
+     Test đề bị đánh dấu dirty: delta đang chờ bị bỏ vì đã nằm trong dữ liệu nguồn, không đếm hai lần
+     */
+    @Test
+    void testDirtyExamDropsPendingDeltas() {
+        attempt(1, null);
+        answer(1, Q1, Q1 * 10 + 1, true);
+        started(1);
+        rollup.answerChanged(EXAM, Q1, true, null, true);
+
+        rollup.onExamContentChanged(new ExamContentChangedEvent(List.of(EXAM)));
+        rollup.flush();
+        rollup.flush();
+
+        assertThat(examStats()).containsEntry("ATTEMPTS", 1L).containsEntry("SUBMITTED", 0L);
+        assertThat(questionStats()).singleElement().satisfies(row -> assertThat(row)
+                .containsEntry("TOTAL_ANSWERS", 1L).containsEntry("CORRECT_COUNT", 1L));
+    }
+
+    /**
+     Test reconcile đếm lại mọi đề, sửa dòng rollup bị lệch so với bảng nguồn
+     */
+    @Test
+    void testReconcileRebuildsDriftedRows() {
+        submitted(1, 80);
+        rollup.flush();
+        jdbc.update("UPDATE exam_stats SET attempts = 99, good_count = 0, fail_count = 5 WHERE exam_id = ?", EXAM);
+
+        rollup.reconcile();
+        rollup.flush();
+
+        assertThat(examStats()).containsEntry("ATTEMPTS", 1L).containsEntry("GOOD_COUNT", 1L)
+                .containsEntry("FAIL_COUNT", 0L);
+    }
+
+    private void started(long attemptId) {
+        rollup.onAttemptStarted(new ExamAttemptStartedEvent(attemptId, EXAM));
+    }
+
+    private void submitted(long attemptId, int score) {
+        attempt(attemptId, score);
+        started(attemptId);
+        rollup.onAttemptFinished(finished(attemptId, score, true));
+    }
+
+    private ExamAttemptFinishedEvent finished(long attemptId, int score, boolean firstSubmission) {
+        return new ExamAttemptFinishedEvent(attemptId, EXAM, 1, score, now, score, firstSubmission);
+    }
+
+    /**
+     * First answer of the attempt to the question; null correctness is a
+     * free-text answer.
+     */
+    private void answered(long attemptId, long questionId, Boolean correct) {
+        Long option = correct == null ? null : questionId * 10 + (correct ? 1 : 2);
+        answer(attemptId, questionId, option, correct);
+        rollup.answerChanged(EXAM, questionId, true, null, correct);
+    }
+
+    /**
+     * Attempt of student 1, submitted when it has a score.
+     */
+    private void attempt(long attemptId, Integer score) {
+        jdbc.update("INSERT INTO exam_attempts (id, student_id, exam_id, start_time, end_time, score, submitted, "
+                + "created_at) VALUES (?, 1, ?, ?, ?, ?, ?, ?)", attemptId, EXAM, now, score != null ? now : null,
+                score, score != null, now);
+    }
+
+    private void answer(long attemptId, long questionId, Long optionId, Boolean correct) {
+        jdbc.update("INSERT INTO exam_answers (attempt_id, question_id, selected_option_id, is_correct, created_at) "
+                + "VALUES (?, ?, ?, ?, ?)", attemptId, questionId, optionId, correct, now);
+    }
+
+    private void user(UUID id, String username, String role) {
+        jdbc.update("INSERT INTO users (id, username, password_hash, full_name, email, role, status, created_at, "
+                + "updated_at) VALUES (?, ?, 'x', ?, ?, ?, 'ACTIVE', ?, ?)", id, username, username,
+                username + "@test.local", role, now, now);
+    }
+
+    private Map<String, Object> examStats() {
+        return jdbc.queryForMap("SELECT attempts, submitted, score_sum, score_min, score_max, excellent_count, "
+                + "good_count, average_count, fail_count FROM exam_stats WHERE exam_id = ?", EXAM);
+    }
+
+    private List<Map<String, Object>> questionStats() {
+        return jdbc.queryForList("SELECT question_id, total_answers, correct_count, wrong_count FROM question_stats "
+                + "WHERE exam_id = ? ORDER BY question_id", EXAM);
+    }
+}
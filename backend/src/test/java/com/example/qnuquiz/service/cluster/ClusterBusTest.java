@@ -0,0 +1,197 @@
+package com.example.qnuquiz.service.cluster;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.qnuquiz.security.CustomUserDetailsService;
+import com.example.qnuquiz.service.exam.ActiveAttemptRegistry;
+import com.example.qnuquiz.service.exam.AttemptDeadlines;
+import com.example.qnuquiz.service.exam.ExamAttemptsClosedEvent;
+import com.example.qnuquiz.service.exam.ExamContentChangedEvent;
+import com.example.qnuquiz.service.exam.ExamSnapshotCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Two nodes in one JVM, connected by the in-process transport.
+ */
+class ClusterBusTest {
+
+    private ClusterBus nodeA;
+    private ClusterBus nodeB;
+
+    @BeforeEach
+    void setUp() {
+        nodeA = new ClusterBus(new InProcessTransport(), new ObjectMapper());
+        nodeB = new ClusterBus(new InProcessTransport(), new ObjectMapper());
+        nodeA.start();
+        nodeB.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.stop();
+        nodeB.stop();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /** Test node khác nhận message, node gửi không nhận lại của chính nó */
+    @Test
+    void testPublishReachesOtherNodesOnly() {
+        List<String> receivedByA = new ArrayList<>();
+        List<String> receivedByB = new ArrayList<>();
+        nodeA.subscribe("topic", receivedByA::add);
+        nodeB.subscribe("topic", receivedByB::add);
+        nodeB.subscribe("other", payload -> receivedByB.add("other:" + payload));
+
+        nodeA.publish("topic", "42");
+
+        assertThat(receivedByA).isEmpty();
+        assertThat(receivedByB).containsExactly("42");
+    }
+
+    /** Test trong transaction: chỉ gửi sau khi commit, rollback thì không gửi */
+    @Test
+    void testPublishWaitsForCommit() {
+        List<String> received = new ArrayList<>();
+        nodeB.subscribe("topic", received::add);
+
+        TransactionSynchronizationManager.initSynchronization();
+        nodeA.publish("topic", "committed");
+        assertThat(received).isEmpty();
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(received).containsExactly("committed");
+
+        TransactionSynchronizationManager.initSynchronization();
+        nodeA.publish("topic", "rolled back");
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertThat(received).containsExactly("committed");
+    }
+
+    /** Test request chờ đủ trả lời của mọi node khác; node đã dừng không còn được chờ */
+    @Test
+    void testRequestWaitsForEveryOtherNode() {
+        ClusterBus nodeC = new ClusterBus(new InProcessTransport(), new ObjectMapper());
+        nodeC.start();
+        nodeB.respond("flush", payload -> "B:" + payload);
+        nodeC.respond("flush", payload -> "C:" + payload);
+
+        // Context Spring của các test khác trong JVM cũng là node, chúng trả lời ""
+        assertThat(nodeA.request("flush", "1,2").values()).contains("B:1,2", "C:1,2");
+
+        nodeC.stop();
+        assertThat(nodeA.request("flush", "3").values()).contains("B:3").doesNotContain("C:3");
+    }
+
+    /** Test responder lỗi hoặc không trả lời kịp: request báo lỗi, người gọi không tiếp tục */
+    @Test
+    void testRequestFailsWhenANodeCannotAnswer() {
+        nodeB.respond("flush", payload -> {
+            throw new IllegalStateException("database unavailable");
+        });
+        assertThatThrownBy(() -> nodeA.request("flush", "1")).isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("failed");
+
+        CountDownLatch release = new CountDownLatch(1);
+        nodeA.respond("slow", payload -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "done";
+        });
+        ReflectionTestUtils.setField(nodeB, "requestTimeoutMs", 100L);
+        assertThatThrownBy(() -> nodeB.request("slow", "1")).isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("timed out");
+        release.countDown();
+    }
+
+    /** Test evict/clear của cache trên một node được lặp lại trên node kia */
+    @Test
+    void testCacheEvictionIsReplicated() {
+        Cache cacheA = new ClusterCacheManager(nodeA).getCache("questions");
+        Cache cacheB = new ClusterCacheManager(nodeB).getCache("questions");
+        cacheA.put(1L, "A1");
+        cacheB.put(1L, "B1");
+        cacheB.put(2L, "B2");
+        cacheB.put(new SimpleKey("x", 0), "B3");
+
+        cacheA.evict(1L);
+        assertThat(cacheB.get(1L)).isNull();
+        assertThat(cacheB.get(2L)).isNotNull();
+
+        // Khoá không mã hoá được -> node kia xoá toàn bộ cache
+        cacheA.evict(new SimpleKey("y", 1));
+        assertThat(cacheB.get(2L)).isNull();
+        assertThat(cacheB.get(new SimpleKey("x", 0))).isNull();
+    }
+
+    /** Test attempt nộp/xoá trên node A bị bỏ khỏi bộ nhớ của node B, danh sách quá dài thì xoá hết */
+    @Test
+    void testClosedAttemptsAreDroppedOnOtherNodes() {
+        ActiveAttemptRegistry attemptsA = mock(ActiveAttemptRegistry.class);
+        ActiveAttemptRegistry attemptsB = mock(ActiveAttemptRegistry.class);
+        ClusterInvalidationRelay relayA = relay(nodeA, attemptsA, mock(AttemptDeadlines.class));
+        relay(nodeB, attemptsB, mock(AttemptDeadlines.class));
+
+        relayA.onAttemptsClosed(new ExamAttemptsClosedEvent(List.of(1L, 2L)));
+        verify(attemptsB).removeAll(List.of(1L, 2L));
+        verify(attemptsB, never()).clear();
+
+        relayA.onAttemptsClosed(new ExamAttemptsClosedEvent(
+                LongStream.rangeClosed(1_000_000, 1_001_000).boxed().toList()));
+        verify(attemptsB).clear();
+        verifyNoInteractions(attemptsA);
+    }
+
+    /** Test đề sửa trên node A: node B đọc lại hạn nộp của các attempt đang mở của đề đó */
+    @Test
+    void testExamChangeReloadsDeadlinesOnOtherNodes() {
+        AttemptDeadlines deadlinesB = mock(AttemptDeadlines.class);
+        ClusterInvalidationRelay relayA = relay(nodeA, mock(ActiveAttemptRegistry.class),
+                mock(AttemptDeadlines.class));
+        relay(nodeB, mock(ActiveAttemptRegistry.class), deadlinesB);
+
+        relayA.onExamContentChanged(new ExamContentChangedEvent(List.of(3L, 4L)));
+        verify(deadlinesB).reload(List.of(3L, 4L));
+        verify(deadlinesB, never()).reconcile();
+
+        relayA.onExamContentChanged(new ExamContentChangedEvent(
+                LongStream.rangeClosed(1_000_000, 1_001_000).boxed().toList()));
+        verify(deadlinesB).reconcile();
+    }
+
+    private static ClusterInvalidationRelay relay(ClusterBus bus, ActiveAttemptRegistry activeAttempts,
+            AttemptDeadlines attemptDeadlines) {
+        ClusterInvalidationRelay relay = new ClusterInvalidationRelay(bus, mock(ExamSnapshotCache.class),
+                mock(CustomUserDetailsService.class), activeAttempts, attemptDeadlines);
+        relay.subscribe();
+        return relay;
+    }
+
+    private static void completeTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.qnuquiz.service.exam;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.qnuquiz.service.cluster.ClusterBus;
+import com.example.qnuquiz.service.impl.MediaFileServiceImpl;
+
+/**
+ * Server-side timer: the sweeper and the batch auto-finisher on real rows.
+ *
+ * Exam 1 (questions 1-3, option q*10+1 correct), attempts of student 1
+ * started in the past. No grace period and two attempts per batch. Runs without a test transaction because
+ * the finisher commits on its own; tables are emptied after each test.
+ */
+@DataJpaTest(properties = { "spring.jpa.hibernate.ddl-auto=create-drop", "spring.sql.init.mode=never",
+        "spring.datasource.url=jdbc:h2:mem:deadlines;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "exam.timer.grace-seconds=0", "exam.timer.batch-size=2" })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ AttemptDeadlines.class, AttemptAutoFinisher.class, ActiveAttemptRegistry.class, ExamAnswerBuffer.class,
+        ExamScoringEngine.class, ExamSnapshotCache.class, MediaFileServiceImpl.class })
+class AttemptDeadlinesTest {
+
+    private static final UUID TEACHER = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID STUDENT = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+    private static final long Q1 = 1;
+
+    @Autowired
+    private AttemptDeadlines deadlines;
+
+    @MockitoSpyBean
+    private AttemptAutoFinisher finisher;
+
+    // Một node: không có node khác để yêu cầu ghi buffer
+    @MockitoBean
+    private ClusterBus bus;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private Timestamp now;
+
+    @BeforeEach
+    void seed() {
+        now = new Timestamp(System.currentTimeMillis());
+        user(TEACHER, "teacher", "TEACHER");
+        user(STUDENT, "student", "STUDENT");
+        jdbc.update("INSERT INTO students (id, user_id, student_code, created_at) VALUES (1, ?, 'SV1', ?)", STUDENT,
+                now);
+    }
+
+    @AfterEach
+    void clear() {
+        for (String table : List.of("exam_answers", "exam_attempts", "question_options", "questions", "exams",
+                "students", "users")) {
+            jdbc.update("DELETE FROM " + table);
+        }
+    }
+
+    /**
+     Test sweeper nộp các attempt hết giờ theo lô, chấm điểm từ câu trả lời đã lưu, end_time = hạn nộp
+     */
+    @Test
+    void testSweepFinishesExpiredAttemptsInBatches() {
+        exam(10);
+        Timestamp start = minutesAgo(20);
+        for (long attemptId = 1; attemptId <= 3; attemptId++) {
+            attempt(attemptId, start);
+        }
+        attempt(4, minutesAgo(1));
+        jdbc.update("INSERT INTO exam_answers (attempt_id, question_id, selected_option_id, is_correct, created_at) "
+                + "VALUES (1, ?, ?, TRUE, ?)", Q1, Q1 * 10 + 1, now);
+
+        deadlines.reconcile();
+        deadlines.sweep();
+
+        verify(finisher, times(2)).finish(anyMap());
+        assertThat(submitted()).containsExactly(1L, 2L, 3L);
+        assertThat(score(1)).isEqualTo(ExamScoringEngine.POINTS_PER_CORRECT_ANSWER);
+        assertThat(score(2)).isZero();
+        Timestamp closesAt = new Timestamp(start.getTime() + Duration.ofMinutes(10).toMillis());
+        assertThat(jdbc.queryForObject("SELECT end_time FROM exam_attempts WHERE id = 3", Timestamp.class))
+                .isEqualTo(closesAt);
+
+        // Hàng đợi đã trống: lần quét sau không gọi finisher
+        deadlines.sweep();
+        verify(finisher, times(2)).finish(anyMap());
+    }
+
+    /**
+     Test sinh viên tự nộp trước khi sweeper chạy: điểm của lần nộp tay được giữ, attempt không bị nộp lại
+     */
+    @Test
+    void testManualFinishWins() {
+        exam(10);
+        Timestamp start = minutesAgo(20);
+        attempt(1, start);
+        deadlines.reconcile();
+
+        Timestamp manualEnd = minutesAgo(12);
+        jdbc.update("UPDATE exam_attempts SET submitted = TRUE, score = 30, end_time = ? WHERE id = 1", manualEnd);
+        deadlines.sweep();
+
+        assertThat(finisher.finish(Map.of(1L, new Timestamp(System.currentTimeMillis())))).isZero();
+        assertThat(score(1)).isEqualTo(30);
+        assertThat(jdbc.queryForObject("SELECT end_time FROM exam_attempts WHERE id = 1", Timestamp.class))
+                .isEqualTo(manualEnd);
+    }
+
+    /**
+     Test sửa thời lượng đề: hạn nộp của attempt đang mở được đọc lại ngay, rút ngắn thì hết giờ, gia hạn thì mở lại
+     */
+    @Test
+    void testExamChangeReloadsDeadlines() {
+        exam(60);
+        attempt(1, minutesAgo(20));
+        deadlines.reconcile();
+        deadlines.checkOpen(1);
+
+        jdbc.update("UPDATE exams SET duration_minutes = 10 WHERE id = 1");
+        deadlines.onExamContentChanged(ExamContentChangedEvent.of(1L));
+        assertThatThrownBy(() -> deadlines.checkOpen(1)).isInstanceOf(AttemptClosedException.class);
+
+        jdbc.update("UPDATE exams SET duration_minutes = 30 WHERE id = 1");
+        deadlines.onExamContentChanged(ExamContentChangedEvent.of(1L));
+        deadlines.checkOpen(1);
+        deadlines.sweep();
+        assertThat(submitted()).isEmpty();
+
+        jdbc.update("UPDATE exams SET duration_minutes = 10 WHERE id = 1");
+        deadlines.onExamContentChanged(ExamContentChangedEvent.of(1L));
+        deadlines.sweep();
+        assertThat(submitted()).containsExactly(1L);
+    }
+
+    // Exam 1 (3 câu hỏi) với thời lượng cho trước
+    private void exam(int durationMinutes) {
+        jdbc.update("INSERT INTO exams (id, title, created_by, random, status, duration_minutes, created_at, "
+                + "updated_at) VALUES (1, 'Exam', ?, FALSE, 'PUBLISHED', ?, ?, ?)", TEACHER, durationMinutes, now,
+                now);
+        for (long q = 1; q <= 3; q++) {
+            jdbc.update("INSERT INTO questions (id, exam_id, content, type, ordering, created_at, updated_at) "
+                    + "VALUES (?, 1, 'Q', 'MULTIPLE_CHOICE', ?, ?, ?)", q, q, now, now);
+            jdbc.update("INSERT INTO question_options (id, question_id, content, is_correct, position, created_at) "
+                    + "VALUES (?, ?, 'A', TRUE, 1, ?), (?, ?, 'B', FALSE, 2, ?)", q * 10 + 1, q, now, q * 10 + 2, q,
+                    now);
+        }
+    }
+
+    // Attempt chưa nộp của sinh viên 1
+    private void attempt(long attemptId, Timestamp start) {
+        jdbc.update("INSERT INTO exam_attempts (id, student_id, exam_id, start_time, submitted, created_at) "
+                + "VALUES (?, 1, 1, ?, FALSE, ?)", attemptId, start, start);
+    }
+
+    private void user(UUID id, String username, String role) {
+        jdbc.update("INSERT INTO users (id, username, password_hash, full_name, email, role, status, created_at, "
+                + "updated_at) VALUES (?, ?, 'x', ?, ?, ?, 'ACTIVE', ?, ?)", id, username, username,
+                username + "@test.local", role, now, now);
+    }
+
+    private static Timestamp minutesAgo(int minutes) {
+        return new Timestamp(System.currentTimeMillis() - Duration.ofMinutes(minutes).toMillis());
+    }
+
+    private List<Long> submitted() {
+        return jdbc.queryForList("SELECT id FROM exam_attempts WHERE submitted = TRUE ORDER BY id", Long.class);
+    }
+
+    private Integer score(long attemptId) {
+        return jdbc.queryForObject("SELECT score FROM exam_attempts WHERE id = ?", Integer.class, attemptId);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.qnuquiz.service.exam;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Answer upsert on a PostgreSQL database created before the one-row-per-question
+ * index: exam_answers has duplicate rows and no unique index. Runs in a
+ * throwaway container, skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(properties = { "spring.jpa.hibernate.ddl-auto=create-drop", "spring.sql.init.mode=never" })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(ExamAnswerBuffer.class)
+class ExamAnswerBufferPostgresTest {
+
+    private static final UUID TEACHER = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private ExamAnswerBuffer answerBuffer;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void seed() {
+        // Bỏ unique constraint do create-drop tạo từ entity, như DB cũ
+        String constraint = jdbc.queryForObject("SELECT conname FROM pg_constraint "
+                + "WHERE conrelid = 'exam_answers'::regclass AND contype = 'u'", String.class);
+        jdbc.execute("ALTER TABLE exam_answers DROP CONSTRAINT " + constraint);
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbc.update("INSERT INTO users (id, username, password_hash, full_name, email, role, status, created_at, "
+                + "updated_at) VALUES (?, 'teacher', 'x', 'Teacher', 'teacher@test.local', 'TEACHER', 'ACTIVE', ?, ?)",
+                TEACHER, now, now);
+        jdbc.update("INSERT INTO students (id, user_id, student_code, created_at) VALUES (1, ?, 'SV1', ?)", TEACHER,
+                now);
+        jdbc.update("INSERT INTO exams (id, title, created_by, random, status, created_at, updated_at) "
+                + "VALUES (1, 'Exam', ?, FALSE, 'PUBLISHED', ?, ?)", TEACHER, now, now);
+        jdbc.update("INSERT INTO questions (id, exam_id, content, type, ordering, created_at, updated_at) "
+                + "VALUES (1, 1, 'Q', 'ESSAY', 1, ?, ?), (2, 1, 'Q', 'ESSAY', 2, ?, ?)", now, now, now, now);
+        jdbc.update("INSERT INTO exam_attempts (id, student_id, exam_id, start_time, submitted, created_at) "
+                + "VALUES (1, 1, 1, ?, FALSE, ?)", now, now);
+        for (String text : List.of("cũ", "mới")) {
+            jdbc.update("INSERT INTO exam_answers (attempt_id, question_id, answer_text, created_at) "
+                    + "VALUES (1, 1, ?, ?)", text, now);
+        }
+    }
+
+    @AfterEach
+    void clear() {
+        jdbc.execute("DROP INDEX IF EXISTS ux_answers_attempt_question");
+        for (String table : List.of("exam_answers", "exam_attempts", "questions", "exams", "students", "users")) {
+            jdbc.update("DELETE FROM " + table);
+        }
+    }
+
+    /**
+     Test khởi động trên DB cũ: xoá dòng trùng (giữ dòng mới nhất), tạo unique index, sau đó upsert ghi đè đúng dòng
+     */
+    @Test
+    void testStartupAddsUniqueIndex() {
+        answerBuffer.ensureUniqueIndex();
+        // Lần khởi động sau: đã có index, không làm gì
+        answerBuffer.ensureUniqueIndex();
+
+        assertThat(jdbc.queryForList("SELECT indexname FROM pg_indexes WHERE tablename = 'exam_answers'",
+                String.class)).contains("ux_answers_attempt_question");
+        assertThat(texts()).containsExactly("mới");
+
+        answerBuffer.record(1, 1, null, null, "sửa");
+        answerBuffer.record(1, 2, null, null, "câu 2");
+        answerBuffer.flushAttempt(1);
+        assertThat(texts()).containsExactly("sửa", "câu 2");
+    }
+
+    private List<String> texts() {
+        return jdbc.queryForList("SELECT answer_text FROM exam_answers ORDER BY question_id", String.class);
+    }
+}
@@ -0,0 +1,291 @@
+package com.example.qnuquiz.service.exam;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Write-behind of exam answers: one row per (attempt, question), answers
+ * kept while the database is down, dropped only when their attempt is gone,
+ * and replayed from the journal after a restart.
+ *
+ * Runs on H2 in PostgreSQL mode (ON CONFLICT) without a test transaction,
+ * since the buffer commits in its own transactions. Questions 1-3 with
+ * options 11/12, 21/22, 31/32 (the first is correct), attempts 1 and 2;
+ * every table is emptied after each test.
+ */
+@DataJpaTest(properties = { "spring.jpa.hibernate.ddl-auto=create-drop", "spring.sql.init.mode=never",
+        "spring.datasource.url=jdbc:h2:mem:answers;MODE=PostgreSQL;DB_CLOSE_DELAY=-1" })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ExamAnswerBufferTest {
+
+    private static final UUID TEACHER = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID STUDENT = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+    private static final long Q1 = 1;
+    private static final long Q2 = 2;
+    private static final long Q3 = 3;
+
+    /**
+     * Fails every write while the database is "down".
+     */
+    static class FlakyJdbcTemplate extends JdbcTemplate {
+        boolean down;
+
+        FlakyJdbcTemplate(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            if (down) {
+                throw new DataAccessResourceFailureException("database unavailable");
+            }
+            return super.batchUpdate(sql, batchArgs);
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @TempDir
+    private Path tempDir;
+
+    private FlakyJdbcTemplate flakyJdbc;
+    private ExamAnswerBuffer buffer;
+
+    @BeforeEach
+    void seed() throws IOException {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (UUID id : List.of(TEACHER, STUDENT)) {
+            jdbc.update("INSERT INTO users (id, username, password_hash, full_name, email, role, status, "
+                    + "created_at, updated_at) VALUES (?, ?, 'x', 'User', ?, 'STUDENT', 'ACTIVE', ?, ?)", id,
+                    id.toString(), id + "@test.local", now, now);
+        }
+        jdbc.update("INSERT INTO students (id, user_id, student_code, created_at) VALUES (1, ?, 'SV1', ?)", STUDENT,
+                now);
+        jdbc.update("INSERT INTO exams (id, title, created_by, random, status, created_at, updated_at) "
+                + "VALUES (1, 'Exam', ?, FALSE, 'PUBLISHED', ?, ?)", TEACHER, now, now);
+        for (long q = Q1; q <= Q3; q++) {
+            jdbc.update("INSERT INTO questions (id, exam_id, content, type, ordering, created_at, updated_at) "
+                    + "VALUES (?, 1, 'Q', 'MULTIPLE_CHOICE', ?, ?, ?)", q, q, now, now);
+            jdbc.update("INSERT INTO question_options (id, question_id, content, is_correct, position, created_at) "
+                    + "VALUES (?, ?, 'A', TRUE, 1, ?), (?, ?, 'B', FALSE, 2, ?)", right(q), q, now, wrong(q), q,
+                    now);
+        }
+        jdbc.update("INSERT INTO exam_attempts (id, student_id, exam_id, start_time, submitted, created_at) "
+                + "VALUES (1, 1, 1, ?, FALSE, ?), (2, 1, 1, ?, FALSE, ?)", now, now, now, now);
+        flakyJdbc = new FlakyJdbcTemplate(jdbc.getDataSource());
+        buffer = buffer("interval");
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        flakyJdbc.down = true;
+        buffer.shutdown();
+        for (String table : List.of("exam_answers", "exam_attempts", "question_options", "questions", "exams",
+                "students", "users")) {
+            jdbc.update("DELETE FROM " + table);
+        }
+    }
+
+    /**
+     Test ghi đè: mỗi câu hỏi của lượt làm bài chỉ có một dòng, kể cả dòng do node khác chèn
+     */
+    @Test
+    void testFlushKeepsOneRowPerQuestion() {
+        jdbc.update("INSERT INTO exam_answers (attempt_id, question_id, selected_option_id, is_correct, created_at) "
+                + "VALUES (1, ?, ?, TRUE, CURRENT_TIMESTAMP)", Q3, right(Q3));
+
+        buffer.record(1, Q1, wrong(Q1), false);
+        buffer.flushAll();
+        buffer.record(1, Q1, right(Q1), true);
+        buffer.record(1, Q2, null, null, "tự luận");
+        buffer.record(1, Q3, wrong(Q3), false);
+        buffer.flushAll();
+
+        assertThat(answers(1)).containsExactly(
+                tuple(Q1, right(Q1), true, null),
+                tuple(Q2, null, null, "tự luận"),
+                tuple(Q3, wrong(Q3), false, null));
+        assertThat(buffer.pendingCount()).isZero();
+    }
+
+    /**
+     Test DB lỗi tạm thời: câu trả lời vẫn nằm trong buffer và được ghi ở lần flush sau
+     */
+    @Test
+    void testAnswersStayBufferedWhileDatabaseIsDown() {
+        buffer.record(1, Q1, right(Q1), true);
+        buffer.record(2, Q1, wrong(Q1), false);
+        flakyJdbc.down = true;
+
+        buffer.flushAll();
+        assertThatThrownBy(() -> buffer.flushAttempt(1)).isInstanceOf(DataAccessResourceFailureException.class);
+        assertThat(buffer.pendingCount()).isEqualTo(2);
+        assertThat(answerCount()).isZero();
+
+        flakyJdbc.down = false;
+        buffer.flushAll();
+
+        assertThat(buffer.pendingCount()).isZero();
+        assertThat(answerCount()).isEqualTo(2);
+    }
+
+    /**
+     Test seq: câu trả lời có seq nhỏ hơn seq đã lưu (node khác ghi trước) bị bỏ, câu không có seq vẫn ghi đè
+     */
+    @Test
+    void testLowerSeqNeverOverwritesStoredAnswer() {
+        buffer.record(1, Q1, right(Q1), true, null, 5L);
+        buffer.flushAll();
+
+        buffer.record(1, Q1, wrong(Q1), false, null, 3L);
+        buffer.record(1, Q2, wrong(Q2), false, null, 3L);
+        buffer.flushAll();
+        assertThat(answers(1)).containsExactly(
+                tuple(Q1, right(Q1), true, null),
+                tuple(Q2, wrong(Q2), false, null));
+        assertThat(buffer.pendingCount()).isZero();
+
+        buffer.record(1, Q1, wrong(Q1), false);
+        buffer.flushAll();
+        assertThat(answers(1)).first().isEqualTo(tuple(Q1, wrong(Q1), false, null));
+        assertThat(jdbc.queryForObject("SELECT seq FROM exam_answers WHERE attempt_id = 1 AND question_id = ?",
+                Long.class, Q1)).isEqualTo(5L);
+    }
+
+    /**
+     Test hai node flush theo thứ tự bất kỳ: câu trả lời nhận trước không ghi đè câu nhận sau, kể cả khi câu sau có seq
+     */
+    @Test
+    void testOlderAnswerFromAnotherNodeNeverOverwrites() throws Exception {
+        ExamAnswerBuffer otherNode = buffer("interval");
+        buffer.record(1, Q1, wrong(Q1), false);
+        buffer.record(1, Q2, wrong(Q2), false);
+        Thread.sleep(5);
+        otherNode.record(1, Q1, right(Q1), true);
+        otherNode.record(1, Q2, right(Q2), true, null, 4L);
+
+        otherNode.flushAll();
+        buffer.flushAll();
+
+        assertThat(answers(1)).containsExactly(
+                tuple(Q1, right(Q1), true, null),
+                tuple(Q2, right(Q2), true, null));
+        assertThat(buffer.pendingCount()).isZero();
+        otherNode.shutdown();
+    }
+
+    /**
+     Test câu trả lời của attempt đã xoá bị bỏ, các câu khác trong batch vẫn được ghi
+     */
+    @Test
+    void testAnswerOfDeletedAttemptIsDropped() {
+        buffer.record(1, Q1, right(Q1), true);
+        buffer.record(999, Q1, right(Q1), true);
+        buffer.record(2, Q2, right(Q2), true);
+
+        buffer.flushAll();
+
+        assertThat(buffer.pendingCount()).isZero();
+        assertThat(answerCount()).isEqualTo(2);
+    }
+
+    /**
+     Test journal: câu trả lời chưa ghi được đọc lại sau khi khởi động lại, dòng hỏng bị bỏ qua
+     */
+    @Test
+    void testJournalIsReplayedAfterRestart() throws IOException {
+        Path journal = tempDir.resolve("answers.log");
+        String text = Base64.getEncoder().encodeToString("câu trả lời".getBytes(StandardCharsets.UTF_8));
+        Files.writeString(journal, "1;" + Q1 + ";" + right(Q1) + ";true;;1700000000000;\n"
+                + "1;" + Q2 + ";;;" + text + ";1700000000000;\n"
+                + "1;" + Q3 + ";" + wrong(Q3) + ";false;;1700000000000;7\n"
+                + "garbage\n");
+
+        ExamAnswerBuffer restarted = buffer("journal", journal);
+        restarted.record(2, Q3, wrong(Q3), false);
+        flakyJdbc.down = true;
+        restarted.flushAll();
+        assertThat(restarted.pendingCount()).isEqualTo(4);
+        restarted.shutdown();
+
+        // Lần khởi động sau vẫn thấy cả câu vừa ghi vào journal
+        ExamAnswerBuffer again = buffer("journal", journal);
+        flakyJdbc.down = false;
+        again.flushAll();
+        again.shutdown();
+
+        assertThat(answers(1)).containsExactly(
+                tuple(Q1, right(Q1), true, null),
+                tuple(Q2, null, null, "câu trả lời"),
+                tuple(Q3, wrong(Q3), false, null));
+        assertThat(jdbc.queryForObject("SELECT seq FROM exam_answers WHERE attempt_id = 1 AND question_id = ?",
+                Long.class, Q3)).isEqualTo(7L);
+        assertThat(answers(2)).containsExactly(tuple(Q3, wrong(Q3), false, null));
+        assertThat(Files.readString(journal)).isEmpty();
+    }
+
+    private static long right(long questionId) {
+        return questionId * 10 + 1;
+    }
+
+    private static long wrong(long questionId) {
+        return questionId * 10 + 2;
+    }
+
+    private long answerCount() {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM exam_answers", Long.class);
+    }
+
+    private List<Tuple> answers(long attemptId) {
+        return jdbc.query("SELECT question_id, selected_option_id, is_correct, answer_text FROM exam_answers "
+                + "WHERE attempt_id = ? ORDER BY question_id", (rs, rowNum) -> tuple(rs.getLong(1),
+                        rs.getObject(2, Long.class), rs.getObject(3, Boolean.class), rs.getString(4)),
+                attemptId);
+    }
+
+    private ExamAnswerBuffer buffer(String durability) throws IOException {
+        return buffer(durability, tempDir.resolve("unused.log"));
+    }
+
+    private ExamAnswerBuffer buffer(String durability, Path journal) throws IOException {
+        ExamAnswerBuffer answerBuffer = new ExamAnswerBuffer(flakyJdbc, transactionTemplate);
+        ReflectionTestUtils.setField(answerBuffer, "durabilityMode", durability);
+        ReflectionTestUtils.setField(answerBuffer, "batchSize", 2);
+        ReflectionTestUtils.setField(answerBuffer, "journalPath", journal.toString());
+        answerBuffer.init();
+        return answerBuffer;
+    }
+}
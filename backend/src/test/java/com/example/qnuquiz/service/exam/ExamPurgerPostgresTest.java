@@ -0,0 +1,99 @@
+package com.example.qnuquiz.service.exam;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.qnuquiz.repository.ExamRepository;
+
+/**
+ * Soft delete on a PostgreSQL database created before it existed: exams.status
+ * is the exam_status enum with only DRAFT and PUBLISHED, as in the old
+ * data/init.sql. Runs in a throwaway container, skipped when Docker is not
+ * available. Without a test transaction: a new enum value can only be used
+ * after the statement adding it has committed.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(properties = { "spring.jpa.hibernate.ddl-auto=create-drop", "spring.sql.init.mode=never" })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(ExamPurger.class)
+class ExamPurgerPostgresTest {
+
+    private static final UUID TEACHER = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private ExamPurger examPurger;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @MockitoBean
+    private ExamAnswerBuffer answerBuffer;
+
+    @MockitoBean
+    private ActiveAttemptRegistry activeAttempts;
+
+    @BeforeEach
+    void seed() {
+        jdbc.execute("CREATE TYPE exam_status AS ENUM ('DRAFT', 'PUBLISHED')");
+        jdbc.execute("ALTER TABLE exams ALTER COLUMN status TYPE exam_status USING status::exam_status");
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbc.update("INSERT INTO users (id, username, password_hash, full_name, email, role, status, created_at, "
+                + "updated_at) VALUES (?, 'teacher', 'x', 'Teacher', 'teacher@test.local', 'TEACHER', 'ACTIVE', ?, ?)",
+                TEACHER, now, now);
+        jdbc.update("INSERT INTO exams (id, title, created_by, random, status, created_at, updated_at) "
+                + "VALUES (1, 'Exam 1', ?, FALSE, 'PUBLISHED', ?, ?), (2, 'Exam 2', ?, FALSE, 'PUBLISHED', ?, ?)",
+                TEACHER, now, now, TEACHER, now, now);
+    }
+
+    @AfterEach
+    void clear() {
+        jdbc.update("DELETE FROM exams");
+        jdbc.update("DELETE FROM users");
+        jdbc.execute("ALTER TABLE exams ALTER COLUMN status TYPE VARCHAR(255) USING status::text");
+        jdbc.execute("DROP TYPE exam_status");
+    }
+
+    /**
+     Test khởi động trên DB cũ: thêm DELETED vào enum, sau đó xoá mềm ẩn được đề qua JPA
+     */
+    @Test
+    void testStartupAddsDeletedStatus() {
+        examPurger.ensureDeletedStatus();
+        // Lần khởi động sau: đã có giá trị, không làm gì
+        examPurger.ensureDeletedStatus();
+
+        assertThat(jdbc.queryForList("SELECT unnest(enum_range(NULL::exam_status))::text", String.class))
+                .containsExactly("DRAFT", "PUBLISHED", ExamPurger.DELETED);
+        assertThat(examPurger.markDeleted(1)).isTrue();
+        assertThat(examRepository.findById(1L)).isEmpty();
+        assertThat(examRepository.findById(2L)).isPresent();
+        assertThat(examPurger.findMarkedDeleted()).containsExactly(1L);
+        assertThat(examPurger.isMarkedDeleted(1)).isTrue();
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.qnuquiz.service.exam;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.example.qnuquiz.repository.ExamRepository;
+
+/**
+ * Exam deletion: exam 1 (3 questions with options and media, 5 attempts with
+ * answers, feedbacks, leaderboard) is purged in chunks of 2 rows; exam 2 must
+ * be left untouched.
+ */
+@DataJpaTest(properties = { "spring.jpa.hibernate.ddl-auto=create-drop", "spring.sql.init.mode=never",
+        "exam.delete.chunk-size=2", "exam.delete.pause-ms=0" })
+@Import(ExamPurger.class)
+class ExamPurgerTest {
+
+    private static final UUID TEACHER = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID STUDENT = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+    @Autowired
+    private ExamPurger examPurger;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @MockitoBean
+    private ExamAnswerBuffer answerBuffer;
+
+    @MockitoBean
+    private ActiveAttemptRegistry activeAttempts;
+
+    @BeforeEach
+    void seed() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        user(TEACHER, "teacher", "TEACHER", now);
+        user(STUDENT, "student", "STUDENT", now);
+        jdbc.update("INSERT INTO students (id, user_id, student_code, created_at) VALUES (1, ?, 'SV1', ?)", STUDENT,
+                now);
+        exam(1, 3, 5, now);
+        exam(2, 1, 1, now);
+    }
+
+    /**
+     Test xoá toàn bộ dữ liệu của đề theo từng chunk, không đụng tới đề khác
+     */
+    @Test
+    void testPurgeDeletesEverythingOfTheExamOnly() {
+        long deleted = examPurger.purge(1);
+
+        // 1 đề + 3 câu hỏi + 6 đáp án + 3 media + 5 attempt + 15 câu trả lời + 4 feedback + 1 bảng xếp hạng
+        assertThat(deleted).isEqualTo(38);
+        assertThat(count("exams")).isEqualTo(1);
+        assertThat(count("questions")).isEqualTo(1);
+        assertThat(count("question_options")).isEqualTo(2);
+        assertThat(count("media_files")).isEqualTo(1);
+        assertThat(count("exam_attempts")).isEqualTo(1);
+        assertThat(count("exam_answers")).isEqualTo(1);
+        assertThat(count("feedbacks")).isEqualTo(2);
+        assertThat(count("leaderboard")).isEqualTo(1);
+        assertThat(examPurger.isMarkedDeleted(1)).isFalse();
+    }
+
+    /**
+     Test xoá mềm: đề bị ẩn khỏi JPA ngay nhưng SQL thuần vẫn thấy, dữ liệu còn nguyên chờ purge
+     */
+    @Test
+    void testMarkDeletedHidesTheExam() {
+        assertThat(examPurger.isMarkedDeleted(1)).isFalse();
+        assertThat(examPurger.markDeleted(1)).isTrue();
+
+        assertThat(examRepository.findById(1L)).isEmpty();
+        assertThat(examRepository.findById(2L)).isPresent();
+        assertThat(examPurger.isMarkedDeleted(1)).isTrue();
+        assertThat(examPurger.isMarkedDeleted(2)).isFalse();
+        assertThat(examPurger.markDeleted(1)).isFalse();
+        assertThat(examPurger.findMarkedDeleted()).containsExactly(1L);
+        assertThat(count("exam_attempts")).isEqualTo(6);
+        // Attempt chưa nộp bị bỏ khỏi bộ nhớ
+        verify(answerBuffer).discard(List.of(105L));
+        verify(activeAttempts).removeAll(List.of(105L));
+    }
+
+    private void exam(long examId, int questions, int attempts, Timestamp now) {
+        jdbc.update("INSERT INTO exams (id, title, created_by, random, status, created_at, updated_at) "
+                + "VALUES (?, ?, ?, FALSE, 'PUBLISHED', ?, ?)", examId, "Exam " + examId, TEACHER, now, now);
+        for (int i = 1; i <= questions; i++) {
+            long questionId = examId * 100 + i;
+            jdbc.update("INSERT INTO questions (id, exam_id, content, type, ordering, created_at, updated_at) "
+                    + "VALUES (?, ?, 'Q', 'MULTIPLE_CHOICE', ?, ?, ?)", questionId, examId, i, now, now);
+            jdbc.update("INSERT INTO question_options (id, question_id, content, is_correct, position, created_at) "
+                    + "VALUES (?, ?, 'A', TRUE, 1, ?), (?, ?, 'B', FALSE, 2, ?)", questionId * 10 + 1, questionId,
+                    now, questionId * 10 + 2, questionId, now);
+            jdbc.update("INSERT INTO media_files (file_name, file_url, mime_type, related_table, related_id, "
+                    + "uploaded_by, created_at) VALUES ('a.png', '/media/a.png', 'image/png', 'questions', ?, ?, ?)",
+                    String.valueOf(questionId), TEACHER, now);
+        }
+        for (int i = 1; i <= attempts; i++) {
+            long attemptId = examId * 100 + i;
+            // Attempt cuối chưa nộp
+            jdbc.update("INSERT INTO exam_attempts (id, student_id, exam_id, start_time, submitted, created_at) "
+                    + "VALUES (?, 1, ?, ?, ?, ?)", attemptId, examId, now, i < attempts || attempts == 1, now);
+            for (int q = 1; q <= questions; q++) {
+                jdbc.update("INSERT INTO exam_answers (attempt_id, question_id, selected_option_id, is_correct, "
+                        + "created_at) VALUES (?, ?, ?, TRUE, ?)", attemptId, examId * 100 + q,
+                        (examId * 100 + q) * 10 + 1, now);
+            }
+        }
+        // Một feedback cho đề và một cho mỗi câu hỏi
+        jdbc.update("INSERT INTO feedbacks (exam_id, user_id, content, status, created_at) "
+                + "VALUES (?, ?, 'Đề hay', 'PENDING', ?)", examId, STUDENT, now);
+        for (int i = 1; i <= questions; i++) {
+            jdbc.update("INSERT INTO feedbacks (exam_id, question_id, user_id, content, status, created_at) "
+                    + "VALUES (?, ?, ?, 'Sai đáp án', 'PENDING', ?)", examId, examId * 100 + i, STUDENT, now);
+        }
+        jdbc.update("INSERT INTO leaderboard (student_id, exam_id, score, rank, generated_at) "
+                + "VALUES (1, ?, 10, 1, ?)", examId, now);
+    }
+
+    private long count(String table) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+
+    private void user(UUID id, String username, String role, Timestamp now) {
+        jdbc.update("INSERT INTO users (id, username, password_hash, full_name, email, role, status, created_at, "
+                + "updated_at) VALUES (?, ?, 'x', ?, ?, ?, 'ACTIVE', ?, ?)", id, username, username,
+                username + "@test.local", role, now, now);
+    }
+}
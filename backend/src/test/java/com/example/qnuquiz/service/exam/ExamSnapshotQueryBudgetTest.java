@@ -0,0 +1,99 @@
+package com.example.qnuquiz.service.exam;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.qnuquiz.config.QueryCountConfig;
+import com.example.qnuquiz.service.impl.MediaFileServiceImpl;
+import com.example.qnuquiz.util.QueryBudget;
+import com.example.qnuquiz.util.QueryCounter;
+
+/**
+ * Query budget of the exam snapshot: one query per table whatever the
+ * number of questions, none once cached.
+ */
+@DataJpaTest(properties = { "spring.jpa.hibernate.ddl-auto=create-drop", "spring.sql.init.mode=never",
+        "monitoring.query-count.enabled=true" })
+@Import({ QueryCountConfig.class, ExamSnapshotCache.class, MediaFileServiceImpl.class })
+class ExamSnapshotQueryBudgetTest {
+
+    private static final UUID TEACHER = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    @Autowired
+    private ExamSnapshotCache snapshotCache;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void seed() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbc.update("INSERT INTO users (id, username, password_hash, full_name, email, role, status, created_at, "
+                + "updated_at) VALUES (?, 'teacher', 'x', 'teacher', 'teacher@test.local', 'TEACHER', 'ACTIVE', ?, ?)",
+                TEACHER, now, now);
+        exam(1, 3, now);
+        exam(2, 30, now);
+    }
+
+    /**
+     Test số câu lệnh SQL không phụ thuộc số câu hỏi (exam, questions, options, media)
+     */
+    @Test
+    void testSnapshotQueriesDoNotGrowWithQuestions() {
+        QueryCounter.Stats small = QueryBudget.measure(() -> snapshotCache.get(1));
+        QueryCounter.Stats large = QueryBudget.measure(() -> snapshotCache.get(2));
+
+        assertThat(small.statements()).isPositive().isEqualTo(large.statements());
+        QueryBudget.assertAtMost(4, large);
+        assertThat(large.repeated(2)).isEmpty();
+    }
+
+    /**
+     Test snapshot đã cache thì không chạy câu lệnh nào
+     */
+    @Test
+    void testCachedSnapshotRunsNoQuery() {
+        snapshotCache.get(2);
+
+        ExamSnapshot snapshot = QueryBudget.atMost(0, () -> snapshotCache.get(2));
+
+        assertThat(snapshot.size()).isEqualTo(30);
+    }
+
+    /**
+     Test đếm số dòng đọc được và số câu lệnh
+     */
+    @Test
+    void testCountsRowsFetched() {
+        QueryCounter.Stats stats = QueryBudget.measure(
+                () -> jdbc.queryForList("SELECT id FROM question_options WHERE question_id IN (101, 102)"));
+
+        assertThat(stats.statements()).isEqualTo(1);
+        assertThat(stats.rows()).isEqualTo(4);
+    }
+
+    private void exam(long examId, int questions, Timestamp now) {
+        jdbc.update("INSERT INTO exams (id, title, created_by, random, status, created_at, updated_at) "
+                + "VALUES (?, ?, ?, FALSE, 'PUBLISHED', ?, ?)", examId, "Exam " + examId, TEACHER, now, now);
+        for (int i = 1; i <= questions; i++) {
+            long questionId = examId * 100 + i;
+            jdbc.update("INSERT INTO questions (id, exam_id, content, type, ordering, created_at, updated_at) "
+                    + "VALUES (?, ?, 'Q', 'MULTIPLE_CHOICE', ?, ?, ?)", questionId, examId, i, now, now);
+            jdbc.update("INSERT INTO question_options (id, question_id, content, is_correct, position, created_at) "
+                    + "VALUES (?, ?, 'A', TRUE, 1, ?), (?, ?, 'B', FALSE, 2, ?)", questionId * 10 + 1, questionId,
+                    now, questionId * 10 + 2, questionId, now);
+            jdbc.update("INSERT INTO media_files (file_name, file_url, mime_type, related_table, related_id, "
+                    + "uploaded_by, created_at) VALUES ('a.png', '/media/a.png', 'image/png', 'questions', ?, ?, ?)",
+                    String.valueOf(questionId), TEACHER, now);
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package com.example.qnuquiz.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doAnswer;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.qnuquiz.dto.exam.AnswerItemDto;
+import com.example.qnuquiz.dto.exam.AnswerItemResultDto;
+import com.example.qnuquiz.dto.exam.ExamResultDto;
+import com.example.qnuquiz.dto.questions.QuestionDTO;
+import com.example.qnuquiz.dto.questions.QuestionOptionDto;
+import com.example.qnuquiz.entity.ExamAttempts;
+import com.example.qnuquiz.mapper.ExamCategoryMapper;
+import com.example.qnuquiz.mapper.ExamMapper;
+import com.example.qnuquiz.mapper.QuestionMapper;
+import com.example.qnuquiz.repository.ExamAnswerRepository;
+import com.example.qnuquiz.repository.ExamAttemptRepository;
+import com.example.qnuquiz.service.JobService;
+import com.example.qnuquiz.service.analytics.ExamStatsRollup;
+import com.example.qnuquiz.service.cluster.ClusterBus;
+import com.example.qnuquiz.service.cluster.InProcessTransport;
+import com.example.qnuquiz.service.exam.ActiveAttempt;
+import com.example.qnuquiz.service.exam.ActiveAttemptRegistry;
+import com.example.qnuquiz.service.exam.AnswerKey;
+import com.example.qnuquiz.service.exam.AttemptClosedException;
+import com.example.qnuquiz.service.exam.AttemptDeadlines;
+import com.example.qnuquiz.service.exam.ExamAnswerBuffer;
+import com.example.qnuquiz.service.exam.ExamAttemptFinishedEvent;
+import com.example.qnuquiz.service.exam.ExamMetrics;
+import com.example.qnuquiz.service.exam.ExamPurger;
+import com.example.qnuquiz.service.exam.ExamScoringEngine;
+import com.example.qnuquiz.service.exam.ExamSnapshotCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Grading through the real snapshot, answer key and ExamServiceImpl: what
+ * students receive, which bulk answers are applied (client seq) and how a
+ * finished attempt is scored.
+ *
+ * Exam 1 with questions 1-3 and options q*10+1 (correct) and q*10+2,
+ * attempt 1 of student 1. The Spring context is node A; tests that need a
+ * second node start node B by hand on the same database and the
+ * in-process cluster transport.
+ * Runs without a test transaction because the answer buffer commits on its
+ * own; tables are emptied after each test.
+ */
+@DataJpaTest(properties = { "spring.jpa.hibernate.ddl-auto=create-drop", "spring.sql.init.mode=never",
+        "spring.datasource.url=jdbc:h2:mem:scoring;MODE=PostgreSQL;DB_CLOSE_DELAY=-1" })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ ExamServiceImpl.class, ExamSnapshotCache.class, MediaFileServiceImpl.class, ExamScoringEngine.class,
+        ActiveAttemptRegistry.class, ExamAnswerBuffer.class, ExamMetrics.class, SimpleMeterRegistry.class,
+        ClusterBus.class, InProcessTransport.class, ObjectMapper.class })
+@RecordApplicationEvents
+class ExamScoringTest {
+
+    private static final UUID TEACHER = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID STUDENT = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+    private static final long Q1 = 1;
+    private static final long Q2 = 2;
+    private static final long Q3 = 3;
+
+    @Autowired
+    private ExamServiceImpl examService;
+
+    @Autowired
+    private ExamScoringEngine scoringEngine;
+
+    @Autowired
+    private ActiveAttemptRegistry activeAttempts;
+
+    @Autowired
+    private ExamAnswerBuffer answerBuffer;
+
+    @MockitoSpyBean
+    private ExamAttemptRepository examAttemptRepository;
+
+    @Autowired
+    private ExamAnswerRepository examAnswerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Autowired
+    private SimpleMeterRegistry meterRegistry;
+
+    @MockitoBean
+    private ExamCategoryMapper examCategoryMapper;
+
+    @MockitoBean
+    private ExamMapper examMapper;
+
+    @MockitoBean
+    private QuestionMapper questionMapper;
+
+    @MockitoBean
+    private AttemptDeadlines attemptDeadlines;
+
+    @MockitoBean
+    private ExamStatsRollup statsRollup;
+
+    @MockitoBean
+    private ExamPurger examPurger;
+
+    @MockitoBean
+    private JobService jobService;
+
+    private ClusterBus busB;
+    private ExamAnswerBuffer answerBufferB;
+    private ActiveAttemptRegistry activeAttemptsB;
+
+    @BeforeEach
+    void seed() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        user(TEACHER, "teacher", "TEACHER", now);
+        user(STUDENT, "student", "STUDENT", now);
+        jdbc.update("INSERT INTO students (id, user_id, student_code, created_at) VALUES (1, ?, 'SV1', ?)", STUDENT,
+                now);
+        jdbc.update("INSERT INTO exams (id, title, created_by, random, status, created_at, updated_at) "
+                + "VALUES (1, 'Exam', ?, FALSE, 'PUBLISHED', ?, ?)", TEACHER, now, now);
+        for (long q = Q1; q <= Q3; q++) {
+            jdbc.update("INSERT INTO questions (id, exam_id, content, type, ordering, created_at, updated_at) "
+                    + "VALUES (?, 1, ?, 'MULTIPLE_CHOICE', ?, ?, ?)", q, "Q" + q, q, now, now);
+            jdbc.update("INSERT INTO question_options (id, question_id, content, is_correct, position, created_at) "
+                    + "VALUES (?, ?, 'A', TRUE, 1, ?), (?, ?, 'B', FALSE, 2, ?)", right(q), q, now, wrong(q), q,
+                    now);
+        }
+        jdbc.update("INSERT INTO exam_attempts (id, student_id, exam_id, start_time, submitted, created_at) "
+                + "VALUES (1, 1, 1, ?, FALSE, ?)", now, now);
+    }
+
+    @AfterEach
+    void clear() throws IOException {
+        if (busB != null) {
+            answerBufferB.shutdown();
+            busB.stop();
+        }
+        activeAttempts.remove(1);
+        for (String table : List.of("exam_answers", "exam_attempts", "question_options", "questions", "exams",
+                "students", "users")) {
+            jdbc.update("DELETE FROM " + table);
+        }
+    }
+
+    /**
+     Test câu hỏi gửi cho sinh viên không có cờ đáp án đúng, kể cả với đáp án đúng, và JSON không chứa cờ này
+     */
+    @Test
+    void testQuestionsForStudentsCarryNoCorrectFlag() throws Exception {
+        List<QuestionDTO> questions = examService.getQuestionsForExam(1L);
+
+        String json = new ObjectMapper().writeValueAsString(questions);
+
+        assertThat(questions).hasSize(3).allSatisfy(q -> assertThat(q.getOptions()).hasSize(2)
+                .allSatisfy(option -> assertThat(option.getCorrect()).isNull()));
+        assertThat(questions.get(0).getOptions()).extracting(QuestionOptionDto::getId).contains(right(Q1));
+        assertThat(json).doesNotContainIgnoringCase("correct");
+    }
+
+    /**
+     Test answer key trong bộ nhớ khớp với question_options.is_correct trong DB
+     */
+    @Test
+    void testAnswerKeyMatchesCorrectOptions() {
+        AnswerKey answerKey = scoringEngine.answerKey(1);
+
+        List<Map<String, Object>> options = jdbc.queryForList(
+                "SELECT id, question_id, is_correct FROM question_options");
+
+        assertThat(options).hasSize(6).allSatisfy(option -> {
+            long optionId = ((Number) option.get("id")).longValue();
+            assertThat(answerKey.questionOf(optionId)).isEqualTo(((Number) option.get("question_id")).longValue());
+            assertThat(answerKey.isCorrect(optionId)).isEqualTo(option.get("is_correct"));
+        });
+        assertThat(answerKey.questionOf(999L)).isEqualTo(AnswerKey.UNKNOWN);
+    }
+
+    /**
+     Test nộp bài chấm từ lựa chọn trong bộ nhớ: attempt nạp lại từ DB giữ câu đã lưu, câu trả lời mới được ghi khi nộp
+     */
+    @Test
+    void testFinishScoresSelectionsInMemory() {
+        // Câu 1 đã lưu trước khi khởi động lại
+        jdbc.update("INSERT INTO exam_answers (attempt_id, question_id, selected_option_id, is_correct, created_at) "
+                + "VALUES (1, ?, ?, TRUE, CURRENT_TIMESTAMP)", Q1, right(Q1));
+        examService.submitAnswer(1L, Q2, wrong(Q2));
+        examService.submitAnswer(1L, Q2, right(Q2));
+        examService.submitAnswer(1L, Q3, wrong(Q3));
+
+        ExamResultDto result = examService.finishExam(1L);
+
+        assertThat(result.getCorrectCount()).isEqualTo(2);
+        assertThat(result.getTotalQuestions()).isEqualTo(3);
+        assertThat(result.getScore()).isEqualTo(2 * ExamScoringEngine.POINTS_PER_CORRECT_ANSWER);
+        assertThat(jdbc.queryForObject("SELECT score FROM exam_attempts WHERE id = 1", Integer.class))
+                .isEqualTo(result.getScore());
+        assertThat(storedOption(Q2)).isEqualTo(right(Q2));
+        assertThat(storedOption(Q3)).isEqualTo(wrong(Q3));
+    }
+
+    /**
+     Test sweeper nộp attempt ngay sau khi finishExam đọc nó: lần nộp tay không ghi đè và không được tính thêm lần nữa
+     */
+    @Test
+    void testFinishLosesToSweeper() {
+        examService.submitAnswer(1L, Q1, right(Q1));
+        // Spy của repository Spring Data không gọi được hàm thật của chính nó: đọc bằng hàm khác
+        doAnswer(invocation -> {
+            Optional<ExamAttempts> attempt = examAttemptRepository.findAllById(List.of(1L)).stream().findFirst();
+            jdbc.update("UPDATE exam_attempts SET submitted = TRUE, score = 0, end_time = CURRENT_TIMESTAMP "
+                    + "WHERE id = 1");
+            return attempt;
+        }).when(examAttemptRepository).findById(1L);
+
+        assertThatThrownBy(() -> examService.finishExam(1L)).isInstanceOf(AttemptClosedException.class);
+
+        assertThat(jdbc.queryForObject("SELECT score FROM exam_attempts WHERE id = 1", Integer.class)).isZero();
+        assertThat(events.stream(ExamAttemptFinishedEvent.class)).isEmpty();
+        assertThat(meterRegistry.find("qnuquiz.exam.operation").tag("operation", ExamMetrics.FINISH)
+                .tag("outcome", "closed").timer()).isNotNull();
+    }
+
+    /**
+     Test sinh viên chuyển sang node B giữa bài: node A ghi và bỏ attempt khi B nạp, nộp ở A chờ B ghi buffer trước khi chấm
+     */
+    @Test
+    void testAttemptMovesBetweenNodes() throws IOException {
+        startNodeB();
+        examService.submitAnswer(1L, Q1, right(Q1));
+
+        ActiveAttempt onB = activeAttemptsB.get(1);
+        assertThat(onB.selections()).containsEntry(Q1, right(Q1));
+        onB.select(Q2, right(Q2), (firstAnswer, replaced) -> answerBufferB.record(1, Q2, right(Q2), true));
+
+        ExamResultDto result = examService.finishExam(1L);
+
+        assertThat(result.getCorrectCount()).isEqualTo(2);
+        assertThat(storedOption(Q2)).isEqualTo(right(Q2));
+        assertThat(answerBufferB.pendingCount()).isZero();
+    }
+
+    /**
+     Test node B nhận câu trả lời trong khi node A vẫn giữ attempt (hai tab): nộp ở A chấm lại từ exam_answers
+     */
+    @Test
+    void testFinishRereadsAnswersBufferedOnAnotherNode() throws IOException {
+        startNodeB();
+        examService.submitAnswer(1L, Q1, right(Q1));
+        examService.submitAnswer(1L, Q2, wrong(Q2));
+        answerBuffer.flushAttempt(1);
+        answerBufferB.record(1, Q2, right(Q2), true);
+
+        ExamResultDto result = examService.finishExam(1L);
+
+        assertThat(result.getCorrectCount()).isEqualTo(2);
+        assertThat(storedOption(Q2)).isEqualTo(right(Q2));
+    }
+
+    /**
+     Test gửi lại cùng seq hoặc seq nhỏ hơn là DUPLICATE và không đổi câu trả lời đã lưu
+     */
+    @Test
+    void testRetriedBulkAnswerIsDuplicate() {
+        assertThat(statuses(bulk(2, Q1, right(Q1)))).containsExactly(AnswerItemResultDto.ACCEPTED);
+        assertThat(statuses(bulk(2, Q1, right(Q1)))).containsExactly(AnswerItemResultDto.DUPLICATE);
+        assertThat(statuses(bulk(1, Q1, wrong(Q1)))).containsExactly(AnswerItemResultDto.DUPLICATE);
+
+        assertThat(storedOption(Q1)).isEqualTo(right(Q1));
+    }
+
+    /**
+     Test seq đã lưu trong DB vẫn được dùng sau khi attempt bị đẩy khỏi bộ nhớ (khởi động lại, node khác)
+     */
+    @Test
+    void testSeqSurvivesReload() {
+        bulk(5, Q1, right(Q1));
+        activeAttempts.remove(1);
+
+        assertThat(statuses(bulk(3, Q1, wrong(Q1)))).containsExactly(AnswerItemResultDto.DUPLICATE);
+        assertThat(statuses(bulk(6, Q1, wrong(Q1)))).containsExactly(AnswerItemResultDto.ACCEPTED);
+        assertThat(storedOption(Q1)).isEqualTo(wrong(Q1));
+    }
+
+    /**
+     Test node khác đã ghi seq mới hơn: câu trả lời cũ của node này không ghi đè khi flush
+     */
+    @Test
+    void testStaleSeqFromThisNodeIsNotWritten() {
+        bulk(1, Q1, wrong(Q1));
+        // Node khác nhận seq 5 của cùng câu hỏi
+        jdbc.update("UPDATE exam_answers SET selected_option_id = ?, is_correct = TRUE, seq = 5 "
+                + "WHERE attempt_id = 1 AND question_id = ?", right(Q1), Q1);
+
+        bulk(3, Q1, wrong(Q1));
+
+        assertThat(storedOption(Q1)).isEqualTo(right(Q1));
+    }
+
+    private static long right(long questionId) {
+        return questionId * 10 + 1;
+    }
+
+    private static long wrong(long questionId) {
+        return questionId * 10 + 2;
+    }
+
+    // Node B: cùng DB, buffer và bộ nhớ attempt riêng, nối với node A qua transport trong JVM
+    private void startNodeB() throws IOException {
+        busB = new ClusterBus(new InProcessTransport(), new ObjectMapper());
+        busB.start();
+        answerBufferB = new ExamAnswerBuffer(jdbc, transactionTemplate);
+        ReflectionTestUtils.setField(answerBufferB, "durabilityMode", "interval");
+        ReflectionTestUtils.setField(answerBufferB, "batchSize", 500);
+        answerBufferB.init();
+        activeAttemptsB = new ActiveAttemptRegistry(examAttemptRepository, examAnswerRepository, answerBufferB,
+                busB);
+        activeAttemptsB.subscribe();
+    }
+
+    private void user(UUID id, String username, String role, Timestamp now) {
+        jdbc.update("INSERT INTO users (id, username, password_hash, full_name, email, role, status, created_at, "
+                + "updated_at) VALUES (?, ?, 'x', ?, ?, ?, 'ACTIVE', ?, ?)", id, username, username,
+                username + "@test.local", role, now, now);
+    }
+
+    private List<AnswerItemResultDto> bulk(long seq, long questionId, long optionId) {
+        return examService.submitAnswers(1L, List.of(AnswerItemDto.builder()
+                .seq(seq).questionId(questionId).optionId(optionId).build())).getItems();
+    }
+
+    private static List<String> statuses(List<AnswerItemResultDto> items) {
+        return items.stream().map(AnswerItemResultDto::getStatus).toList();
+    }
+
+    private Long storedOption(long questionId) {
+        return jdbc.queryForObject("SELECT selected_option_id FROM exam_answers WHERE attempt_id = 1 "
+                + "AND question_id = ?", Long.class, questionId);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.qnuquiz.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.example.qnuquiz.config.QueryCountConfig;
+import com.example.qnuquiz.dto.page.CursorPage;
+import com.example.qnuquiz.dto.page.CursorRequest;
+import com.example.qnuquiz.dto.questions.QuestionDTO;
+import com.example.qnuquiz.mapper.QuestionMapper;
+import com.example.qnuquiz.service.JobService;
+import com.example.qnuquiz.util.QueryBudget;
+import com.example.qnuquiz.util.QueryCounter;
+
+/**
+ * Query budget of the teacher's question list: options and media are read
+ * once per page, not once per question.
+ *
+ * Exam 1 has 3 questions, exam 2 has 30, each question with one image and
+ * the options q*10+1 (correct) and q*10+2.
+ */
+@DataJpaTest(properties = { "spring.jpa.hibernate.ddl-auto=create-drop", "spring.sql.init.mode=never",
+        "monitoring.query-count.enabled=true" })
+@Import({ QueryCountConfig.class, QuestionServiceImpl.class, MediaFileServiceImpl.class })
+class QuestionListQueryBudgetTest {
+
+    private static final UUID TEACHER = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    @Autowired
+    private QuestionServiceImpl questionService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @MockitoBean
+    private QuestionMapper questionMapper;
+
+    @MockitoBean
+    private JobService jobService;
+
+    @MockitoBean
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void seed() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbc.update("INSERT INTO users (id, username, password_hash, full_name, email, role, status, created_at, "
+                + "updated_at) VALUES (?, 'teacher', 'x', 'Teacher', 'teacher@test.local', 'TEACHER', 'ACTIVE', ?, ?)",
+                TEACHER, now, now);
+        exam(1, 3, now);
+        exam(2, 30, now);
+    }
+
+    /**
+     Test số câu lệnh SQL của một trang không phụ thuộc số câu hỏi trong trang
+     */
+    @Test
+    void testPageQueriesDoNotGrowWithQuestions() {
+        CursorRequest page = CursorRequest.builder().size(50).build();
+
+        QueryCounter.Stats small = QueryBudget.measure(() -> questionService.getAllQuestions(1L, null, null, page));
+        QueryCounter.Stats large = QueryBudget.measure(() -> questionService.getAllQuestions(2L, null, null, page));
+
+        assertThat(small.statements()).isPositive().isEqualTo(large.statements());
+        QueryBudget.assertAtMost(3, large);
+    }
+
+    /**
+     Test mỗi câu hỏi vẫn có đủ đáp án (kèm cờ đúng cho giáo viên) và media của nó
+     */
+    @Test
+    void testPageKeepsOptionsAndMediaOfEachQuestion() {
+        CursorPage<QuestionDTO> page = questionService.getAllQuestions(2L, null, null,
+                CursorRequest.builder().size(10).build());
+
+        assertThat(page.getItems()).hasSize(10).allSatisfy(question -> {
+            assertThat(question.getOptions()).extracting("id", "correct").containsExactlyInAnyOrder(
+                    tuple(question.getId() * 10 + 1, true), tuple(question.getId() * 10 + 2, false));
+            assertThat(question.getMediaFiles()).hasSize(1);
+            assertThat(question.getMediaUrl()).isEqualTo("/media/a.png");
+        });
+        assertThat(page.isHasMore()).isTrue();
+    }
+
+    private void exam(long examId, int questions, Timestamp now) {
+        jdbc.update("INSERT INTO exams (id, title, created_by, random, status, created_at, updated_at) "
+                + "VALUES (?, ?, ?, FALSE, 'PUBLISHED', ?, ?)", examId, "Exam " + examId, TEACHER, now, now);
+        for (int i = 1; i <= questions; i++) {
+            long questionId = examId * 100 + i;
+            jdbc.update("INSERT INTO questions (id, exam_id, content, type, ordering, created_at, updated_at) "
+                    + "VALUES (?, ?, 'Q', 'MULTIPLE_CHOICE', ?, ?, ?)", questionId, examId, i, now, now);
+            jdbc.update("INSERT INTO question_options (id, question_id, content, is_correct, position, created_at) "
+                    + "VALUES (?, ?, 'A', TRUE, 1, ?), (?, ?, 'B', FALSE, 2, ?)", questionId * 10 + 1, questionId,
+                    now, questionId * 10 + 2, questionId, now);
+            jdbc.update("INSERT INTO media_files (file_name, file_url, mime_type, related_table, related_id, "
+                    + "uploaded_by, created_at) VALUES ('a.png', '/media/a.png', 'image/png', 'questions', ?, ?, ?)",
+                    String.valueOf(questionId), TEACHER, now);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.qnuquiz.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.example.qnuquiz.config.QueryCountConfig;
+import com.example.qnuquiz.dto.page.CursorPage;
+import com.example.qnuquiz.dto.page.CursorRequest;
+import com.example.qnuquiz.dto.student.ExamAnswerHistoryDto;
+import com.example.qnuquiz.dto.student.ExamHistoryDto;
+import com.example.qnuquiz.entity.Users;
+import com.example.qnuquiz.mapper.StudentMapper;
+import com.example.qnuquiz.security.CustomUserDetails;
+import com.example.qnuquiz.service.JobService;
+import com.example.qnuquiz.service.StudentService;
+import com.example.qnuquiz.service.exam.ExamAnswerBuffer;
+import com.example.qnuquiz.util.QueryBudget;
+
+import jakarta.persistence.EntityNotFoundException;
+
+/**
+ * Exam history of StudentServiceImpl: pages of attempts and their answers
+ * with a fixed number of queries, whatever the number of attempts.
+ *
+ * Student 1: 30 attempts (ids 1..30), 3 answers each; student 2: attempt 31.
+ */
+@DataJpaTest(properties = { "spring.jpa.hibernate.ddl-auto=create-drop", "spring.sql.init.mode=never",
+        "monitoring.query-count.enabled=true" })
+@Import({ QueryCountConfig.class, StudentServiceImpl.class })
+class StudentExamHistoryQueryTest {
+
+    private static final UUID TEACHER = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID STUDENT = UUID.fromString("00000000-0000-0000-0000-000000000002");
+    private static final UUID OTHER_STUDENT = UUID.fromString("00000000-0000-0000-0000-000000000003");
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @MockitoBean
+    private StudentMapper studentMapper;
+
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+
+    @MockitoBean
+    private JobService jobService;
+
+    @MockitoBean
+    private ExamAnswerBuffer answerBuffer;
+
+    @BeforeEach
+    void seed() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        user(TEACHER, "teacher", "TEACHER", now);
+        user(STUDENT, "student", "STUDENT", now);
+        user(OTHER_STUDENT, "other", "STUDENT", now);
+        jdbc.update("INSERT INTO students (id, user_id, student_code, created_at) VALUES (1, ?, 'SV1', ?), "
+                + "(2, ?, 'SV2', ?)", STUDENT, now, OTHER_STUDENT, now);
+        jdbc.update("INSERT INTO exams (id, title, created_by, random, status, duration_minutes, created_at, "
+                + "updated_at) VALUES (1, 'Exam A', ?, FALSE, 'PUBLISHED', 45, ?, ?)", TEACHER, now, now);
+        for (long question = 1; question <= 3; question++) {
+            jdbc.update("INSERT INTO questions (id, exam_id, content, type, ordering, created_at, updated_at) "
+                    + "VALUES (?, 1, ?, 'MULTIPLE_CHOICE', ?, ?, ?)", question, "Q" + question, question, now, now);
+            jdbc.update("INSERT INTO question_options (id, question_id, content, is_correct, position, created_at) "
+                    + "VALUES (?, ?, 'A', TRUE, 1, ?)", question * 10 + 1, question, now);
+        }
+        for (long attempt = 1; attempt <= 31; attempt++) {
+            Timestamp start = new Timestamp(now.getTime() - attempt * 3_600_000);
+            jdbc.update("INSERT INTO exam_attempts (id, student_id, exam_id, start_time, end_time, score, submitted, "
+                    + "created_at) VALUES (?, ?, 1, ?, ?, ?, TRUE, ?)", attempt, attempt <= 30 ? 1 : 2, start,
+                    new Timestamp(start.getTime() + 20 * 60_000), (int) attempt, start);
+            for (long question = 1; question <= 3; question++) {
+                jdbc.update("INSERT INTO exam_answers (attempt_id, question_id, selected_option_id, is_correct, "
+                        + "created_at) VALUES (?, ?, ?, TRUE, ?)", attempt, question, question * 10 + 1, now);
+            }
+        }
+        login(STUDENT, "student");
+    }
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     Test trang lịch sử kèm câu trả lời: số truy vấn không phụ thuộc số lần làm bài
+     */
+    @Test
+    void testHistoryWithAnswersUsesFixedQueries() {
+        CursorPage<ExamHistoryDto> page = QueryBudget.atMost(3,
+                () -> studentService.getExamHistory(CursorRequest.builder().size(30).build(), true));
+
+        assertThat(page.getItems()).hasSize(30);
+        assertThat(page.isHasMore()).isFalse();
+        ExamHistoryDto latest = page.getItems().get(0);
+        assertThat(latest.getAttemptId()).isEqualTo(30L);
+        assertThat(latest.getExamTitle()).isEqualTo("Exam A");
+        assertThat(latest.getExamDurationMinutes()).isEqualTo(45);
+        assertThat(latest.getDurationMinutes()).isEqualTo(20L);
+        assertThat(latest.getAnswers())
+                .extracting(ExamAnswerHistoryDto::getQuestionContent, ExamAnswerHistoryDto::getSelectedOptionId)
+                .containsExactly(
+                        tuple("Q1", 11L),
+                        tuple("Q2", 21L),
+                        tuple("Q3", 31L));
+    }
+
+    /**
+     Test phân trang keyset, mới nhất trước, không kèm câu trả lời
+     */
+    @Test
+    void testHistoryPagesWithoutAnswers() {
+        CursorPage<ExamHistoryDto> first = QueryBudget.atMost(2,
+                () -> studentService.getExamHistory(CursorRequest.builder().size(20).build(), false));
+        CursorPage<ExamHistoryDto> second = studentService.getExamHistory(
+                CursorRequest.builder().size(20).cursor(first.getNextCursor()).build(), false);
+
+        assertThat(first.isHasMore()).isTrue();
+        assertThat(first.getItems().get(0).getAnswers()).isNull();
+        assertThat(second.isHasMore()).isFalse();
+        assertThat(second.getItems()).extracting(ExamHistoryDto::getAttemptId)
+                .containsExactly(10L, 9L, 8L, 7L, 6L, 5L, 4L, 3L, 2L, 1L);
+    }
+
+    /**
+     Test tải câu trả lời theo từng lần làm bài, chỉ của sinh viên hiện tại
+     */
+    @Test
+    void testAnswersOfOneAttempt() {
+        List<ExamAnswerHistoryDto> answers = studentService.getExamHistoryAnswers(5L);
+
+        assertThat(answers).hasSize(3);
+        assertThatThrownBy(() -> studentService.getExamHistoryAnswers(31L))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+
+    private void user(UUID id, String username, String role, Timestamp now) {
+        jdbc.update("INSERT INTO users (id, username, password_hash, full_name, email, role, status, created_at, "
+                + "updated_at) VALUES (?, ?, 'x', ?, ?, ?, 'ACTIVE', ?, ?)", id, username, username,
+                username + "@test.local", role, now, now);
+    }
+
+    private void login(UUID id, String username) {
+        Users user = new Users();
+        user.setId(id);
+        user.setUsername(username);
+        user.setRole("STUDENT");
+        CustomUserDetails principal = new CustomUserDetails(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
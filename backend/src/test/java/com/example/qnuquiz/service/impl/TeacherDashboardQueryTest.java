@@ -0,0 +1,186 @@
+package com.example.qnuquiz.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.example.qnuquiz.config.CacheConfig;
+import com.example.qnuquiz.config.QueryCountConfig;
+import com.example.qnuquiz.dto.teacher.TeacherNotificationDto;
+import com.example.qnuquiz.dto.teacher.TeacherStatsDTO;
+import com.example.qnuquiz.entity.Users;
+import com.example.qnuquiz.mapper.TeacherMapper;
+import com.example.qnuquiz.security.CustomUserDetails;
+import com.example.qnuquiz.service.exam.ExamAttemptStartedEvent;
+import com.example.qnuquiz.util.QueryBudget;
+
+/**
+ * Teacher dashboard of TeacherServiceImpl: one grouped query for all the
+ * teacher's exams, served from the cache until an attempt changes it.
+ *
+ * Teacher 1: exam 1 (3 questions, 2 scored attempts, 1 feedback) and exam 2
+ * (2 questions, 1 attempt without score); teacher 2: exam 3.
+ */
+@DataJpaTest(properties = { "spring.jpa.hibernate.ddl-auto=create-drop", "spring.sql.init.mode=never",
+        "monitoring.query-count.enabled=true" })
+@Import({ QueryCountConfig.class, TeacherServiceImpl.class, TeacherDashboardQueryTest.Caches.class })
+class TeacherDashboardQueryTest {
+
+    private static final UUID TEACHER = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID OTHER_TEACHER = UUID.fromString("00000000-0000-0000-0000-000000000002");
+    private static final UUID STUDENT = UUID.fromString("00000000-0000-0000-0000-000000000003");
+    private static final UUID OTHER_STUDENT = UUID.fromString("00000000-0000-0000-0000-000000000004");
+
+    @TestConfiguration
+    static class Caches {
+        @Bean
+        CacheManager cacheManager() {
+            return new CaffeineCacheManager();
+        }
+    }
+
+    @Autowired
+    private TeacherServiceImpl teacherService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockitoBean
+    private TeacherMapper teacherMapper;
+
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void seed() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        user(TEACHER, "teacher", "TEACHER", now);
+        user(OTHER_TEACHER, "other-teacher", "TEACHER", now);
+        user(STUDENT, "student", "STUDENT", now);
+        user(OTHER_STUDENT, "other-student", "STUDENT", now);
+        jdbc.update("INSERT INTO teachers (id, user_id, teacher_code, created_at) VALUES (1, ?, 'GV1', ?), "
+                + "(2, ?, 'GV2', ?)", TEACHER, now, OTHER_TEACHER, now);
+        jdbc.update("INSERT INTO classes (id, name, created_at) VALUES (1, 'CNTT1', ?)", now);
+        jdbc.update("INSERT INTO students (id, user_id, class_id, student_code, created_at) VALUES (1, ?, 1, 'SV1', ?), "
+                + "(2, ?, NULL, 'SV2', ?)", STUDENT, now, OTHER_STUDENT, now);
+        exam(1, TEACHER, 3, now);
+        exam(2, TEACHER, 2, now);
+        exam(3, OTHER_TEACHER, 1, now);
+        attempt(1, 1, 1, 8, now);
+        attempt(2, 2, 1, 6, now);
+        attempt(3, 1, 2, null, now);
+        attempt(4, 2, 3, 10, now);
+        jdbc.update("INSERT INTO feedbacks (id, exam_id, question_id, user_id, content, status, created_at) "
+                + "VALUES (1, 1, 101, ?, 'Sai đáp án', 'PENDING', ?), (2, 3, 301, ?, 'Khó hiểu', 'PENDING', ?)",
+                STUDENT, now, OTHER_STUDENT, now);
+        login(TEACHER, "teacher");
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+        cacheManager.getCache(CacheConfig.TEACHER_DASHBOARD).clear();
+    }
+
+    /**
+     Test thống kê tất cả đề của giáo viên trong một truy vấn gom nhóm, lần sau lấy từ cache
+     */
+    @Test
+    void testStatsUseOneGroupedQueryThenCache() {
+        TeacherStatsDTO stats = QueryBudget.atMost(2, () -> teacherService.getTeacherStats());
+
+        assertThat(stats.getTeacherCode()).isEqualTo("GV1");
+        assertThat(stats.getFullName()).isEqualTo("teacher");
+        assertThat(stats.getTotalExams()).isEqualTo(2);
+        assertThat(stats.getTotalQuestions()).isEqualTo(5);
+        assertThat(stats.getTotalExamAttempts()).isEqualTo(3);
+        assertThat(stats.getTotalStudents()).isEqualTo(2);
+        assertThat(stats.getAverageScore()).isEqualTo(7.0);
+        assertThat(stats.getTotalFeedbacks()).isEqualTo(1);
+
+        assertThat(QueryBudget.atMost(0, () -> teacherService.getTeacherStats())).isSameAs(stats);
+    }
+
+    /**
+     Test lượt làm bài mới xoá thống kê đã cache của giáo viên tạo đề
+     */
+    @Test
+    void testAttemptEvictsCachedStats() {
+        teacherService.getTeacherStats();
+        attempt(5, 2, 2, 9, new Timestamp(System.currentTimeMillis()));
+
+        teacherService.onAttemptStarted(new ExamAttemptStartedEvent(5, 2));
+        TeacherStatsDTO stats = teacherService.getTeacherStats();
+
+        assertThat(stats.getTotalExamAttempts()).isEqualTo(4);
+        assertThat(stats.getAverageScore()).isEqualTo(7.67);
+    }
+
+    /**
+     Test vấn đề của lớp lấy trong một truy vấn, kèm mã sinh viên và lớp
+     */
+    @Test
+    void testClassIssuesOfOwnExamsOnly() {
+        TeacherNotificationDto notifications = QueryBudget.atMost(6,
+                () -> teacherService.getNotificationsForCurrentTeacher());
+
+        assertThat(notifications.getClassIssues()).singleElement().satisfies(issue -> {
+            assertThat(issue.getExamId()).isEqualTo(1L);
+            assertThat(issue.getStudentCode()).isEqualTo("SV1");
+            assertThat(issue.getClassName()).isEqualTo("CNTT1");
+            assertThat(issue.getQuestionContent()).isEqualTo("Q101");
+        });
+    }
+
+    private void exam(long examId, UUID creator, int questions, Timestamp now) {
+        jdbc.update("INSERT INTO exams (id, title, created_by, random, status, created_at, updated_at) "
+                + "VALUES (?, ?, ?, FALSE, 'PUBLISHED', ?, ?)", examId, "Exam " + examId, creator, now, now);
+        for (int i = 1; i <= questions; i++) {
+            long questionId = examId * 100 + i;
+            jdbc.update("INSERT INTO questions (id, exam_id, content, type, ordering, created_at, updated_at) "
+                    + "VALUES (?, ?, ?, 'MULTIPLE_CHOICE', ?, ?, ?)", questionId, examId, "Q" + questionId, i, now,
+                    now);
+        }
+    }
+
+    private void attempt(long attemptId, long studentId, long examId, Integer score, Timestamp now) {
+        jdbc.update("INSERT INTO exam_attempts (id, student_id, exam_id, start_time, score, submitted, created_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)", attemptId, studentId, examId, now, score, score != null, now);
+    }
+
+    private void user(UUID id, String username, String role, Timestamp now) {
+        jdbc.update("INSERT INTO users (id, username, password_hash, full_name, email, role, status, created_at, "
+                + "updated_at) VALUES (?, ?, 'x', ?, ?, ?, 'ACTIVE', ?, ?)", id, username, username,
+                username + "@test.local", role, now, now);
+    }
+
+    private void login(UUID id, String username) {
+        Users user = new Users();
+        user.setId(id);
+        user.setUsername(username);
+        user.setRole("TEACHER");
+        CustomUserDetails principal = new CustomUserDetails(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.qnuquiz.service.importer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.qnuquiz.dto.job.JobDto;
+import com.example.qnuquiz.service.exam.ExamSnapshotCache;
+import com.example.qnuquiz.service.impl.MediaFileServiceImpl;
+import com.example.qnuquiz.service.job.JobCancelledException;
+import com.example.qnuquiz.service.job.JobContext;
+import com.example.qnuquiz.service.job.TestJobs;
+import com.example.qnuquiz.util.TestXlsx;
+
+/**
+ * Question bank import into exam 1 (no questions yet), two rows per chunk.
+ * Runs without a test transaction because every chunk commits on its own.
+ */
+@DataJpaTest(properties = { "spring.jpa.hibernate.ddl-auto=create-drop", "spring.sql.init.mode=never",
+        "import.batch-size=2" })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ QuestionImporter.class, ExamSnapshotCache.class, MediaFileServiceImpl.class })
+class QuestionImporterTest {
+
+    private static final UUID TEACHER = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    @Autowired
+    private QuestionImporter importer;
+
+    @Autowired
+    private ExamSnapshotCache snapshotCache;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void seed() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbc.update("INSERT INTO users (id, username, password_hash, full_name, email, role, status, created_at, "
+                + "updated_at) VALUES (?, 'teacher', 'x', 'Teacher', 'teacher@test.local', 'TEACHER', 'ACTIVE', ?, ?)",
+                TEACHER, now, now);
+        jdbc.update("INSERT INTO exams (id, title, created_by, random, status, created_at, updated_at) "
+                + "VALUES (1, 'Exam', ?, FALSE, 'PUBLISHED', ?, ?)", TEACHER, now, now);
+    }
+
+    @AfterEach
+    void clear() {
+        for (String table : List.of("question_options", "questions", "exams", "users")) {
+            jdbc.update("DELETE FROM " + table);
+        }
+    }
+
+    /**
+     Test mỗi dòng lỗi có số dòng Excel và lý do, dòng trống và header không tính, chunk hợp lệ vẫn được lưu
+     */
+    @Test
+    void testRejectedRowsAndCommittedChunks() throws Exception {
+        Path file = TestXlsx.write(dir.resolve("q.xlsx"),
+                new Object[] { "content", "option 1", "option 2", "option 3", "option 4", "correct" },
+                question("Q1", 1),
+                question("Q2", 4),
+                new Object[] { "", "" },
+                question("", 1),
+                question("Q5", 5),
+                question("Q6", 2.5),
+                new Object[] { "Q7", "A", "B", "", "D", 3 },
+                // Quá độ dài cột content: cả chunk (Q8, Q9) bị từ chối
+                question("Q".repeat(300), 1),
+                question("Q9", 2),
+                question("Q10", "=1+1"));
+        JobContext job = job(file, Integer.MAX_VALUE);
+
+        importer.run(job);
+
+        JobDto report = TestJobs.report(job);
+        assertThat(report.getProcessed()).isEqualTo(9);
+        assertThat(report.getSucceeded()).isEqualTo(3);
+        assertThat(report.getRejected()).isEqualTo(6);
+        assertThat(report.getErrors()).extracting("item").containsExactly(5L, 6L, 7L, 8L, 9L, 10L);
+        assertThat(report.getErrors()).extracting("message").startsWith(
+                "Question content is empty",
+                "Correct option must be a number from 1 to 4",
+                "Correct option must be a number from 1 to 4",
+                "Correct option 3 is empty");
+        assertThat(report.getErrors().subList(4, 6)).extracting("message")
+                .allSatisfy(message -> assertThat((String) message).startsWith("Could not be saved"));
+
+        assertThat(jdbc.query("SELECT q.content, o.position FROM questions q JOIN question_options o "
+                + "ON o.question_id = q.id WHERE q.exam_id = 1 AND o.is_correct ORDER BY q.ordering",
+                (rs, rowNum) -> tuple(rs.getString(1), rs.getInt(2))))
+                .containsExactly(tuple("Q1", 1), tuple("Q2", 4), tuple("Q10", 2));
+        assertThat(count("question_options")).isEqualTo(12);
+    }
+
+    /**
+     Test import bị huỷ giữa chừng: chunk đã commit được giữ và snapshot của đề vẫn bị làm mới
+     */
+    @Test
+    void testCancelledImportKeepsChunksAndRefreshesSnapshot() throws Exception {
+        assertThat(snapshotCache.get(1).size()).isZero();
+        Path file = TestXlsx.write(dir.resolve("q.xlsx"),
+                new Object[] { "content" },
+                question("Q1", 1),
+                question("Q2", 2),
+                question("Q3", 3),
+                question("Q4", 4));
+        JobContext job = job(file, 3);
+
+        assertThatThrownBy(() -> importer.run(job)).isInstanceOf(JobCancelledException.class);
+
+        assertThat(count("questions")).isEqualTo(2);
+        assertThat(TestJobs.report(job).getSucceeded()).isEqualTo(2);
+        assertThat(snapshotCache.get(1).size()).isEqualTo(2);
+    }
+
+    private JobContext job(Path file, int cancelAfter) {
+        return TestJobs.context(QuestionImporter.TYPE, TEACHER, Map.of("examId", "1"), file,
+                dir.resolve("result"), cancelAfter);
+    }
+
+    private long count(String table) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+
+    private static Object[] question(String content, Object correct) {
+        return new Object[] { content, "A", "B", "C", "D", correct };
+    }
+}
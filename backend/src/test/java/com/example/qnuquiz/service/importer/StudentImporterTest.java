@@ -0,0 +1,199 @@
+package com.example.qnuquiz.service.importer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.qnuquiz.dto.job.JobDto;
+import com.example.qnuquiz.service.job.JobContext;
+import com.example.qnuquiz.service.job.TestJobs;
+import com.example.qnuquiz.util.TestXlsx;
+
+/**
+ * Student list import, two rows per chunk, against department "CNTT" with
+ * class "K45A" and an existing student SV0. The password encoder fails for
+ * phone "000" to simulate a hashing error. Runs without a test transaction
+ * because every chunk commits on its own.
+ */
+@DataJpaTest(properties = { "spring.jpa.hibernate.ddl-auto=create-drop", "spring.sql.init.mode=never",
+        "import.batch-size=2", "import.hash-workers=2" })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ StudentImporter.class, StudentImporterTest.Config.class })
+class StudentImporterTest {
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        PasswordEncoder passwordEncoder() {
+            return new PasswordEncoder() {
+                @Override
+                public String encode(CharSequence raw) {
+                    if ("000".contentEquals(raw)) {
+                        throw new IllegalStateException("hash failed");
+                    }
+                    return "hash:" + raw;
+                }
+
+                @Override
+                public boolean matches(CharSequence raw, String encoded) {
+                    return encoded.equals(encode(raw));
+                }
+            };
+        }
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager("allUsers");
+        }
+    }
+
+    private static final UUID OWNER = UUID.randomUUID();
+    private static final UUID STUDENT = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    @Autowired
+    private StudentImporter importer;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void seed() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbc.update("INSERT INTO departments (id, name, created_at) VALUES (1, 'CNTT', ?), (2, 'Toán', ?)", now,
+                now);
+        jdbc.update("INSERT INTO classes (id, name, department_id, created_at) VALUES (1, 'K45A', 1, ?), "
+                + "(2, 'K45T', 2, ?)", now, now);
+        jdbc.update("INSERT INTO users (id, username, password_hash, full_name, email, role, status, created_at, "
+                + "updated_at) VALUES (?, 'SV0', 'x', 'SV0', 'sv0@test.local', 'STUDENT', 'ACTIVE', ?, ?)", STUDENT,
+                now, now);
+        jdbc.update("INSERT INTO students (id, user_id, class_id, student_code, created_at) "
+                + "VALUES (1, ?, 1, 'SV0', ?)", STUDENT, now);
+    }
+
+    @AfterEach
+    void clear() {
+        for (String table : List.of("students", "users", "classes", "departments")) {
+            jdbc.update("DELETE FROM " + table);
+        }
+    }
+
+    /**
+     Test lý do từ chối: trùng DB, trùng trong chính file, thiếu mã/điện thoại, khoa/lớp không tồn tại hoặc lớp khác khoa
+     */
+    @Test
+    void testValidationRejections() throws Exception {
+        JobDto report = importFile(
+                student("SV1", "0901", "CNTT", "K45A", "3.456"),
+                student("SV0", "0902", "CNTT", "K45A", ""),
+                student("SV1", "0903", "CNTT", "K45A", ""),
+                student("", "0904", "CNTT", "K45A", ""),
+                student("SV5", "", "CNTT", "K45A", ""),
+                student("SV6", "0906", "Vật lý", "K45A", ""),
+                student("SV7", "0907", "CNTT", "K99", ""),
+                student("SV8", "0908", "CNTT", "K45T", ""));
+
+        assertThat(report.getProcessed()).isEqualTo(8);
+        assertThat(report.getSucceeded()).isEqualTo(1);
+        assertThat(report.getErrors()).extracting("item", "message").containsExactly(
+                tuple(3L, "Mã sinh viên đã tồn tại: SV0"),
+                tuple(4L, "Mã sinh viên đã tồn tại: SV1"),
+                tuple(5L, "Thiếu mã sinh viên hoặc số điện thoại"),
+                tuple(6L, "Thiếu mã sinh viên hoặc số điện thoại"),
+                tuple(7L, "Không tìm thấy khoa: Vật lý"),
+                tuple(8L, "Không tìm thấy lớp: K99 thuộc khoa: CNTT"),
+                tuple(9L, "Không tìm thấy lớp: K45T thuộc khoa: CNTT"));
+
+        assertThat(jdbc.queryForMap("SELECT u.username, u.password_hash, u.phone_number, s.class_id, s.gpa "
+                + "FROM users u JOIN students s ON s.user_id = u.id WHERE s.student_code = 'SV1'"))
+                .containsEntry("USERNAME", "SV1")
+                .containsEntry("PASSWORD_HASH", "hash:0901")
+                .containsEntry("PHONE_NUMBER", "0901")
+                .containsEntry("CLASS_ID", 1L)
+                .containsEntry("GPA", new BigDecimal("3.46"));
+    }
+
+    /**
+     Test chunk lỗi khi ghi (GPA vượt cột) được ghi lại từng dòng: chỉ dòng lỗi bị từ chối
+     */
+    @Test
+    void testFailedChunkFallsBackToRowByRow() throws Exception {
+        JobDto report = importFile(
+                student("SV1", "0901", "CNTT", "K45A", "15"),
+                student("SV2", "0902", "CNTT", "K45A", "3"),
+                student("SV3", "0903", "Toán", "K45T", "2"));
+
+        assertThat(report.getSucceeded()).isEqualTo(2);
+        assertThat(report.getErrors()).extracting("item").containsExactly(2L);
+        assertThat(report.getErrors().get(0).getMessage()).startsWith("Không lưu được");
+        assertThat(jdbc.queryForList("SELECT student_code FROM students ORDER BY student_code", String.class))
+                .containsExactly("SV0", "SV2", "SV3");
+        // Không còn user mồ côi của dòng lỗi
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM users", Long.class)).isEqualTo(3);
+    }
+
+    /**
+     Test lỗi tạo mật khẩu chỉ từ chối dòng đó, cache allUsers bị xoá sau khi import
+     */
+    @Test
+    void testHashingErrorRejectsOnlyThatRow() throws Exception {
+        cacheManager.getCache("allUsers").put("all", List.of());
+
+        JobDto report = importFile(
+                student("SV1", "000", "CNTT", "K45A", ""),
+                student("SV2", "0902", "CNTT", "K45A", ""),
+                student("SV3", "000", "CNTT", "K45A", ""));
+
+        assertThat(report.getSucceeded()).isEqualTo(1);
+        assertThat(report.getErrors()).extracting("item", "message").containsExactly(
+                tuple(2L, "Không tạo được mật khẩu: hash failed"),
+                tuple(4L, "Không tạo được mật khẩu: hash failed"));
+        assertThat(jdbc.queryForList("SELECT student_code FROM students ORDER BY student_code", String.class))
+                .containsExactly("SV0", "SV2");
+        assertThat(cacheManager.getCache("allUsers").get("all")).isNull();
+    }
+
+    private JobDto importFile(Object[]... students) throws Exception {
+        Object[][] rows = new Object[students.length + 1][];
+        rows[0] = new Object[] { "no.", "student code", "full name", "phone", "email", "department", "class", "gpa" };
+        System.arraycopy(students, 0, rows, 1, students.length);
+        Path file = TestXlsx.write(dir.resolve("students.xlsx"), rows);
+
+        JobContext job = TestJobs.context(StudentImporter.TYPE, OWNER, Map.of(), file,
+                dir.resolve("result"));
+        importer.run(job);
+        return TestJobs.report(job);
+    }
+
+    private static Object[] student(String code, String phone, String department, String className, String gpa) {
+        return new Object[] { 1, code, "Student " + code, phone, code + "@test.local", department, className, gpa };
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.qnuquiz.service.importer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.qnuquiz.util.TestXlsx;
+
+/**
+ * Cell values and row numbers as {@link XlsxRowReader} passes them to the
+ * importers.
+ */
+class XlsxRowReaderTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     Test header là dòng 0, ô thiếu ở giữa là "", số không có ".0", công thức lấy giá trị đã tính, chữ được trim
+     */
+    @Test
+    void testCellsAsDisplayed() throws IOException {
+        Path file = TestXlsx.write(dir.resolve("a.xlsx"),
+                new Object[] { "content", "option 1" },
+                new Object[] { "  Q1  ", null, "B", 3 },
+                new Object[] { "Q2", 2.5, "=1+1" });
+
+        Map<Integer, List<String>> rows = read(file);
+
+        assertThat(rows).containsExactly(
+                Map.entry(0, List.of("content", "option 1")),
+                Map.entry(1, List.of("Q1", "", "B", "3")),
+                Map.entry(2, List.of("Q2", "2.5", "2")));
+    }
+
+    /**
+     Test dòng không có trong sheet bị bỏ qua (số dòng giữ nguyên), dòng chỉ có ô rỗng vẫn được đọc
+     */
+    @Test
+    void testMissingAndBlankRows() throws IOException {
+        Path file = TestXlsx.write(dir.resolve("a.xlsx"),
+                new Object[] { "header" },
+                null,
+                new Object[] { "", "  " },
+                new Object[] { "Q3" });
+
+        Map<Integer, List<String>> rows = read(file);
+
+        assertThat(rows).containsOnlyKeys(0, 2, 3);
+        assertThat(rows.get(2)).containsOnly("");
+        assertThat(rows.get(3)).containsExactly("Q3");
+    }
+
+    /**
+     Test file không phải .xlsx báo IOException dễ hiểu
+     */
+    @Test
+    void testRejectsNonXlsxFile() throws IOException {
+        Path file = Files.writeString(dir.resolve("a.xlsx"), "content,option 1\n");
+
+        assertThatThrownBy(() -> read(file))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("only .xlsx is supported");
+    }
+
+    private static Map<Integer, List<String>> read(Path file) throws IOException {
+        Map<Integer, List<String>> rows = new LinkedHashMap<>();
+        XlsxRowReader.read(file, rows::put);
+        return rows;
+    }
+}
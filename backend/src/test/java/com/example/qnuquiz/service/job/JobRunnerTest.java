@@ -0,0 +1,223 @@
+package com.example.qnuquiz.service.job;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.qnuquiz.dto.job.JobDto;
+import com.example.qnuquiz.entity.BackgroundJobs;
+import com.example.qnuquiz.repository.BackgroundJobRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Two runners on one database, as two backend nodes. Runs without a test
+ * transaction because the runners commit on their own threads.
+ */
+@DataJpaTest(properties = { "spring.jpa.hibernate.ddl-auto=create-drop", "spring.sql.init.mode=never" })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(JobFileStore.class)
+class JobRunnerTest {
+
+    private static final UUID OWNER = UUID.randomUUID();
+
+    @Autowired
+    private BackgroundJobRepository jobRepository;
+
+    @Autowired
+    private JobFileStore fileStore;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @TempDir
+    Path dir;
+
+    private final List<JobRunner> runners = new ArrayList<>();
+
+    @AfterEach
+    void clear() {
+        runners.forEach(JobRunner::shutdown);
+        jdbc.update("DELETE FROM background_job_files");
+        jdbc.update("DELETE FROM background_jobs");
+    }
+
+    /**
+     Test khi khởi động chỉ job RUNNING mất heartbeat bị FAILED, job node khác còn chạy thì giữ nguyên
+     */
+    @Test
+    void testRecoverFailsOnlyStaleJobs() throws Exception {
+        long now = System.currentTimeMillis();
+        UUID alive = runningJob("other-node", new Timestamp(now));
+        UUID stale = runningJob("dead-node", new Timestamp(now - 600_000));
+        UUID legacy = runningJob(null, null);
+
+        runner("a", 0).recover();
+
+        assertThat(jobRepository.findById(alive).orElseThrow().getStatus()).isEqualTo(JobDto.RUNNING);
+        assertThat(jobRepository.findById(stale).orElseThrow().getStatus()).isEqualTo(JobDto.FAILED);
+        assertThat(jobRepository.findById(legacy).orElseThrow().getStatus()).isEqualTo(JobDto.FAILED);
+    }
+
+    /**
+     Test chỉ đọc params của job cùng loại đang QUEUED hoặc RUNNING
+     */
+    @Test
+    void testActiveParamsSkipFinishedJobs() throws Exception {
+        job("WAIT", JobDto.QUEUED, "{\"examId\":\"1\"}");
+        job("WAIT", JobDto.RUNNING, "{\"examId\":\"2\"}");
+        job("WAIT", JobDto.FAILED, "{\"examId\":\"3\"}");
+        job("UPPER", JobDto.QUEUED, "{\"examId\":\"4\"}");
+
+        assertThat(runner("a", 0).activeParams("WAIT"))
+                .containsExactlyInAnyOrder(Map.of("examId", "1"), Map.of("examId", "2"));
+    }
+
+    /**
+     Test file upload ở node A được node B chạy, kết quả tải được từ node A
+     */
+    @Test
+    void testUploadAndResultAreSharedBetweenNodes() throws Exception {
+        JobRunner a = runner("a", 0);
+        JobRunner b = runner("b", 1);
+
+        BackgroundJobs job = a.enqueue("UPPER", OWNER, Map.of(),
+                new MockMultipartFile("file", "in.txt", "text/plain", "hello".getBytes(StandardCharsets.UTF_8)));
+        assertThat(job.getStatus()).isEqualTo(JobDto.QUEUED);
+
+        b.poll();
+        BackgroundJobs done = awaitFinished(job.getId());
+
+        assertThat(done.getStatus()).isEqualTo(JobDto.COMPLETED);
+        assertThat(done.getNodeId()).isNotNull();
+        Path result = a.resultFile(job.getId()).orElseThrow();
+        assertThat(Files.readString(result)).isEqualTo("HELLO");
+    }
+
+    /**
+     Test hủy job ở node A, node B dừng job sau lần flush tiến độ tiếp theo
+     */
+    @Test
+    void testCancelReachesTheRunningNode() throws Exception {
+        JobRunner a = runner("a", 0);
+        JobRunner b = runner("b", 1);
+
+        BackgroundJobs job = a.enqueue("WAIT", OWNER, Map.of(), null);
+        b.poll();
+        awaitStatus(job.getId(), JobDto.RUNNING);
+
+        assertThat(a.cancel(job.getId())).isTrue();
+        b.flushProgress();
+
+        BackgroundJobs done = awaitFinished(job.getId());
+        assertThat(done.getStatus()).isEqualTo(JobDto.CANCELLED);
+        assertThat(done.isCancelRequested()).isTrue();
+    }
+
+    private JobRunner runner(String storage, int workers) throws Exception {
+        JobRunner runner = new JobRunner(jobRepository, fileStore, new TransactionTemplate(transactionManager),
+                new ObjectMapper(), List.of(new UpperHandler(), new WaitHandler()));
+        ReflectionTestUtils.setField(runner, "workers", workers);
+        ReflectionTestUtils.setField(runner, "queueCapacity", 20);
+        ReflectionTestUtils.setField(runner, "storageDir", dir.resolve(storage).toString());
+        ReflectionTestUtils.setField(runner, "retentionHours", 24);
+        ReflectionTestUtils.setField(runner, "staleAfterSeconds", 60);
+        runner.init();
+        runners.add(runner);
+        return runner;
+    }
+
+    private UUID runningJob(String nodeId, Timestamp heartbeatAt) {
+        BackgroundJobs job = new BackgroundJobs(UUID.randomUUID(), "WAIT", JobDto.RUNNING, OWNER, "{}",
+                new Timestamp(System.currentTimeMillis()));
+        job.setNodeId(nodeId);
+        job.setHeartbeatAt(heartbeatAt);
+        return jobRepository.save(job).getId();
+    }
+
+    private void job(String type, String status, String params) {
+        jobRepository.save(new BackgroundJobs(UUID.randomUUID(), type, status, OWNER, params,
+                new Timestamp(System.currentTimeMillis())));
+    }
+
+    private BackgroundJobs awaitFinished(UUID id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        BackgroundJobs job = jobRepository.findById(id).orElseThrow();
+        while (job.getFinishedAt() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            job = jobRepository.findById(id).orElseThrow();
+        }
+        return job;
+    }
+
+    private void awaitStatus(UUID id, String status) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!status.equals(jobRepository.findById(id).orElseThrow().getStatus())
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    /**
+     * Writes the upload in upper case as the result.
+     */
+    private static class UpperHandler implements JobHandler {
+
+        @Override
+        public String type() {
+            return "UPPER";
+        }
+
+        @Override
+        public void run(JobContext context) throws Exception {
+            String input = Files.readString(context.getInputFile());
+            try (OutputStream out = context.openResult("out.txt", "text/plain")) {
+                out.write(input.toUpperCase().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    /**
+     * Runs until it is cancelled.
+     */
+    private static class WaitHandler implements JobHandler {
+
+        @Override
+        public String type() {
+            return "WAIT";
+        }
+
+        @Override
+        public void run(JobContext context) throws Exception {
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (System.currentTimeMillis() < deadline) {
+                context.checkCancelled();
+                Thread.sleep(10);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.qnuquiz.service.job;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.Map;
+import java.util.UUID;
+
+import com.example.qnuquiz.dto.job.JobDto;
+
+/**
+ * Builds {@link JobContext}s for handler tests without a {@link JobRunner}.
+ */
+public final class TestJobs {
+
+    private TestJobs() {
+    }
+
+    public static JobContext context(String type, UUID ownerId, Map<String, String> params, Path inputFile,
+            Path resultFile) {
+        return context(type, ownerId, params, inputFile, resultFile, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Context that is cancelled once {@code cancelAfter} items have been processed,
+     * as if the owner pressed cancel while the job was running.
+     */
+    public static JobContext context(String type, UUID ownerId, Map<String, String> params, Path inputFile,
+            Path resultFile, int cancelAfter) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        return new JobContext(UUID.randomUUID(), type, ownerId, params, inputFile, resultFile, now, now) {
+            @Override
+            public void processed(int count) {
+                super.processed(count);
+                if (getProcessed() >= cancelAfter) {
+                    cancel();
+                }
+            }
+        };
+    }
+
+    /**
+     * Counters and item errors of the context, as a status request sees them.
+     */
+    public static JobDto report(JobContext context) {
+        return context.toDto();
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.qnuquiz.service.page;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import com.example.qnuquiz.dto.page.CursorPage;
+import com.example.qnuquiz.dto.page.CursorRequest;
+
+/**
+ * Cursor encoding and request validation of {@link KeysetPaging}, without a
+ * database.
+ */
+class KeysetPagingTest {
+
+    private static final Set<String> SORTABLE = Set.of("id", "createdAt", "title");
+
+    /**
+     Test cursor giải mã lại đúng giá trị và đúng kiểu của mọi loại khoá, kể cả NULL
+     */
+    @Test
+    void testCursorRoundTripsEveryKeyType() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("l", 42L);
+        keys.put("i", 7);
+        keys.put("t", Timestamp.valueOf("2025-01-02 03:04:05.678"));
+        keys.put("u", UUID.fromString("00000000-0000-0000-0000-000000000001"));
+        keys.put("s", "a|b=c;đ");
+        keys.put("n", null);
+        Sort sort = Sort.by("l", "i", "t", "u", "s", "n");
+
+        Map<String, Object> decoded = KeysetPaging.decode(KeysetPaging.encode("l,asc", keys), "l,asc", sort);
+
+        assertThat(decoded).containsExactlyEntriesOf(keys);
+    }
+
+    /**
+     Test trang tiếp theo dùng khoá của dòng cuối, id luôn được thêm vào để phá hoà
+     */
+    @Test
+    void testNextPageStartsAfterLastRow() {
+        KeysetPaging.Query first = KeysetPaging.of(request(null, 2, "createdAt,desc"), SORTABLE, "id");
+        assertThat(first.sort()).containsExactly(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+        assertThat(first.isDescending()).isTrue();
+        assertThat(first.key("id")).isNull();
+
+        Timestamp created = Timestamp.valueOf("2025-01-02 03:04:05");
+        List<Map<String, Object>> rows = List.of(row(3L, created), row(2L, created), row(1L, null));
+        CursorPage<Long> page = KeysetPaging.page(rows, first, row -> row,
+                content -> content.stream().map(row -> (Long) row.get("id")).toList());
+
+        assertThat(page.getItems()).containsExactly(3L, 2L);
+        assertThat(page.isHasMore()).isTrue();
+
+        KeysetPaging.Query next = KeysetPaging.of(request(page.getNextCursor(), 2, "createdAt,desc"), SORTABLE,
+                "id");
+        assertThat(next.key("id")).isEqualTo(2L);
+        assertThat(next.key("createdAt")).isEqualTo(created);
+    }
+
+    /**
+     Test trang cuối (không có dòng dư) không có nextCursor
+     */
+    @Test
+    void testLastPageHasNoCursor() {
+        KeysetPaging.Query query = KeysetPaging.of(request(null, 2, null), SORTABLE, "id");
+
+        CursorPage<Long> page = KeysetPaging.page(List.of(row(1L, null)), query, row -> Map.of("id", row.get("id")),
+                content -> content.stream().map(row -> (Long) row.get("id")).toList());
+
+        assertThat(page.getItems()).containsExactly(1L);
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    /**
+     Test chỉ cho sort theo các cột trong allow-list và kích thước trang trong giới hạn
+     */
+    @Test
+    void testRejectsUnknownSortAndBadSize() {
+        assertThatThrownBy(() -> KeysetPaging.of(request(null, null, "passwordHash"), SORTABLE, "id"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Cannot sort by 'passwordHash'");
+        assertThatThrownBy(() -> KeysetPaging.of(request(null, null, "title;drop table users"), SORTABLE, "id"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetPaging.of(request(null, null, "title,sideways"), SORTABLE, "id"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetPaging.of(request(null, 0, null), SORTABLE, "id"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetPaging.of(request(null, KeysetPaging.MAX_SIZE + 1, null), SORTABLE, "id"))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        KeysetPaging.Query query = KeysetPaging.of(null, SORTABLE, "title");
+        assertThat(query.size()).isEqualTo(KeysetPaging.DEFAULT_SIZE);
+        assertThat(query.sortSpec()).isEqualTo("title,asc");
+    }
+
+    /**
+     Test cursor của sort khác, cursor hỏng hoặc bị sửa khoá đều bị từ chối
+     */
+    @Test
+    void testRejectsForeignOrTamperedCursor() {
+        String byTitle = KeysetPaging.encode("title,asc", Map.of("title", "a", "id", 1L));
+
+        assertThatThrownBy(() -> KeysetPaging.of(request(byTitle, null, "id"), SORTABLE, "id"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("does not match sort");
+        assertThatThrownBy(() -> KeysetPaging.of(request("%%%", null, "title"), SORTABLE, "id"))
+                .hasMessage("Invalid cursor");
+
+        String missingId = KeysetPaging.encode("title,asc", Map.of("title", "a"));
+        assertThatThrownBy(() -> KeysetPaging.of(request(missingId, null, "title"), SORTABLE, "id"))
+                .hasMessage("Invalid cursor");
+
+        String unknownType = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                ("id,asc|id=" + Base64.getUrlEncoder().withoutPadding()
+                        .encodeToString("X:1".getBytes(StandardCharsets.UTF_8))).getBytes(StandardCharsets.UTF_8));
+        assertThatThrownBy(() -> KeysetPaging.of(request(unknownType, null, "id"), SORTABLE, "id"))
+                .hasMessage("Invalid cursor");
+    }
+
+    private static CursorRequest request(String cursor, Integer size, String sort) {
+        return CursorRequest.builder().cursor(cursor).size(size).sort(sort).build();
+    }
+
+    private static Map<String, Object> row(Long id, Timestamp createdAt) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("createdAt", createdAt);
+        row.put("id", id);
+        return row;
+    }
+}
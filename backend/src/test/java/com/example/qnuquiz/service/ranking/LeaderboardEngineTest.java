@@ -0,0 +1,202 @@
+package com.example.qnuquiz.service.ranking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.qnuquiz.repository.ExamAttemptRepository;
+import com.example.qnuquiz.service.cluster.ClusterBus;
+import com.example.qnuquiz.service.cluster.InProcessTransport;
+import com.example.qnuquiz.service.exam.ExamAttemptFinishedEvent;
+import com.example.qnuquiz.service.exam.ExamDeletedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Two leaderboard nodes on one database, connected by the in-process
+ * cluster bus.
+ *
+ * Exam 1: student 1 scored 30, student 2 scored 10. Runs without a test
+ * transaction because the bus only relays committed changes.
+ */
+@DataJpaTest(properties = { "spring.jpa.hibernate.ddl-auto=create-drop", "spring.sql.init.mode=never" })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LeaderboardEngineTest {
+
+    private static final UUID TEACHER = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID STUDENT_1 = UUID.fromString("00000000-0000-0000-0000-000000000002");
+    private static final UUID STUDENT_2 = UUID.fromString("00000000-0000-0000-0000-000000000003");
+
+    @Autowired
+    private ExamAttemptRepository examAttemptRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Timestamp now;
+    private ClusterBus busA;
+    private ClusterBus busB;
+    private LeaderboardEngine nodeA;
+    private LeaderboardEngine nodeB;
+
+    @BeforeEach
+    void seed() {
+        now = new Timestamp(System.currentTimeMillis());
+        user(TEACHER, "teacher", now);
+        user(STUDENT_1, "student1", now);
+        user(STUDENT_2, "student2", now);
+        jdbc.update("INSERT INTO students (id, user_id, student_code, created_at) VALUES (1, ?, 'SV1', ?), "
+                + "(2, ?, 'SV2', ?)", STUDENT_1, now, STUDENT_2, now);
+        jdbc.update("INSERT INTO exams (id, title, created_by, random, status, created_at, updated_at) "
+                + "VALUES (1, 'Exam', ?, FALSE, 'PUBLISHED', ?, ?)", TEACHER, now, now);
+        attempt(1, 1, 30);
+        attempt(2, 2, 10);
+
+        busA = new ClusterBus(new InProcessTransport(), new ObjectMapper());
+        busB = new ClusterBus(new InProcessTransport(), new ObjectMapper());
+        busA.start();
+        busB.start();
+        nodeA = new LeaderboardEngine(examAttemptRepository, jdbc, transactionTemplate, busA);
+        nodeB = new LeaderboardEngine(examAttemptRepository, jdbc, transactionTemplate, busB);
+        nodeA.init();
+        nodeB.init();
+    }
+
+    @AfterEach
+    void clear() {
+        busA.stop();
+        busB.stop();
+        for (String table : List.of("leaderboard", "exam_attempts", "exams", "students", "users")) {
+            jdbc.update("DELETE FROM " + table);
+        }
+    }
+
+    /**
+     Test attempt nộp trên node A làm đổi bảng tổng, bảng đề và bảng tuần của node B
+     */
+    @Test
+    void testFinishedAttemptReachesOtherNode() {
+        nodeA.onAttemptFinished(new ExamAttemptFinishedEvent(3, 1, 2, 40, now, 40, true));
+
+        for (LeaderboardEngine node : List.of(nodeA, nodeB)) {
+            assertThat(node.global().entryOf(2)).isEqualTo(new RankingBoard.Entry(2, 50, 1));
+            assertThat(node.exam(1).entryOf(2)).isEqualTo(new RankingBoard.Entry(2, 50, 1));
+            assertThat(node.weekly().entryOf(2)).isEqualTo(new RankingBoard.Entry(2, 50, 1));
+        }
+    }
+
+    /**
+     Test xoá đề trên node A trừ điểm của đề đó khỏi bảng tổng của node B
+     */
+    @Test
+    void testExamDeletionReachesOtherNode() {
+        nodeA.onExamDeleted(new ExamDeletedEvent(1));
+
+        assertThat(nodeB.exam(1).size()).isZero();
+        assertThat(nodeB.global().top(2)).extracting(RankingBoard.Entry::score).containsOnly(0L);
+    }
+
+    /**
+     Test snapshot chỉ sửa dòng đổi điểm/hạng, không xoá và chèn lại cả bảng, và bỏ dòng trùng cũ
+     */
+    @Test
+    void testSnapshotUpdatesChangedRowsOnly() {
+        nodeA.snapshot();
+        assertThat(leaderboard()).containsExactlyInAnyOrder(
+                tuple(null, 1L, 30, 1), tuple(null, 2L, 10, 2), tuple(1L, 1L, 30, 1), tuple(1L, 2L, 10, 2));
+        List<Long> ids = jdbc.queryForList("SELECT id FROM leaderboard ORDER BY id", Long.class);
+        // Dòng trùng do snapshot kiểu cũ để lại
+        jdbc.update("INSERT INTO leaderboard (exam_id, student_id, score, rank, generated_at) "
+                + "VALUES (NULL, 1, 30, 1, ?)", new Timestamp(System.currentTimeMillis()));
+
+        nodeA.onAttemptFinished(new ExamAttemptFinishedEvent(3, 1, 2, 40, now, 40, true));
+        nodeA.snapshot();
+        nodeB.snapshot();
+
+        assertThat(leaderboard()).containsExactlyInAnyOrder(
+                tuple(null, 1L, 30, 2), tuple(null, 2L, 50, 1), tuple(1L, 1L, 30, 2), tuple(1L, 2L, 50, 1));
+        assertThat(jdbc.queryForList("SELECT id FROM leaderboard ORDER BY id", Long.class))
+                .containsExactlyElementsOf(ids);
+    }
+
+    /**
+     Test sang tuần mới: bảng tuần dựng lại từ DB đã có attempt vừa nộp, delta của nó không cộng thêm lần nữa
+     */
+    @Test
+    void testWeekRolloverCountsTheAttemptOnce() {
+        ReflectionTestUtils.setField(nodeA, "weekStart",
+                Timestamp.valueOf(LocalDate.now().with(DayOfWeek.MONDAY).minusWeeks(1).atStartOfDay()));
+        attempt(3, 2, 40);
+
+        nodeA.onAttemptFinished(new ExamAttemptFinishedEvent(3, 1, 2, 40, now, 40, true));
+
+        assertThat(nodeA.weekly().entryOf(2)).isEqualTo(new RankingBoard.Entry(2, 50, 1));
+        assertThat(nodeA.global().entryOf(2)).isEqualTo(new RankingBoard.Entry(2, 50, 1));
+    }
+
+    /**
+     Test delta tới trước khi bảng được dựng lại (mất kết nối bus) nhưng phải chờ lock: không cộng hai lần
+     */
+    @Test
+    void testRebuildDoesNotApplyDeltaTwice() throws Exception {
+        attempt(3, 2, 40);
+        ReentrantLock boardLock = (ReentrantLock) ReflectionTestUtils.getField(nodeA, "boardLock");
+
+        boardLock.lock();
+        CompletableFuture<Void> delta;
+        try {
+            delta = CompletableFuture.runAsync(
+                    () -> nodeA.onAttemptFinished(new ExamAttemptFinishedEvent(3, 1, 2, 40, now, 40, true)));
+            while (!boardLock.hasQueuedThreads()) {
+                Thread.onSpinWait();
+            }
+            ReflectionTestUtils.invokeMethod(nodeA, "rebuild");
+        } finally {
+            boardLock.unlock();
+        }
+        delta.get();
+
+        assertThat(nodeA.global().entryOf(2)).isEqualTo(new RankingBoard.Entry(2, 50, 1));
+        assertThat(nodeA.exam(1).entryOf(2)).isEqualTo(new RankingBoard.Entry(2, 50, 1));
+        assertThat(nodeA.weekly().entryOf(2)).isEqualTo(new RankingBoard.Entry(2, 50, 1));
+        // Node B không dựng lại: nhận delta qua bus như bình thường
+        assertThat(nodeB.global().entryOf(2)).isEqualTo(new RankingBoard.Entry(2, 50, 1));
+    }
+
+    private void user(UUID id, String username, Timestamp now) {
+        jdbc.update("INSERT INTO users (id, username, password_hash, full_name, email, role, status, created_at, "
+                + "updated_at) VALUES (?, ?, 'x', ?, ?, 'STUDENT', 'ACTIVE', ?, ?)", id, username, username,
+                username + "@test.local", now, now);
+    }
+
+    private void attempt(long attemptId, long studentId, int score) {
+        jdbc.update("INSERT INTO exam_attempts (id, student_id, exam_id, start_time, end_time, score, submitted, "
+                + "created_at) VALUES (?, ?, 1, ?, ?, ?, TRUE, ?)", attemptId, studentId, now, now, score, now);
+    }
+
+    private List<Tuple> leaderboard() {
+        return jdbc.query("SELECT exam_id, student_id, score, rank FROM leaderboard", (rs, rowNum) -> tuple(
+                rs.getObject(1, Long.class), rs.getLong(2), rs.getInt(3), rs.getInt(4)));
+    }
+}
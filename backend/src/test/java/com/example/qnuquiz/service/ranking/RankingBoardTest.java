@@ -0,0 +1,120 @@
+package com.example.qnuquiz.service.ranking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The skip list of {@link RankingBoard}, checked against a plain sorted list.
+ */
+class RankingBoardTest {
+
+    /**
+     Test bằng điểm thì student id nhỏ hơn đứng trước, hạng không trùng
+     */
+    @Test
+    void testTiesRankByStudentId() {
+        RankingBoard board = new RankingBoard();
+        board.add(3, 50);
+        board.add(1, 50);
+        board.add(2, 70);
+        board.add(4, 50);
+
+        assertThat(board.top(10)).containsExactly(
+                new RankingBoard.Entry(2, 70, 1),
+                new RankingBoard.Entry(1, 50, 2),
+                new RankingBoard.Entry(3, 50, 3),
+                new RankingBoard.Entry(4, 50, 4));
+        assertThat(board.entryOf(3)).isEqualTo(new RankingBoard.Entry(3, 50, 3));
+    }
+
+    /**
+     Test điểm giảm (nộp lại điểm thấp hơn, xoá đề) đưa sinh viên xuống hạng, kể cả về 0 và âm
+     */
+    @Test
+    void testScoreDecreaseMovesStudentDown() {
+        RankingBoard board = new RankingBoard();
+        board.add(1, 90);
+        board.add(2, 60);
+        board.add(3, 30);
+
+        board.add(1, -70);
+        assertThat(board.entryOf(1)).isEqualTo(new RankingBoard.Entry(1, 20, 3));
+        assertThat(board.entryOf(3)).isEqualTo(new RankingBoard.Entry(3, 30, 2));
+
+        board.add(1, -20);
+        board.add(2, -70);
+        assertThat(board.top(3)).extracting(RankingBoard.Entry::studentId).containsExactly(3L, 1L, 2L);
+        assertThat(board.scoreOf(2)).isEqualTo(-10L);
+        assertThat(board.size()).isEqualTo(3);
+    }
+
+    /**
+     Test delta 0: sinh viên mới vẫn có mặt với 0 điểm, sinh viên cũ giữ nguyên hạng
+     */
+    @Test
+    void testZeroDelta() {
+        RankingBoard board = new RankingBoard();
+        board.add(1, 10);
+        board.add(2, 0);
+        board.add(1, 0);
+
+        assertThat(board.top(5)).containsExactly(new RankingBoard.Entry(1, 10, 1), new RankingBoard.Entry(2, 0, 2));
+        assertThat(board.entryOf(99)).isNull();
+        assertThat(board.scoreOf(99)).isNull();
+    }
+
+    /**
+     Test biên của top(n): 0, đúng bằng số sinh viên, lớn hơn số sinh viên, bảng rỗng
+     */
+    @Test
+    void testTopBoundaries() {
+        RankingBoard board = new RankingBoard();
+        assertThat(board.top(3)).isEmpty();
+
+        for (long id = 1; id <= 5; id++) {
+            board.add(id, id * 10);
+        }
+
+        assertThat(board.top(0)).isEmpty();
+        assertThat(board.top(1)).containsExactly(new RankingBoard.Entry(5, 50, 1));
+        assertThat(board.top(5)).hasSize(5).last().isEqualTo(new RankingBoard.Entry(1, 10, 5));
+        assertThat(board.top(Integer.MAX_VALUE)).hasSize(5);
+    }
+
+    /**
+     Test nhiều thao tác ngẫu nhiên: top và hạng của từng sinh viên khớp với danh sách sắp xếp thường
+     */
+    @Test
+    void testMatchesSortedReference() {
+        RankingBoard board = new RankingBoard();
+        Map<Long, Long> reference = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 5_000; i++) {
+            long studentId = random.nextInt(300);
+            long delta = random.nextInt(201) - 100;
+            board.add(studentId, delta);
+            reference.merge(studentId, delta, Long::sum);
+        }
+
+        List<Map.Entry<Long, Long>> sorted = new ArrayList<>(reference.entrySet());
+        sorted.sort(Comparator.comparing((Map.Entry<Long, Long> e) -> -e.getValue()).thenComparing(Map.Entry::getKey));
+        List<RankingBoard.Entry> expected = new ArrayList<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            expected.add(new RankingBoard.Entry(sorted.get(i).getKey(), sorted.get(i).getValue(), i + 1));
+        }
+
+        assertThat(board.size()).isEqualTo(reference.size());
+        assertThat(board.top(sorted.size())).isEqualTo(expected);
+        assertThat(board.top(10)).isEqualTo(expected.subList(0, 10));
+        expected.forEach(entry -> assertThat(board.entryOf(entry.studentId())).isEqualTo(entry));
+    }
+}
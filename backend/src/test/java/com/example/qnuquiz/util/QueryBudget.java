@@ -0,0 +1,52 @@
+package com.example.qnuquiz.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Query budgets for tests. Needs the counting DataSource, i.e.
+ * monitoring.query-count.enabled=true and QueryCountConfig in the context
+ * (@Import it in @DataJpaTest).
+ *
+ * <pre>
+ * List&lt;QuestionDTO&gt; questions = QueryBudget.atMost(3, () -&gt; service.getQuestions(examId));
+ * </pre>
+ */
+public final class QueryBudget {
+
+    private QueryBudget() {
+    }
+
+    public static QueryCounter.Stats measure(Runnable action) {
+        try (QueryCounter.Scope scope = QueryCounter.open()) {
+            action.run();
+            return scope.stats();
+        }
+    }
+
+    public static <T> T atMost(int statements, Supplier<T> action) {
+        try (QueryCounter.Scope scope = QueryCounter.open()) {
+            T result = action.get();
+            assertAtMost(statements, scope.stats());
+            return result;
+        }
+    }
+
+    public static void atMost(int statements, Runnable action) {
+        assertAtMost(statements, measure(action));
+    }
+
+    public static void assertAtMost(int statements, QueryCounter.Stats stats) {
+        assertThat(stats.statements())
+                .as(() -> "Expected at most " + statements + " statements, ran " + stats + ":\n" + describe(stats))
+                .isLessThanOrEqualTo(statements);
+    }
+
+    private static String describe(QueryCounter.Stats stats) {
+        return stats.executions().entrySet().stream()
+                .map(entry -> "  " + entry.getValue() + " x " + entry.getKey())
+                .collect(Collectors.joining("\n"));
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.qnuquiz.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+/**
+ * Writes small .xlsx files for the importer tests.
+ *
+ * One array per row: a String becomes a text cell, a Number a numeric cell,
+ * a String starting with "=" a formula and null no cell at all. A null row
+ * is left out of the sheet.
+ */
+public final class TestXlsx {
+
+    private TestXlsx() {
+    }
+
+    public static Path write(Path file, Object[]... rows) throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = workbook.createSheet();
+            for (int r = 0; r < rows.length; r++) {
+                if (rows[r] == null) {
+                    continue;
+                }
+                Row row = sheet.createRow(r);
+                for (int c = 0; c < rows[r].length; c++) {
+                    Object value = rows[r][c];
+                    if (value == null) {
+                        continue;
+                    }
+                    Cell cell = row.createCell(c);
+                    if (value instanceof Number number) {
+                        cell.setCellValue(number.doubleValue());
+                    } else if (value.toString().startsWith("=")) {
+                        cell.setCellFormula(value.toString().substring(1));
+                    } else {
+                        cell.setCellValue(value.toString());
+                    }
+                }
+            }
+            // Giá trị đã tính của công thức, như file Excel lưu lại
+            workbook.getCreationHelper().createFormulaEvaluator().evaluateAll();
+            workbook.write(out);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.qnuquiz.benchmark;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.example.qnuquiz.QnuQuizApplication;
+import com.example.qnuquiz.entity.Users;
+import com.example.qnuquiz.security.CustomUserDetails;
+import com.example.qnuquiz.service.AnalyticsService;
+import com.example.qnuquiz.service.ExamService;
+import com.example.qnuquiz.service.ranking.LeaderboardEngine;
+
+/**
+ * Application context shared by all benchmark threads of a trial.
+ *
+ * Boots the backend on an in-memory H2 database (profile "bench"), seeds it
+ * with a {@link SyntheticDataset} sized by the parameters below and rebuilds
+ * the in-memory leaderboards from the seeded attempts.
+ */
+@State(Scope.Benchmark)
+public class BenchContext {
+
+    @Param("2000")
+    public int students;
+
+    @Param("50")
+    public int exams;
+
+    @Param("40")
+    public int questionsPerExam;
+
+    @Param("10")
+    public int attemptsPerStudent;
+
+    private ConfigurableApplicationContext context;
+    private SyntheticDataset dataset;
+
+    public ExamService examService;
+    public AnalyticsService analyticsService;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(QnuQuizApplication.class)
+                .run("--spring.profiles.active=bench");
+
+        dataset = SyntheticDataset.seed(context.getBean(JdbcTemplate.class), students, exams, questionsPerExam,
+                attemptsPerStudent);
+        // Bảng xếp hạng được dựng lúc khởi động (khi DB còn trống), dựng lại sau khi seed
+        context.getBean(LeaderboardEngine.class).init();
+
+        examService = context.getBean(ExamService.class);
+        analyticsService = context.getBean(AnalyticsService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    public long randomExamId() {
+        List<Long> examIds = dataset.getExamIds();
+        return examIds.get(ThreadLocalRandom.current().nextInt(examIds.size()));
+    }
+
+    public Users randomStudent() {
+        List<Users> all = dataset.getStudents();
+        return all.get(ThreadLocalRandom.current().nextInt(all.size()));
+    }
+
+    /**
+     * Authenticates the calling thread as the given user, the same way
+     * JwtAuthFilter does for a request.
+     */
+    public static void login(Users user) {
+        CustomUserDetails principal = new CustomUserDetails(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
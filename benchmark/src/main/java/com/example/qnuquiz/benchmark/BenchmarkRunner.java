@@ -0,0 +1,190 @@
+package com.example.qnuquiz.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks and compares the results with the committed baseline.
+ *
+ * Every JMH command line option is passed through (-p students=500, -t 4,
+ * a benchmark regex, ...). Additional options:
+ * --update-baseline rewrite baseline.txt with the results of this run
+ * --threshold=N percentage change that is flagged as a regression (default 10)
+ *
+ * Outputs, relative to the benchmark directory:
+ * target/jmh-result.json raw JMH results
+ * target/benchmark-summary.txt throughput (ops/s) and p99 latency (ms) per benchmark
+ * baseline.txt same format as the summary, committed to diff across commits
+ */
+public final class BenchmarkRunner {
+
+    private static final Path RAW_RESULT = Path.of("target", "jmh-result.json");
+    private static final Path SUMMARY = Path.of("target", "benchmark-summary.txt");
+    private static final Path BASELINE = Path.of("baseline.txt");
+
+    private static final String HEADER = "# benchmark\tparams\tops/s\tp99 ms";
+
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Throughput and p99 latency of one benchmark with one set of parameters.
+     * NaN when the mode was not run.
+     */
+    record Row(String benchmark, String params, double opsPerSecond, double p99Millis) {
+
+        String key() {
+            return benchmark + "\t" + params;
+        }
+
+        String format() {
+            return String.format(Locale.ROOT, "%s\t%s\t%.3f\t%.3f", benchmark, params, opsPerSecond, p99Millis);
+        }
+
+        static Row parse(String line) {
+            String[] parts = line.split("\t");
+            return new Row(parts[0], parts[1], Double.parseDouble(parts[2]), Double.parseDouble(parts[3]));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        boolean updateBaseline = false;
+        double threshold = 10;
+        List<String> jmhArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.equals("--update-baseline")) {
+                updateBaseline = true;
+            } else if (arg.startsWith("--threshold=")) {
+                threshold = Double.parseDouble(arg.substring("--threshold=".length()));
+            } else {
+                jmhArgs.add(arg);
+            }
+        }
+
+        Files.createDirectories(RAW_RESULT.getParent());
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(jmhArgs.toArray(String[]::new)))
+                .resultFormat(ResultFormatType.JSON)
+                .result(RAW_RESULT.toString())
+                .build();
+
+        List<Row> rows = summarize(new Runner(options).run());
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        rows.forEach(row -> lines.add(row.format()));
+        Files.write(SUMMARY, lines);
+
+        printComparison(rows, readBaseline(), threshold);
+
+        if (updateBaseline) {
+            Files.write(BASELINE, lines);
+            System.out.println("Baseline updated: " + BASELINE.toAbsolutePath());
+        }
+    }
+
+    static List<Row> summarize(Collection<RunResult> results) {
+        // Throughput và SampleTime của cùng một benchmark được gộp vào một dòng
+        Map<String, double[]> byKey = new TreeMap<>();
+        for (RunResult result : results) {
+            BenchmarkParams params = result.getParams();
+            String key = shortName(params.getBenchmark()) + "\t" + formatParams(params);
+            double[] values = byKey.computeIfAbsent(key, k -> new double[] { Double.NaN, Double.NaN });
+
+            double unitNanos = params.getTimeUnit().toNanos(1);
+            if (params.getMode() == Mode.Throughput) {
+                values[0] = result.getPrimaryResult().getScore() * TimeUnit.SECONDS.toNanos(1) / unitNanos;
+            } else if (params.getMode() == Mode.SampleTime) {
+                values[1] = result.getPrimaryResult().getStatistics().getPercentile(99) * unitNanos
+                        / TimeUnit.MILLISECONDS.toNanos(1);
+            }
+        }
+
+        List<Row> rows = new ArrayList<>(byKey.size());
+        byKey.forEach((key, values) -> {
+            String[] parts = key.split("\t");
+            rows.add(new Row(parts[0], parts[1], values[0], values[1]));
+        });
+        return rows;
+    }
+
+    private static Map<String, Row> readBaseline() throws IOException {
+        if (!Files.exists(BASELINE)) {
+            return Map.of();
+        }
+        return Files.readAllLines(BASELINE).stream()
+                .filter(line -> !line.isBlank() && !line.startsWith("#"))
+                .map(Row::parse)
+                .collect(Collectors.toMap(Row::key, row -> row, (a, b) -> b));
+    }
+
+    private static void printComparison(List<Row> rows, Map<String, Row> baseline, double threshold) {
+        System.out.println();
+        System.out.printf(Locale.ROOT, "%-42s %12s %9s %10s %9s%n", "Benchmark", "ops/s", "change", "p99 ms",
+                "change");
+        int regressions = 0;
+        for (Row row : rows) {
+            Row base = baseline.get(row.key());
+            // Throughput giảm hoặc p99 tăng vượt ngưỡng thì đánh dấu
+            double opsChange = base == null ? Double.NaN : percentChange(base.opsPerSecond(), row.opsPerSecond());
+            double p99Change = base == null ? Double.NaN : percentChange(base.p99Millis(), row.p99Millis());
+            boolean regressed = opsChange < -threshold || p99Change > threshold;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf(Locale.ROOT, "%-42s %12.1f %9s %10.3f %9s%s%n", row.benchmark(), row.opsPerSecond(),
+                    formatChange(opsChange), row.p99Millis(), formatChange(p99Change), regressed ? "  <-- !" : "");
+        }
+        if (baseline.isEmpty()) {
+            System.out.println("No baseline found at " + BASELINE.toAbsolutePath());
+        } else {
+            System.out.printf(Locale.ROOT, "%d regression(s) above %.0f%% compared to %s%n", regressions, threshold,
+                    BASELINE);
+        }
+        System.out.println("Summary written to " + SUMMARY.toAbsolutePath());
+    }
+
+    private static double percentChange(double before, double after) {
+        if (Double.isNaN(before) || Double.isNaN(after) || before == 0) {
+            return Double.NaN;
+        }
+        return (after - before) * 100 / before;
+    }
+
+    private static String formatChange(double change) {
+        return Double.isNaN(change) ? "-" : String.format(Locale.ROOT, "%+.1f%%", change);
+    }
+
+    private static String shortName(String benchmark) {
+        // com.example.qnuquiz.benchmark.ExamFlowBenchmark.startExam -> ExamFlowBenchmark.startExam
+        int method = benchmark.lastIndexOf('.');
+        int clazz = benchmark.lastIndexOf('.', method - 1);
+        return benchmark.substring(clazz + 1);
+    }
+
+    private static String formatParams(BenchmarkParams params) {
+        List<String> parts = params.getParamsKeys().stream()
+                .sorted()
+                .map(key -> key + "=" + params.getParam(key))
+                .collect(Collectors.toCollection(ArrayList::new));
+        parts.add("threads=" + params.getThreads());
+        return String.join(",", parts);
+    }
+}
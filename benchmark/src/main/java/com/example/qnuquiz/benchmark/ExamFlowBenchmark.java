@@ -0,0 +1,144 @@
+package com.example.qnuquiz.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.qnuquiz.dto.exam.AnswerItemDto;
+import com.example.qnuquiz.dto.exam.ExamResultDto;
+import com.example.qnuquiz.dto.questions.QuestionDTO;
+
+/**
+ * Exam-taking hot path: load questions, start an attempt, answer, finish.
+ *
+ * startExam and finishExam need a fresh attempt for every call, which is
+ * prepared in Level.Invocation fixtures. That is only accurate because both
+ * calls take milliseconds (several DB round trips), far above the fixture
+ * overhead.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExamFlowBenchmark {
+
+    /**
+     * A student and an exam picked for the next startExam call. The attempt
+     * is finished afterwards so the next call creates a new one again.
+     */
+    @State(Scope.Thread)
+    public static class NewAttempt {
+        long examId;
+        Long attemptId;
+
+        @Setup(Level.Invocation)
+        public void pick(BenchContext ctx) {
+            BenchContext.login(ctx.randomStudent());
+            examId = ctx.randomExamId();
+        }
+
+        @TearDown(Level.Invocation)
+        public void finish(BenchContext ctx) {
+            if (attemptId != null) {
+                ctx.examService.finishExam(attemptId);
+                attemptId = null;
+            }
+        }
+    }
+
+    /**
+     * An open attempt of one student, kept for a whole iteration.
+     */
+    @State(Scope.Thread)
+    public static class OpenAttempt {
+        long attemptId;
+        long[] questionIds;
+        long[][] optionIds;
+
+        @Setup(Level.Iteration)
+        public void start(BenchContext ctx) {
+            BenchContext.login(ctx.randomStudent());
+            long examId = ctx.randomExamId();
+            attemptId = ctx.examService.startExam(examId).getId();
+
+            List<QuestionDTO> questions = ctx.examService.getQuestionsForExam(examId);
+            questionIds = new long[questions.size()];
+            optionIds = new long[questions.size()][];
+            for (int i = 0; i < questions.size(); i++) {
+                questionIds[i] = questions.get(i).getId();
+                optionIds[i] = questions.get(i).getOptions().stream().mapToLong(o -> o.getId()).toArray();
+            }
+        }
+
+        @TearDown(Level.Iteration)
+        public void finish(BenchContext ctx) {
+            ctx.examService.finishExam(attemptId);
+        }
+    }
+
+    /**
+     * An attempt with every question answered, ready to be finished.
+     */
+    @State(Scope.Thread)
+    public static class AnsweredAttempt {
+        long attemptId;
+
+        @Setup(Level.Invocation)
+        public void answerAll(BenchContext ctx) {
+            BenchContext.login(ctx.randomStudent());
+            long examId = ctx.randomExamId();
+            attemptId = ctx.examService.startExam(examId).getId();
+
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            List<AnswerItemDto> items = new ArrayList<>();
+            long seq = 1;
+            for (QuestionDTO question : ctx.examService.getQuestionsForExam(examId)) {
+                items.add(AnswerItemDto.builder()
+                        .seq(seq++)
+                        .questionId(question.getId())
+                        .optionId(question.getOptions().get(rnd.nextInt(question.getOptions().size())).getId())
+                        .build());
+            }
+            ctx.examService.submitAnswers(attemptId, items);
+        }
+    }
+
+    @Benchmark
+    public List<QuestionDTO> getQuestionsForExam(BenchContext ctx) {
+        return ctx.examService.getQuestionsForExam(ctx.randomExamId());
+    }
+
+    @Benchmark
+    public Long startExam(BenchContext ctx, NewAttempt next) {
+        next.attemptId = ctx.examService.startExam(next.examId).getId();
+        return next.attemptId;
+    }
+
+    @Benchmark
+    public void submitAnswer(BenchContext ctx, OpenAttempt attempt) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        int q = rnd.nextInt(attempt.questionIds.length);
+        long[] options = attempt.optionIds[q];
+        ctx.examService.submitAnswer(attempt.attemptId, attempt.questionIds[q], options[rnd.nextInt(options.length)]);
+    }
+
+    @Benchmark
+    public ExamResultDto finishExam(BenchContext ctx, AnsweredAttempt attempt) {
+        return ctx.examService.finishExam(attempt.attemptId);
+    }
+}
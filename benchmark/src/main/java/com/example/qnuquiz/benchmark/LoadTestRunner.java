@@ -0,0 +1,225 @@
+package com.example.qnuquiz.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.qnuquiz.QnuQuizApplication;
+import com.example.qnuquiz.security.JwtUtil;
+import com.example.qnuquiz.service.ranking.LeaderboardEngine;
+
+/**
+ * HTTP load test comparing platform and virtual request threads.
+ *
+ * For each mode the backend is booted with a real Tomcat on a random port
+ * (profile "bench", spring.threads.virtual.enabled=true|false) and seeded
+ * with a {@link SyntheticDataset}. Every client is a student with its own
+ * JWT that loops over GET /api/exams/{id}/questions (snapshot cache) and
+ * GET /api/exams/{id}/latest-attempt (one DB query) until the time is up.
+ *
+ * Options:
+ * --clients=N concurrent clients (default 500)
+ * --seconds=N measured duration per mode (default 20), after --warmup=N (default 5)
+ * --students=N seeded students (default 2000)
+ * --modes=platform,virtual modes to run, in order
+ *
+ * Output: target/loadtest-summary.txt, one line per mode with requests/s,
+ * p50/p99 latency (ms), errors and the peak number of platform threads.
+ */
+public final class LoadTestRunner {
+
+    private static final Path SUMMARY = Path.of("target", "loadtest-summary.txt");
+
+    private static final String HEADER = "# mode\tclients\treq/s\tp50 ms\tp99 ms\terrors\tpeak threads";
+
+    private LoadTestRunner() {
+    }
+
+    record Result(String mode, int clients, double requestsPerSecond, double p50Millis, double p99Millis,
+            long errors, int peakThreads) {
+
+        String format() {
+            return String.format(Locale.ROOT, "%s\t%d\t%.1f\t%.3f\t%.3f\t%d\t%d", mode, clients, requestsPerSecond,
+                    p50Millis, p99Millis, errors, peakThreads);
+        }
+    }
+
+    /**
+     * Latencies (ns) and error count of one client; merged after the run.
+     */
+    private static final class ClientStats {
+        long[] latencies = new long[1024];
+        int count;
+        long errors;
+
+        void record(long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = 500;
+        int seconds = 20;
+        int warmup = 5;
+        int students = 2000;
+        List<String> modes = List.of("platform", "virtual");
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--clients=")) {
+                clients = Integer.parseInt(value);
+            } else if (arg.startsWith("--seconds=")) {
+                seconds = Integer.parseInt(value);
+            } else if (arg.startsWith("--warmup=")) {
+                warmup = Integer.parseInt(value);
+            } else if (arg.startsWith("--students=")) {
+                students = Integer.parseInt(value);
+            } else if (arg.startsWith("--modes=")) {
+                modes = List.of(value.split(","));
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        for (String mode : modes) {
+            Result result = run(mode, clients, warmup, seconds, students);
+            lines.add(result.format());
+        }
+
+        Files.createDirectories(SUMMARY.getParent());
+        Files.write(SUMMARY, lines);
+        System.out.println();
+        lines.forEach(System.out::println);
+        System.out.println("Summary written to " + SUMMARY.toAbsolutePath());
+    }
+
+    private static Result run(String mode, int clients, int warmup, int seconds, int students) throws Exception {
+        boolean virtual = switch (mode) {
+            case "virtual" -> true;
+            case "platform" -> false;
+            default -> throw new IllegalArgumentException("Unknown mode: " + mode);
+        };
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(QnuQuizApplication.class)
+                .run("--spring.profiles.active=bench",
+                        "--spring.main.web-application-type=servlet",
+                        "--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtual,
+                        // Mỗi mode một DB riêng
+                        "--spring.datasource.url=jdbc:h2:mem:load-" + mode + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        try {
+            SyntheticDataset dataset = SyntheticDataset.seed(context.getBean(JdbcTemplate.class), students, 50, 40,
+                    10);
+            context.getBean(LeaderboardEngine.class).init();
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            JwtUtil jwtUtil = context.getBean(JwtUtil.class);
+            List<String> tokens = dataset.getStudents().stream().map(jwtUtil::generateToken).toList();
+            List<Long> examIds = dataset.getExamIds();
+
+            HttpClient http = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            String base = "http://localhost:" + port + "/api/exams/";
+
+            System.out.printf(Locale.ROOT, "%n[%s] warming up for %ds with %d clients%n", mode, warmup, clients);
+            drive(http, base, tokens, examIds, clients, warmup);
+
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            threads.resetPeakThreadCount();
+            System.out.printf(Locale.ROOT, "[%s] measuring for %ds%n", mode, seconds);
+            List<ClientStats> stats = drive(http, base, tokens, examIds, clients, seconds);
+            int peakThreads = threads.getPeakThreadCount();
+
+            long[] all = stats.stream().flatMapToLong(s -> Arrays.stream(s.latencies, 0, s.count)).sorted().toArray();
+            long errors = stats.stream().mapToLong(s -> s.errors).sum();
+            return new Result(mode, clients, all.length / (double) seconds, percentile(all, 50), percentile(all, 99),
+                    errors, peakThreads);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static List<ClientStats> drive(HttpClient http, String base, List<String> tokens, List<Long> examIds,
+            int clients, int seconds) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Future<ClientStats>> futures = new ArrayList<>(clients);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                String token = tokens.get(i % tokens.size());
+                futures.add(executor.submit(() -> client(http, base, token, examIds, deadline)));
+            }
+        }
+        List<ClientStats> stats = new ArrayList<>(clients);
+        for (Future<ClientStats> future : futures) {
+            stats.add(future.get());
+        }
+        return stats;
+    }
+
+    private static ClientStats client(HttpClient http, String base, String token, List<Long> examIds,
+            long deadline) {
+        ClientStats stats = new ClientStats();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        boolean questions = random.nextBoolean();
+        while (System.nanoTime() < deadline) {
+            long examId = examIds.get(random.nextInt(examIds.size()));
+            HttpRequest request = HttpRequest.newBuilder(
+                    URI.create(base + examId + (questions ? "/questions" : "/latest-attempt")))
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            questions = !questions;
+            long start = System.nanoTime();
+            try {
+                int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                // 404: sinh viên chưa làm đề này, vẫn là một phản hồi hợp lệ
+                if (status != 200 && status != 404) {
+                    stats.errors++;
+                }
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                stats.errors++;
+            }
+            stats.record(System.nanoTime() - start);
+        }
+        return stats;
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.qnuquiz.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.qnuquiz.dto.analytics.MyRankDto;
+import com.example.qnuquiz.dto.analytics.RankingDto;
+
+/**
+ * Ranking endpoints of AnalyticsService, read-only against the seeded
+ * attempts.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RankingBenchmark {
+
+    @Param("100")
+    public int limit;
+
+    /**
+     * Each thread asks for its own rank as one student.
+     */
+    @State(Scope.Thread)
+    public static class Student {
+
+        @Setup(Level.Trial)
+        public void login(BenchContext ctx) {
+            BenchContext.login(ctx.randomStudent());
+        }
+    }
+
+    @Benchmark
+    public List<RankingDto> rankingAll(BenchContext ctx) {
+        return ctx.analyticsService.rankingAll(limit);
+    }
+
+    @Benchmark
+    public List<RankingDto> rankingAllThisWeek(BenchContext ctx) {
+        return ctx.analyticsService.rankingAllThisWeek(limit);
+    }
+
+    @Benchmark
+    public List<RankingDto> rankingByExamId(BenchContext ctx) {
+        return ctx.analyticsService.rankingByExamId(ctx.randomExamId(), limit);
+    }
+
+    @Benchmark
+    public MyRankDto myRank(BenchContext ctx, Student student) {
+        return ctx.analyticsService.myRank();
+    }
+}
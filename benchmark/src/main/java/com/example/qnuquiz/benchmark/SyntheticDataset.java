@@ -0,0 +1,148 @@
+package com.example.qnuquiz.benchmark;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.qnuquiz.entity.Users;
+
+/**
+ * Seeds the benchmark database with generated students, exams, questions and
+ * finished attempts.
+ *
+ * Rows are written with plain JDBC batches and ids are read back afterwards, so
+ * the identity columns keep counting from where the seed stopped. The random
+ * seed is fixed: the same parameters always produce the same dataset.
+ */
+public final class SyntheticDataset {
+
+    public static final int OPTIONS_PER_QUESTION = 4;
+
+    private static final int BATCH_SIZE = 1000;
+    private static final long SEED = 42L;
+
+    private final List<Users> students = new ArrayList<>();
+    private final List<Long> studentIds = new ArrayList<>();
+    private final List<Long> examIds = new ArrayList<>();
+
+    private SyntheticDataset() {
+    }
+
+    public static SyntheticDataset seed(JdbcTemplate jdbc, int students, int exams, int questionsPerExam,
+            int attemptsPerStudent) {
+        SyntheticDataset dataset = new SyntheticDataset();
+        Random random = new Random(SEED);
+        Instant now = Instant.now();
+        Timestamp created = Timestamp.from(now.minus(Duration.ofDays(60)));
+
+        // 1. users + students
+        List<Object[]> userRows = new ArrayList<>(students);
+        for (int i = 0; i < students; i++) {
+            Users user = new Users();
+            user.setId(UUID.nameUUIDFromBytes(("bench-student-" + i).getBytes()));
+            user.setUsername("bench_student_" + i);
+            user.setPasswordHash("{noop}bench");
+            user.setFullName("Bench Student " + i);
+            user.setRole("STUDENT");
+            user.setStatus("ACTIVE");
+            dataset.students.add(user);
+            userRows.add(new Object[] { user.getId(), user.getUsername(), user.getPasswordHash(),
+                    user.getFullName(), user.getUsername() + "@bench.local", "STUDENT", "ACTIVE", created, created });
+        }
+        batch(jdbc, """
+                INSERT INTO users (id, username, password_hash, full_name, email, role, status, created_at, updated_at)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """, userRows);
+
+        List<Object[]> studentRows = new ArrayList<>(students);
+        for (int i = 0; i < students; i++) {
+            studentRows.add(new Object[] { dataset.students.get(i).getId(), String.format("BS%07d", i), created });
+        }
+        batch(jdbc, "INSERT INTO students (user_id, student_code, created_at) VALUES (?, ?, ?)", studentRows);
+        dataset.studentIds.addAll(jdbc.queryForList("SELECT id FROM students ORDER BY student_code", Long.class));
+
+        // 2. exams: published, open for the whole run
+        Timestamp opens = Timestamp.from(now.minus(Duration.ofDays(30)));
+        Timestamp closes = Timestamp.from(now.plus(Duration.ofDays(30)));
+        List<Object[]> examRows = new ArrayList<>(exams);
+        for (int e = 0; e < exams; e++) {
+            examRows.add(new Object[] { "Bench exam " + e, opens, closes, false, 60, "PUBLISHED", created, created });
+        }
+        batch(jdbc, """
+                INSERT INTO exams (title, start_time, end_time, random, duration_minutes, status, created_at,
+                    updated_at)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+                """, examRows);
+        dataset.examIds.addAll(jdbc.queryForList("SELECT id FROM exams ORDER BY id", Long.class));
+
+        // 3. questions, 4 options each with exactly one correct
+        List<Object[]> questionRows = new ArrayList<>(exams * questionsPerExam);
+        for (Long examId : dataset.examIds) {
+            for (int q = 0; q < questionsPerExam; q++) {
+                questionRows.add(new Object[] { examId, "Question " + q + " of exam " + examId, "MULTIPLE_CHOICE",
+                        q + 1, created, created });
+            }
+        }
+        batch(jdbc, """
+                INSERT INTO questions (exam_id, content, type, ordering, created_at, updated_at)
+                VALUES (?, ?, ?, ?, ?, ?)
+                """, questionRows);
+
+        List<Long> questionIds = jdbc.queryForList("SELECT id FROM questions ORDER BY id", Long.class);
+        List<Object[]> optionRows = new ArrayList<>(questionIds.size() * OPTIONS_PER_QUESTION);
+        for (Long questionId : questionIds) {
+            int correct = random.nextInt(OPTIONS_PER_QUESTION);
+            for (int o = 0; o < OPTIONS_PER_QUESTION; o++) {
+                optionRows.add(new Object[] { questionId, "Option " + (char) ('A' + o), o == correct, o + 1,
+                        created });
+            }
+        }
+        batch(jdbc, """
+                INSERT INTO question_options (question_id, content, is_correct, position, created_at)
+                VALUES (?, ?, ?, ?, ?)
+                """, optionRows);
+
+        // 4. finished attempts spread over the last four weeks (feeds the weekly ranking too)
+        List<Object[]> attemptRows = new ArrayList<>(students * attemptsPerStudent);
+        long window = Duration.ofDays(28).toMillis();
+        for (Long studentId : dataset.studentIds) {
+            for (int a = 0; a < attemptsPerStudent; a++) {
+                Long examId = dataset.examIds.get(random.nextInt(dataset.examIds.size()));
+                long startedAt = now.toEpochMilli() - (long) (random.nextDouble() * window);
+                attemptRows.add(new Object[] { studentId, examId, new Timestamp(startedAt),
+                        new Timestamp(startedAt + Duration.ofMinutes(20).toMillis()),
+                        random.nextInt(questionsPerExam + 1), true, new Timestamp(startedAt) });
+            }
+        }
+        batch(jdbc, """
+                INSERT INTO exam_attempts (student_id, exam_id, start_time, end_time, score, submitted, created_at)
+                VALUES (?, ?, ?, ?, ?, ?, ?)
+                """, attemptRows);
+
+        return dataset;
+    }
+
+    private static void batch(JdbcTemplate jdbc, String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbc.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+    }
+
+    public List<Users> getStudents() {
+        return students;
+    }
+
+    public List<Long> getStudentIds() {
+        return studentIds;
+    }
+
+    public List<Long> getExamIds() {
+        return examIds;
+    }
+}
@@ -112,13 +112,16 @@ class _UserManagementPageState extends ConsumerState<UserManagementPage> {
       final path = result.files.single.path!;
       final userService = ref.read(userServiceProvider);
 
-      await userService.importStudents(path);
+      final job = await userService.importStudents(path);
       if (!mounted) return;
 
       _fetchUsers();
       scaffoldMessenger.showSnackBar(
-        const SnackBar(
-          content: Text('Import danh sách sinh viên thành công'),
+        SnackBar(
+          content: Text(
+            'Đã import ${job['succeeded']} sinh viên, '
+            'bỏ qua ${job['rejected']} dòng',
+          ),
         ),
       );
     } catch (e) {
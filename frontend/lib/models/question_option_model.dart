@@ -15,7 +15,7 @@ class QuestionOptionModel {
     return QuestionOptionModel(
       id: json['id'] as int?,
       content: json['content'],
-      correct: json['correct'],
+      correct: json['correct'] ?? false,
       position: json['position'] as int?,
     );
   }
@@ -513,13 +513,18 @@ class _ExamDetailScreenState extends ConsumerState<ExamDetailScreen> {
       if (result == null || result.files.single.path == null) return;
 
       File file = File(result.files.single.path!);
-      await _questionService.importQuestions(file, widget.exam.id);
+      final job = await _questionService.importQuestions(file, widget.exam.id);
 
       if (!mounted) return;
+      final rejected = job['rejected'] ?? 0;
       ScaffoldMessenger.of(context).showSnackBar(
-        const SnackBar(
-          content: Text('Import thành công'),
-          backgroundColor: Colors.green,
+        SnackBar(
+          content: Text(
+            rejected == 0
+                ? 'Import thành công ${job['succeeded']} câu hỏi'
+                : 'Import ${job['succeeded']} câu hỏi, $rejected dòng bị bỏ qua',
+          ),
+          backgroundColor: rejected == 0 ? Colors.green : Colors.orange,
         ),
       );
       setState(() {
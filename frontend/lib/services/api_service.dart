@@ -34,4 +34,29 @@ class ApiService {
       ),
     );
   }
+
+  /// Lấy toàn bộ danh sách từ endpoint phân trang keyset (items + nextCursor)
+  /// bằng cách đi theo nextCursor cho tới trang cuối.
+  Future<List<dynamic>> getAllPages(
+    String path, {
+    Map<String, dynamic>? queryParameters,
+    int pageSize = 200,
+  }) async {
+    final items = <dynamic>[];
+    String? cursor;
+    do {
+      final response = await dio.get(
+        path,
+        queryParameters: {
+          ...?queryParameters,
+          'size': pageSize,
+          if (cursor != null) 'cursor': cursor,
+        },
+      );
+      final data = response.data as Map<String, dynamic>;
+      items.addAll(data['items'] as List<dynamic>);
+      cursor = data['nextCursor'] as String?;
+    } while (cursor != null);
+    return items;
+  }
 }
@@ -10,21 +10,14 @@ class ExamHistoryService {
 
   ExamHistoryService(this._apiService);
 
-  Dio get _dio => _apiService.dio;
-
   Future<List<ExamHistoryModel>> getExamHistory() async {
     try {
-      final response = await _dio.get(
+      // Danh sách thẻ hiển thị số câu trả lời nên tải kèm answers
+      final items = await _apiService.getAllPages(
         '${ApiConstants.students}/me/exam-history',
+        queryParameters: {'includeAnswers': true},
       );
-
-      final data = response.data;
-
-      if (data is List) {
-        return data.map((e) => ExamHistoryModel.fromJson(e)).toList();
-      } else {
-        throw Exception("Dữ liệu trả về không hợp lệ");
-      }
+      return items.map((e) => ExamHistoryModel.fromJson(e)).toList();
     } on DioException catch (e) {
       _log.e(e.response?.data ?? e.message);
       throw Exception(e.response?.data?['message'] ?? "Lỗi kết nối server");
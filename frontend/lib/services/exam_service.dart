@@ -82,16 +82,10 @@ class ExamService {
 
   Future<List<ExamModel>> getAllExams() async {
     try {
-      final response = await _dio.get('${ApiConstants.exams}/getAll');
-      final data = response.data;
-
-      if (data is List) {
-        return data
-            .map((e) => ExamModel.fromJson(e as Map<String, dynamic>))
-            .toList();
-      } else {
-        throw Exception('Unexpected data format');
-      }
+      final data = await _apiService.getAllPages('${ApiConstants.exams}/getAll');
+      return data
+          .map((e) => ExamModel.fromJson(e as Map<String, dynamic>))
+          .toList();
     } on DioException catch (e) {
       _log.e(e.response?.data ?? e.message);
       throw Exception(e.response?.data?['message'] ?? 'Lỗi kết nối');
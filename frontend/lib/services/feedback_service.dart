@@ -19,8 +19,7 @@ class FeedbackService {
   /// Lấy tất cả phản hồi (chỉ dùng cho admin)
   Future<List<FeedbackDto>> getAllFeedbacks() async {
     try {
-      final response = await _dio.get(ApiConstants.feedbacks);
-      final List<dynamic> data = response.data;
+      final data = await _apiService.getAllPages(ApiConstants.feedbacks);
       return data.map((json) => FeedbackDto.fromJson(json)).toList();
     } on DioException catch (e) {
       _log.e(e.response?.data ?? e.message);
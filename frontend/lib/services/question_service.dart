@@ -38,7 +38,9 @@ class QuestionService {
     }
   }
 
-  Future<void> importQuestions(File file, int examId) async {
+  /// Uploads the file and waits until the background import has finished.
+  /// Returns the job: succeeded, rejected and per-row errors.
+  Future<Map<String, dynamic>> importQuestions(File file, int examId) async {
     try {
       final formData = FormData.fromMap({
         'file': await MultipartFile.fromFile(
@@ -54,11 +56,23 @@ class QuestionService {
         options: Options(headers: {'Content-Type': 'multipart/form-data'}),
       );
 
-      if (response.statusCode == 200) {
-        _log.i('Import thành công: ${response.data}');
-      } else {
-        throw Exception('Import thất bại: ${response.statusMessage}');
+      var job = Map<String, dynamic>.from(response.data as Map);
+      while (job['status'] == 'QUEUED' || job['status'] == 'RUNNING') {
+        await Future.delayed(const Duration(seconds: 1));
+        final status = await _dio.get(
+          '${ApiConstants.questions}/import/${job['jobId']}',
+        );
+        job = Map<String, dynamic>.from(status.data as Map);
+      }
+
+      if (job['status'] == 'FAILED' || job['status'] == 'CANCELLED') {
+        throw Exception('Import thất bại: ${job['message']}');
       }
+      _log.i(
+        'Import xong: ${job['succeeded']} câu hỏi, '
+        '${job['rejected']} dòng lỗi',
+      );
+      return job;
     } on DioException catch (e) {
       _log.e(e.response?.data ?? e.message);
       throw Exception(e.response?.data?['message'] ?? 'Lỗi kết nối');
@@ -67,18 +81,10 @@ class QuestionService {
 
   Future<List<QuestionModel>> getAllQuestions() async {
     try {
-      final response = await _dio.get(ApiConstants.questions);
-      final data = response.data;
-
-      if (data is List) {
-        return data
-            .map((e) => QuestionModel.fromJson(e as Map<String, dynamic>))
-            .toList();
-      } else if (data is Map && data.containsKey('message')) {
-        throw Exception(data['message']);
-      } else {
-        throw Exception('Unexpected data format: $data');
-      }
+      final data = await _apiService.getAllPages(ApiConstants.questions);
+      return data
+          .map((e) => QuestionModel.fromJson(e as Map<String, dynamic>))
+          .toList();
     } on DioException catch (e) {
       _log.e(e.response?.data ?? e.message);
       throw Exception(
@@ -65,20 +65,13 @@ class StudentService {
 
   Future<List<ExamHistoryModel>> getExamHistory() async {
     try {
-      final response = await _dio.get(
+      final items = await _apiService.getAllPages(
         '${ApiConstants.students}/me/exam-history',
+        queryParameters: {'includeAnswers': true},
       );
-      final data = response.data;
-
-      if (data is List) {
-        return data
-            .map((e) => ExamHistoryModel.fromJson(e as Map<String, dynamic>))
-            .toList();
-      } else if (data is Map && data.containsKey('message')) {
-        throw Exception(data['message']);
-      } else {
-        throw Exception('Unexpected data format: $data');
-      }
+      return items
+          .map((e) => ExamHistoryModel.fromJson(e as Map<String, dynamic>))
+          .toList();
     } on DioException catch (e) {
       _log.e(e.response?.data ?? e.message);
       throw Exception(
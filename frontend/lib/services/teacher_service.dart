@@ -27,8 +27,7 @@ class TeacherService {
 
   Future<List<TeacherModel>> getAllTeachers() async {
     try {
-      final response = await _dio.get(ApiConstants.teachers);
-      final List<dynamic> data = response.data;
+      final data = await _apiService.getAllPages(ApiConstants.teachers);
       return data.map((teacher) => TeacherModel.fromJson(teacher)).toList();
     } on DioException catch (e) {
       _log.e(e.response?.data ?? e.message);
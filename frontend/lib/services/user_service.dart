@@ -44,8 +44,7 @@ class UserService {
 
   Future<List<UserModel>> getAllUsers() async {
     try {
-      final response = await _dio.get(ApiConstants.users);
-      final List<dynamic> data = response.data;
+      final data = await _apiService.getAllPages(ApiConstants.users);
       return data.map((user) => UserModel.fromJson(user)).toList();
     } on DioException catch (e) {
       _log.e(e.response?.data ?? e.message);
@@ -155,14 +154,30 @@ class UserService {
   }
 
   /// Import students from an Excel file (.xlsx).
-  /// This calls the backend /api/students/import endpoint.
-  Future<void> importStudents(String filePath) async {
+  /// The backend imports in the background; this polls
+  /// /api/students/import/{jobId} until the job is done and returns it.
+  Future<Map<String, dynamic>> importStudents(String filePath) async {
     try {
       final fileName = filePath.split('/').last.split('\\').last;
       final formData = FormData.fromMap({
         'file': await MultipartFile.fromFile(filePath, filename: fileName),
       });
-      await _dio.post('${ApiConstants.students}/import', data: formData);
+      final response =
+          await _dio.post('${ApiConstants.students}/import', data: formData);
+
+      var job = Map<String, dynamic>.from(response.data as Map);
+      while (job['status'] == 'QUEUED' || job['status'] == 'RUNNING') {
+        await Future.delayed(const Duration(seconds: 1));
+        final status = await _dio.get(
+          '${ApiConstants.students}/import/${job['jobId']}',
+        );
+        job = Map<String, dynamic>.from(status.data as Map);
+      }
+
+      if (job['status'] == 'FAILED' || job['status'] == 'CANCELLED') {
+        throw Exception('Import thất bại: ${job['message']}');
+      }
+      return job;
     } on DioException catch (e) {
       _log.e(e.response?.data ?? e.message);
       throw Exception(